@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.access;
+
+import gov.nasa.arc.mct.api.feed.DataProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The <code>DataProviderAccess</code> class is used to inject the 
+ * available <code>DataProvider</code> services using declarative 
+ * services, so that telemetry can be read for export.
+ * 
+ */
+public class DataProviderAccess {
+	
+	private static final List<DataProvider> dataProviders = 
+			new CopyOnWriteArrayList<DataProvider>();
+	
+	/**
+	 * @return a snapshot of the currently available data providers
+	 */
+	public static List<DataProvider> getDataProviders() {
+		return new ArrayList<DataProvider>(dataProviders);
+	}
+	
+	public void addDataProvider(DataProvider provider) {
+		dataProviders.add(provider);
+	}
+
+	public void removeDataProvider(DataProvider provider) {
+		dataProviders.remove(provider);
+	}
+}
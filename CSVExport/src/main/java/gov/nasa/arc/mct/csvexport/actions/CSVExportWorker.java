@@ -22,34 +22,73 @@
 package gov.nasa.arc.mct.csvexport.actions;
 
 import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Writer;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.SwingWorker;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * A SwingWorker responsible for managing the background 
  * activities of CSV export. These include "rendering" the CSV 
- * and writing it to disk. 
+ * and writing it to disk. Rows are written as they become 
+ * available, so memory use does not grow with the export. 
  * 
  * @author vwoeltje
  *
  */
 public class CSVExportWorker extends SwingWorker<Boolean, Void> {
+	private static final Logger logger = LoggerFactory.getLogger(CSVExportWorker.class);
+	
 	private Collection<AbstractComponent> components;
+	private CSVExportCapability capability;
 	private File file;
+	private CSVOutputOptions options;
 	private IOException ioe;
 	
 	public CSVExportWorker(Collection<AbstractComponent> components, File file) {
+		this(components, file, CSVOutputOptions.DEFAULT);
+	}
+	
+	/**
+	 * Create a worker which writes its output as described.
+	 * @param components the components to export
+	 * @param file the first (or only) file to write
+	 * @param options the compression and split options
+	 */
+	public CSVExportWorker(Collection<AbstractComponent> components, File file, 
+			CSVOutputOptions options) {
 		super();
 		this.components = components;
 		this.file = file;
+		this.options = options;
 		
-		if (components == null || file == null || components.isEmpty()) {
+		if (components == null || file == null || options == null || components.isEmpty()) {
+			throw new IllegalArgumentException();
+		}
+	}
+	
+	/**
+	 * Create a worker which writes the rows of a specific 
+	 * CSV export capability, rather than those of components.
+	 * @param capability the source of CSV headers and values
+	 * @param file the first (or only) file to write
+	 * @param options the compression and split options
+	 */
+	public CSVExportWorker(CSVExportCapability capability, File file, 
+			CSVOutputOptions options) {
+		super();
+		this.capability = capability;
+		this.file = file;
+		this.options = options;
+		
+		if (capability == null || file == null || options == null) {
 			throw new IllegalArgumentException();
 		}
 	}
@@ -58,22 +97,18 @@ public class CSVExportWorker extends SwingWorker<Boolean, Void> {
 	protected Boolean doInBackground() throws Exception {
 		setProgress(0);
 		
-		CSVRenderer r = new CSVRenderer(components);
-		
-		int rowCount = r.getRowCount();
-		
-		Writer w = null;
+		long startTime = System.nanoTime();
+		CSVPartWriter w = null;
 		boolean success = true;
 		try {
-			w = new FileWriter(file);
-			w.write(r.renderHeaders());
-			for (int i = 0; i < rowCount && !isCancelled(); i++) {
-				setProgress((i * 100) / rowCount);
-				w.write(r.renderRow(i));
-			}
+			w = new CSVPartWriter(file, options);
+			write(w);
 		} catch (IOException ioe) {
 			success = false;
 			this.ioe = ioe;		
+		} catch (InterruptedException ie) {
+			// Cancelled
+			success = false;
 		} finally {
 			if (w != null) {
 				try {
@@ -87,9 +122,47 @@ public class CSVExportWorker extends SwingWorker<Boolean, Void> {
 		
 		setProgress(100);
 		
+		if (success && w != null) {
+			logger.info("Exported {} rows to {} file(s) in {} ms: {} bytes of CSV, {} bytes written (compression ratio {})", 
+					new Object[] { w.getRowCount(), w.getFiles().size(), 
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+					w.getUncompressedBytes(), w.getBytesWritten(), 
+					String.format("%.2f", w.getCompressionRatio()) });
+		}
+		
 		return success & !isCancelled();
 	}
 
+	/**
+	 * Write the CSV for the components being exported. Subclasses 
+	 * may override this to export something other than the 
+	 * rendered values of components.
+	 * @param w the destination for rows
+	 * @throws IOException if the rows cannot be written
+	 * @throws InterruptedException if the export is cancelled
+	 */
+	protected void write(CSVRowWriter w) throws IOException, InterruptedException {
+		CSVRenderer r = capability != null ? 
+				new CSVRenderer(capability) : new CSVRenderer(components);
+		
+		int rowCount = r.getRowCount();
+		
+		CSVRowCursor rows = r.openRows();
+		r.renderHeaders(w);
+		while (rows.hasNext() && !isCancelled()) {
+			setProgress((int) (((long) rows.getRowIndex() * 100) / rowCount));
+			w.writeRow(rows.next());
+		}
+	}
+	
+	/**
+	 * @return the components being exported, or null if 
+	 *         exporting a specific CSV export capability
+	 */
+	protected Collection<AbstractComponent> getComponents() {
+		return components;
+	}
+
 	public IOException getException() {
 		return ioe;
 	}
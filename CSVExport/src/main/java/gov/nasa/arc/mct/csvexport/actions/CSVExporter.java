@@ -46,6 +46,8 @@ public class CSVExporter {
 	private Component component;
 	private Collection<AbstractComponent> components;
 	private File file;
+	private CSVOutputOptions options = CSVOutputOptions.DEFAULT;
+	private CSVExportWorker worker;
 	
 	/**
 	 * Create a new CSV exporter.
@@ -61,6 +63,31 @@ public class CSVExporter {
 		this.file = file;
 	}
 	
+	/**
+	 * Create a new CSV exporter, with compression or splitting.
+	 * @param component an AWT component (for progress monitor)
+	 * @param components MCT components to export
+	 * @param file the first (or only) file to which components should be written
+	 * @param options the compression and split options
+	 */
+	public CSVExporter(Component component,
+			Collection<AbstractComponent> components, File file, CSVOutputOptions options) {
+		this(component, components, file);
+		this.options = options;
+	}
+	
+	/**
+	 * Create a new CSV exporter for a worker which has 
+	 * already been configured.
+	 * @param component an AWT component (for progress monitor)
+	 * @param worker the worker which will perform the export
+	 */
+	public CSVExporter(Component component, CSVExportWorker worker) {
+		super();
+		this.component = component;
+		this.worker = worker;
+	}
+	
 	/**
 	 * Perform the export of items defined in the constructor. 
 	 * The preparation of the CSV data and writing to disk 
@@ -68,7 +95,8 @@ public class CSVExporter {
 	 * is provided if necessary.
 	 */
 	public void export() {
-		final CSVExportWorker worker = new CSVExportWorker(components, file);
+		final CSVExportWorker worker = this.worker != null ? 
+				this.worker : new CSVExportWorker(components, file, options);
 		final ProgressMonitor monitor = new ProgressMonitor(component,
 				BundleAccess.BUNDLE.getString("csv_progress_message"), 
 				"", 0, 100);
@@ -23,10 +23,17 @@ package gov.nasa.arc.mct.csvexport.actions;
 
 import gov.nasa.arc.mct.gui.FileChooser;
 
+import java.awt.BorderLayout;
+import java.awt.GridLayout;
 import java.io.File;
 
+import javax.swing.BorderFactory;
+import javax.swing.JCheckBox;
 import javax.swing.JFileChooser;
+import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
 
 /**
  * A file chooser for CSV files, to support 
@@ -39,6 +46,14 @@ public class CSVFileChooser extends JFileChooser {
 	private static final long serialVersionUID = 3795457853362472291L;
 	private static final String EXTENSION =
 			BundleAccess.BUNDLE.getString("csv_extension");
+	private static final String COMPRESSED_EXTENSION =
+			BundleAccess.BUNDLE.getString("csv_compressed_extension");
+	private static final long CHARS_PER_MEGABYTE = 1024 * 1024;
+	
+	private JCheckBox compressCheckBox = 
+			new JCheckBox(BundleAccess.BUNDLE.getString("csv_compress"));
+	private JTextField maxRowsField = new JTextField(8);
+	private JTextField maxSizeField = new JTextField(8);
 	
 	public CSVFileChooser() {
 		setDialogTitle(BundleAccess.BUNDLE.getString("csv_chooser_title"));
@@ -46,6 +61,17 @@ public class CSVFileChooser extends JFileChooser {
 		setFileSelectionMode(FileChooser.FILES_ONLY);
 		setMultiSelectionEnabled(false);
 		setFileFilter(new CSVFileFilter());
+		
+		JPanel fields = new JPanel(new GridLayout(4, 1));
+		fields.add(new JLabel(BundleAccess.BUNDLE.getString("csv_split_rows")));
+		fields.add(maxRowsField);
+		fields.add(new JLabel(BundleAccess.BUNDLE.getString("csv_split_size")));
+		fields.add(maxSizeField);
+		JPanel accessory = new JPanel(new BorderLayout());
+		accessory.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 0));
+		accessory.add(compressCheckBox, BorderLayout.NORTH);
+		accessory.add(fields, BorderLayout.SOUTH);
+		setAccessory(accessory);
 	}
 	
 	@Override
@@ -53,15 +79,42 @@ public class CSVFileChooser extends JFileChooser {
 		File file = super.getSelectedFile();
 		
 		if (file != null) {
-			// Ensure file ends with CSV extension
+			// Ensure file ends with CSV (or compressed CSV) extension
 			String path = file.getAbsolutePath();
-			if (!path.endsWith(EXTENSION)) {
+			if (compressCheckBox.isSelected()) {
+				if (path.endsWith(EXTENSION)) {
+					file = new File(path.substring(0, path.length() - EXTENSION.length()) + 
+							COMPRESSED_EXTENSION);
+				} else if (!path.endsWith(COMPRESSED_EXTENSION)) {
+					file = new File(path + COMPRESSED_EXTENSION);
+				}
+			} else if (!path.endsWith(EXTENSION)) {
 				file = new File(path + EXTENSION);
 			}
 		}
 		
 		return file;
 	}
+	
+	/**
+	 * Get the compression and split options chosen by the user. 
+	 * Limits which are left empty (or are not positive numbers) 
+	 * are treated as no limit.
+	 * @return the output options chosen
+	 */
+	public CSVOutputOptions getOutputOptions() {
+		return new CSVOutputOptions(compressCheckBox.isSelected(), 
+				parseLimit(maxRowsField.getText()), 
+				parseLimit(maxSizeField.getText()) * CHARS_PER_MEGABYTE);
+	}
+	
+	private long parseLimit(String text) {
+		try {
+			return Math.max(0, Long.parseLong(text.trim()));
+		} catch (NumberFormatException nfe) {
+			return 0;
+		}
+	}
 
 	// Overridden to allow pop up if file exists
 	// Recommended in http://stackoverflow.com/questions/3651494
@@ -69,16 +122,20 @@ public class CSVFileChooser extends JFileChooser {
 	public void approveSelection() {
 		File file = getSelectedFile();
 
+		// A split export may also write numbered files after the first 
+		boolean partsExist = file != null && getOutputOptions().isSplit() && 
+				!CSVPartWriter.getExistingParts(file).isEmpty();
+		
 		// Allow if we're not saving, or 
 		// if there is no selection, or
-		// if the file doesn't exist, or
+		// if none of the files to be written exist, or
 		// if the user confirms the overwrite.
 		if (getDialogType() != JFileChooser.SAVE_DIALOG ||
 			file == null || 			
-			!file.exists() ||
+			(!file.exists() && !partsExist) ||
 		    JOptionPane.showConfirmDialog(
 				this, 
-				BundleAccess.BUNDLE.getString("csv_exists_warning"), 
+				BundleAccess.BUNDLE.getString(partsExist ? "csv_parts_exist_warning" : "csv_exists_warning"), 
 				BundleAccess.BUNDLE.getString("csv_exists_title"), 
 				JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
 			super.approveSelection();
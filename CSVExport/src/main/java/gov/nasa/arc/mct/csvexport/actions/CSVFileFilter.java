@@ -26,24 +26,26 @@ import java.io.File;
 import javax.swing.filechooser.FileFilter;
 
 /**
- * A FileFilter that allows only files with the .csv extension.
+ * A FileFilter that allows only files with the .csv or .csv.gz extension.
  * 
  * Adapted from similar class in ImportExportProvider
  */
 public class CSVFileFilter extends FileFilter {
 	/**
-	 * Tests if file ends with .csv, indicating it is a csv file.
+	 * Tests if file ends with .csv or .csv.gz, indicating it is a 
+	 * (possibly compressed) csv file.
 	 * 
 	 * @param f
 	 *            file to be tested
-	 * @return boolean if file ends with ".csv"
+	 * @return boolean if file ends with ".csv" or ".csv.gz"
 	 */
 	@Override
 	public boolean accept(File f) {
 		assert f != null;
+		String name = f.getName().toLowerCase();
 		return f.isDirectory() || 
-				f.getName().toLowerCase().endsWith(
-						BundleAccess.BUNDLE.getString("csv_extension"));
+				name.endsWith(BundleAccess.BUNDLE.getString("csv_extension")) ||
+				name.endsWith(BundleAccess.BUNDLE.getString("csv_compressed_extension"));
 	}
 
 	@Override
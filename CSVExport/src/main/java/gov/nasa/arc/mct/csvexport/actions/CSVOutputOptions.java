@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+/**
+ * Describes how an exported CSV is written to disk: whether it is 
+ * gzip-compressed, and when (if ever) it is split into several files.
+ */
+public class CSVOutputOptions {
+	/** a single, uncompressed file */
+	public static final CSVOutputOptions DEFAULT = new CSVOutputOptions(false, 0, 0);
+	
+	private final boolean compressed;
+	private final long maxRows;
+	private final long maxChars;
+	
+	/**
+	 * Create new output options.
+	 * @param compressed true if files should be gzip-compressed
+	 * @param maxRows the maximum number of rows in each file, 
+	 *        excluding its header; zero for no limit
+	 * @param maxChars the maximum number of characters of (uncompressed) 
+	 *        CSV text in each file; zero for no limit. Files are split 
+	 *        between rows, so a file may exceed this by up to one row.
+	 */
+	public CSVOutputOptions(boolean compressed, long maxRows, long maxChars) {
+		if (maxRows < 0 || maxChars < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.compressed = compressed;
+		this.maxRows = maxRows;
+		this.maxChars = maxChars;
+	}
+
+	/**
+	 * @return true if files should be gzip-compressed
+	 */
+	public boolean isCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * @return the maximum number of rows in each file, or zero for no limit
+	 */
+	public long getMaxRows() {
+		return maxRows;
+	}
+
+	/**
+	 * @return the maximum number of characters in each file, or zero for no limit
+	 */
+	public long getMaxChars() {
+		return maxChars;
+	}
+	
+	/**
+	 * @return true if output may be split into several files
+	 */
+	public boolean isSplit() {
+		return maxRows > 0 || maxChars > 0;
+	}
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows of CSV text to one or more files, as described by 
+ * {@link CSVOutputOptions}. 
+ * 
+ * The first row written is taken to be the header; when a file 
+ * reaches its row or size limit, a new file is started and the 
+ * header is repeated. The first file has the name requested; 
+ * subsequent files are numbered, so "data.csv.gz" is followed 
+ * by "data-2.csv.gz", "data-3.csv.gz", and so on.
+ * 
+ * Encoding and compression happen on a background thread, so 
+ * that they overlap the generation of rows.
+ */
+public class CSVPartWriter extends CSVRowWriter {
+	private static final int BLOCK_SIZE = 64 * 1024;
+	private static final int BLOCK_COUNT = 8;
+	private static final String GZIP_EXTENSION = ".gz";
+	private static final String EXTENSION = 
+			BundleAccess.BUNDLE.getString("csv_extension");
+	
+	private final File file;
+	private final CSVOutputOptions options;
+	private final List<Part> parts = new ArrayList<Part>();
+	
+	private String[] header = null;
+	private long rowCount = 0;
+	private long partRows = 0;
+	private long partStart = 0;
+	
+	/**
+	 * Create a writer, and open the first file.
+	 * @param file the first (or only) file to write
+	 * @param options the compression and split options
+	 * @throws IOException if the file cannot be opened
+	 */
+	public CSVPartWriter(File file, CSVOutputOptions options) throws IOException {
+		super(DEFAULT_BUFFER_SIZE);
+		if (file == null || options == null) {
+			throw new IllegalArgumentException();
+		}
+		this.file = file;
+		this.options = options;
+		openPart();
+	}
+	
+	@Override
+	public void writeRow(String[] row) throws IOException {
+		if (header == null) {
+			header = row.clone();
+		} else {
+			if (isFull()) {
+				openPart();
+				super.writeRow(header);
+				partRows = 0;
+			}
+			partRows++;
+			rowCount++;
+		}
+		super.writeRow(row);
+	}
+	
+	private boolean isFull() {
+		return (options.getMaxRows() > 0 && partRows >= options.getMaxRows()) ||
+			   (options.getMaxChars() > 0 && getCharsWritten() - partStart >= options.getMaxChars());
+	}
+	
+	private void openPart() throws IOException {
+		Part part = new Part(getPartFile(file, parts.size() + 1), options.isCompressed());
+		partStart = getCharsWritten();
+		setWriter(new OutputStreamWriter(part.uncompressed));
+		parts.add(part);
+	}
+	
+	/**
+	 * Get the name of a numbered file in a split export.
+	 * @param file the first file of the export
+	 * @param index the number of the file, starting at 1
+	 * @return the file with the given number
+	 */
+	static File getPartFile(File file, int index) {
+		if (index == 1) {
+			return file;
+		}
+		String name = file.getName();
+		int split = getNumberPosition(name);
+		return new File(file.getParentFile(), 
+				name.substring(0, split) + "-" + index + name.substring(split));
+	}
+	
+	/**
+	 * Find existing files which the numbered files of a split export 
+	 * would overwrite. The first file of the export is not included.
+	 * @param file the first file of the export
+	 * @return existing files with the names of later files of the export
+	 */
+	static List<File> getExistingParts(File file) {
+		String name = file.getName();
+		int split = getNumberPosition(name);
+		String prefix = name.substring(0, split) + "-";
+		String suffix = name.substring(split);
+		
+		List<File> existing = new ArrayList<File>();
+		File[] siblings = file.getAbsoluteFile().getParentFile().listFiles();
+		if (siblings != null) {
+			for (File sibling : siblings) {
+				String n = sibling.getName();
+				if (n.startsWith(prefix) && n.endsWith(suffix) && 
+					isNumber(n.substring(prefix.length(), Math.max(prefix.length(), n.length() - suffix.length())))) {
+					existing.add(sibling);
+				}
+			}
+		}
+		return existing;
+	}
+	
+	/**
+	 * Get the position in a file name at which numbers are inserted: 
+	 * before its CSV and gzip extensions.
+	 */
+	private static int getNumberPosition(String name) {
+		int split = name.length();
+		if (name.endsWith(GZIP_EXTENSION)) {
+			split -= GZIP_EXTENSION.length();
+		}
+		if (name.substring(0, split).endsWith(EXTENSION)) {
+			split -= EXTENSION.length();
+		}
+		return split;
+	}
+	
+	private static boolean isNumber(String text) {
+		if (text.length() == 0) {
+			return false;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			if (!Character.isDigit(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the files written so far
+	 */
+	public List<File> getFiles() {
+		List<File> files = new ArrayList<File>(parts.size());
+		for (Part part : parts) {
+			files.add(part.file);
+		}
+		return Collections.unmodifiableList(files);
+	}
+	
+	/**
+	 * @return the number of rows written, excluding headers
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Get the number of bytes of CSV text, before compression. 
+	 * Only accurate once the writer has been closed.
+	 * @return the number of bytes of CSV text
+	 */
+	public long getUncompressedBytes() {
+		long count = 0;
+		for (Part part : parts) {
+			count += part.uncompressed.getCount();
+		}
+		return count;
+	}
+	
+	/**
+	 * Get the number of bytes written to disk, after compression. 
+	 * Only accurate once the writer has been closed.
+	 * @return the number of bytes written to disk
+	 */
+	public long getBytesWritten() {
+		long count = 0;
+		for (Part part : parts) {
+			count += part.written.getCount();
+		}
+		return count;
+	}
+	
+	/**
+	 * @return the ratio of uncompressed to written bytes; 1 when not compressed
+	 */
+	public double getCompressionRatio() {
+		long written = getBytesWritten();
+		return written > 0 ? (double) getUncompressedBytes() / written : 1.0;
+	}
+	
+	/**
+	 * One file of the export. Text is counted as it is encoded, 
+	 * then compressed and written on a write-behind thread, where 
+	 * it is counted again as it reaches the disk.
+	 */
+	private static class Part {
+		private final File file;
+		private final CountingOutputStream written;
+		private final CountingOutputStream uncompressed;
+		
+		public Part(File file, boolean compressed) throws IOException {
+			this.file = file;
+			this.written = new CountingOutputStream(
+					new BufferedOutputStream(new FileOutputStream(file), BLOCK_SIZE));
+			OutputStream out = written;
+			try {
+				if (compressed) {
+					out = new GZIPOutputStream(out, BLOCK_SIZE) {
+						{
+							// Favor speed: compression is the bottleneck of 
+							// an export, and the size gain of higher levels is small
+							def.setLevel(Deflater.BEST_SPEED);
+						}
+					};
+				}
+			} catch (IOException e) {
+				out.close();
+				throw e;
+			}
+			this.uncompressed = new CountingOutputStream(
+					new WriteBehindOutputStream(out, BLOCK_SIZE, BLOCK_COUNT));
+		}
+	}
+}
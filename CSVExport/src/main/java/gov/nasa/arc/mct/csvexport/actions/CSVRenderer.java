@@ -24,6 +24,7 @@ package gov.nasa.arc.mct.csvexport.actions;
 import gov.nasa.arc.mct.components.AbstractComponent;
 import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 
@@ -80,6 +81,16 @@ public class CSVRenderer {
 		this(Collections.singleton(ac));
 	}
 	
+	/**
+	 * Create a renderer for the rows and columns of 
+	 * a specific CSV export capability.
+	 * 
+	 * @param capability the source of CSV headers and values
+	 */
+	CSVRenderer(CSVExportCapability capability) {
+		this.capability = capability;
+	}
+	
 	/**
 	 * Return a full CSV representation of all 
 	 * components specified in the constructor. 
@@ -147,6 +158,43 @@ public class CSVRenderer {
 		return b.toString();
 	}
 	
+	/**
+	 * Write the line of column headers to a row writer.
+	 * 
+	 * @param writer the writer to which headers are written
+	 * @throws IOException if the writer fails
+	 */
+	public void renderHeaders(CSVRowWriter writer) throws IOException {
+		writer.writeRow(capability.getHeaders());
+	}
+	
+	/**
+	 * Write a specific row (corresponding to one MCT object) to 
+	 * a row writer. This avoids creating a String for the row, 
+	 * and is preferable to {@link #renderRow(int)} when writing 
+	 * to a stream.
+	 * 
+	 * @param index the row's index; 0 <= index < {@link #getRowCount()}
+	 * @param writer the writer to which the row is written
+	 * @throws IOException if the writer fails
+	 */
+	public void renderRow(int index, CSVRowWriter writer) throws IOException {
+		if (index < 0 || index >= capability.getRowCount()) {
+			throw new IllegalArgumentException();
+		}
+		
+		writer.writeRow(capability.getValue(index));
+	}
+	
+	/**
+	 * Open a cursor over all rows, in order. 
+	 * 
+	 * @return a cursor over the rows of the CSV
+	 */
+	public CSVRowCursor openRows() {
+		return new CSVRowCursor(capability);
+	}
+	
 	private void renderRow(StringBuilder builder, String[] row) {
 		for (int i = 0; i < row.length; i++) {
 			// Insert comma after first elements
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the rows of a CSV export capability, in order, 
+ * retrieving each row only when it is requested; so rows may be 
+ * written as they are retrieved, with memory for one row at a time.
+ */
+public class CSVRowCursor {
+	private final CSVExportCapability capability;
+	private final int rowCount;
+	private int nextRow = 0; // next row to return
+	
+	/**
+	 * Create a cursor over the rows of the capability.
+	 * @param capability the source of row values
+	 */
+	public CSVRowCursor(CSVExportCapability capability) {
+		if (capability == null) {
+			throw new IllegalArgumentException();
+		}
+		this.capability = capability;
+		this.rowCount = capability.getRowCount();
+	}
+	
+	/**
+	 * @return the total number of rows
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * @return the index of the row which will be returned by {@link #next()}
+	 */
+	public int getRowIndex() {
+		return nextRow;
+	}
+	
+	/**
+	 * @return true if there are more rows
+	 */
+	public boolean hasNext() {
+		return nextRow < rowCount;
+	}
+	
+	/**
+	 * Get the values of the next row.
+	 * @return the values of the next row
+	 */
+	public String[] next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return capability.getValue(nextRow++);
+	}
+}
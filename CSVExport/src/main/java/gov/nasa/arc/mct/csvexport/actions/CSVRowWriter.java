@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes rows of CSV text to a Writer through a reusable character 
+ * buffer. Values are escaped while they are copied into the buffer, 
+ * so no intermediate Strings are created per row, and the underlying 
+ * Writer only sees large writes.
+ * 
+ * Escaping follows {@link CSVRenderer}: values containing a comma 
+ * are enclosed in quotes, and null values are left empty.
+ */
+public class CSVRowWriter implements Closeable, Flushable {
+	/** default size of the character buffer */
+	public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+	
+	private Writer writer;
+	private final char[] buffer;
+	private int position = 0;
+	private long charsWritten = 0;
+	
+	/**
+	 * Create a row writer with the default buffer size. 
+	 * @param writer the destination of CSV text
+	 */
+	public CSVRowWriter(Writer writer) {
+		this(writer, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Create a row writer.
+	 * @param writer the destination of CSV text
+	 * @param bufferSize the number of characters to buffer before writing
+	 */
+	public CSVRowWriter(Writer writer, int bufferSize) {
+		if (writer == null || bufferSize < 2) {
+			throw new IllegalArgumentException();
+		}
+		this.writer = writer;
+		this.buffer = new char[bufferSize];
+	}
+	
+	/**
+	 * Create a row writer whose destination will be set later, 
+	 * with {@link #setWriter(Writer)}.
+	 * @param bufferSize the number of characters to buffer before writing
+	 */
+	protected CSVRowWriter(int bufferSize) {
+		if (bufferSize < 2) {
+			throw new IllegalArgumentException();
+		}
+		this.buffer = new char[bufferSize];
+	}
+	
+	/**
+	 * Change the destination of CSV text. Any buffered text is 
+	 * written to the previous destination, which is then closed.
+	 * @param next the new destination of CSV text
+	 * @throws IOException if the previous destination fails
+	 */
+	protected void setWriter(Writer next) throws IOException {
+		if (next == null) {
+			throw new IllegalArgumentException();
+		}
+		Writer previous = writer;
+		if (previous != null) {
+			try {
+				drain();
+			} finally {
+				previous.close();
+			}
+		}
+		writer = next;
+	}
+	
+	/**
+	 * Write one row, terminated by a newline.
+	 * @param row the values of the row; null values are left empty
+	 * @throws IOException if the underlying writer fails
+	 */
+	public void writeRow(String[] row) throws IOException {
+		for (int i = 0; i < row.length; i++) {
+			// Insert comma after first elements
+			if (i > 0) {
+				put(',');
+			}
+			String value = row[i];
+			if (value != null) {
+				if (value.indexOf(',') >= 0) {
+					put('"');
+					put(value);
+					put('"');
+				} else {
+					put(value);
+				}
+			}
+		}
+		put('\n');
+	}
+	
+	private void put(char c) throws IOException {
+		if (position == buffer.length) {
+			drain();
+		}
+		buffer[position++] = c;
+	}
+	
+	private void put(String value) throws IOException {
+		int length = value.length();
+		int offset = 0;
+		while (offset < length) {
+			if (position == buffer.length) {
+				drain();
+			}
+			int count = Math.min(length - offset, buffer.length - position);
+			value.getChars(offset, offset + count, buffer, position);
+			position += count;
+			offset += count;
+		}
+	}
+	
+	private void drain() throws IOException {
+		writer.write(buffer, 0, position);
+		charsWritten += position;
+		position = 0;
+	}
+	
+	/**
+	 * @return the number of characters written so far, including 
+	 * those still buffered
+	 */
+	public long getCharsWritten() {
+		return charsWritten + position;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain();
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			drain();
+		} finally {
+			writer.close();
+		}
+	}
+}
@@ -28,9 +28,12 @@ import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Responsible for rendering MCT objects to the default CSV format.
@@ -41,6 +44,14 @@ import java.util.Map;
  * - Any Tags (as strings).
  * - Component IDs of referenced child components.
  * 
+ * Components are visited once, up front, to determine rows and 
+ * column headers; the values of each row are only retrieved when 
+ * that row is requested, so rows may be streamed to a file without 
+ * holding the whole table in memory. Each component's property 
+ * descriptors are retrieved once, when visited, and those which may 
+ * fill a column are kept for its row; a property is only rendered 
+ * when visiting if no earlier component has a column for it. 
+ * 
  * @author vwoeltje
  */
 public class DefaultCSVExportCapability implements CSVExportCapability {
@@ -48,22 +59,27 @@ public class DefaultCSVExportCapability implements CSVExportCapability {
 			BundleAccess.BUNDLE.getString("csv_child_prefix");
 	// private static final String TAG_PREFIX = BundleAccess.BUNDLE.getString("csv_tag_prefix");
 	
-	private Collection<String> headers = new ArrayList<String>();
-	private List<String> components = new ArrayList<String>(); // store components' ids
-	// store each component's id and its corresponding CSV content
-	private Map<String, Map<String, String>> values = 
-			new HashMap<String, Map<String, String>>(); 
+	private static final String DISPLAY_NAME = "Base Displayed Name";
+	private static final String TYPE = "Component Type";
+	private static final String ID = "MCT Id";
+	
+	// column index of each header, in column order
+	private Map<String, Integer> headers = new LinkedHashMap<String, Integer>();
+	private List<AbstractComponent> components = new ArrayList<AbstractComponent>(); // one per row
+	private List<List<PropertyDescriptor>> properties = new ArrayList<List<PropertyDescriptor>>(); // one per row
+	private Set<String> visited = new HashSet<String>(); // store components' ids
 	private int maxChildren = 0;
+	private int firstChildColumn;
 	// private int maxTags = 0;
 
 	/**
 	 * Express the specified group of components in CSV format. 
 	 * This includes all of their children.
 	 * 
-	 * Data about components used to support CSV rendering 
-	 * will be assembled at the time of the constructor call, 
-	 * including visitation of all children. As such, this 
-	 * should not be called from a user interface thread. 
+	 * Components and their children are visited at the time of 
+	 * the constructor call, to determine the rows and columns 
+	 * of the CSV. As such, this should not be called from a 
+	 * user interface thread. 
 	 * 
 	 * @param components the components to render
 	 */
@@ -77,76 +93,97 @@ public class DefaultCSVExportCapability implements CSVExportCapability {
 	}	
 	
 	/**
-	 * add CSV content of the current component and its children to values.
-	 * note that for each component, its id is stored in components. Its id
-	 * and csv content are stored in values.
+	 * add the current component and its children (depth-first) as rows, 
+	 * and register the columns they will need. Each component is added 
+	 * at most once.
 	 */
-	private void add(AbstractComponent ac) {
-		String id = ac.getComponentId();
-		if (!components.contains(id)) {
-			// Create new map for this component's values,
-			// add entries to related data structures.
-			Map<String, String> map = new HashMap<String, String>();
-			components.add(id);
-			values.put(id, map);
+	private void add(AbstractComponent root) {
+		// Use an explicit stack, since component trees may be deep
+		LinkedList<AbstractComponent> stack = new LinkedList<AbstractComponent>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			AbstractComponent ac = stack.pop();
+			if (visited.add(ac.getComponentId())) {
+				components.add(ac);
 
-			addDefaultProperty(ac, id, map);
-			
-			// not include TagCapability temporarily
-			// renderTag();
-			
-			addChild(ac, map);			
+				addDefaultHeaders(ac);
+				
+				// not include TagCapability temporarily
+				// renderTag();
+				
+				List<AbstractComponent> children = ac.getComponents();
+				maxChildren = Math.max(maxChildren, children.size());
+				for (int i = children.size() - 1; i >= 0; i--) {
+					stack.push(children.get(i));
+				}
+			}
 		}
 	}
 	
-	private void addDefaultProperty(AbstractComponent ac, String id, Map<String, String> map) {		
+	private void addDefaultHeaders(AbstractComponent ac) {		
 		// Add core common properties
-		addProperty(id, "Base Displayed Name", ac.getDisplayName());
-		addProperty(id, "Component Type", ac.getComponentTypeID());
-		addProperty(id, "MCT Id", ac.getComponentId());
+		addHeader(DISPLAY_NAME, ac.getDisplayName());
+		addHeader(TYPE, ac.getComponentTypeID());
+		addHeader(ID, ac.getComponentId());
 		
-		// Add values from property descriptors
+		// Add headers from property descriptors which have a value, and 
+		// keep the descriptors which may fill a column for the row
+		List<PropertyDescriptor> kept = Collections.emptyList();
 		List<PropertyDescriptor> descriptors = 
 				ac.getFieldDescriptors();
 		if (descriptors != null) {
 			for (PropertyDescriptor pd : descriptors) {
-				addPropertyDescriptor(id, pd);
+				String description = pd.getShortDescription();
+				if (description == null) {
+					continue;
+				}
+				if (!headers.containsKey(description)) {
+					// Only rendered here if needed to decide on a column
+					addHeader(description, getAsText(pd));
+				}
+				if (headers.containsKey(description)) {
+					if (kept.isEmpty()) {
+						kept = new ArrayList<PropertyDescriptor>(descriptors.size());
+					}
+					kept.add(pd);
+				}
 			}
-		}		
+		}
+		properties.add(kept);
 	}
 	
-	private void addProperty(String id, String description, String value) {
+	private void addHeader(String description, String value) {
+		if (description != null && value != null && !headers.containsKey(description)) {
+			headers.put(description, headers.size());
+		}
+	}
+	
+	private void addProperty(String[] row, String description, String value) {
 		if (description != null && value != null) {
-			if (!headers.contains(description)) {
-				headers.add(description);
+			Integer column = headers.get(description);
+			if (column != null) {
+				row[column] = value;
 			}
-			values.get(id).put(description, value);			
 		}
 	}
 
-	private void addPropertyDescriptor(String id, PropertyDescriptor pd) {
-		String description = null;
-		String value = null;
-		
+	private String getAsText(PropertyDescriptor pd) {
 		try {
-			description = pd.getShortDescription();
-			value = pd.getPropertyEditor().getAsText();
+			return pd.getPropertyEditor().getAsText();
 		} catch (IllegalArgumentException iae) {
 			// If getAsText is unsupported for a property, skip it
+			return null;
 		}
-		
-		addProperty(id, description, value);		
 	}
 	
-	private void addChild(AbstractComponent ac, Map<String, String> map) {
-		// Store references to children
-		// Headers are not added until later, to ensure these
-		// come at the end.
-		int i = 0;
+	private void addChildren(String[] row, AbstractComponent ac) {
+		// References to children are stored in the last columns
+		int i = firstChildColumn;
 		for (AbstractComponent child : ac.getComponents()) {
-			map.put(childPrefix(i++), child.getComponentId());
-			maxChildren = Math.max(maxChildren, i);
-			add(child);
+			if (i >= row.length) {
+				break; // Children added since headers were determined
+			}
+			row[i++] = child.getComponentId();
 		}
 	}
 	
@@ -155,8 +192,10 @@ public class DefaultCSVExportCapability implements CSVExportCapability {
 	}
 	
 	private void addChildHeaders() {
+		// Headers are added last, to ensure these come at the end.
+		firstChildColumn = headers.size();
 		for (int i = 0; i < maxChildren; i++) {
-			headers.add(childPrefix(i));
+			headers.put(childPrefix(i), headers.size());
 		}
 	}
 	
@@ -173,18 +212,28 @@ public class DefaultCSVExportCapability implements CSVExportCapability {
 	@Override
 	public String[] getHeaders() {	
 		String[] headerArray = new String[headers.size()];
-		headers.toArray(headerArray);	
+		headers.keySet().toArray(headerArray);	
 		return headerArray;
 	}
 
+	/**
+	 * Get the values for the specified row. These are retrieved 
+	 * from the component when requested, and not retained.
+	 */
 	@Override
 	public String[] getValue(int row) {
+		AbstractComponent ac = components.get(row);
 		String[] value = new String[headers.size()];
-		Map<String, String> map = values.get(components.get(row));
-		int i = 0;
-		for (String description : headers) {
-			value[i++] = map.get(description);
+		
+		addProperty(value, DISPLAY_NAME, ac.getDisplayName());
+		addProperty(value, TYPE, ac.getComponentTypeID());
+		addProperty(value, ID, ac.getComponentId());
+		
+		for (PropertyDescriptor pd : properties.get(row)) {
+			addProperty(value, pd.getShortDescription(), getAsText(pd));
 		}
+		
+		addChildren(value, ac);
 		return value;
 	}
 	
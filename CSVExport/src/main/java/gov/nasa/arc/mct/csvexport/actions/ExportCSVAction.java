@@ -29,14 +29,11 @@ import gov.nasa.arc.mct.gui.View;
 
 import java.awt.Component;
 import java.awt.event.ActionEvent;
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import javax.swing.JFileChooser;
-
 /**
  * Represents the "Export > CSV" action, used to output 
  * MCT objects as CSV (comma-separated value) files. 
@@ -55,9 +52,17 @@ public abstract class ExportCSVAction extends ContextAwareAction {
 	private Collection<AbstractComponent> targets;
 
 	public ExportCSVAction() {
-		super(BundleAccess.BUNDLE.getString("csv_export_action"));
+		this(BundleAccess.BUNDLE.getString("csv_export_action"));
 	}	 
 	
+	/**
+	 * Create an export action with the specified name.
+	 * @param name the name of the action, as shown in menus
+	 */
+	protected ExportCSVAction(String name) {
+		super(name);
+	}
+	
 	/**
 	 * Used to determine which components are to be exported.
 	 * Varies depending on whether the action is accessed via 
@@ -84,18 +89,35 @@ public abstract class ExportCSVAction extends ContextAwareAction {
 		if (targets != null) {
 			Object src = e.getSource();
 			Component c = (src instanceof Component) ? (Component) src : null;
-			File file = selectFile(c);
-			if (file != null) {
-				new CSVExporter(c, targets, file).export();
-			}
+			export(c, targets);
 		}
 	}
 	
-	private File selectFile(Component source) {
+	/**
+	 * Export the specified components, once the action has been 
+	 * performed. 
+	 * @param c an AWT component (for dialogs)
+	 * @param targets the components to export
+	 */
+	protected void export(Component c, Collection<AbstractComponent> targets) {
+		CSVFileChooser fileChooser = selectFile(c);
+		if (fileChooser != null) {
+			new CSVExporter(c, targets, fileChooser.getSelectedFile(), 
+					fileChooser.getOutputOptions()).export();
+		}
+	}
+	
+	/**
+	 * Prompt the user to choose the file to which a CSV 
+	 * should be written, and how it should be written.
+	 * @param source an AWT component (for the dialog)
+	 * @return the approved file chooser, or null if no file was chosen
+	 */
+	protected CSVFileChooser selectFile(Component source) {
 		// create a save as dialog
-		JFileChooser fileChooser = new CSVFileChooser();
+		CSVFileChooser fileChooser = new CSVFileChooser();
 		return fileChooser.showSaveDialog(source) == FileChooser.APPROVE_OPTION ?
-				fileChooser.getSelectedFile() : null;
+				fileChooser : null;
 	}
 
 	/**
@@ -107,14 +129,7 @@ public abstract class ExportCSVAction extends ContextAwareAction {
 		@Override
 		protected Collection<AbstractComponent> 
 				getTargets(ActionContext context) {
-			
-			if (context.getWindowManifestation() != null) {
-				return Collections.singleton(
-						context.getWindowManifestation()
-						       .getManifestedComponent());
-			}
-			return null;
-			
+			return getWindowTarget(context);
 		}
 		
 	}
@@ -128,19 +143,42 @@ public abstract class ExportCSVAction extends ContextAwareAction {
 		@Override
 		protected Collection<AbstractComponent> 
 				getTargets(ActionContext context) {
-			
-			if (context.getSelectedManifestations() != null) {
-				List<AbstractComponent> selected = 
-						new ArrayList<AbstractComponent>();
-				for (View v : context.getSelectedManifestations()) {
-					selected.add(v.getManifestedComponent());
-				}
-				return selected;
-			}
-			return null;
-			
+			return getSelectedTargets(context);
 		}
 		
 	}
+	
+	/**
+	 * Get the component shown in the window from which an 
+	 * action was accessed (as from the This menu).
+	 * @param context the context of the action
+	 * @return the window's component, or null if there is no window
+	 */
+	protected static Collection<AbstractComponent> getWindowTarget(ActionContext context) {
+		if (context.getWindowManifestation() != null) {
+			return Collections.singleton(
+					context.getWindowManifestation()
+					       .getManifestedComponent());
+		}
+		return null;
+	}
+	
+	/**
+	 * Get the components selected when an action was 
+	 * accessed (as from the Objects menu).
+	 * @param context the context of the action
+	 * @return the selected components, or null if there is no selection
+	 */
+	protected static Collection<AbstractComponent> getSelectedTargets(ActionContext context) {
+		if (context.getSelectedManifestations() != null) {
+			List<AbstractComponent> selected = 
+					new ArrayList<AbstractComponent>();
+			for (View v : context.getSelectedManifestations()) {
+				selected.add(v.getManifestedComponent());
+			}
+			return selected;
+		}
+		return null;
+	}
 
 }
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.api.feed.DataProvider;
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.csvexport.access.DataProviderAccess;
+import gov.nasa.arc.mct.gui.ActionContext;
+
+import java.awt.Component;
+import java.awt.GridLayout;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+/**
+ * Represents the "Export > Telemetry CSV" action, used to output 
+ * the samples of feeds over a time range as CSV files. 
+ * 
+ * As with {@link ExportCSVAction}, implementations for the This 
+ * and Objects menus are provided as static inner classes.
+ */
+public abstract class ExportTelemetryCSVAction extends ExportCSVAction {
+	private static final long serialVersionUID = 3093512947005312447L;
+	
+	private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+	public ExportTelemetryCSVAction() {
+		super(BundleAccess.BUNDLE.getString("csv_telemetry_action"));
+	}
+	
+	@Override
+	protected void export(Component c, Collection<AbstractComponent> targets) {
+		List<DataProvider> providers = DataProviderAccess.getDataProviders();
+		if (providers.isEmpty()) {
+			JOptionPane.showMessageDialog(c, 
+					BundleAccess.BUNDLE.getString("csv_telemetry_no_providers"), 
+					BundleAccess.BUNDLE.getString("csv_error_title"), 
+					JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		
+		DateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN);
+		dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+		dateFormat.setLenient(false);
+		
+		long now = System.currentTimeMillis();
+		JTextField startField = new JTextField(dateFormat.format(new Date(now - TimeUnit.HOURS.toMillis(1))));
+		JTextField endField = new JTextField(dateFormat.format(new Date(now)));
+		JComboBox formatBox = new JComboBox(new String[] {
+				BundleAccess.BUNDLE.getString("csv_telemetry_wide"),
+				BundleAccess.BUNDLE.getString("csv_telemetry_long")
+		});
+		
+		JPanel panel = new JPanel(new GridLayout(3, 2, 4, 4));
+		panel.add(new JLabel(BundleAccess.BUNDLE.getString("csv_telemetry_start")));
+		panel.add(startField);
+		panel.add(new JLabel(BundleAccess.BUNDLE.getString("csv_telemetry_end")));
+		panel.add(endField);
+		panel.add(new JLabel(BundleAccess.BUNDLE.getString("csv_telemetry_format")));
+		panel.add(formatBox);
+		
+		long start, end;
+		while (true) {
+			int option = JOptionPane.showConfirmDialog(c, panel, 
+					BundleAccess.BUNDLE.getString("csv_telemetry_title"), 
+					JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+			if (option != JOptionPane.OK_OPTION) {
+				return;
+			}
+			try {
+				start = dateFormat.parse(startField.getText().trim()).getTime();
+				end = dateFormat.parse(endField.getText().trim()).getTime();
+				if (start <= end) {
+					break;
+				}
+			} catch (ParseException pe) {
+				// Fall through to warning, and ask again
+			}
+			JOptionPane.showMessageDialog(c, 
+					BundleAccess.BUNDLE.getString("csv_telemetry_invalid_range"), 
+					BundleAccess.BUNDLE.getString("csv_telemetry_title"), 
+					JOptionPane.WARNING_MESSAGE);
+		}
+		
+		TelemetryCSVWriter.Format format = formatBox.getSelectedIndex() == 1 ?
+				TelemetryCSVWriter.Format.LONG : TelemetryCSVWriter.Format.WIDE;
+		
+		CSVFileChooser fileChooser = selectFile(c);
+		if (fileChooser != null) {
+			new CSVExporter(c, new TelemetryExportWorker(targets, fileChooser.getSelectedFile(), 
+					fileChooser.getOutputOptions(), providers, format, start, end)).export();
+		}
+	}
+
+	/**
+	 * Export telemetry as CSV, from the This menu.
+	 */
+	public static class ThisExportTelemetryCSVAction extends ExportTelemetryCSVAction {
+		private static final long serialVersionUID = -1951622845069283744L;
+
+		@Override
+		protected Collection<AbstractComponent> 
+				getTargets(ActionContext context) {
+			return getWindowTarget(context);
+		}
+		
+	}
+
+	/**
+	 * Export telemetry as CSV, from the Objects menu.
+	 */
+	public static class ObjectsExportTelemetryCSVAction extends ExportTelemetryCSVAction {
+		private static final long serialVersionUID = 6627408806302311520L;
+
+		@Override
+		protected Collection<AbstractComponent> 
+				getTargets(ActionContext context) {
+			return getSelectedTargets(context);
+		}
+		
+	}
+
+}
@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.api.feed.DataProvider;
+import gov.nasa.arc.mct.components.FeedProvider;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the samples of a set of feeds over a time range as CSV. 
+ * 
+ * Data is requested from the data providers one chunk of time 
+ * at a time, and the samples of all feeds within a chunk are 
+ * merged by time stamp, so memory use is bounded by the size 
+ * of a chunk rather than the size of the time range.
+ * 
+ * In the wide format, there is one row per time stamp and one 
+ * column per feed; in the long format, there is one row per sample. 
+ */
+public class TelemetryCSVWriter {
+	/** the layout of exported samples */
+	public enum Format { 
+		/** one row per time stamp, one column per feed */
+		WIDE, 
+		/** one row per sample: time, feed, value */
+		LONG 
+	}
+	
+	/** default amount of time requested from data providers at once */
+	public static final long DEFAULT_CHUNK_MILLIS = TimeUnit.MINUTES.toMillis(10);
+	
+	private static final String TIME_HEADER = BundleAccess.BUNDLE.getString("csv_telemetry_time");
+	private static final String MILLIS_HEADER = BundleAccess.BUNDLE.getString("csv_telemetry_millis");
+	private static final String FEED_HEADER = BundleAccess.BUNDLE.getString("csv_telemetry_feed");
+	private static final String VALUE_HEADER = BundleAccess.BUNDLE.getString("csv_telemetry_value");
+	
+	private final List<DataProvider> providers;
+	private final List<String> feedIDs;
+	private final List<String> names;
+	private final Format format;
+	private final long start;
+	private final long end;
+	private final long chunk;
+	private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+	
+	private long chunkStart;
+	private long rowCount = 0;
+	
+	/**
+	 * Create a writer for the samples of the specified feeds.
+	 * @param providers the data providers to request samples from, in order of preference
+	 * @param feeds the feeds to export; exported in this order
+	 * @param format the layout of exported samples
+	 * @param start the start of the time range, in milliseconds (inclusive)
+	 * @param end the end of the time range, in milliseconds (inclusive)
+	 * @param chunk the amount of time to request from providers at once, in milliseconds
+	 */
+	public TelemetryCSVWriter(List<DataProvider> providers, List<FeedProvider> feeds, 
+			Format format, long start, long end, long chunk) {
+		if (providers == null || feeds == null || feeds.isEmpty() || format == null || 
+				end < start || chunk <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.providers = providers;
+		this.feedIDs = new ArrayList<String>(feeds.size());
+		this.names = new ArrayList<String>(feeds.size());
+		Set<String> unique = new HashSet<String>();
+		for (FeedProvider feed : feeds) {
+			if (unique.add(feed.getSubscriptionId())) {
+				feedIDs.add(feed.getSubscriptionId());
+				names.add(feed.getCanonicalName());
+			}
+		}
+		this.format = format;
+		this.start = start;
+		this.end = end;
+		this.chunk = chunk;
+		this.chunkStart = start;
+		dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+	}
+	
+	/**
+	 * Write the line of column headers.
+	 * @param writer the destination
+	 * @throws IOException if the writer fails
+	 */
+	public void writeHeaders(CSVRowWriter writer) throws IOException {
+		if (format == Format.LONG) {
+			writer.writeRow(new String[] { TIME_HEADER, MILLIS_HEADER, FEED_HEADER, VALUE_HEADER });
+		} else {
+			String[] headers = new String[names.size() + 2];
+			headers[0] = TIME_HEADER;
+			headers[1] = MILLIS_HEADER;
+			for (int i = 0; i < names.size(); i++) {
+				headers[i + 2] = names.get(i);
+			}
+			writer.writeRow(headers);
+		}
+	}
+	
+	/**
+	 * @return true if there is more of the time range to write
+	 */
+	public boolean hasNextChunk() {
+		return chunkStart <= end;
+	}
+	
+	/**
+	 * @return the proportion of the time range written so far, from 0 to 100
+	 */
+	public int getProgress() {
+		return (int) Math.min(100, (chunkStart - start) * 100 / (end - start + 1));
+	}
+	
+	/**
+	 * @return the number of rows written so far, excluding headers
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * Request the next chunk of the time range from the data 
+	 * providers, and write its samples.
+	 * @param writer the destination
+	 * @throws IOException if the writer fails
+	 */
+	public void writeNextChunk(CSVRowWriter writer) throws IOException {
+		// Chunk covers [chunkStart, chunkEnd)
+		long chunkEnd = Math.min(end + 1, chunkStart + chunk);
+		List<SortedMap<Long, Map<String, String>>> data = request(chunkStart, chunkEnd);
+		
+		// Merge the samples of all feeds by time stamp
+		PriorityQueue<FeedCursor> queue = new PriorityQueue<FeedCursor>(Math.max(1, data.size()));
+		for (int i = 0; i < data.size(); i++) {
+			SortedMap<Long, Map<String, String>> samples = data.get(i);
+			if (samples != null) {
+				FeedCursor cursor = new FeedCursor(i, samples.subMap(chunkStart, chunkEnd).entrySet().iterator());
+				if (cursor.advance()) {
+					queue.add(cursor);
+				}
+			}
+		}
+		
+		String[] row = new String[format == Format.LONG ? 4 : feedIDs.size() + 2];
+		while (!queue.isEmpty()) {
+			long time = queue.peek().time;
+			String formattedTime = dateFormat.format(new Date(time));
+			String millis = Long.toString(time);
+			if (format == Format.WIDE) {
+				for (int i = 2; i < row.length; i++) {
+					row[i] = null;
+				}
+			}
+			while (!queue.isEmpty() && queue.peek().time == time) {
+				FeedCursor cursor = queue.poll();
+				if (format == Format.LONG) {
+					row[0] = formattedTime;
+					row[1] = millis;
+					row[2] = names.get(cursor.feed);
+					row[3] = cursor.value;
+					writer.writeRow(row);
+					rowCount++;
+				} else {
+					row[cursor.feed + 2] = cursor.value;
+				}
+				if (cursor.advance()) {
+					queue.add(cursor);
+				}
+			}
+			if (format == Format.WIDE) {
+				row[0] = formattedTime;
+				row[1] = millis;
+				writer.writeRow(row);
+				rowCount++;
+			}
+		}
+		
+		chunkStart = chunkEnd;
+	}
+	
+	/**
+	 * Request samples for all feeds over the specified time. Each feed 
+	 * is read from the first provider which has data for it.
+	 * @return samples for each feed (in feed order); null where no 
+	 *         provider had data for the feed
+	 */
+	private List<SortedMap<Long, Map<String, String>>> request(long from, long to) {
+		Map<String, SortedMap<Long, Map<String, String>>> found = 
+				new HashMap<String, SortedMap<Long, Map<String, String>>>();
+		Set<String> remaining = new HashSet<String>(feedIDs);
+		for (DataProvider provider : providers) {
+			if (remaining.isEmpty()) {
+				break;
+			}
+			Map<String, SortedMap<Long, Map<String, String>>> data = 
+					provider.getData(Collections.unmodifiableSet(new HashSet<String>(remaining)), 
+							from, to, TimeUnit.MILLISECONDS);
+			if (data != null) {
+				for (Map.Entry<String, SortedMap<Long, Map<String, String>>> entry : data.entrySet()) {
+					// Later providers may have data where this one has none
+					if (entry.getValue() != null && !entry.getValue().isEmpty() 
+							&& remaining.remove(entry.getKey())) {
+						found.put(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+		}
+		List<SortedMap<Long, Map<String, String>>> result = 
+				new ArrayList<SortedMap<Long, Map<String, String>>>(feedIDs.size());
+		for (String feedID : feedIDs) {
+			result.add(found.get(feedID));
+		}
+		return result;
+	}
+	
+	/**
+	 * Position within the samples of one feed, ordered by time stamp 
+	 * and then by feed order.
+	 */
+	private static class FeedCursor implements Comparable<FeedCursor> {
+		private final int feed;
+		private final Iterator<Map.Entry<Long, Map<String, String>>> iterator;
+		private long time;
+		private String value;
+		
+		public FeedCursor(int feed, Iterator<Map.Entry<Long, Map<String, String>>> iterator) {
+			this.feed = feed;
+			this.iterator = iterator;
+		}
+		
+		public boolean advance() {
+			if (iterator.hasNext()) {
+				Map.Entry<Long, Map<String, String>> entry = iterator.next();
+				time = entry.getKey();
+				value = entry.getValue().get(FeedProvider.NORMALIZED_VALUE_KEY);
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public int compareTo(FeedCursor other) {
+			if (time != other.time) {
+				return time < other.time ? -1 : 1;
+			}
+			return feed - other.feed;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.api.feed.DataProvider;
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.components.FeedProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A worker which exports the samples of the feeds beneath a set 
+ * of components over a time range, rather than the current 
+ * values of those components.
+ */
+public class TelemetryExportWorker extends CSVExportWorker {
+	private final List<DataProvider> providers;
+	private final TelemetryCSVWriter.Format format;
+	private final long start;
+	private final long end;
+	
+	/**
+	 * Create a worker to export telemetry.
+	 * @param components the components whose feeds (or descendants' feeds) should be exported
+	 * @param file the first (or only) file to which samples should be written
+	 * @param options the compression and split options
+	 * @param providers the data providers from which to read samples
+	 * @param format the layout of exported samples
+	 * @param start the start of the time range, in milliseconds
+	 * @param end the end of the time range, in milliseconds
+	 */
+	public TelemetryExportWorker(Collection<AbstractComponent> components, File file, 
+			CSVOutputOptions options, List<DataProvider> providers, 
+			TelemetryCSVWriter.Format format, long start, long end) {
+		super(components, file, options);
+		this.providers = providers;
+		this.format = format;
+		this.start = start;
+		this.end = end;
+	}
+
+	@Override
+	protected void write(CSVRowWriter w) throws IOException, InterruptedException {
+		List<FeedProvider> feeds = collectFeeds(getComponents());
+		if (feeds.isEmpty()) {
+			throw new IOException(BundleAccess.BUNDLE.getString("csv_telemetry_no_feeds"));
+		}
+		TelemetryCSVWriter telemetry = new TelemetryCSVWriter(providers, feeds, 
+				format, start, end, TelemetryCSVWriter.DEFAULT_CHUNK_MILLIS);
+		telemetry.writeHeaders(w);
+		while (telemetry.hasNextChunk()) {
+			if (isCancelled() || Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			setProgress(telemetry.getProgress());
+			telemetry.writeNextChunk(w);
+		}
+	}
+	
+	/**
+	 * Find all feeds exposed by the specified components or their 
+	 * descendants, in depth-first order. Each component is visited 
+	 * once, even if it is referenced from several places.
+	 * @param components the components to search
+	 * @return the feeds found
+	 */
+	static List<FeedProvider> collectFeeds(Collection<AbstractComponent> components) {
+		List<FeedProvider> feeds = new ArrayList<FeedProvider>();
+		Set<String> visited = new HashSet<String>();
+		LinkedList<AbstractComponent> stack = new LinkedList<AbstractComponent>(components);
+		while (!stack.isEmpty()) {
+			AbstractComponent component = stack.removeFirst();
+			if (!visited.add(component.getComponentId())) {
+				continue;
+			}
+			FeedProvider feed = component.getCapability(FeedProvider.class);
+			if (feed != null) {
+				feeds.add(feed);
+			}
+			List<AbstractComponent> children = component.getComponents();
+			for (int i = children.size() - 1; i >= 0; i--) {
+				stack.addFirst(children.get(i));
+			}
+		}
+		return feeds;
+	}
+}
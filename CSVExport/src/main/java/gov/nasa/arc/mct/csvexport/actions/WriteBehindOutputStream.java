@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.csvexport.actions;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An OutputStream which passes its data to the target stream on a 
+ * separate thread, a few blocks behind the producer. Used to overlap 
+ * expensive writes (such as gzip compression, or writes to network 
+ * file systems) with the generation of data.
+ * 
+ * Blocks are recycled between the two threads, so no memory is 
+ * allocated once the stream is in use. The target stream is closed 
+ * when this stream is closed; a failure of the target is reported 
+ * by the next write, flush or close.
+ */
+public class WriteBehindOutputStream extends OutputStream {
+	private static final Block END_OF_STREAM = new Block(0);
+	
+	private final OutputStream target;
+	private final BlockingQueue<Block> full;
+	private final BlockingQueue<Block> empty;
+	private final Thread writer;
+	
+	private volatile IOException failure;
+	private boolean closed = false;
+	
+	private Block current;
+	
+	/**
+	 * Create a new write-behind stream and start its writer thread.
+	 * @param target the stream to which data is eventually written
+	 * @param blockSize the number of bytes in each block
+	 * @param blockCount the number of blocks held in memory
+	 */
+	public WriteBehindOutputStream(OutputStream target, int blockSize, int blockCount) {
+		if (target == null || blockSize <= 0 || blockCount <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.target = target;
+		this.full = new ArrayBlockingQueue<Block>(blockCount + 1);
+		this.empty = new ArrayBlockingQueue<Block>(blockCount);
+		for (int i = 1; i < blockCount; i++) {
+			empty.add(new Block(blockSize));
+		}
+		this.current = new Block(blockSize);
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeBehind();
+			}			
+		}, "CSV export write-behind");
+		writer.setDaemon(true);
+		writer.start();
+	}
+	
+	private void writeBehind() {
+		try {
+			while (true) {
+				Block block = full.take();
+				if (block == END_OF_STREAM) {
+					break;
+				}
+				// After a failure, keep recycling blocks so the producer 
+				// does not block; it will see the failure on its next call
+				if (failure == null) {
+					try {
+						target.write(block.data, 0, block.length);
+					} catch (IOException e) {
+						failure = e;
+					}
+				}
+				block.length = 0;
+				empty.put(block);
+			}
+		} catch (InterruptedException e) {
+			// Abandoned by producer
+		}
+		try {
+			target.close();
+		} catch (IOException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+	}
+	
+	/**
+	 * Hand the current block to the writer thread, and take an empty one.
+	 */
+	private void pass() throws IOException {
+		checkFailure();
+		if (current.length > 0) {
+			try {
+				full.put(current);
+				current = empty.take();
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+		}
+	}
+	
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw failure;
+		}
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (current.length == current.data.length) {
+			pass();
+		}
+		current.data[current.length++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (current.length == current.data.length) {
+				pass();
+			}
+			int count = Math.min(len, current.data.length - current.length);
+			System.arraycopy(b, off, current.data, current.length, count);
+			current.length += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	/**
+	 * Hand any buffered data to the writer thread. Note that this 
+	 * does not wait for the data to reach the target stream.
+	 */
+	@Override
+	public void flush() throws IOException {
+		pass();
+	}
+
+	/**
+	 * Write any buffered data, and wait for the writer thread 
+	 * to close the target stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			pass();
+		} finally {
+			closed = true;
+			try {
+				full.put(END_OF_STREAM);
+				writer.join();
+			} catch (InterruptedException e) {
+				writer.interrupt();
+				throw new InterruptedIOException();
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+	
+	private static class Block {
+		private final byte[] data;
+		private int length = 0;
+		
+		public Block(int size) {
+			data = new byte[size];
+		}
+	}
+}
@@ -23,6 +23,8 @@ package gov.nasa.arc.mct.csvexport.component;
 
 import gov.nasa.arc.mct.csvexport.actions.ExportCSVAction.ObjectsExportCSVAction;
 import gov.nasa.arc.mct.csvexport.actions.ExportCSVAction.ThisExportCSVAction;
+import gov.nasa.arc.mct.csvexport.actions.ExportTelemetryCSVAction.ObjectsExportTelemetryCSVAction;
+import gov.nasa.arc.mct.csvexport.actions.ExportTelemetryCSVAction.ThisExportTelemetryCSVAction;
 import gov.nasa.arc.mct.gui.MenuItemInfo;
 import gov.nasa.arc.mct.gui.MenuItemInfo.MenuItemType;
 import gov.nasa.arc.mct.services.component.AbstractComponentProvider;
@@ -43,6 +45,12 @@ public class CSVExportPluginProvider extends AbstractComponentProvider {
 						MenuItemType.NORMAL, ObjectsExportCSVAction.class),
 				new MenuItemInfo("/this/export.ext",
 						"EXPORT_THIS_CSV_ACTION", 
-						MenuItemType.NORMAL, ThisExportCSVAction.class));
+						MenuItemType.NORMAL, ThisExportCSVAction.class),
+				new MenuItemInfo("/objects/export.ext",
+						"EXPORT_OBJECTS_TELEMETRY_CSV_ACTION", 
+						MenuItemType.NORMAL, ObjectsExportTelemetryCSVAction.class),
+				new MenuItemInfo("/this/export.ext",
+						"EXPORT_THIS_TELEMETRY_CSV_ACTION", 
+						MenuItemType.NORMAL, ThisExportTelemetryCSVAction.class));
 	}
 }
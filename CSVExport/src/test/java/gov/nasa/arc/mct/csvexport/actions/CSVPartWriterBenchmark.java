@@ -0,0 +1,97 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares end-to-end export time and compression ratio when writing 
+ * CSV uncompressed, gzip-compressed on the exporting thread (at the 
+ * default level), and gzip-compressed through {@link CSVPartWriter} 
+ * (which compresses at the fastest level, on a write-behind thread), 
+ * with and without splitting. Not run as part 
+ * of the test suite; run the main method with the test classpath:
+ * 
+ * <pre>
+ * CSVPartWriterBenchmark [rows] [columns]
+ * </pre>
+ */
+public class CSVPartWriterBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int columns = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		final CSVRenderer renderer = new CSVRenderer(new SyntheticCSVExportCapability(rows, columns, 1L));
+		File dir = File.createTempFile("benchmark", "");
+		dir.delete();
+		dir.mkdir();
+		final File file = new File(dir, "benchmark.csv.gz");
+		
+		Task inline = new Task() {
+			public long run() throws IOException {
+				CSVRowWriter w = new CSVRowWriter(new OutputStreamWriter(
+						new GZIPOutputStream(new FileOutputStream(file), 64 * 1024)));
+				try {
+					render(renderer, w);
+				} finally {
+					w.close();
+				}
+				return file.length();
+			}
+		};
+		
+		// Warm up before measuring
+		for (int i = 0; i < 2; i++) {
+			inline.run();
+			measure(renderer, file, new CSVOutputOptions(true, 0, 0));
+		}
+		
+		long start = System.nanoTime();
+		long written = inline.run();
+		report("gzip on exporting thread", rows, start, -1, written, 1);
+		
+		measure(renderer, file, CSVOutputOptions.DEFAULT);
+		measure(renderer, file, new CSVOutputOptions(true, 0, 0));
+		measure(renderer, file, new CSVOutputOptions(true, rows / 10, 0));
+		measure(renderer, file, new CSVOutputOptions(true, 0, 16 * 1024 * 1024));
+		
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+	
+	private static void measure(CSVRenderer renderer, File file, CSVOutputOptions options) throws IOException {
+		long start = System.nanoTime();
+		CSVPartWriter w = new CSVPartWriter(file, options);
+		try {
+			render(renderer, w);
+		} finally {
+			w.close();
+		}
+		report("CSVPartWriter (" + (options.isCompressed() ? "gzip" : "plain") + 
+				(options.getMaxRows() > 0 ? ", " + options.getMaxRows() + " rows/file" : "") +
+				(options.getMaxChars() > 0 ? ", " + options.getMaxChars() / 1024 + " KB/file" : "") + ")",
+				renderer.getRowCount(), start, w.getUncompressedBytes(), w.getBytesWritten(), w.getFiles().size());
+	}
+	
+	private static void render(CSVRenderer renderer, CSVRowWriter w) throws IOException {
+		renderer.renderHeaders(w);
+		for (int i = 0; i < renderer.getRowCount(); i++) {
+			renderer.renderRow(i, w);
+		}
+	}
+	
+	private static void report(String name, int rows, long start, long uncompressed, long written, int files) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format("%s: %.0f ms, %.0f rows/s, %d file(s), %d KB written%s",
+				name, seconds * 1000, rows / seconds, files, written / 1024,
+				uncompressed < 0 ? "" : String.format(", compression ratio %.2f", (double) uncompressed / written)));
+	}
+	
+	private interface Task {
+		long run() throws IOException;
+	}
+}
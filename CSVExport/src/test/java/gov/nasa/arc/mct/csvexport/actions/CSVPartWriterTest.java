@@ -0,0 +1,182 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class CSVPartWriterTest {
+	private static final String[] HEADER = { "a", "b" };
+	
+	private File dir;
+	private File file;
+	
+	@BeforeMethod
+	public void setup() throws IOException {
+		dir = File.createTempFile("csvparts", "");
+		dir.delete();
+		dir.mkdir();
+		file = new File(dir, "export.csv.gz");
+	}
+	
+	@AfterMethod
+	public void teardown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+	
+	@Test
+	public void testSingleCompressedFile() throws IOException {
+		CSVPartWriter writer = write(new CSVOutputOptions(true, 0, 0), 1000);
+		Assert.assertEquals(writer.getFiles().size(), 1);
+		Assert.assertEquals(writer.getRowCount(), 1000);
+		
+		List<String> lines = read(file, true);
+		Assert.assertEquals(lines.size(), 1001);
+		Assert.assertEquals(lines.get(0), "a,b");
+		Assert.assertEquals(lines.get(1000), "999,\"x,999\"");
+		Assert.assertEquals(writer.getBytesWritten(), file.length());
+		Assert.assertTrue(writer.getCompressionRatio() > 1.0);
+	}
+	
+	@Test
+	public void testSplitByRows() throws IOException {
+		CSVPartWriter writer = write(new CSVOutputOptions(false, 300, 0), 1000);
+		Assert.assertEquals(writer.getFiles().size(), 4);
+		Assert.assertEquals(writer.getFiles().get(1).getName(), "export-2.csv.gz");
+		
+		int next = 0;
+		for (File part : writer.getFiles()) {
+			List<String> lines = read(part, false);
+			Assert.assertEquals(lines.get(0), "a,b");
+			Assert.assertTrue(lines.size() <= 301);
+			for (String line : lines.subList(1, lines.size())) {
+				Assert.assertTrue(line.startsWith((next++) + ","));
+			}
+		}
+		Assert.assertEquals(next, 1000);
+		Assert.assertEquals(writer.getCompressionRatio(), 1.0);
+	}
+	
+	@Test
+	public void testSplitBySize() throws IOException {
+		CSVPartWriter writer = write(new CSVOutputOptions(true, 0, 2000), 1000);
+		Assert.assertTrue(writer.getFiles().size() > 1);
+		
+		int rows = 0;
+		for (File part : writer.getFiles()) {
+			List<String> lines = read(part, true);
+			Assert.assertEquals(lines.get(0), "a,b");
+			int chars = 0;
+			for (String line : lines) {
+				chars += line.length() + 1;
+			}
+			// May exceed the limit by at most one row
+			Assert.assertTrue(chars < 2000 + 20);
+			rows += lines.size() - 1;
+		}
+		Assert.assertEquals(rows, 1000);
+	}
+	
+	@Test
+	public void testPartNames() {
+		Assert.assertEquals(CSVPartWriter.getPartFile(new File("x.csv"), 1).getName(), "x.csv");
+		Assert.assertEquals(CSVPartWriter.getPartFile(new File("x.csv"), 3).getName(), "x-3.csv");
+		Assert.assertEquals(CSVPartWriter.getPartFile(new File("x.csv.gz"), 2).getName(), "x-2.csv.gz");
+		Assert.assertEquals(CSVPartWriter.getPartFile(new File("x"), 2).getName(), "x-2");
+	}
+	
+	@Test
+	public void testExistingParts() throws IOException {
+		Assert.assertTrue(CSVPartWriter.getExistingParts(file).isEmpty());
+		
+		new File(dir, "export.csv.gz").createNewFile();
+		new File(dir, "export-.csv.gz").createNewFile();
+		new File(dir, "export-x.csv.gz").createNewFile();
+		new File(dir, "export-3.csv").createNewFile();
+		new File(dir, "other-2.csv.gz").createNewFile();
+		Assert.assertTrue(CSVPartWriter.getExistingParts(file).isEmpty());
+		
+		File part = new File(dir, "export-12.csv.gz");
+		part.createNewFile();
+		Assert.assertEquals(CSVPartWriter.getExistingParts(file), Collections.singletonList(part));
+	}
+	
+	@Test
+	public void testWriteBehindOrder() throws IOException {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		OutputStream out = new WriteBehindOutputStream(target, 7, 2);
+		for (int i = 0; i < 1000; i++) {
+			if (i % 3 == 0) {
+				out.write(i);
+			} else {
+				out.write(new byte[] { (byte) i }, 0, 1);
+			}
+		}
+		out.close();
+		byte[] written = target.toByteArray();
+		Assert.assertEquals(written.length, 1000);
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertEquals(written[i], (byte) i);
+		}
+	}
+	
+	@Test (expectedExceptions = IOException.class)
+	public void testWriteBehindFailure() throws IOException {
+		OutputStream out = new WriteBehindOutputStream(new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("Disk full");
+			}
+		}, 16, 2);
+		for (int i = 0; i < 1000; i++) {
+			out.write(i);
+		}
+		out.close();
+	}
+	
+	private CSVPartWriter write(CSVOutputOptions options, int rows) throws IOException {
+		CSVPartWriter writer = new CSVPartWriter(file, options);
+		writer.writeRow(HEADER);
+		for (int i = 0; i < rows; i++) {
+			writer.writeRow(new String[] { Integer.toString(i), "x," + i });
+		}
+		writer.close();
+		return writer;
+	}
+	
+	private List<String> read(File f, boolean compressed) throws IOException {
+		InputStream in = new FileInputStream(f);
+		if (compressed) {
+			in = new GZIPInputStream(in);
+		}
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+		List<String> lines = new ArrayList<String>();
+		try {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+}
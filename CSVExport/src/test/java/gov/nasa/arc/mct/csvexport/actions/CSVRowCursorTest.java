@@ -0,0 +1,39 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CSVRowCursorTest {
+	
+	@Test
+	public void testRowsInOrder() {
+		CSVExportCapability capability = new SyntheticCSVExportCapability(500, 5, 9L);
+		CSVRowCursor cursor = new CSVRowCursor(capability);
+		Assert.assertEquals(cursor.getRowCount(), 500);
+		for (int i = 0; i < 500; i++) {
+			Assert.assertTrue(cursor.hasNext());
+			Assert.assertEquals(cursor.getRowIndex(), i);
+			Assert.assertTrue(Arrays.equals(cursor.next(), capability.getValue(i)));
+		}
+		Assert.assertFalse(cursor.hasNext());
+		Assert.assertEquals(cursor.getRowIndex(), 500);
+	}
+	
+	@Test (expectedExceptions = {NoSuchElementException.class})
+	public void testNextPastEnd() {
+		CSVRowCursor cursor = new CSVRowCursor(new SyntheticCSVExportCapability(2, 3, 1L));
+		cursor.next();
+		cursor.next();
+		cursor.next();
+	}
+	
+	@Test (expectedExceptions = {IllegalArgumentException.class})
+	public void testNullCapability() {
+		new CSVRowCursor(null);
+	}
+}
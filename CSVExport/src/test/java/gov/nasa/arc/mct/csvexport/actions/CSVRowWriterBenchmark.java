@@ -0,0 +1,102 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+/**
+ * Compares rows/s and bytes allocated per row when writing CSV 
+ * through {@link CSVRenderer#renderRow(int)} and an unbuffered 
+ * FileWriter (as CSVExportWorker did previously), and through 
+ * {@link CSVRowWriter}. Not run as part of the test suite; run 
+ * the main method with the test classpath:
+ * 
+ * <pre>
+ * CSVRowWriterBenchmark [rows] [columns]
+ * </pre>
+ */
+public class CSVRowWriterBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+		int columns = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		CSVRenderer renderer = new CSVRenderer(new SyntheticCSVExportCapability(rows, columns, 1L));
+		File file = File.createTempFile("benchmark", ".csv");
+		file.deleteOnExit();
+		
+		// Warm up both paths before measuring
+		for (int i = 0; i < 2; i++) {
+			renderStrings(renderer, file);
+			renderBuffered(renderer, file);
+		}
+		
+		measure("renderRow + FileWriter", rows, new Task() {
+			public void run(CSVRenderer renderer, File file) throws IOException {
+				renderStrings(renderer, file);
+			}
+		}, renderer, file);
+		measure("CSVRowWriter", rows, new Task() {
+			public void run(CSVRenderer renderer, File file) throws IOException {
+				renderBuffered(renderer, file);
+			}
+		}, renderer, file);
+	}
+	
+	private static void renderStrings(CSVRenderer renderer, File file) throws IOException {
+		Writer w = new FileWriter(file);
+		try {
+			w.write(renderer.renderHeaders());
+			for (int i = 0; i < renderer.getRowCount(); i++) {
+				w.write(renderer.renderRow(i));
+			}
+		} finally {
+			w.close();
+		}
+	}
+	
+	private static void renderBuffered(CSVRenderer renderer, File file) throws IOException {
+		CSVRowWriter w = new CSVRowWriter(new OutputStreamWriter(new FileOutputStream(file)));
+		try {
+			renderer.renderHeaders(w);
+			for (int i = 0; i < renderer.getRowCount(); i++) {
+				renderer.renderRow(i, w);
+			}
+		} finally {
+			w.close();
+		}
+	}
+	
+	private static void measure(String name, int rows, Task task, CSVRenderer renderer, File file) throws IOException {
+		System.gc();
+		long allocated = allocatedBytes();
+		long start = System.nanoTime();
+		task.run(renderer, file);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		allocated = allocated < 0 ? -1 : allocatedBytes() - allocated;
+		System.out.println(String.format("%s: %.0f ms, %.0f rows/s, %s bytes allocated per row, %d KB written",
+				name, seconds * 1000, rows / seconds, 
+				allocated < 0 ? "n/a" : String.valueOf(allocated / rows), file.length() / 1024));
+	}
+	
+	/** 
+	 * @return bytes allocated by the current thread, or -1 if not supported by the JVM 
+	 */
+	private static long allocatedBytes() {
+		try {
+			Method m = Class.forName("com.sun.management.ThreadMXBean")
+					.getMethod("getThreadAllocatedBytes", long.class);
+			return (Long) m.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+	
+	private interface Task {
+		void run(CSVRenderer renderer, File file) throws IOException;
+	}
+}
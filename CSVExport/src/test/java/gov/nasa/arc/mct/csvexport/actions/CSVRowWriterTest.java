@@ -0,0 +1,37 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CSVRowWriterTest {
+	
+	@Test
+	public void testMatchesRenderer() throws IOException {
+		CSVRenderer renderer = new CSVRenderer(new SyntheticCSVExportCapability(5000, 12, 3L));
+		
+		StringWriter out = new StringWriter();
+		// Small buffer, so that values span buffer boundaries
+		CSVRowWriter writer = new CSVRowWriter(out, 7);
+		renderer.renderHeaders(writer);
+		for (int i = 0; i < renderer.getRowCount(); i++) {
+			renderer.renderRow(i, writer);
+		}
+		writer.close();
+		
+		Assert.assertEquals(out.toString(), renderer.render());
+		Assert.assertEquals(writer.getCharsWritten(), out.toString().length());
+	}
+	
+	@Test
+	public void testEmptyAndNullValues() throws IOException {
+		StringWriter out = new StringWriter();
+		CSVRowWriter writer = new CSVRowWriter(out);
+		writer.writeRow(new String[] { null, "", "a,b", "c" });
+		writer.writeRow(new String[0]);
+		writer.flush();
+		Assert.assertEquals(out.toString(), ",,\"a,b\",c\n\n");
+	}
+}
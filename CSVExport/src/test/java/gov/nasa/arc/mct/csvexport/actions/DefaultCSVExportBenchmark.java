@@ -0,0 +1,151 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.components.PropertyDescriptor;
+import gov.nasa.arc.mct.components.PropertyDescriptor.VisualControlDescriptor;
+import gov.nasa.arc.mct.components.PropertyEditor;
+import gov.nasa.arc.mct.services.internal.component.ComponentInitializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures an export through {@link DefaultCSVExportCapability} and
+ * {@link CSVRowCursor}: the time to visit the components and to drain
+ * the rows, and the number of getFieldDescriptors and getAsText calls
+ * made, as the median of several exports. Each property of the generated components parses a small
+ * model string when rendered, standing in for model-heavy components
+ * such as activities. Not run as part of the test suite; run the main
+ * method with the test classpath:
+ *
+ * <pre>
+ * DefaultCSVExportBenchmark [components] [properties]
+ * </pre>
+ */
+public class DefaultCSVExportBenchmark {
+	private static final int RUNS = 5;
+	private static final AtomicLong descriptorCalls = new AtomicLong();
+	private static final AtomicLong textCalls = new AtomicLong();
+
+	public static void main(String[] args) throws Exception {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int properties = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		BenchmarkComponent root = new BenchmarkComponent("root", properties);
+		for (int i = 0; i < count - 1; i++) {
+			root.children.add(new BenchmarkComponent("component" + i, properties));
+		}
+
+		// Warm up before measuring
+		for (int i = 0; i < 10; i++) {
+			export(root);
+		}
+		descriptorCalls.set(0);
+		textCalls.set(0);
+		long[][] runs = new long[RUNS][];
+		for (int i = 0; i < RUNS; i++) {
+			runs[i] = export(root);
+		}
+		Arrays.sort(runs, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] a, long[] b) {
+				long ta = a[0] + a[1], tb = b[0] + b[1];
+				return ta < tb ? -1 : (ta == tb ? 0 : 1);
+			}
+		});
+		long[] nanos = runs[RUNS / 2];
+
+		System.out.println(String.format("%d components, %d properties each, %d CPU(s)",
+				count, properties, Runtime.getRuntime().availableProcessors()));
+		System.out.println(String.format("  visit %8.1f ms   rows %8.1f ms   total %8.1f ms",
+				nanos[0] / 1e6, nanos[1] / 1e6, (nanos[0] + nanos[1]) / 1e6));
+		System.out.println(String.format("  getFieldDescriptors per component %.2f   getAsText per property %.2f",
+				(double) descriptorCalls.get() / count / RUNS, (double) textCalls.get() / count / properties / RUNS));
+	}
+
+	private static long[] export(AbstractComponent root) {
+		long start = System.nanoTime();
+		DefaultCSVExportCapability csv = new DefaultCSVExportCapability(
+				Collections.<AbstractComponent>singleton(root));
+		long visited = System.nanoTime();
+		CSVRowCursor cursor = new CSVRowCursor(csv);
+		int length = 0;
+		while (cursor.hasNext()) {
+			length += cursor.next().length;
+		}
+		if (length == 0) {
+			throw new IllegalStateException();
+		}
+		return new long[] { visited - start, System.nanoTime() - visited };
+	}
+
+	private static class BenchmarkComponent extends AbstractComponent {
+		private final List<AbstractComponent> children = new ArrayList<AbstractComponent>();
+		private final String[] models;
+
+		public BenchmarkComponent(String id, int properties) {
+			getCapability(ComponentInitializer.class).setId(id);
+			setDisplayName(id);
+			models = new String[properties];
+			for (int i = 0; i < properties; i++) {
+				models[i] = "<property><name>P" + i + "</name><value>" + (id.hashCode() * 31 + i) + ".25</value></property>";
+			}
+		}
+
+		@Override
+		public List<AbstractComponent> getComponents() {
+			return children;
+		}
+
+		@Override
+		public List<PropertyDescriptor> getFieldDescriptors() {
+			descriptorCalls.incrementAndGet();
+			List<PropertyDescriptor> descriptors = new ArrayList<PropertyDescriptor>(models.length);
+			for (int i = 0; i < models.length; i++) {
+				descriptors.add(new PropertyDescriptor("Property " + i,
+						new ModelEditor(models[i]), VisualControlDescriptor.Label));
+			}
+			return descriptors;
+		}
+	}
+
+	private static class ModelEditor implements PropertyEditor<Object> {
+		private final String model;
+
+		public ModelEditor(String model) {
+			this.model = model;
+		}
+
+		@Override
+		public String getAsText() {
+			textCalls.incrementAndGet();
+			int start = model.indexOf("<value>") + "<value>".length();
+			double value = Double.parseDouble(model.substring(start, model.indexOf("</value>", start)));
+			return String.format("%.3f", value);
+		}
+
+		@Override
+		public void setAsText(String newValue) throws IllegalArgumentException {
+			throw new IllegalArgumentException();
+		}
+
+		@Override
+		public Object getValue() {
+			return model;
+		}
+
+		@Override
+		public void setValue(Object value) throws IllegalArgumentException {
+			throw new IllegalArgumentException();
+		}
+
+		@Override
+		public List<Object> getTags() {
+			return null;
+		}
+	}
+}
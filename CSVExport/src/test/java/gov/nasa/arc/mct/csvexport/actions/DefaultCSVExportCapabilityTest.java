@@ -0,0 +1,177 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.components.PropertyDescriptor;
+import gov.nasa.arc.mct.components.PropertyDescriptor.VisualControlDescriptor;
+import gov.nasa.arc.mct.components.PropertyEditor;
+import gov.nasa.arc.mct.services.internal.component.ComponentInitializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DefaultCSVExportCapabilityTest {
+	private static final String REF = BundleAccess.BUNDLE.getString("csv_child_prefix");
+	private static final String TYPE = TestComponent.class.getName();
+
+	/**
+	 * Headers and rows must match those of the previous implementation,
+	 * which collected all values up front: properties without a value
+	 * (null, or getAsText unsupported) add no column.
+	 */
+	@Test
+	public void testMatchesPreviousOutput() {
+		TestComponent shared = new TestComponent("shared", "Shared");
+		shared.property("Empty", "e");
+		TestComponent child = new TestComponent("child", "Child");
+		child.property("Size", "3");
+		child.property("Unsupported", null);
+		child.children.add(shared);
+		TestComponent root = new TestComponent("root", "Root");
+		root.property("Size", "1");
+		root.property("Empty", null);
+		root.unsupported("Unsupported");
+		root.children.add(child);
+		root.children.add(shared);
+
+		DefaultCSVExportCapability csv = new DefaultCSVExportCapability(
+				Collections.<AbstractComponent>singleton(root));
+
+		assertRow(csv.getHeaders(), "Base Displayed Name", "Component Type", "MCT Id",
+				"Size", "Empty", REF + "1", REF + "2");
+		Assert.assertEquals(csv.getColumnCount(), 7);
+		Assert.assertEquals(csv.getRowCount(), 3);
+		assertRow(csv.getValue(0), "Root", TYPE, "root", "1", null, "child", "shared");
+		assertRow(csv.getValue(1), "Child", TYPE, "child", "3", null, "shared", null);
+		assertRow(csv.getValue(2), "Shared", TYPE, "shared", null, "e", null, null);
+	}
+
+	@Test
+	public void testNoValuesNoColumn() {
+		TestComponent root = new TestComponent("root", null);
+		root.property("Empty", null);
+		root.unsupported("Unsupported");
+
+		DefaultCSVExportCapability csv = new DefaultCSVExportCapability(
+				Collections.<AbstractComponent>singleton(root));
+
+		assertRow(csv.getHeaders(), "Component Type", "MCT Id");
+		assertRow(csv.getValue(0), TYPE, "root");
+	}
+
+	@Test
+	public void testPropertiesRetrievedOnce() {
+		TestComponent root = new TestComponent("root", "Root");
+		root.property("Size", "1");
+		List<TestComponent> children = new ArrayList<TestComponent>();
+		for (int i = 0; i < 3; i++) {
+			TestComponent child = new TestComponent("child" + i, "Child " + i);
+			child.property("Size", Integer.toString(i));
+			child.property("Empty", null);
+			children.add(child);
+			root.children.add(child);
+		}
+		DefaultCSVExportCapability csv = new DefaultCSVExportCapability(
+				Collections.<AbstractComponent>singleton(root));
+		for (int row = 0; row < csv.getRowCount(); row++) {
+			csv.getValue(row);
+		}
+		
+		// Descriptors are retrieved once per component; a value is only 
+		// rendered while visiting to decide on a new column
+		Assert.assertEquals(root.descriptorCalls, 1);
+		Assert.assertEquals(root.editors.get(0).renders, 2);
+		for (TestComponent child : children) {
+			Assert.assertEquals(child.descriptorCalls, 1);
+			Assert.assertEquals(child.editors.get(0).renders, 1);
+		}
+		Assert.assertEquals(children.get(0).editors.get(1).renders, 1);
+		Assert.assertEquals(children.get(1).editors.get(1).renders, 1);
+		assertRow(csv.getHeaders(), "Base Displayed Name", "Component Type", "MCT Id",
+				"Size", REF + "1", REF + "2", REF + "3");
+	}
+	
+	private void assertRow(String[] actual, String... expected) {
+		Assert.assertTrue(Arrays.equals(actual, expected),
+				Arrays.toString(actual) + " != " + Arrays.toString(expected));
+	}
+
+	private static class TestComponent extends AbstractComponent {
+		private final List<AbstractComponent> children = new ArrayList<AbstractComponent>();
+		private final List<PropertyDescriptor> descriptors = new ArrayList<PropertyDescriptor>();
+		private final List<TextEditor> editors = new ArrayList<TextEditor>();
+		private int descriptorCalls = 0;
+
+		public TestComponent(String id, String name) {
+			getCapability(ComponentInitializer.class).setId(id);
+			setDisplayName(name);
+		}
+
+		public void property(String description, String value) {
+			TextEditor editor = new TextEditor(value, false);
+			editors.add(editor);
+			descriptors.add(new PropertyDescriptor(description,
+					editor, VisualControlDescriptor.Label));
+		}
+
+		public void unsupported(String description) {
+			descriptors.add(new PropertyDescriptor(description,
+					new TextEditor(null, true), VisualControlDescriptor.Label));
+		}
+
+		@Override
+		public List<AbstractComponent> getComponents() {
+			return children;
+		}
+
+		@Override
+		public List<PropertyDescriptor> getFieldDescriptors() {
+			descriptorCalls++;
+			return descriptors;
+		}
+	}
+
+	private static class TextEditor implements PropertyEditor<Object> {
+		private final String text;
+		private final boolean unsupported;
+		private int renders = 0;
+
+		public TextEditor(String text, boolean unsupported) {
+			this.text = text;
+			this.unsupported = unsupported;
+		}
+
+		@Override
+		public String getAsText() {
+			renders++;
+			if (unsupported) {
+				throw new IllegalArgumentException();
+			}
+			return text;
+		}
+
+		@Override
+		public void setAsText(String newValue) throws IllegalArgumentException {
+			throw new IllegalArgumentException();
+		}
+
+		@Override
+		public Object getValue() {
+			return text;
+		}
+
+		@Override
+		public void setValue(Object value) throws IllegalArgumentException {
+			throw new IllegalArgumentException();
+		}
+
+		@Override
+		public List<Object> getTags() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
+
+import java.util.Random;
+
+/**
+ * A CSV export capability with generated values, for tests and benchmarks. 
+ * A fixed pool of rows is generated up front and repeated, so that 
+ * reading rows does not itself allocate.
+ */
+public class SyntheticCSVExportCapability implements CSVExportCapability {
+	private static final int POOL_SIZE = 1024;
+	
+	private final String[] headers;
+	private final String[][] pool;
+	private final int rows;
+	
+	public SyntheticCSVExportCapability(int rows, int columns, long seed) {
+		Random random = new Random(seed);
+		this.rows = rows;
+		this.headers = new String[columns];
+		for (int c = 0; c < columns; c++) {
+			headers[c] = "Column " + c;
+		}
+		this.pool = new String[Math.min(rows, POOL_SIZE)][columns];
+		for (int r = 0; r < pool.length; r++) {
+			for (int c = 0; c < columns; c++) {
+				switch (random.nextInt(4)) {
+				case 0: pool[r][c] = null; break;
+				case 1: pool[r][c] = "value, with comma " + random.nextInt(); break;
+				case 2: pool[r][c] = Double.toString(random.nextDouble()); break;
+				default: pool[r][c] = Long.toHexString(random.nextLong()); break;
+				}
+			}
+		}
+	}
+
+	@Override
+	public String[] getValue(int row) {
+		return pool[row % pool.length];
+	}
+
+	@Override
+	public String[] getHeaders() {
+		return headers;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return headers.length;
+	}
+
+	@Override
+	public int getRowCount() {
+		return rows;
+	}
+}
@@ -0,0 +1,215 @@
+package gov.nasa.arc.mct.csvexport.actions;
+
+import gov.nasa.arc.mct.api.feed.DataProvider;
+import gov.nasa.arc.mct.components.FeedProvider;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TelemetryCSVWriterTest {
+	
+	@Test
+	public void testWideFormat() throws IOException {
+		SyntheticDataProvider provider = new SyntheticDataProvider();
+		provider.add("a", 1000, "1");
+		provider.add("a", 2000, "2");
+		provider.add("b", 2000, "x");
+		provider.add("b", 3000, "y");
+		
+		String csv = export(provider, TelemetryCSVWriter.Format.WIDE, 0, 5000, 60000, feed("a"), feed("b"));
+		Assert.assertEquals(csv, 
+				"Time (UTC),Time (ms),A,B\n" +
+				"1970-01-01 00:00:01.000,1000,1,\n" + 
+				"1970-01-01 00:00:02.000,2000,2,x\n" + 
+				"1970-01-01 00:00:03.000,3000,,y\n");
+	}
+	
+	@Test
+	public void testLongFormat() throws IOException {
+		SyntheticDataProvider provider = new SyntheticDataProvider();
+		provider.add("a", 2000, "2");
+		provider.add("b", 1000, "x");
+		provider.add("b", 2000, "y");
+		
+		String csv = export(provider, TelemetryCSVWriter.Format.LONG, 0, 5000, 60000, feed("a"), feed("b"));
+		Assert.assertEquals(csv, 
+				"Time (UTC),Time (ms),Feed,Value\n" +
+				"1970-01-01 00:00:01.000,1000,B,x\n" + 
+				"1970-01-01 00:00:02.000,2000,A,2\n" + 
+				"1970-01-01 00:00:02.000,2000,B,y\n");
+	}
+	
+	@Test
+	public void testChunkBoundaries() throws IOException {
+		SyntheticDataProvider provider = new SyntheticDataProvider();
+		for (long t = 0; t <= 10000; t += 500) {
+			provider.add("a", t, Long.toString(t));
+		}
+		
+		// Chunk length does not evenly divide the range; samples on 
+		// boundaries (and at the very end) should appear exactly once
+		String chunked = export(provider, TelemetryCSVWriter.Format.LONG, 1000, 9000, 1500, feed("a"));
+		String whole = export(provider, TelemetryCSVWriter.Format.LONG, 1000, 9000, 60000, feed("a"));
+		Assert.assertEquals(chunked, whole);
+		
+		String[] lines = chunked.split("\n");
+		Assert.assertEquals(lines.length, 1 + 17);
+		Assert.assertTrue(lines[1].endsWith(",1000"));
+		Assert.assertTrue(lines[lines.length - 1].endsWith(",9000"));
+		Assert.assertTrue(provider.requests > 1);
+	}
+	
+	@Test
+	public void testProviderPrecedence() throws IOException {
+		SyntheticDataProvider first = new SyntheticDataProvider();
+		SyntheticDataProvider second = new SyntheticDataProvider();
+		first.add("a", 1000, "first");
+		second.add("a", 1000, "second");
+		second.add("b", 1000, "second");
+		
+		StringWriter out = new StringWriter();
+		CSVRowWriter w = new CSVRowWriter(out);
+		TelemetryCSVWriter writer = new TelemetryCSVWriter(
+				Arrays.<DataProvider>asList(first, second), Arrays.asList(feed("a"), feed("b")), 
+				TelemetryCSVWriter.Format.WIDE, 0, 2000, 60000);
+		while (writer.hasNextChunk()) {
+			writer.writeNextChunk(w);
+		}
+		w.flush();
+		Assert.assertEquals(out.toString(), "1970-01-01 00:00:01.000,1000,first,second\n");
+		Assert.assertEquals(writer.getRowCount(), 1);
+		Assert.assertEquals(writer.getProgress(), 100);
+	}
+	
+	@Test
+	public void testEmptySeriesFallsThrough() throws IOException {
+		// The first provider knows feed "a", but has no samples in the span
+		SyntheticDataProvider empty = new SyntheticDataProvider();
+		empty.add("a", 50000, "outside");
+		// The second returns null series for the feeds it is asked for
+		SyntheticDataProvider nulls = new SyntheticDataProvider() {
+			@Override
+			public Map<String, SortedMap<Long, Map<String, String>>> getData(
+					Set<String> feedIDs, long startTime, long endTime, TimeUnit timeUnit) {
+				Map<String, SortedMap<Long, Map<String, String>>> result = 
+						new HashMap<String, SortedMap<Long, Map<String, String>>>();
+				for (String feedID : feedIDs) {
+					result.put(feedID, null);
+				}
+				return result;
+			}
+		};
+		SyntheticDataProvider last = new SyntheticDataProvider();
+		last.add("a", 1000, "last");
+		last.add("b", 1000, "last");
+		
+		StringWriter out = new StringWriter();
+		CSVRowWriter w = new CSVRowWriter(out);
+		TelemetryCSVWriter writer = new TelemetryCSVWriter(
+				Arrays.<DataProvider>asList(empty, nulls, last), Arrays.asList(feed("a"), feed("b")), 
+				TelemetryCSVWriter.Format.WIDE, 0, 2000, 60000);
+		while (writer.hasNextChunk()) {
+			writer.writeNextChunk(w);
+		}
+		w.flush();
+		Assert.assertEquals(out.toString(), "1970-01-01 00:00:01.000,1000,last,last\n");
+	}
+	
+	private String export(DataProvider provider, TelemetryCSVWriter.Format format, 
+			long start, long end, long chunk, FeedProvider... feeds) throws IOException {
+		StringWriter out = new StringWriter();
+		CSVRowWriter w = new CSVRowWriter(out);
+		TelemetryCSVWriter writer = new TelemetryCSVWriter(
+				Collections.singletonList(provider), Arrays.asList(feeds), format, start, end, chunk);
+		writer.writeHeaders(w);
+		while (writer.hasNextChunk()) {
+			writer.writeNextChunk(w);
+		}
+		w.close();
+		return out.toString();
+	}
+	
+	private FeedProvider feed(final String id) {
+		return (FeedProvider) Proxy.newProxyInstance(getClass().getClassLoader(), 
+				new Class<?>[] { FeedProvider.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getName().equals("getSubscriptionId")) {
+					return id;
+				} else if (method.getName().equals("getCanonicalName")) {
+					return id.toUpperCase();
+				}
+				return null;
+			}			
+		});
+	}
+
+	private static class SyntheticDataProvider implements DataProvider {
+		private Map<String, TreeMap<Long, Map<String, String>>> data = 
+				new HashMap<String, TreeMap<Long, Map<String, String>>>();
+		private int requests = 0;
+		
+		public void add(String feedID, long time, String value) {
+			if (!data.containsKey(feedID)) {
+				data.put(feedID, new TreeMap<Long, Map<String, String>>());
+			}
+			Map<String, String> sample = new HashMap<String, String>();
+			sample.put(FeedProvider.NORMALIZED_VALUE_KEY, value);
+			sample.put(FeedProvider.NORMALIZED_TIME_KEY, Long.toString(time));
+			data.get(feedID).put(time, sample);
+		}
+		
+		@Override
+		public Map<String, SortedMap<Long, Map<String, String>>> getData(
+				Set<String> feedIDs, long startTime, long endTime, TimeUnit timeUnit) {
+			requests++;
+			Map<String, SortedMap<Long, Map<String, String>>> result = 
+					new HashMap<String, SortedMap<Long, Map<String, String>>>();
+			for (String feedID : feedIDs) {
+				if (data.containsKey(feedID)) {
+					// Inclusive of end time, as some providers are
+					result.put(feedID, data.get(feedID).subMap(startTime, true, endTime, true));
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public Map<String, List<Map<String, String>>> getData(
+				Set<String> feedIDs, TimeUnit timeUnit, long startTime, long endTime) {
+			Map<String, List<Map<String, String>>> result = 
+					new HashMap<String, List<Map<String, String>>>();
+			for (Map.Entry<String, SortedMap<Long, Map<String, String>>> entry : 
+					getData(feedIDs, startTime, endTime, timeUnit).entrySet()) {
+				result.put(entry.getKey(), new ArrayList<Map<String, String>>(entry.getValue().values()));
+			}
+			return result;
+		}
+
+		@Override
+		public boolean isFullyWithinTimeSpan(String feedID, long startTime, TimeUnit timeUnit) {
+			return true;
+		}
+
+		@Override
+		public LOS getLOS() {
+			return LOS.fast;
+		}		
+	}
+}
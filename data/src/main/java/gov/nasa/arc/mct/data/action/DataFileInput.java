@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.data.action;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens a data file for import, transparently decompressing 
+ * gzip files (such as .csv.gz archives). Compressed files are 
+ * decompressed on a read-ahead thread, so that decompression
+ * overlaps with parsing. 
+ * 
+ */
+public class DataFileInput implements Closeable {
+	private static final int GZIP_MAGIC = 0x8b1f;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int READ_AHEAD_BLOCKS = 8;
+	
+	private final CountingInputStream counter;
+	private final BufferedReader reader;
+	private final boolean compressed;
+	
+	private DataFileInput(File file) throws IOException {
+		counter = new CountingInputStream(new FileInputStream(file));
+		InputStream in = new BufferedInputStream(counter, BUFFER_SIZE);
+		try {
+			compressed = isGzip(in);
+			if (compressed) {
+				in = new ReadAheadInputStream(new GZIPInputStream(in, BUFFER_SIZE), 
+						BUFFER_SIZE, READ_AHEAD_BLOCKS);
+			}
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		reader = new BufferedReader(new InputStreamReader(in), BUFFER_SIZE);
+	}
+	
+	/**
+	 * Open a data file for reading.
+	 * @param file the plain or gzip-compressed file
+	 * @return the opened input
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static DataFileInput open(File file) throws IOException {
+		return new DataFileInput(file);
+	}
+	
+	private static boolean isGzip(InputStream in) throws IOException {
+		in.mark(2);
+		int magic = in.read() | (in.read() << 8);
+		in.reset();
+		return magic == GZIP_MAGIC;
+	}
+	
+	/**
+	 * @return a reader for the decompressed content of the file
+	 */
+	public BufferedReader getReader() {
+		return reader;
+	}
+	
+	/**
+	 * @return true if the file is gzip-compressed
+	 */
+	public boolean isCompressed() {
+		return compressed;
+	}
+	
+	/**
+	 * @return the number of bytes read from the file so far 
+	 * (compressed bytes, for a compressed file); suitable for
+	 * comparison with File.length() to report progress
+	 */
+	public long getBytesRead() {
+		return counter.count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+	
+	private static class CountingInputStream extends FilterInputStream {
+		private volatile long count = 0;
+		
+		public CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) count++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) count += read;
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+}
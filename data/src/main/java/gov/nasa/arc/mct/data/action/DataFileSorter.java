@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.data.action;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts the lines of a data file (ID, timeStamp and value) by 
+ * feed ID, then by time stamp, using a bounded amount of memory. 
+ * Lines are sorted in runs which are spilled to temporary files, 
+ * and the runs are then merged as the sorted lines are read.
+ * 
+ */
+public class DataFileSorter {
+	/** default number of lines held in memory while sorting */
+	public static final int DEFAULT_RUN_LENGTH = 250000;
+	
+	/** maximum number of runs merged at once */
+	private static final int MAX_MERGE_WIDTH = 64;
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/** order within a run; ties keep their input order */
+	private static final Comparator<Sample> ORDER = new Comparator<Sample>() {
+		@Override
+		public int compare(Sample a, Sample b) {
+			int c = a.feed.compareTo(b.feed);
+			if (c == 0) {
+				c = a.time < b.time ? -1 : (a.time > b.time ? 1 : 0);
+			}
+			if (c == 0) {
+				c = a.sequence < b.sequence ? -1 : (a.sequence > b.sequence ? 1 : 0);
+			}
+			return c;
+		}		
+	};
+	
+	private final File tempDirectory;
+	private final int runLength;
+	
+	/**
+	 * Create a sorter which spills to the default temporary directory.
+	 */
+	public DataFileSorter() {
+		this(null, DEFAULT_RUN_LENGTH);
+	}
+	
+	/**
+	 * Create a sorter.
+	 * @param tempDirectory the directory for spill files, or null for the system default
+	 * @param runLength the maximum number of lines to hold in memory
+	 */
+	public DataFileSorter(File tempDirectory, int runLength) {
+		if (runLength <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.tempDirectory = tempDirectory;
+		this.runLength = runLength;
+	}
+	
+	/**
+	 * Read all lines from the reader and sort them. Blank lines are dropped, 
+	 * as are malformed lines (without a valid time stamp), which are counted. 
+	 * The reader is not closed. 
+	 * @param reader the source of unsorted lines
+	 * @return the sorted lines; must be closed to remove the spill files
+	 * @throws IOException if reading or spilling fails
+	 */
+	public SortedLines sort(BufferedReader reader) throws IOException {
+		List<File> runs = new ArrayList<File>();
+		Sample[] buffer = new Sample[runLength];
+		int count = 0;
+		long sequence = 0;
+		long total = 0;
+		long malformed = 0;
+		
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.length() == 0) {
+					continue;
+				}
+				try {
+					buffer[count] = new Sample(line, sequence++);
+				} catch (NumberFormatException e) {
+					malformed++;
+					continue;
+				}
+				count++;
+				total++;
+				if (count == runLength) {
+					runs.add(spill(buffer, count));
+					count = 0;
+				}
+			}
+			
+			// Keep the final run in memory
+			Arrays.sort(buffer, 0, count, ORDER);
+			Sample[] last = new Sample[count];
+			System.arraycopy(buffer, 0, last, 0, count);
+			buffer = null;
+			
+			// Merge the earliest runs first, so runs stay in input order
+			while (runs.size() > MAX_MERGE_WIDTH) {
+				List<File> merged = new ArrayList<File>(runs.subList(0, MAX_MERGE_WIDTH));
+				runs.subList(0, MAX_MERGE_WIDTH).clear();
+				runs.add(0, merge(merged));
+			}
+			
+			return new SortedLines(runs, last, total, malformed);
+		} catch (IOException e) {
+			delete(runs);
+			throw e;
+		} catch (RuntimeException e) {
+			delete(runs);
+			throw e;
+		}
+	}
+	
+	private File spill(Sample[] samples, int count) throws IOException {
+		Arrays.sort(samples, 0, count, ORDER);
+		File run = File.createTempFile("mct-data-sort", ".csv", tempDirectory);
+		Writer writer = null;
+		try {
+			writer = openWriter(run);
+			for (int i = 0; i < count; i++) {
+				writer.write(samples[i].line);
+				writer.write('\n');
+				samples[i] = null;
+			}
+		} catch (IOException e) {
+			run.delete();
+			throw e;
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+		return run;
+	}
+	
+	private File merge(List<File> runs) throws IOException {
+		File run = File.createTempFile("mct-data-sort", ".csv", tempDirectory);
+		SortedLines lines = new SortedLines(runs, new Sample[0], 0, 0);
+		Writer writer = null;
+		try {
+			writer = openWriter(run);
+			String line;
+			while ((line = lines.readLine()) != null) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		} catch (IOException e) {
+			run.delete();
+			throw e;
+		} finally {
+			lines.close();
+			if (writer != null) {
+				writer.close();
+			}
+		}
+		return run;
+	}
+	
+	private static Writer openWriter(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file)), BUFFER_SIZE);
+	}
+	
+	private static void delete(List<File> files) {
+		for (File f : files) {
+			f.delete();
+		}
+	}
+	
+	/**
+	 * Parse the time stamp of a data line (ID, timeStamp and value).
+	 * @param line the line
+	 * @return the time stamp
+	 * @throws NumberFormatException if the line has no valid time stamp
+	 */
+	static long parseTime(String line) {
+		int first = line.indexOf(',');
+		int second = line.indexOf(',', first + 1);
+		if (first < 0 || second < 0) {
+			throw new NumberFormatException(line);
+		}
+		return Long.parseLong(line.substring(first + 1, second).trim());
+	}
+	
+	/**
+	 * Parse the feed ID of a data line (ID, timeStamp and value).
+	 * @param line the line
+	 * @return the feed ID, without prefix
+	 */
+	static String parseFeed(String line) {
+		int first = line.indexOf(',');
+		return first < 0 ? line : line.substring(0, first);
+	}
+	
+	private static class Sample {
+		private final String line;
+		private final String feed;
+		private final long time;
+		private final long sequence;
+		
+		public Sample(String line, long sequence) {
+			this.line = line;
+			this.feed = parseFeed(line);
+			this.time = parseTime(line);
+			this.sequence = sequence;
+		}
+	}
+	
+	/**
+	 * A sorted run, read one sample at a time.
+	 */
+	private static abstract class Run {
+		private final int index;
+		private Sample head;
+		
+		public Run(int index) {
+			this.index = index;
+		}
+		
+		public boolean advance() throws IOException {
+			head = next();
+			return head != null;
+		}
+		
+		protected abstract Sample next() throws IOException;
+		
+		public void close() throws IOException {			
+		}
+	}
+	
+	private static class FileRun extends Run {
+		private final BufferedReader reader;
+		
+		public FileRun(File file, int index) throws IOException {
+			super(index);
+			this.reader = new BufferedReader(new InputStreamReader(
+					new FileInputStream(file)), BUFFER_SIZE);
+		}
+
+		@Override
+		protected Sample next() throws IOException {
+			String line = reader.readLine();
+			return line == null ? null : new Sample(line, 0);
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+	
+	private static class MemoryRun extends Run {
+		private final Sample[] samples;
+		private int position = 0;
+		
+		public MemoryRun(Sample[] samples, int index) {
+			super(index);
+			this.samples = samples;
+		}
+
+		@Override
+		protected Sample next() {
+			if (position < samples.length) {
+				Sample sample = samples[position];
+				samples[position++] = null;
+				return sample;
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * The sorted lines, produced by merging sorted runs. 
+	 */
+	public static class SortedLines implements Closeable {
+		private final List<File> files;
+		private final List<Run> runs = new ArrayList<Run>();
+		private final PriorityQueue<Run> queue;
+		private final long total;
+		private final long malformed;
+		
+		private SortedLines(List<File> files, Sample[] memory, long total, long malformed) throws IOException {
+			this.files = files;
+			this.total = total;
+			this.malformed = malformed;
+			this.queue = new PriorityQueue<Run>(files.size() + 1, new Comparator<Run>() {
+				@Override
+				public int compare(Run a, Run b) {
+					int c = a.head.feed.compareTo(b.head.feed);
+					if (c == 0) {
+						c = a.head.time < b.head.time ? -1 : (a.head.time > b.head.time ? 1 : 0);
+					}
+					if (c == 0) {
+						// Runs hold consecutive parts of the input; keep their order 
+						c = a.index - b.index;
+					}
+					return c;
+				}				
+			});
+			try {
+				for (int i = 0; i < files.size(); i++) {
+					runs.add(new FileRun(files.get(i), i));
+				}
+				runs.add(new MemoryRun(memory, files.size()));
+				for (Run run : runs) {
+					if (run.advance()) {
+						queue.add(run);
+					}
+				}
+			} catch (IOException e) {
+				close();
+				throw e;
+			}
+		}
+		
+		/**
+		 * @return the total number of lines, or 0 if unknown
+		 */
+		public long getLineCount() {
+			return total;
+		}
+		
+		/**
+		 * @return the number of malformed lines which were skipped
+		 */
+		public long getMalformedLineCount() {
+			return malformed;
+		}
+		
+		/**
+		 * @return the next line in (feed ID, time stamp) order, or null 
+		 * if all lines have been read
+		 * @throws IOException if a spill file cannot be read
+		 */
+		public String readLine() throws IOException {
+			Run run = queue.poll();
+			if (run == null) {
+				return null;
+			}
+			String line = run.head.line;
+			if (run.advance()) {
+				queue.add(run);
+			}
+			return line;
+		}
+
+		@Override
+		public void close() throws IOException {
+			for (Run run : runs) {
+				try {
+					run.close();
+				} catch (IOException e) {
+					// Ignore; file is deleted below
+				}
+			}
+			runs.clear();
+			queue.clear();
+			delete(files);
+		}
+	}
+}
@@ -32,6 +32,7 @@ import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.io.File;
 
+import javax.swing.JCheckBox;
 import javax.swing.JFileChooser;
 
 
@@ -46,6 +47,7 @@ public class DataImportAction extends ContextAwareAction {
 
 	private static final long serialVersionUID = 7714664337177992302L;
 	private ActionContext currentContext;
+	private JCheckBox sortCheckBox;
 
 	public DataImportAction() {
 		super(BundleAccess.BUNDLE.getString("data_import_action"));
@@ -78,7 +80,7 @@ public class DataImportAction extends ContextAwareAction {
 		AbstractComponent selectedComponent = manifestation.getManifestedComponent();
 		
 		if (file != null) {
-			new DataImporter(window, selectedComponent, file).importData();
+			new DataImporter(window, selectedComponent, file, sortCheckBox.isSelected()).importData();
 		}
 	}
 	
@@ -95,6 +97,8 @@ public class DataImportAction extends ContextAwareAction {
 		if (parent == null) return null;
 		
 		JFileChooser dataFileChooser = new ImportFileChooser();
+		sortCheckBox = new JCheckBox(BundleAccess.BUNDLE.getString("data_import_sort"));
+		dataFileChooser.setAccessory(sortCheckBox);
 		dataFileChooser.setDialogTitle(BundleAccess.BUNDLE.getString("data_import_chooser_title"));
 		dataFileChooser.setApproveButtonText(BundleAccess.BUNDLE.getString("data_import_button"));
 		return dataFileChooser.showSaveDialog(parent) == FileChooser.APPROVE_OPTION ?
@@ -32,6 +32,7 @@ import gov.nasa.arc.mct.data.component.DataTaxonomyComponent;
 import gov.nasa.arc.mct.platform.spi.PlatformAccess;
 
 import java.awt.Color;
+import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -41,42 +42,75 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 
 import javax.swing.SwingWorker;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * A SwingWorker responsible for managing the background 
  * activities of Data import. These include parsing data,
  * registering endTime in DataTaxonomyComponent (parent) 
- * and saving data to database.  
+ * and saving data to database. Data files may be plain or
+ * gzip-compressed CSV.
  * 
  * @author jdong
  *
  */
 public class DataImportWorker extends SwingWorker<Boolean, Void> {
+	private static final Logger logger = LoggerFactory.getLogger(DataImportWorker.class);
+	
+	/** maximum number of samples of one feed written to the archive at once */
+	private static final int BATCH_SIZE = 1000;
+	
 	private File file;
 	private AbstractComponent parent;
+	private boolean sort;
 	private FileNotFoundException fnfException;
 	private BufferFullException bfException;
+	private IOException ioException;
 	private FeedDataArchive dataArchive = FeedDataArchiveAccess.getDataArchive();
 	
 	/**
-	 * used to check whether lines of data belong to the same component,
-	 * essentially used to find last time stamp.
+	 * samples of a single feed waiting to be written to the archive.
+	 */
+	private String batchID;
+	private Map<Long, Map<String, String>> batch = new HashMap<Long, Map<String, String>>();
+	
+	/**
+	 * the last time stamp read for each feed; registered in the 
+	 * DataTaxonomyComponent (parent) once the file has been read.
 	 */
-	private String previousID, previousTime;
+	private Map<String, Long> endTimes = new HashMap<String, Long>();
 	
 	/**
 	 * monitor the process of reading data from file and writing to disk
 	 */
 	private Boolean success = true;
 	
+	/**
+	 * number of lines skipped because they could not be parsed
+	 */
+	private long malformedLines = 0;
+	
 	public DataImportWorker(File file, AbstractComponent parent) {
+		this(file, parent, false);
+	}
+	
+	/**
+	 * Create a worker to import a data file. 
+	 * @param file the data file to read
+	 * @param parent the parent component which stores endTimeStamp of its children
+	 * @param sort if true, sort the file by feed ID and time stamp before import; 
+	 *        use for files in which feeds are interleaved or out of order
+	 */
+	public DataImportWorker(File file, AbstractComponent parent, boolean sort) {
 		super();
 		this.file = file;	
 		this.parent = parent;
+		this.sort = sort;
 		if ((parent == null) && (file == null)) {
 			throw new IllegalArgumentException();
 		}
@@ -92,66 +126,109 @@ public class DataImportWorker extends SwingWorker<Boolean, Void> {
 	}
 	
 	private Boolean readFile(File file) {
-		Scanner fileScanner = null;
+		DataFileInput input = null;
 		
 		try {
-			fileScanner = new Scanner(file);
+			input = DataFileInput.open(file);
 		} catch (FileNotFoundException e) {
 			fnfException = e;
-			success = false;
+			e.printStackTrace();
+		} catch (IOException e) {
+			ioException = e;
 			e.printStackTrace();
 		} finally {
-			success = (fileScanner != null);
+			success = (input != null);
 		}
 		
 		if (success) {
-			long byteLength = file.length();
-			int bytesRead = 0;
-	        long totalBytes = 0;
-			String line = fileScanner.nextLine();		
-			readFirstLine(line);
-			bytesRead = line.getBytes().length;
-
-			while (success && fileScanner.hasNextLine()) {
-				
-				totalBytes += bytesRead;
-				setProgress(Math.round(((float) totalBytes / (float) byteLength) * 100f));
-
-				line = fileScanner.nextLine();
-				saveData(line);
-				bytesRead = line.getBytes().length;
-			}	
+			long startTime = System.nanoTime();
+			long samples = 0;
+			DataFileSorter.SortedLines sorted = null;
+			
+			try {
+				final DataFileInput in = input;
+				final long byteLength = Math.max(1, file.length());
+				if (sort) {
+					// Reading the file is the first half of the work
+					sorted = new DataFileSorter().sort(new BufferedReader(in.getReader()) {
+						@Override
+						public String readLine() throws IOException {
+							updateProgress(in.getBytesRead(), byteLength * 2);
+							return super.readLine();
+						}
+					});
+					malformedLines = sorted.getMalformedLineCount();
+					long lineCount = Math.max(1, sorted.getLineCount());
+					String line;
+					while (success && !isCancelled() && (line = sorted.readLine()) != null) {
+						if (saveData(line)) {
+							samples++;
+						}
+						updateProgress(lineCount + samples, lineCount * 2);
+					}
+				} else {
+					BufferedReader reader = in.getReader();
+					String line;
+					while (success && !isCancelled() && (line = reader.readLine()) != null) {
+						if (line.length() > 0 && saveData(line)) {
+							samples++;
+						}
+						updateProgress(in.getBytesRead(), byteLength);
+					}
+				}
+				flush();
+			} catch (IOException e) {
+				ioException = e;
+				success = false;
+				e.printStackTrace();
+			} finally {
+				safeClose(sorted);
+				safeClose(input);
+				// register the end time of every feed that was read
+				setEndTimes();
+			}
 			
-			// process the last line of file
-			setEndTime(previousID, previousTime);
-			fileScanner.close();
+			long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+			logger.info("Imported {} samples from {} ({}{}) in {} ms: {} samples/s, {} KB/s read", new Object[] {
+					samples, file.getName(), input.isCompressed() ? "gzip" : "plain", sort ? ", sorted" : "",
+					elapsed, samples * 1000 / elapsed, file.length() * 1000 / 1024 / elapsed });
+			if (malformedLines > 0) {
+				logger.warn("Skipped {} malformed lines in {}", malformedLines, file.getName());
+			}
 		}		
 		
 		return success;
 	}
 	
-	/**
-	 * read first line to initialize previoudID and previousTime,
-	 * and save the data.
-	 * @param firstLine
-	 */
-	private void readFirstLine(String firstLine) {
-		Scanner lineScanner = new Scanner(firstLine);
-		lineScanner.useDelimiter(",");
-		previousID = DataComponent.PREFIX + lineScanner.next();
-		previousTime   = lineScanner.next();
-		lineScanner.close();
-
-		saveData(firstLine);
+	private void updateProgress(long done, long total) {
+		setProgress((int) Math.min(100, done * 100 / total));
 	}
 	
-    private void saveData(String line) {    	
-    	Scanner lineScanner = new Scanner(line);
-		lineScanner.useDelimiter(",");
-		String feedID = DataComponent.PREFIX + lineScanner.next();
-		String time   = lineScanner.next();
-		String value  = lineScanner.next();
-		lineScanner.close();
+	/**
+	 * parse a line of data (ID, timeStamp and value) and add it 
+	 * to the batch of samples to be saved. Malformed lines are 
+	 * counted and skipped.
+	 * @param line
+	 * @return true if the line was added, false if it was malformed
+	 */
+    private boolean saveData(String line) {    	
+    	int first = line.indexOf(',');
+    	int second = line.indexOf(',', first + 1);
+    	int third = line.indexOf(',', second + 1);
+    	if (first < 0 || second < 0) {
+    		malformedLines++;
+    		return false;
+    	}
+		String feedID = DataComponent.PREFIX + line.substring(0, first);
+		String time   = line.substring(first + 1, second);
+		String value  = third < 0 ? line.substring(second + 1) : line.substring(second + 1, third);
+		long timeStamp;
+		try {
+			timeStamp = Long.parseLong(time);
+		} catch (NumberFormatException e) {
+			malformedLines++;
+			return false;
+		}
 		
     	Map<String, String> datum = new HashMap<String, String>();
     	RenderingInfo ri = new RenderingInfo(value, Color.ORANGE, " ", Color.ORANGE, true);;
@@ -160,43 +237,87 @@ public class DataImportWorker extends SwingWorker<Boolean, Void> {
     	// Fill in the normally expected key/value pairs
 	    datum.put(FeedProvider.NORMALIZED_IS_VALID_KEY, Boolean.TRUE.toString());   
 	    datum.put(FeedProvider.NORMALIZED_RENDERING_INFO, ri.toString());
-	    datum.put(FeedProvider.NORMALIZED_TIME_KEY, String.valueOf(time));
+	    datum.put(FeedProvider.NORMALIZED_TIME_KEY, time);
 	    datum.put(FeedProvider.NORMALIZED_VALUE_KEY, value);
-	   
-	    if (dataArchive != null) {
-	    	try {
-				dataArchive.putData(feedID, TimeUnit.MILLISECONDS, Long.parseLong(time), datum);
-			} catch (BufferFullException e) {
-				success = false;
-				bfException = e;
-				e.printStackTrace();
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-	    }	
-		
+	    
 	    // check whether reading data for a new component
-	    if (isEndTime(feedID)) setEndTime(feedID, time);
+	    if (!feedID.equals(batchID) || batch.size() >= BATCH_SIZE) {
+	    	flush();
+	    	batchID = feedID;
+	    }
+	    batch.put(timeStamp, datum);
 	    
-	    previousID = feedID;
-	    previousTime = time;
+	    Long endTime = endTimes.get(feedID);
+	    if (endTime == null || endTime < timeStamp) {
+	    	endTimes.put(feedID, timeStamp);
+	    }
+	    return true;
     }
     
-    private Boolean isEndTime(String feedID) {
-    	return !feedID.equals(previousID);
+    /**
+     * write the current batch of samples to the archive.
+     */
+    private void flush() {
+    	if (batch.isEmpty()) {
+    		return;
+    	}
+    	try {
+    		putData(batchID, batch);
+    	} catch (BufferFullException e) {
+    		success = false;
+    		bfException = e;
+    		e.printStackTrace();
+    	} catch (Exception e) {
+    		e.printStackTrace();
+    	}
+    	batch = new HashMap<Long, Map<String, String>>();
+    }
+    
+    /**
+     * Write samples of one feed to the data archive.
+     * @param feedID the feed
+     * @param samples the samples, keyed by time stamp in milliseconds
+     * @throws BufferFullException if the archive cannot accept more data
+     */
+    protected void putData(String feedID, Map<Long, Map<String, String>> samples) throws BufferFullException {
+    	if (dataArchive != null) {
+    		dataArchive.putData(feedID, TimeUnit.MILLISECONDS, samples);
+    	}
     }
 
-    private void setEndTime(String id, String time) { 	
+    private void setEndTimes() {
+    	if (endTimes.isEmpty()) {
+    		return;
+    	}
     	assert parent instanceof DataTaxonomyComponent;
-    	((DataTaxonomyComponent)parent).setTimeStamp(id, time);
+    	for (Map.Entry<String, Long> entry : endTimes.entrySet()) {
+    		((DataTaxonomyComponent)parent).setTimeStamp(entry.getKey(), String.valueOf(entry.getValue()));
+    	}
+    	endTimes.clear();
     	// since model is changed, needs to save into database
+    	persist(parent);
+    }
+    
+    /**
+     * Save the parent component, after its end time stamps have changed.
+     * @param parent the parent component
+     */
+    protected void persist(AbstractComponent parent) {
     	PlatformAccess.getPlatform().getPersistenceProvider().persist(Collections.singleton(parent));
     }
 
+	/**
+	 * @return the number of lines skipped because they could not be parsed
+	 */
+	public long getMalformedLineCount() {
+		return malformedLines;
+	}
+
 	public List<Exception> getException() {
 		List<Exception> exceptions = new ArrayList<Exception> ();
 		if (fnfException != null) exceptions.add(fnfException);
 		if (bfException != null ) exceptions.add(bfException);
+		if (ioException != null ) exceptions.add(ioException);
 	    return exceptions;
 	}
 	
@@ -62,6 +62,9 @@ public class DataImporter {
 	 */ 
 	private File file;
 	
+	/** whether to sort the file by feed and time stamp before import */
+	private boolean sort;
+	
 	/**
 	 * Create a new DataImporter.
 	 * @param manifestation the associated View on which the action is performed
@@ -69,10 +72,22 @@ public class DataImporter {
 	 * @param files the file to read
 	 */
 	public DataImporter(View manifestation, AbstractComponent parent, File file) {
+		this(manifestation, parent, file, false);
+	}
+	
+	/**
+	 * Create a new DataImporter.
+	 * @param manifestation the associated View on which the action is performed
+	 * @param parent the parent component which stores endTimeStamp of its children
+	 * @param files the file to read
+	 * @param sort true if the file should be sorted by feed and time stamp before import
+	 */
+	public DataImporter(View manifestation, AbstractComponent parent, File file, boolean sort) {
 		super();
 		this.component = manifestation;
 		this.parent = parent;
 		this.file = file;
+		this.sort = sort;
 	}
 	
 	/**
@@ -82,7 +97,7 @@ public class DataImporter {
 	 * monitor is provided if necessary.
 	 */
 	public void importData() {
-		final DataImportWorker worker = new DataImportWorker(file, parent);
+		final DataImportWorker worker = new DataImportWorker(file, parent, sort);
 		final ProgressMonitor monitor = new ProgressMonitor(component,
 				BundleAccess.BUNDLE.getString("import_progress_message"), 
 				"", 0, 100);
@@ -121,6 +136,11 @@ public class DataImporter {
 				}				
 				String title = BundleAccess.BUNDLE.getString("import_data_error_title");						
 				JOptionPane.showMessageDialog(component, message, title, JOptionPane.ERROR_MESSAGE);
+			} else if (worker.getMalformedLineCount() > 0) {
+				String message = BundleAccess.BUNDLE.getString("import_data_skipped_message") 
+						+ " " + worker.getMalformedLineCount();
+				String title = BundleAccess.BUNDLE.getString("import_data_skipped_title");
+				JOptionPane.showMessageDialog(component, message, title, JOptionPane.WARNING_MESSAGE);
 			}
 		} catch (InterruptedException e) {
 			// Should not occur - already checked isDone
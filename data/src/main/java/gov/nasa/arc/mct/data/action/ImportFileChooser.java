@@ -30,7 +30,7 @@ import javax.swing.JOptionPane;
 
 /**
  * A file chooser for Import > Dictionary or Import > Data.
- * Note that only files end with CSV will be selected.
+ * Note that only files end with CSV or CSV.GZ will be selected.
  * 
  * @author jdong
  *
@@ -40,6 +40,8 @@ public class ImportFileChooser extends JFileChooser {
 	private static final long serialVersionUID = -517754844350204442L;
 	private static final String EXTENSION =
 			BundleAccess.BUNDLE.getString("file_extension");
+	private static final String COMPRESSED_EXTENSION =
+			BundleAccess.BUNDLE.getString("compressed_file_extension");
 	
 	public ImportFileChooser() {
 		setFileSelectionMode(FileChooser.FILES_AND_DIRECTORIES);
@@ -52,9 +54,9 @@ public class ImportFileChooser extends JFileChooser {
 		File file = super.getSelectedFile();
 		
 		if (file != null) {
-			// Ensure file ends with CSV extension
+			// Ensure file ends with CSV (or compressed CSV) extension
 			String path = file.getAbsolutePath();
-			if (!path.endsWith(EXTENSION)) {
+			if (!path.endsWith(EXTENSION) && !path.endsWith(COMPRESSED_EXTENSION)) {
 				file = new File(path + EXTENSION);
 			}
 		}
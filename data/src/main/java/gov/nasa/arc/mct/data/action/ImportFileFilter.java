@@ -26,21 +26,23 @@ import java.io.File;
 import javax.swing.filechooser.FileFilter;
 
 /**
- * A FileFilter that allows only files with the .csv extension.
+ * A FileFilter that allows only files with the .csv or .csv.gz extension.
  */
 public class ImportFileFilter extends FileFilter {
 
 	/**
-	 * Tests if file ends with .csv, indicating it is a CSV file.
+	 * Tests if file ends with .csv or .csv.gz, indicating it is a 
+	 * plain or gzip-compressed CSV file.
 	 * 
 	 * @param f file to be tested
-	 * @return boolean if file ends with ".csv"
+	 * @return boolean if file ends with ".csv" or ".csv.gz"
 	 */
 	public boolean accept(File f) {
 		assert f != null;
+		String name = f.getName().toLowerCase();
 		return f.isDirectory()
-				|| f.getName().toLowerCase().endsWith(
-						BundleAccess.BUNDLE.getString("file_extension"));
+				|| name.endsWith(BundleAccess.BUNDLE.getString("file_extension"))
+				|| name.endsWith(BundleAccess.BUNDLE.getString("compressed_file_extension"));
 	}
 
 	public String getDescription() {
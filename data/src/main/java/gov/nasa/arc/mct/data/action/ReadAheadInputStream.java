@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.data.action;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An InputStream which reads its source on a separate thread,
+ * a few blocks ahead of the consumer. Used to overlap expensive
+ * reads (such as gzip decompression) with parsing.
+ * 
+ */
+public class ReadAheadInputStream extends InputStream {
+	private static final byte[] END_OF_STREAM = new byte[0];
+	
+	private final InputStream source;
+	private final BlockingQueue<byte[]> blocks;
+	private final Thread reader;
+	
+	private volatile IOException failure;
+	private volatile boolean closed = false;
+	
+	private byte[] current = null;
+	private int position = 0;
+	
+	/**
+	 * Create a new read-ahead stream and start reading the source.
+	 * @param source the stream to read from
+	 * @param blockSize the number of bytes in each block read ahead
+	 * @param blockCount the maximum number of blocks held in memory
+	 */
+	public ReadAheadInputStream(InputStream source, final int blockSize, int blockCount) {
+		if (source == null || blockSize <= 0 || blockCount <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.source = source;
+		this.blocks = new ArrayBlockingQueue<byte[]>(blockCount);
+		this.reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				readAhead(blockSize);
+			}			
+		}, "Data import read-ahead");
+		reader.setDaemon(true);
+		reader.start();
+	}
+	
+	private void readAhead(int blockSize) {
+		try {
+			while (!closed) {
+				byte[] block = new byte[blockSize];
+				int length = 0;
+				int read = 0;
+				while (length < blockSize && (read = source.read(block, length, blockSize - length)) >= 0) {
+					length += read;
+				}
+				if (length > 0) {
+					if (length < blockSize) {
+						byte[] partial = new byte[length];
+						System.arraycopy(block, 0, partial, 0, length);
+						block = partial;
+					}
+					blocks.put(block);
+				}
+				if (read < 0) {
+					break;
+				}
+			}
+		} catch (IOException e) {
+			failure = e;
+		} catch (InterruptedException e) {
+			// Closed by consumer
+			return;
+		}
+		if (closed) {
+			return;
+		}
+		try {
+			blocks.put(END_OF_STREAM);
+		} catch (InterruptedException e) {
+			// Closed by consumer
+		}
+	}
+	
+	/**
+	 * Get the next block of data, blocking until it has been read.
+	 * @return false if the end of the stream has been reached
+	 * @throws IOException if the source could not be read
+	 */
+	private boolean nextBlock() throws IOException {
+		if (current == END_OF_STREAM) {
+			return false;
+		}
+		if (current == null || position >= current.length) {
+			try {
+				current = blocks.take();
+				position = 0;
+			} catch (InterruptedException e) {
+				throw new InterruptedIOException();
+			}
+			if (current == END_OF_STREAM) {
+				if (failure != null) {
+					throw failure;
+				}
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return nextBlock() ? (current[position++] & 0xFF) : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!nextBlock()) {
+			return -1;
+		}
+		int count = Math.min(len, current.length - position);
+		System.arraycopy(current, position, b, off, count);
+		position += count;
+		return count;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (current == null || current == END_OF_STREAM) ? 0 : current.length - position;
+	}
+
+	/**
+	 * Stop the read-ahead thread, wait for it to finish its current 
+	 * read, and then close the source; the source is never closed 
+	 * while the read-ahead thread may still be using it.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		reader.interrupt();
+		blocks.clear();
+		boolean interrupted = false;
+		while (reader.isAlive()) {
+			try {
+				reader.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		source.close();
+	}
+}
@@ -47,9 +47,17 @@ public class DataComponent extends AbstractComponent implements FeedProvider {
 	
 	/**
 	 * the DataTaxonomyComponent which stores the end time stamp 
-	 * for the data feed of current component.
+	 * for the data feed of current component. Resolved lazily from
+	 * the referencing components and cached until the relationships
+	 * of this component change.
 	 */
-	private DataTaxonomyComponent parent;
+	private volatile DataTaxonomyComponent parent;
+	
+	/**
+	 * cached time service; reads the end time stamp from the parent 
+	 * on every call, so it remains valid after a new data import.
+	 */
+	private volatile TimeService timeService;
 
 	@Override
 	protected <T> T handleGetCapability(Class<T> capability) {
@@ -76,48 +84,69 @@ public class DataComponent extends AbstractComponent implements FeedProvider {
 	 */
 	@Override
 	public TimeService getTimeService() {
-		DataTaxonomyComponent parentReference = getParent();
-		String id = getSubscriptionId();
-		
-		// if corresponding data has been saved into database (using
-		// Import > Data), use the saved end time stamp 
-		if (parentReference.hasTimeStamp(id)) {
-			final long endTime = parentReference.getTimeStamp(id);
-			return new TimeService() {
-				public long getCurrentTime() {
-					return endTime;
-				}
-			};		
+		TimeService service = timeService;
+		if (service == null) {
+			DataTaxonomyComponent parentReference = getParent();
+			service = new DataTimeService(parentReference, getSubscriptionId());
+			// without a parent the service only reports the system time; 
+			// resolve it again once the parent is available
+			if (parentReference != null) {
+				timeService = service;
+			}
 		}
-		
-		// else use current time of system
-		return new TimeService() {
-			@Override
-			public long getCurrentTime() {
-				return System.currentTimeMillis();
-			}				
-		};
+		return service;
 	}
 
 	/**
 	 * cannot return parent directly due to the value may be null.
-	 * Instead, use getReferencingComponents() to fetch references from database.
+	 * Instead, use getReferencingComponents() to fetch references from database
+	 * the first time the parent is requested, and cache the result.
 	 * 
 	 * @return the DataTaxonomyComponent which acts as
 	 *         parent in the tree structure
 	 */
 	public DataTaxonomyComponent getParent() {
-		Collection<AbstractComponent> owners =  this.getReferencingComponents();
-		for (AbstractComponent owner: owners) {
-			if (owner instanceof DataTaxonomyComponent) {
-				parent = (DataTaxonomyComponent)owner;
-			}
-		} 
-		return parent; 		
+		DataTaxonomyComponent parentReference = parent;
+		if (parentReference == null) {
+			Collection<AbstractComponent> owners =  this.getReferencingComponents();
+			for (AbstractComponent owner: owners) {
+				if (owner instanceof DataTaxonomyComponent) {
+					parentReference = (DataTaxonomyComponent)owner;
+				}
+			} 
+			parent = parentReference;
+		}
+		return parentReference; 		
 	}
 
 	public void setParent(DataTaxonomyComponent parent) {
 		this.parent = parent;
+		this.timeService = null;
+	}
+	
+	/**
+	 * Discard the cached parent and time service, so that they are 
+	 * resolved again from the referencing components on next use.
+	 */
+	public void invalidateParent() {
+		setParent(null);
+	}
+	
+	/*
+	 * Discard the cached parent and time service if they are those of a 
+	 * taxonomy this component was removed from.
+	 */
+	void releaseParent(DataTaxonomyComponent formerParent) {
+		if (parent == formerParent) {
+			invalidateParent();
+		}
+	}
+	
+	@Override
+	public void resetComponentProperties(ResetPropertiesTransaction txn) {
+		// relationships may have changed in the database
+		invalidateParent();
+		super.resetComponentProperties(txn);
 	}
 
 	@Override
@@ -170,4 +199,27 @@ public class DataComponent extends AbstractComponent implements FeedProvider {
 	public boolean isNonCODDataBuffer() {
 		return true;
 	}
+	
+	/**
+	 * Time service which reports the saved end time stamp of a feed 
+	 * (using Import > Data), or the current time of system if no 
+	 * data has been saved for it yet.
+	 */
+	private static class DataTimeService implements TimeService {
+		private final DataTaxonomyComponent parent;
+		private final String id;
+		
+		public DataTimeService(DataTaxonomyComponent parent, String id) {
+			this.parent = parent;
+			this.id = id;
+		}
+
+		@Override
+		public long getCurrentTime() {
+			if (parent != null && parent.hasTimeStamp(id)) {
+				return parent.getTimeStamp(id);
+			}
+			return System.currentTimeMillis();
+		}
+	}
 }
@@ -21,6 +21,7 @@
  *******************************************************************************/
 package gov.nasa.arc.mct.data.component;
 
+import java.util.Collection;
 import java.util.concurrent.atomic.AtomicReference;
 
 import gov.nasa.arc.mct.components.AbstractComponent;
@@ -54,6 +55,29 @@ public class DataTaxonomyComponent extends AbstractComponent implements Bootstra
 		return getModel().getEndTime(id);
 	}
 
+	@Override
+	protected void addDelegateComponentsCallback(
+			Collection<AbstractComponent> childComponents) {
+		super.addDelegateComponentsCallback(childComponents);
+		// let children skip the reverse reference lookup for their parent
+		for (AbstractComponent child : childComponents) {
+			if (child instanceof DataComponent) {
+				((DataComponent) child).setParent(this);
+			}
+		}
+	}
+
+	@Override
+	public void removeDelegateComponents(
+			Collection<AbstractComponent> childComponents) {
+		super.removeDelegateComponents(childComponents);
+		// removed children look their parent up again, unless already moved
+		for (AbstractComponent child : childComponents) {
+			if (child instanceof DataComponent) {
+				((DataComponent) child).releaseParent(this);
+			}
+		}
+	}
 
 	@Override
 	protected <T> T handleGetCapability(Class<T> capability) {
@@ -0,0 +1,61 @@
+package gov.nasa.arc.mct.data.action;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DataFileInputTest {
+	private static final int LINES = 50000;
+	
+	@Test
+	public void testPlainFile() throws IOException {
+		File file = File.createTempFile("data", ".csv");
+		file.deleteOnExit();
+		write(new FileOutputStream(file));
+		assertContent(file, false);
+	}
+	
+	@Test
+	public void testCompressedFile() throws IOException {
+		File file = File.createTempFile("data", ".csv.gz");
+		file.deleteOnExit();
+		write(new GZIPOutputStream(new FileOutputStream(file)));
+		assertContent(file, true);
+	}
+	
+	private void write(OutputStream out) throws IOException {
+		Writer w = new OutputStreamWriter(out);
+		for (int i = 0; i < LINES; i++) {
+			w.write(line(i));
+			w.write('\n');
+		}
+		w.close();
+	}
+	
+	private String line(int i) {
+		return "feed" + (i % 7) + "," + (1000L * i) + "," + (i * 0.5);
+	}
+	
+	private void assertContent(File file, boolean compressed) throws IOException {
+		DataFileInput input = DataFileInput.open(file);
+		try {
+			Assert.assertEquals(input.isCompressed(), compressed);
+			BufferedReader reader = input.getReader();
+			for (int i = 0; i < LINES; i++) {
+				Assert.assertEquals(reader.readLine(), line(i));
+			}
+			Assert.assertNull(reader.readLine());
+			Assert.assertEquals(input.getBytesRead(), file.length());
+		} finally {
+			input.close();
+		}
+	}
+}
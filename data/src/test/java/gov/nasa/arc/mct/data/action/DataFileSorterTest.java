@@ -0,0 +1,65 @@
+package gov.nasa.arc.mct.data.action;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DataFileSorterTest {
+	
+	@Test
+	public void testSortWithSpills() throws IOException {
+		// Small runs force spill files and an intermediate merge
+		int lines = 20000;
+		StringBuilder input = new StringBuilder();
+		Random random = new Random(7);
+		for (int i = 0; i < lines; i++) {
+			input.append("feed").append(random.nextInt(13)).append(',')
+			     .append(random.nextInt(100000)).append(',').append(i).append('\n');
+			if (i % 1000 == 0) {
+				input.append('\n');
+			}
+		}
+		
+		DataFileSorter sorter = new DataFileSorter(null, 100);
+		DataFileSorter.SortedLines sorted = sorter.sort(new BufferedReader(new StringReader(input.toString())));
+		try {
+			Assert.assertEquals(sorted.getLineCount(), lines);
+			String previous = null;
+			int count = 0;
+			String line;
+			while ((line = sorted.readLine()) != null) {
+				if (previous != null) {
+					int c = DataFileSorter.parseFeed(previous).compareTo(DataFileSorter.parseFeed(line));
+					Assert.assertTrue(c <= 0);
+					if (c == 0) {
+						Assert.assertTrue(DataFileSorter.parseTime(previous) <= DataFileSorter.parseTime(line));
+					}
+				}
+				previous = line;
+				count++;
+			}
+			Assert.assertEquals(count, lines);
+		} finally {
+			sorted.close();
+		}
+	}
+	
+	@Test
+	public void testMalformedLinesSkipped() throws IOException {
+		String input = "b,2,x\nb,bad,y\na,1,z\nno commas\n";
+		DataFileSorter.SortedLines sorted = new DataFileSorter(null, 1).sort(new BufferedReader(new StringReader(input)));
+		try {
+			Assert.assertEquals(sorted.getLineCount(), 2);
+			Assert.assertEquals(sorted.getMalformedLineCount(), 2);
+			Assert.assertEquals(sorted.readLine(), "a,1,z");
+			Assert.assertEquals(sorted.readLine(), "b,2,x");
+			Assert.assertNull(sorted.readLine());
+		} finally {
+			sorted.close();
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package gov.nasa.arc.mct.data.action;
+
+import gov.nasa.arc.mct.api.feed.BufferFullException;
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.components.FeedProvider;
+import gov.nasa.arc.mct.data.component.DataComponent;
+import gov.nasa.arc.mct.data.component.DataTaxonomyComponent;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DataImportWorkerTest {
+	private static final int FEEDS = 20;
+	private static final int SAMPLES = 2500;
+	
+	@Test
+	public void testShuffledMatchesSorted() throws Exception {
+		List<String> lines = new ArrayList<String>();
+		for (int feed = 0; feed < FEEDS; feed++) {
+			for (int sample = 0; sample < SAMPLES; sample++) {
+				lines.add("feed" + feed + "," + (1000L * sample) + "," + (feed * sample));
+			}
+		}
+		Collections.sort(lines, new java.util.Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				int c = DataFileSorter.parseFeed(a).compareTo(DataFileSorter.parseFeed(b));
+				return c != 0 ? c : Long.signum(DataFileSorter.parseTime(a) - DataFileSorter.parseTime(b));
+			}
+		});
+		File sortedFile = write(lines);
+		Collections.shuffle(lines, new Random(42));
+		File shuffledFile = write(lines);
+		
+		RecordingWorker sorted = new RecordingWorker(sortedFile, false);
+		RecordingWorker shuffled = new RecordingWorker(shuffledFile, true);
+		Assert.assertTrue(sorted.doInBackground());
+		Assert.assertTrue(shuffled.doInBackground());
+		
+		Assert.assertEquals(shuffled.data, sorted.data);
+		Assert.assertEquals(shuffled.data.size(), FEEDS);
+		Assert.assertEquals(shuffled.batches, sorted.batches);
+		Assert.assertEquals(shuffled.persists, 1);
+		
+		DataTaxonomyComponent taxonomy = (DataTaxonomyComponent) shuffled.taxonomy;
+		for (int feed = 0; feed < FEEDS; feed++) {
+			String id = DataComponent.PREFIX + "feed" + feed;
+			Assert.assertEquals(shuffled.data.get(id).size(), SAMPLES);
+			Assert.assertEquals(taxonomy.getTimeStamp(id), 1000L * (SAMPLES - 1));
+		}
+	}
+	
+	@Test
+	public void testMalformedLinesSkipped() throws Exception {
+		List<String> lines = new ArrayList<String>();
+		lines.add("feed0,1000,1");
+		lines.add("feed0,notATime,2");
+		lines.add("feed1,2000,3");
+		lines.add("feed1");
+		lines.add("feed0,3000,4");
+		File file = write(lines);
+		
+		for (boolean sort : new boolean[] { false, true }) {
+			RecordingWorker worker = new RecordingWorker(file, sort);
+			Assert.assertTrue(worker.doInBackground());
+			Assert.assertEquals(worker.getMalformedLineCount(), 2L);
+			Assert.assertEquals(worker.data.get(DataComponent.PREFIX + "feed0").size(), 2);
+			Assert.assertEquals(worker.data.get(DataComponent.PREFIX + "feed1").size(), 1);
+			DataTaxonomyComponent taxonomy = (DataTaxonomyComponent) worker.taxonomy;
+			Assert.assertEquals(taxonomy.getTimeStamp(DataComponent.PREFIX + "feed0"), 3000L);
+		}
+	}
+	
+	private File write(List<String> lines) throws IOException {
+		File file = File.createTempFile("data", ".csv");
+		file.deleteOnExit();
+		Writer w = new FileWriter(file);
+		for (String line : lines) {
+			w.write(line);
+			w.write('\n');
+		}
+		w.close();
+		return file;
+	}
+	
+	private static class RecordingWorker extends DataImportWorker {
+		private final AbstractComponent taxonomy;
+		private final Map<String, SortedMap<Long, String>> data = new HashMap<String, SortedMap<Long, String>>();
+		private int batches = 0;
+		private int persists = 0;
+		
+		public RecordingWorker(File file, boolean sort) {
+			this(file, new DataTaxonomyComponent(), sort);
+		}
+		
+		private RecordingWorker(File file, AbstractComponent taxonomy, boolean sort) {
+			super(file, taxonomy, sort);
+			this.taxonomy = taxonomy;
+		}
+
+		@Override
+		protected void putData(String feedID, Map<Long, Map<String, String>> samples) throws BufferFullException {
+			batches++;
+			SortedMap<Long, String> feed = data.get(feedID);
+			if (feed == null) {
+				feed = new TreeMap<Long, String>();
+				data.put(feedID, feed);
+			}
+			for (Map.Entry<Long, Map<String, String>> entry : samples.entrySet()) {
+				feed.put(entry.getKey(), entry.getValue().get(FeedProvider.NORMALIZED_VALUE_KEY));
+			}
+		}
+
+		@Override
+		protected void persist(AbstractComponent parent) {
+			persists++;
+		}
+	}
+}
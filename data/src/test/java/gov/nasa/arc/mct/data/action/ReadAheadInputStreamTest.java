@@ -0,0 +1,73 @@
+package gov.nasa.arc.mct.data.action;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ReadAheadInputStreamTest {
+	
+	@Test
+	public void testReadsAll() throws IOException {
+		byte[] data = new byte[100000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		ReadAheadInputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data), 4096, 2);
+		byte[] read = new byte[data.length];
+		int length = 0, count;
+		while ((count = in.read(read, length, Math.min(1000, read.length - length))) > 0) {
+			length += count;
+		}
+		in.close();
+		Assert.assertEquals(length, data.length);
+		Assert.assertTrue(Arrays.equals(read, data));
+	}
+	
+	@Test
+	public void testCloseWaitsForReader() throws IOException {
+		SlowSource source = new SlowSource();
+		ReadAheadInputStream in = new ReadAheadInputStream(source, 16, 2);
+		Assert.assertTrue(in.read() >= 0);
+		in.close();
+		Assert.assertTrue(source.closed.get());
+		
+		// Nothing is read from the source once it has been closed
+		try {
+			Thread.sleep(100);
+		} catch (InterruptedException e) {
+			Assert.fail();
+		}
+		Assert.assertFalse(source.readAfterClose.get());
+	}
+	
+	/*
+	 * An endless source whose reads take a while, and which records 
+	 * any read made after it is closed
+	 */
+	private static class SlowSource extends InputStream {
+		private final AtomicBoolean closed = new AtomicBoolean();
+		private final AtomicBoolean readAfterClose = new AtomicBoolean();
+
+		@Override
+		public int read() throws IOException {
+			long end = System.nanoTime() + 2000000;
+			while (System.nanoTime() < end) {
+				// Busy, not interruptible, like inflating a block
+			}
+			if (closed.get()) {
+				readAfterClose.set(true);
+			}
+			return 1;
+		}
+		
+		@Override
+		public void close() {
+			closed.set(true);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package gov.nasa.arc.mct.data.action;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates deterministic dictionary and data files for exercising 
+ * the importers. Each feed is a noisy sine wave sampled at a fixed rate.
+ */
+public class SyntheticTelemetry {
+	private final int feeds;
+	private final double rate;
+	private final long duration;
+	private final boolean interleaved;
+	private final long seed;
+	private final long startTime = 1356998400000L; // 2013-01-01T00:00:00Z
+	
+	/**
+	 * @param feeds the number of feeds
+	 * @param rate samples per second, per feed
+	 * @param duration the time covered by the data, in seconds
+	 * @param interleaved if true, samples are ordered by time (feeds interleaved);
+	 *        otherwise samples are grouped by feed
+	 * @param seed random seed for sample values
+	 */
+	public SyntheticTelemetry(int feeds, double rate, long duration, boolean interleaved, long seed) {
+		this.feeds = feeds;
+		this.rate = rate;
+		this.duration = duration;
+		this.interleaved = interleaved;
+		this.seed = seed;
+	}
+	
+	public int getFeedCount() {
+		return feeds;
+	}
+	
+	public long getSampleCount() {
+		return (long) feeds * samplesPerFeed();
+	}
+	
+	private long samplesPerFeed() {
+		return (long) (rate * duration);
+	}
+	
+	private String feedName(int feed) {
+		return "SYN" + feed;
+	}
+	
+	private long time(long sample) {
+		return startTime + (long) (sample * 1000 / rate);
+	}
+	
+	public void writeDictionary(File file) throws IOException {
+		Writer w = open(file, false);
+		try {
+			for (int feed = 0; feed < feeds; feed++) {
+				w.write(feedName(feed));
+				w.write('\n');
+			}
+		} finally {
+			w.close();
+		}
+	}
+	
+	public void writeData(File file, boolean compressed) throws IOException {
+		Writer w = open(file, compressed);
+		Random random = new Random(seed);
+		long samples = samplesPerFeed();
+		try {
+			if (interleaved) {
+				for (long sample = 0; sample < samples; sample++) {
+					for (int feed = 0; feed < feeds; feed++) {
+						writeSample(w, feed, sample, random);
+					}
+				}
+			} else {
+				for (int feed = 0; feed < feeds; feed++) {
+					for (long sample = 0; sample < samples; sample++) {
+						writeSample(w, feed, sample, random);
+					}
+				}
+			}
+		} finally {
+			w.close();
+		}
+	}
+	
+	private void writeSample(Writer w, int feed, long sample, Random random) throws IOException {
+		double value = Math.sin((sample / rate + feed) * 0.01) * 100.0 + random.nextGaussian();
+		w.write(feedName(feed));
+		w.write(',');
+		w.write(Long.toString(time(sample)));
+		w.write(',');
+		w.write(Double.toString(value));
+		w.write('\n');
+	}
+	
+	private Writer open(File file, boolean compressed) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		if (compressed) {
+			out = new GZIPOutputStream(out, 64 * 1024);
+		}
+		return new BufferedWriter(new OutputStreamWriter(out), 64 * 1024);
+	}
+}
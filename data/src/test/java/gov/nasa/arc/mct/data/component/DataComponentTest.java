@@ -0,0 +1,136 @@
+package gov.nasa.arc.mct.data.component;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.services.activity.TimeService;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class DataComponentTest {
+	private DataTaxonomyComponent taxonomy;
+	private CountingDataComponent data;
+	
+	@BeforeMethod
+	public void setup() {
+		taxonomy = new DataTaxonomyComponent();
+		data = new CountingDataComponent(taxonomy);
+		data.setExternalKey("feed");
+	}
+	
+	@Test
+	public void testParentLookupRunsOnce() {
+		for (int i = 0; i < 100; i++) {
+			Assert.assertSame(data.getParent(), taxonomy);
+			Assert.assertNotNull(data.getTimeService());
+			data.getValidDataExtent();
+		}
+		Assert.assertEquals(data.lookups, 1);
+	}
+	
+	@Test
+	public void testTimeServiceIsCached() {
+		Assert.assertSame(data.getTimeService(), data.getTimeService());
+		Assert.assertEquals(data.lookups, 1);
+	}
+
+	@Test
+	public void testTimeServiceFollowsImports() {
+		TimeService service = data.getTimeService();
+		taxonomy.setTimeStamp(data.getSubscriptionId(), "1000");
+		Assert.assertEquals(service.getCurrentTime(), 1000);
+		taxonomy.setTimeStamp(data.getSubscriptionId(), "2000");
+		Assert.assertEquals(service.getCurrentTime(), 2000);
+		Assert.assertEquals(data.lookups, 1);
+	}
+	
+	@Test
+	public void testInvalidateParent() {
+		data.getTimeService();
+		data.invalidateParent();
+		data.getTimeService();
+		data.getTimeService();
+		Assert.assertEquals(data.lookups, 2);
+	}
+	
+	@Test
+	public void testSetParentSkipsLookup() {
+		DataTaxonomyComponent other = new DataTaxonomyComponent();
+		data.setParent(other);
+		Assert.assertSame(data.getParent(), other);
+		data.getTimeService();
+		Assert.assertEquals(data.lookups, 0);
+	}
+	
+	@Test
+	public void testParentAvailableLater() {
+		data.owner = null;
+		TimeService orphan = data.getTimeService();
+		Assert.assertNull(data.getParent());
+		
+		data.owner = taxonomy;
+		taxonomy.setTimeStamp(data.getSubscriptionId(), "1000");
+		Assert.assertNotSame(data.getTimeService(), orphan);
+		Assert.assertEquals(data.getTimeService().getCurrentTime(), 1000);
+		Assert.assertSame(data.getParent(), taxonomy);
+	}
+	
+	@Test
+	public void testRemovedFromParent() {
+		taxonomy.addDelegateComponent(data);
+		taxonomy.setTimeStamp(data.getSubscriptionId(), "1000");
+		Assert.assertEquals(data.getValidDataExtent(), 1000);
+		
+		taxonomy.removeDelegateComponent(data);
+		data.owner = null;
+		Assert.assertNull(data.getParent());
+		Assert.assertTrue(data.getValidDataExtent() != 1000);
+	}
+	
+	@Test
+	public void testMovedToAnotherParent() {
+		DataTaxonomyComponent other = new DataTaxonomyComponent();
+		other.setTimeStamp(data.getSubscriptionId(), "2000");
+		taxonomy.setTimeStamp(data.getSubscriptionId(), "1000");
+		
+		// Removed, then added
+		taxonomy.addDelegateComponent(data);
+		Assert.assertEquals(data.getValidDataExtent(), 1000);
+		taxonomy.removeDelegateComponent(data);
+		data.owner = other;
+		other.addDelegateComponent(data);
+		Assert.assertSame(data.getParent(), other);
+		Assert.assertEquals(data.getValidDataExtent(), 2000);
+		
+		// Added, then removed: the new parent is kept
+		taxonomy.addDelegateComponent(data);
+		other.removeDelegateComponent(data);
+		Assert.assertSame(data.getParent(), taxonomy);
+		Assert.assertEquals(data.getValidDataExtent(), 1000);
+		Assert.assertEquals(data.lookups, 0);
+		
+		// Removed from a former parent, with the time service not yet resolved again
+		data.owner = other;
+		taxonomy.removeDelegateComponent(data);
+		Assert.assertEquals(data.getValidDataExtent(), 2000);
+		Assert.assertEquals(data.lookups, 1);
+	}
+	
+	private static class CountingDataComponent extends DataComponent {
+		private AbstractComponent owner;
+		private int lookups = 0;
+		
+		public CountingDataComponent(AbstractComponent owner) {
+			this.owner = owner;
+		}
+
+		@Override
+		public Collection<AbstractComponent> getReferencingComponents() {
+			lookups++;
+			return owner == null ? Collections.<AbstractComponent>emptySet() : Collections.singleton(owner);
+		}
+	}
+}
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite;
+
+import gov.nasa.arc.mct.components.FeedProvider;
+import gov.nasa.arc.mct.components.FeedProvider.RenderingInfo;
+import gov.nasa.arc.mct.satellite.component.CoordinateComponent;
+import gov.nasa.arc.mct.satellite.component.SatelliteDataItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/*
+ * The trajectories of the objects drawn by a MercatorProjectionView, and the feeds which position them.
+ * 
+ * Feeds of satellites (see CoordinateComponent) are grouped by satellite, whichever objects they were 
+ * found under: each satellite has one trajectory, positioned by its x, y and z position feeds, in any 
+ * order.  Objects whose feeds are not satellite feeds are positioned by their first three feeds, as x, y 
+ * and z.
+ */
+public class FeedTrajectories {
+	
+	//the parameter keys of the x, y and z position feeds of a satellite (see CoordinateModel)
+	private static final String[] POSITION_KEYS = { "px", "py", "pz" };
+	
+	private final Map<String, FeedTrajectory> satellites = new HashMap<String, FeedTrajectory>();
+	private final Map<String, Axis> axes = new HashMap<String, Axis>();
+	private final Map<String, FeedProvider> feedProviders = new HashMap<String, FeedProvider>();
+	private int size = 0;
+	
+	/**
+	 * Adds the trajectory of an object.
+	 * @param feeds the feeds found under the object
+	 * @return the trajectory of the object; or null, if it has no x, y and z position, or is a satellite 
+	 *     whose trajectory was already added
+	 */
+	public Trajectory add(List<FeedProvider> feeds) {
+		List<String> subscriptionIds = new ArrayList<String>(feeds.size());
+		for (FeedProvider fp : feeds) {
+			subscriptionIds.add(fp.getSubscriptionId());
+		}
+		Trajectory trajectory = addSubscriptions(subscriptionIds);
+		for (FeedProvider fp : feeds) {
+			if (axes.containsKey(fp.getSubscriptionId())) {
+				feedProviders.put(fp.getSubscriptionId(), fp);
+			}
+		}
+		return trajectory;
+	}
+	
+	/*
+	 * Adds the trajectory of an object, given the subscription IDs of the feeds found under it
+	 */
+	Trajectory addSubscriptions(List<String> subscriptionIds) {
+		FeedTrajectory trajectory = new FeedTrajectory();
+		Map<String, Axis> found = new HashMap<String, Axis>();
+		String satelliteKey = null;
+		
+		for (String id : subscriptionIds) {
+			String key = getSatelliteKey(id);
+			if (key == null) {
+				//the first three feeds of any other object
+				if (satelliteKey == null && found.size() < 3 && !found.containsKey(id)) {
+					found.put(id, new Axis(trajectory, found.size()));
+				}
+				continue;
+			}
+			if (satelliteKey == null) {
+				//an object with satellite feeds is that satellite
+				satelliteKey = key;
+				found.clear();
+			} else if (!satelliteKey.equals(key)) {
+				continue;
+			}
+			int axis = getPositionAxis(id);
+			if (axis >= 0) {
+				found.put(id, new Axis(trajectory, axis));
+			}
+		}
+		
+		if (found.size() < 3 || (satelliteKey != null && satellites.containsKey(satelliteKey))) {
+			return null;
+		}
+		if (satelliteKey != null) {
+			satellites.put(satelliteKey, trajectory);
+		}
+		axes.putAll(found);
+		size++;
+		return trajectory;
+	}
+	
+	/**
+	 * @return the subscription IDs of the feeds which position the trajectories
+	 */
+	public Collection<String> getSubscriptionIds() {
+		return axes.keySet();
+	}
+	
+	/**
+	 * @return the feeds which position the trajectories
+	 */
+	public Collection<FeedProvider> getFeedProviders() {
+		return feedProviders.values();
+	}
+	
+	/**
+	 * Moves the trajectories to the latest value of each of their feeds in the data.
+	 * @param data data points by subscription ID, oldest first
+	 * @return true if a trajectory was moved
+	 */
+	public boolean update(Map<String, List<Map<String, String>>> data) {
+		boolean moved = false;
+		for (Entry<String, List<Map<String, String>>> entry : data.entrySet()) {
+			Axis axis = axes.get(entry.getKey());
+			List<Map<String, String>> points = entry.getValue();
+			if (axis == null || points == null || points.isEmpty()) {
+				continue;
+			}
+			Map<String, String> point = points.get(points.size() - 1);
+			double value;
+			if (point instanceof SatelliteDataItem) {
+				value = ((SatelliteDataItem) point).getValue();
+			} else {
+				String text = getValueText(entry.getKey(), point);
+				if (text == null) {
+					continue;
+				}
+				try {
+					value = Double.parseDouble(text);
+				} catch (NumberFormatException nfe) {
+					continue;
+				}
+			}
+			double[] position = axis.trajectory.position;
+			if (position[axis.index] != value) {
+				position[axis.index] = value;
+				moved = true;
+			}
+		}
+		return moved;
+	}
+	
+	/*
+	 * Data which has passed through the feed system as plain strings is read from its normalized value,
+	 * if it has one, rather than its rendering info
+	 */
+	private String getValueText(String subscriptionId, Map<String, String> point) {
+		String text = point.get(FeedProvider.NORMALIZED_VALUE_KEY);
+		if (text == null) {
+			FeedProvider fp = feedProviders.get(subscriptionId);
+			RenderingInfo ri = fp == null ? null : fp.getRenderingInfo(point);
+			text = ri == null ? null : ri.getValueText();
+		}
+		return text;
+	}
+	
+	/**
+	 * @return the number of trajectories
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/*
+	 * The satellite of a feed (its name and TLE) is its subscription ID, less the parameter at the end;
+	 * null if the feed is not a satellite feed
+	 */
+	private static String getSatelliteKey(String subscriptionId) {
+		if (!subscriptionId.startsWith(CoordinateComponent.FEED_KEY_ID)) {
+			return null;
+		}
+		int end = subscriptionId.lastIndexOf(CoordinateComponent.FEED_SEPERATOR);
+		return end < 0 ? null : subscriptionId.substring(0, end);
+	}
+	
+	private static int getPositionAxis(String subscriptionId) {
+		String key = subscriptionId.substring(subscriptionId.lastIndexOf(CoordinateComponent.FEED_SEPERATOR) + 1);
+		for (int i = 0; i < POSITION_KEYS.length; i++) {
+			if (POSITION_KEYS[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private static final class Axis {
+		private final FeedTrajectory trajectory;
+		private final int index;
+		
+		Axis(FeedTrajectory trajectory, int index) {
+			this.trajectory = trajectory;
+			this.index = index;
+		}
+	}
+	
+	/*
+	 * The latest ECEF position of an object, as x, y and z
+	 */
+	private static final class FeedTrajectory implements Trajectory {
+		private final double[] position = new double[3];
+		
+		@Override
+		public Vector getPosition() {
+			return new Vector(position[0], position[1], position[2]);
+		}
+		
+		@Override
+		public Vector getVelocity() {
+			return new Vector(0, 0, 0);		
+		}	
+	}
+}
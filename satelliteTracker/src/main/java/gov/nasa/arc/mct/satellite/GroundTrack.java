@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite;
+
+import gov.nasa.arc.mct.satellite.utilities.ConvertECEFtoLLA;
+
+import java.awt.Graphics;
+
+/*
+ * The recent ground track of one object on the mercator map: the latitude and longitude of its
+ * last positions, in ring buffers of primitives.  Each position is converted from ECEF once, when it
+ * is appended, and projected onto the map once per panel size: the screen coordinates are kept
+ * alongside, and only positions appended since the last paint are projected, unless the panel has
+ * been resized.
+ * 
+ * Note: this class is used in MercatorPanel; it is not thread safe, and is only used on the EDT.
+ */
+class GroundTrack {
+	
+	private final ConvertECEFtoLLA convert;
+	private final double[] lla = new double[3]; // converted in place, see append
+	
+	private final double[] latitudes;  // degrees
+	private final double[] longitudes; // degrees, in [-180, 180]
+	private final int[] xs;
+	private final int[] ys;
+	
+	private int start = 0;     // the oldest position
+	private int size = 0;
+	private int projected = 0; // the number of positions, from the oldest, with valid screen coordinates
+	private int projectedWidth = -1;
+	private int projectedHeight = -1;
+	
+	// the last ECEF position appended, so that repeated positions are not appended again
+	private double lastX = Double.NaN, lastY = Double.NaN, lastZ = Double.NaN;
+	
+	// scratch arrays for drawing one unwrapped stretch of the track at a time
+	private int[] runX = new int[0];
+	private int[] runY = new int[0];
+	
+	/**
+	 * @param capacity the number of positions kept; older positions are discarded
+	 * @param convert converts positions to latitude and longitude
+	 */
+	GroundTrack(int capacity, ConvertECEFtoLLA convert) {
+		this.convert = convert;
+		latitudes  = new double[capacity];
+		longitudes = new double[capacity];
+		xs = new int[capacity];
+		ys = new int[capacity];
+	}
+	
+	/**
+	 * Appends a position, unless it is the same as the last one appended or is the origin (no data yet).
+	 * @param position an ECEF position (in km)
+	 * @return true if the position was appended
+	 */
+	boolean append(Vector position) {
+		double x = position.getX(), y = position.getY(), z = position.getZ();
+		if ((x == lastX && y == lastY && z == lastZ) || (x == 0 && y == 0 && z == 0)) {
+			return false;
+		}
+		lastX = x;
+		lastY = y;
+		lastZ = z;
+		
+		lla[0] = x;
+		lla[1] = y;
+		lla[2] = z;
+		convert.ecefToLLA(lla, 0, 1);
+		int capacity = latitudes.length;
+		int index;
+		if (size < capacity) {
+			index = (start + size++) % capacity;
+		} else {
+			// chop off the tail of the satellite's orbit
+			index = start;
+			start = (start + 1) % capacity;
+			if (projected > 0) {
+				projected--;
+			}
+		}
+		latitudes[index]  = lla[0];
+		longitudes[index] = lla[1];
+		return true;
+	}
+	
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Projects the positions onto a map of the given size; only positions not yet projected at that size are.
+	 */
+	void project(int width, int height) {
+		if (width != projectedWidth || height != projectedHeight) {
+			projectedWidth = width;
+			projectedHeight = height;
+			projected = 0;
+		}
+		int capacity = latitudes.length;
+		for (int i = projected; i < size; i++) {
+			int index = (start + i) % capacity;
+			xs[index] = (int) (width*((180+longitudes[index])/360));
+			ys[index] = (-1)*(int)(((latitudes[index]-90)/180)*height);
+		}
+		projected = size;
+	}
+	
+	/**
+	 * Draws the track, as projected by the last call to project.  Where the track wraps around the map,
+	 * no line is drawn across the map.
+	 * @param g where to draw, in the color of the track
+	 * @param wrapTolerance how far (in pixels) from a full map width or height a jump counts as a wrap
+	 */
+	void draw(Graphics g, int wrapTolerance) {
+		if (size == 0) {
+			return;
+		}
+		if (runX.length < size) {
+			runX = new int[latitudes.length];
+			runY = new int[latitudes.length];
+		}
+		int width = projectedWidth - wrapTolerance;
+		int height = projectedHeight - wrapTolerance;
+		int capacity = latitudes.length;
+		int run = 0;
+		for (int i = 0; i < size; i++) {
+			int index = (start + i) % capacity;
+			int x = xs[index], y = ys[index];
+			if (run > 0 && (Math.abs(runX[run - 1] - x) > width || Math.abs(runY[run - 1] - y) > height)) {
+				drawRun(g, run);
+				run = 0;
+			}
+			runX[run] = x;
+			runY[run] = y;
+			run++;
+		}
+		drawRun(g, run);
+	}
+	
+	private void drawRun(Graphics g, int run) {
+		if (run == 1) {
+			g.drawLine(runX[0], runY[0], runX[0], runY[0]);
+		} else {
+			g.drawPolyline(runX, runY, run);
+		}
+	}
+	
+	/** @return the screen x coordinate of the last position, as last projected */
+	int getLastX() {
+		return xs[(start + size - 1) % latitudes.length];
+	}
+	
+	/** @return the screen y coordinate of the last position, as last projected */
+	int getLastY() {
+		return ys[(start + size - 1) % latitudes.length];
+	}
+}
@@ -30,6 +30,9 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.awt.geom.AffineTransform;
@@ -62,12 +65,17 @@ public class MercatorPanel  extends JPanel {
 	private ConvertECEFtoLLA convert = new ConvertECEFtoLLA();
 	
 	private double zoom = 1.0;
+	
+	//the scaled image of the earth, and the same with the tracks drawn over it (see paintComponent)
+	private BufferedImage baseMap = null;
+	private BufferedImage frame = null;
+	private double layerZoom = Double.NaN;
 	private int translateX=0;
 	private int translateY=0;
 	
 	//The trajectories to be drawn on the mercator map and historical data to draw the trail of the satellite's orbit 
 	private Map<JComponent, Trajectory>   trajectories = new HashMap<JComponent, Trajectory>();
-	private Map<JComponent, List<Vector>> histories    = new HashMap<JComponent, List<Vector>>();
+	private Map<JComponent, GroundTrack>  histories    = new HashMap<JComponent, GroundTrack>();
 	
 	
 	private final int MAX_HISTORY = 1000;  //this effects the length of the satellite's orbit-trail 
@@ -131,108 +139,107 @@ public class MercatorPanel  extends JPanel {
 		listeners.remove(vcl);
 	}
 	
+	/*
+	 * The map is painted from two images the size of the panel: the earth, scaled (and zoomed) once per
+	 * size and zoom, and the frame, which is a copy of the earth with the tracks drawn over it.  The
+	 * frame is drawn again only when a track has a new position, so otherwise painting is one copy.
+	 */
 	@Override
 	public void paintComponent(Graphics g) {
 
 		super.paintComponent(g);
 		
-		Graphics2D g2d = (Graphics2D)g;
+		int width = getWidth();
+		int height = getHeight();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
 		
-		AffineTransform saveTransform = g2d.getTransform();
-		AffineTransform at = new AffineTransform(saveTransform);	
-		at.translate(getWidth()/2, getHeight()/2);	   //so we zoom wrt the center of the image
-		at.scale(zoom, zoom);
-		at.translate(-getWidth()/2, -getHeight()/2);  //so we zoom wrt the center of the image
-		g2d.setTransform(at);
-
-		double curWidth = getWidth();
-		double curHeight= getHeight();
+		boolean changed = false;
+		if (baseMap == null || baseMap.getWidth() != width || baseMap.getHeight() != height || layerZoom != zoom) {
+			layerZoom = zoom;
+			baseMap = createLayer(width, height);
+			frame = createLayer(width, height);
+			
+			Graphics2D base = baseMap.createGraphics();
+			base.transform(getZoomTransform());
+			base.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			base.drawImage(image, 0 , 0, width, height, null);
+			base.dispose();
+			changed = true;
+		}
 		
-		g2d.drawImage(image, 0 , 0, (int)curWidth,(int)curHeight, null);
-
+		for (Entry<JComponent, Trajectory> entry : trajectories.entrySet()) {
+			GroundTrack history = histories.get(entry.getKey());
+			if (history == null) {
+				history = new GroundTrack(MAX_HISTORY, convert);
+				histories.put(entry.getKey(), history);
+			}
+			
+			//converts the new position to lat/lon; the oldest position is dropped once there are MAX_HISTORY
+			changed |= history.append(entry.getValue().getPosition());
+		}
+		
+		if (changed) {
+			drawTracks(width, height);
+		}
+		
+		g.drawImage(frame, 0, 0, null);
+	}
+	
+	/*
+	 * Draws the earth and the tracks into the frame, and places each satellite's icon and name at the end of its track
+	 */
+	private void drawTracks(int width, int height) {
+		Graphics2D g2d = frame.createGraphics();
+		g2d.drawImage(baseMap, 0, 0, null);
+		g2d.transform(getZoomTransform());
 
 		int c = 0;
 		for (Entry<JComponent, Trajectory> entry : trajectories.entrySet()) {
 			Color color = COLORS[(c++) % COLORS.length];
-			Trajectory traj = entry.getValue();
-			
-			if (!histories.containsKey(entry.getKey())) {
-				histories.put(entry.getKey(), new ArrayList<Vector>());
-			}
-			
-			List<Vector> history = histories.get(entry.getKey());
-			Vector position = traj.getPosition();
-			
-			if (history.isEmpty() || !history.get(history.size() - 1).equals(position)) {
-				if (position.magnitude() > 0) {
-					history.add(position);
-				}
-			}
+			GroundTrack history = histories.get(entry.getKey());
 			
-			//chop of tail of the satellite's orbit to the length of MAX_HISTORY
-			while (history.size() > MAX_HISTORY) history.remove(0);
+			if (history.size() == 0) continue;
 			
-			if (history.isEmpty()) continue;
+			//only the positions appended since the last paint are projected, unless the panel was resized
+			history.project(width, height);
 			
-			Vector p1, p2;
-			p1 = transform(history.get(0));
-			
-			int x1 = 0, y1 = 0, x2 = 0, y2 = 0;
-			for (Vector vec : history) {
-				p2 = transform(vec);
-				
-				x1 = (int) (curWidth*((180+p1.getX())/360));
-				y1 = (-1)*(int)(  ((p1.getY()-90)/180)*curHeight);
-				
-				x2 = (int) (curWidth*((180+p2.getX())/360));
-				y2 = (-1)*(int)(  ((p2.getY()-90)/180)*curHeight   );
-
-				g2d.setColor(color);
-				
-				if( hasWrappedScreen(x1, y1, x2, y2, curWidth, curHeight) )
-					g2d.drawLine(x1, y1, x1, y1);	//prevents a line being drawn across screen when a satellite wraps about the screen
-				else
-					g2d.drawLine(x1, y1, x2, y2);
-				p1 = p2;
-			}
+			g2d.setColor(color);
+			history.draw(g2d, PIXEL_WRAP_TOL);
+			int x1 = history.getLastX(), y1 = history.getLastY();
 			
 			//setting the location for the Satellite's Icon and name
 			JComponent satRep = entry.getKey();
-			double wvr2 = getWidth()/2;
-			double hvr2 = getHeight()/2;
+			double wvr2 = width/2;
+			double hvr2 = height/2;
 			double transX = (x1-wvr2)*zoom+wvr2;
 			double transY = (y1-hvr2)*zoom+hvr2;
 			satRep.setLocation((int)(transX - 10), (int)(transY-10));
-			satRep.setForeground(g2d.getColor());
+			satRep.setForeground(color);
 		}
-	g2d.setTransform(saveTransform);
-}
-	
-	private boolean	hasWrappedScreen
-	( double x1, double y1, double x2, double y2, double curWidth, double curHeight)  {
-		if( Math.abs(x1 - x2) > (curWidth-PIXEL_WRAP_TOL) || Math.abs(y2-y1) > (curHeight-PIXEL_WRAP_TOL))
-			return true;
-		else
-			return false;
+		g2d.dispose();
 	}
 	
+	private AffineTransform getZoomTransform() {
+		AffineTransform at = new AffineTransform();
+		at.translate(getWidth()/2, getHeight()/2);	   //so we zoom wrt the center of the image
+		at.scale(zoom, zoom);
+		at.translate(-getWidth()/2, -getHeight()/2);  //so we zoom wrt the center of the image
+		return at;
+	}
 	
 	/*
-	 * transforms a vector from ecef coordinates into lat lon alt corrdinates
-	 * (see ConvertECEFtoLLA for units used for lat lon and alt) 
+	 * Creates an image for the map, in the format of the screen when the panel is shown 
 	 */
-	private Vector transform (Vector vec) {
-		
-		double[] ecefVec = {vec.getX(), vec.getY(), vec.getZ()};
-		
-		double[] lla = convert.ecefToLLA(ecefVec);
-		
-		//ordered this way so the methods getX() gives longitude and getY() gives latitude
-		return new Vector(lla[1], lla[0], lla[2]);
+	private BufferedImage createLayer(int width, int height) {
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		if (gc != null) {
+			return gc.createCompatibleImage(width, height, Transparency.OPAQUE);
+		}
+		return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
 	}
 	
-	
-	
 	@Override
 	public Dimension getMinimumSize() {
 		return new Dimension(0,0);
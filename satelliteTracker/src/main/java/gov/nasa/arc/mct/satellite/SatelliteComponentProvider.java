@@ -27,6 +27,7 @@ import gov.nasa.arc.mct.satellite.component.SatelliteComponent;
 import gov.nasa.arc.mct.satellite.component.VectorComponent;
 import gov.nasa.arc.mct.satellite.policy.MercatorViewPolicy;
 import gov.nasa.arc.mct.satellite.view.MercatorProjectionView;
+import gov.nasa.arc.mct.satellite.view.PassPredictionView;
 import gov.nasa.arc.mct.satellite.wizard.SatelliteWizard;
 import gov.nasa.arc.mct.services.component.AbstractComponentProvider;
 import gov.nasa.arc.mct.services.component.ComponentTypeInfo;
@@ -35,8 +36,10 @@ import gov.nasa.arc.mct.services.component.TypeInfo;
 import gov.nasa.arc.mct.services.component.ViewInfo;
 import gov.nasa.arc.mct.services.component.ViewType;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 
 /*
  * This class tells MCT "Hey I'm a plug-in!". It tells MCT what views are associated with
@@ -79,6 +82,16 @@ public class SatelliteComponentProvider extends AbstractComponentProvider {
 			new ViewInfo(MercatorProjectionView.class, "Mercator Projection", ViewType.EMBEDDED)
 	);
 	
+	/* Satellite components also get a table of their upcoming passes over the ground stations, predicted from
+	 * their TLE (which the other components do not hold)
+	 */
+	private static final Collection<ViewInfo> SATELLITE_VIEWS;
+	static {
+		Collection<ViewInfo> views = new ArrayList<ViewInfo>(VIEWS);
+		views.add(new ViewInfo(PassPredictionView.class, "Pass Prediction", ViewType.OBJECT));
+		SATELLITE_VIEWS = Collections.unmodifiableCollection(views);
+	}
+	
 	/* Our policies associated with this plug-in:  here we tell MCT that the class 'MercatorViewPolicy'
 	 * is handling the policies for this plug-in.
 	 * 
@@ -104,6 +117,9 @@ public class SatelliteComponentProvider extends AbstractComponentProvider {
 	 */
 	@Override
 	public Collection<ViewInfo> getViews(String componentTypeId) {
+		if (SatelliteComponent.class.getName().equals(componentTypeId)) {
+			return SATELLITE_VIEWS;
+		}
 		return VIEWS;
 	}
 	
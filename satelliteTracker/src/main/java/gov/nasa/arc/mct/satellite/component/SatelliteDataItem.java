@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.component;
+
+import gov.nasa.arc.mct.components.FeedProvider;
+import gov.nasa.arc.mct.components.FeedProvider.RenderingInfo;
+
+import java.awt.Color;
+import java.util.HashMap;
+
+/**
+ * A data point of a satellite feed, as SatelliteDataProvider packs it for views: the usual normalized
+ * keys, whose values are strings, and the value itself as a double, so that views which know of this
+ * class (such as MercatorProjectionView) need not parse it back from its string.
+ */
+@SuppressWarnings("serial")
+public class SatelliteDataItem extends HashMap<String, String> {
+	private final double value;
+	
+	SatelliteDataItem(String timeString, double value) {
+		super(8);
+		this.value = value;
+		String valueString = Double.toString(value);
+		RenderingInfo ri = new RenderingInfo(valueString, Color.ORANGE, " ", Color.ORANGE, true);
+		put(FeedProvider.NORMALIZED_RENDERING_INFO, ri.toString());
+		put(FeedProvider.NORMALIZED_TIME_KEY,  timeString);
+		put(FeedProvider.NORMALIZED_VALUE_KEY, valueString);
+		put(FeedProvider.NORMALIZED_TELEMETRY_STATUS_CLASS_KEY, "1");
+	}
+	
+	/**
+	 * @return the value of this data point
+	 */
+	public double getValue() {
+		return value;
+	}
+}
@@ -22,12 +22,19 @@
 package gov.nasa.arc.mct.satellite.component;
 
 import gov.nasa.arc.mct.api.feed.DataProvider;
-import gov.nasa.arc.mct.components.FeedProvider;
-import gov.nasa.arc.mct.components.FeedProvider.RenderingInfo;
+import gov.nasa.arc.mct.satellite.component.SatelliteFeedRegistry.Feed;
+import gov.nasa.arc.mct.satellite.component.SatelliteFeedRegistry.Satellite;
+import gov.nasa.arc.mct.satellite.utilities.BatchPropagator;
+import gov.nasa.arc.mct.satellite.utilities.EphemerisStore;
+import gov.nasa.arc.mct.satellite.utilities.EphemerisTable;
+import gov.nasa.arc.mct.satellite.utilities.PropagationBatch;
 import gov.nasa.arc.mct.satellite.utilities.SatTrak;
+import gov.nasa.arc.mct.satellite.utilities.SatelliteElements;
+import gov.nasa.arc.mct.satellite.utilities.SatelliteState;
 
-import java.awt.Color;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -48,12 +55,48 @@ import java.util.concurrent.TimeUnit;
 public class SatelliteDataProvider implements DataProvider {
 	
 
-	//for the purpose of not re-creating already created satellites in the getData method
-	private static final ThreadLocal<Map<String, SatTrak>> unique = new ThreadLocal<Map<String,SatTrak>>() {
-            @Override protected Map<String, SatTrak> initialValue() {
-                return new HashMap<String, SatTrak>();
-        }
-    };
+	//feed IDs, parsed once; satellites are shared by all of their feeds
+	private final SatelliteFeedRegistry registry = new SatelliteFeedRegistry();
+	
+	//the number of initialized satellite element sets remembered across calls to getData
+	private static final int ELEMENTS_CACHE_CAPACITY = 1024;
+	
+	//element sets are shared by all threads; each call propagates through its own scratch copy
+	private final SatelliteElementsCache elementsCache = new SatelliteElementsCache(ELEMENTS_CACHE_CAPACITY);
+	
+	//the number of satellite states remembered across calls to getData
+	private static final int STATE_CACHE_CAPACITY = 32768;
+	
+	//states are shared by all feeds of a satellite, and by all threads
+	private final SatelliteStateCache stateCache = new SatelliteStateCache(STATE_CACHE_CAPACITY);
+	
+	//the time between data points, in milliseconds
+	private static final long STEP = 1000;
+	
+	//the number of states (satellites times data points) from which a request is propagated as a batch
+	static final int BATCH_THRESHOLD = 20000;
+	
+	//propagates large requests in parallel
+	private BatchPropagator batchPropagator;
+	
+	//the number of ephemeris tables (one per satellite and day) kept across calls to getData; once
+	//full, further satellites are propagated directly until a table goes unused (see EphemerisStore)
+	private static final int EPHEMERIS_CAPACITY = 256;
+	
+	//tables which serve repeated requests for a satellite and day without SGP4; null to always propagate
+	private final EphemerisStore ephemerides;
+	
+	public SatelliteDataProvider() {
+		this(new EphemerisStore(EPHEMERIS_CAPACITY, EphemerisTable.DEFAULT_STEP));
+	}
+	
+	/*
+	 * Creates a data provider whose states are interpolated from the given ephemeris tables, once
+	 * ready; or always propagated, if there are none
+	 */
+	public SatelliteDataProvider(EphemerisStore ephemerides) {
+		this.ephemerides = ephemerides;
+	}
 	
 	/* 
 	 * (non-Javadoc)
@@ -82,86 +125,160 @@ public class SatelliteDataProvider implements DataProvider {
  * This method reads the feeds comming off from CoordinateComponent.java (which is located in the package
  * gov.nasa.arc.mct.satellite.component)
  * 
- * Notes: *	 	pieces[0] satellite name
- *  			pieces[1] TLE line 1
- *  			pieces[2] TLE line 2
- *  			pieces[3] position or velocity, of x y or z component
+ * Notes: *	 	the feeds are taken apart (into the satellite name, the two TLE lines, and the position or
+ *         		velocity, of x y or z component) once, by SatelliteFeedRegistry
  *  
- *        *		Do not change the value of the feedID, for doing so will confuse MCT; for example,  notice I used
- *         		String tleFeed = = feedID.substring(feedID.indexOf(":")+1), that is, a new variable rather than
- *         		writing over feedID
+ *        *		Do not change the value of the feedID, for doing so will confuse MCT; the data is returned
+ *         		under the very feedID which was asked for
  */
 	@Override
 	public Map<String, SortedMap<Long, Map<String, String>>> getData(
 			Set<String> feedIDs, long startTime, long endTime, TimeUnit timeUnit) {
 		
-		Map<String, SatTrak> createdSats = unique.get();
-		
 		Map<String, SortedMap<Long, Map<String, String>>> out = new HashMap<String, SortedMap<Long, Map<String, String>>>();
 
+		//group the feeds by satellite, so that each satellite is propagated once per time stamp, no
+		//matter how many of its feeds (position or velocity, of x y or z component) are requested
+		Map<Satellite, List<String>> feedsBySatellite = new LinkedHashMap<Satellite, List<String>>();
+		Map<Satellite, List<SatelliteParameter>> parametersBySatellite = new HashMap<Satellite, List<SatelliteParameter>>();
 		for (String feedID : feedIDs) {
-			if (feedID.startsWith(CoordinateComponent.FEED_KEY_ID) && feedID.contains(CoordinateComponent.FEED_SEPERATOR)) {
-				
-				String tleFeed = feedID.substring(feedID.indexOf(":")+1);//+1 so we do not include ':'
-				String[] pieces = tleFeed.split(CoordinateComponent.FEED_SEPERATOR);//see notes above method for 'pieces' array
-				boolean isVelocity = pieces[3].contains("v");
-				SortedMap<Long, Map<String, String>> data = new TreeMap<Long, Map<String, String>>();
-				
-				for (long time = startTime; time < endTime; time += 1000) {
-					
-					double dataValue = 0.0;
-					
-					//pieces[2] is used as a key to the satellites in the hashmap
-					String SatNum = pieces[2].split("\\s+")[1]; //the satellite number is the second token of the second line of the TLE; it is Unique
-					
-					
-					//determine whether if we have already created the satellite
-					SatTrak sat;
-					if(createdSats.containsKey(SatNum)) {
-						sat = createdSats.get(SatNum);
+			Feed feed = registry.get(feedID); //already parsed, unless this is the first request for the feed
+			if (feed != null) {
+				Satellite satellite = feed.getSatellite();
+				List<String> feeds = feedsBySatellite.get(satellite);
+				if (feeds == null) {
+					feeds = new ArrayList<String>();
+					feedsBySatellite.put(satellite, feeds);
+					parametersBySatellite.put(satellite, new ArrayList<SatelliteParameter>());
+				}
+				feeds.add(feedID);
+				parametersBySatellite.get(satellite).add(feed.getParameter());
+			}
+		}
+		
+		//read (or find) the element set of each satellite; TLEs which cannot be read have no data
+		List<Satellite> satellites = new ArrayList<Satellite>(feedsBySatellite.size());
+		List<SatelliteElements> elements = new ArrayList<SatelliteElements>(feedsBySatellite.size());
+		for (Satellite satellite : feedsBySatellite.keySet()) {
+			try {
+				elements.add(elementsCache.get(satellite.getKey(), satellite.getName(), satellite.getLine1(), satellite.getLine2()));
+				satellites.add(satellite);
+			} catch (IllegalArgumentException e) {
+				continue;
+			}
+		}
+		
+		//large requests (many satellites, or long spans of time) are propagated as one batch, in 
+		//parallel; they bypass the state cache, which they would only flush
+		long timeCount = startTime < endTime ? (endTime - startTime + STEP - 1) / STEP : 0;
+		if (timeCount * satellites.size() >= BATCH_THRESHOLD) {
+			boolean[] wanted = new boolean[PropagationBatch.ELEMENT_COUNT];
+			for (List<SatelliteParameter> parameters : parametersBySatellite.values()) {
+				for (SatelliteParameter parameter : parameters) {
+					wanted[parameter.getElement()] = true;
+				}
+			}
+			PropagationBatch batch;
+			try {
+				batch = getBatchPropagator().propagate(elements.toArray(new SatelliteElements[elements.size()]), 
+						startTime, endTime, STEP, wanted);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return out;
+			}
+			for (int s = 0; s < satellites.size(); s++) {
+				List<String> feeds = feedsBySatellite.get(satellites.get(s));
+				List<SatelliteParameter> parameters = parametersBySatellite.get(satellites.get(s));
+				for (int i = 0; i < feeds.size(); i++) {
+					double[] values = batch.getSeries(s, parameters.get(i).getElement());
+					SortedMap<Long, Map<String, String>> data = new TreeMap<Long, Map<String, String>>();
+					for (int t = 0; t < values.length; t++) {
+						long time = batch.getTime(t);
+						data.put(Long.valueOf(time), getDataItem(Long.toString(time), values[t]));
 					}
-					else { //we have not created this satellite yet
-						sat = new SatTrak(pieces[0], pieces[1], pieces[2]);
-						createdSats.put(SatNum, sat);	//note that the satellite number is unique
+					if (!data.isEmpty()) {
+						out.put(feeds.get(i), data);
 					}
+				}
+			}
+			return out;
+		}
+		
+		for (int s = 0; s < satellites.size(); s++) {
+			Satellite satellite = satellites.get(s);
+			List<String> feeds = feedsBySatellite.get(satellite);
+			SatelliteParameter[] parameters = parametersBySatellite.get(satellite).toArray(new SatelliteParameter[feeds.size()]);
+			
+			List<SortedMap<Long, Map<String, String>>> data = new ArrayList<SortedMap<Long, Map<String, String>>>(feeds.size());
+			for (int i = 0; i < feeds.size(); i++) {
+				data.add(new TreeMap<Long, Map<String, String>>());
+			}
 			
-					
-					if( isVelocity) {
-						double[] TEMEvel = sat.getTEMEvelocity(time);
-						if (pieces[3].contains("x"))
-							dataValue = TEMEvel[0];
-						else if (pieces[3].contains("y"))
-							dataValue = TEMEvel[1];
-						else	// here we have (pieces[3].contains("z"))
-							dataValue = TEMEvel[2];
+			SatTrak sat = null; //created once a state is not found in the cache, nor in a table
+			EphemerisTable table = null;
+			long tableDay = Long.MIN_VALUE;
+			
+			for (long time = startTime; time < endTime; time += STEP) {
+				
+				SatelliteState state = stateCache.get(satellite.getKey(), time);
+				if (state == null) {
+					//look for the table of this day once; if it is not ready, it will be for the next request
+					if (ephemerides != null && EphemerisTable.getDayStart(time) != tableDay) {
+						tableDay = EphemerisTable.getDayStart(time);
+						table = ephemerides.getTable(satellite.getKey(), elements.get(s), time);
 					}
-					else {
-						if (pieces[3].contains("x"))
-							dataValue = sat.getECEFx(time);
-						else if (pieces[3].contains("y"))
-							dataValue = sat.getECEFy(time);
-						else	// (pieces[3].contains("z"))
-							dataValue = sat.getECEFz(time);
+					if (table != null) {
+						state = table.getState(time);
+					} else {
+						if (sat == null) {
+							sat = new SatTrak(elements.get(s));
+						}
+						state = sat.propagate(time);
 					}
-					
-					//Now we pack our data so a View can use the data to display it to the user
-					//as an example MercatorView takes this data and draws the satellite positions
-					//on a Mercator graph
-					Map <String, String> dataItem = new HashMap<String, String> ();
-					RenderingInfo ri = new RenderingInfo(Double.toString(dataValue), Color.ORANGE, " ", Color.ORANGE, true);
-					dataItem.put(FeedProvider.NORMALIZED_RENDERING_INFO, ri.toString());
-					dataItem.put(FeedProvider.NORMALIZED_TIME_KEY,  Long.toString(time));
-					dataItem.put(FeedProvider.NORMALIZED_VALUE_KEY, Double.toString(dataValue));
-					dataItem.put(FeedProvider.NORMALIZED_TELEMETRY_STATUS_CLASS_KEY, "1");
-					data.put(Long.valueOf(time), dataItem);
+					stateCache.put(satellite.getKey(), time, state);
+				}
+				
+				Long timeKey = Long.valueOf(time);
+				String timeString = Long.toString(time);
+				for (int i = 0; i < parameters.length; i++) {
+					data.get(i).put(timeKey, getDataItem(timeString, parameters[i].get(state)));
 				}
-				if (!data.isEmpty()) {
-					out.put(feedID, data);
+			}
+			
+			for (int i = 0; i < feeds.size(); i++) {
+				if (!data.get(i).isEmpty()) {
+					out.put(feeds.get(i), data.get(i));
 				}
 			}
 		}
 		return out;
 	}
+	
+	/*
+	 * Now we pack our data so a View can use the data to display it to the user
+	 * as an example MercatorView takes this data and draws the satellite positions
+	 * on a Mercator graph (reading the value as a double, where it can, rather than parsing it)
+	 */
+	private static Map<String, String> getDataItem(String timeString, double dataValue) {
+		return new SatelliteDataItem(timeString, dataValue);
+	}
+	
+	/*
+	 * The batch propagator is only started once a request is large enough to need it
+	 */
+	private synchronized BatchPropagator getBatchPropagator() {
+		if (batchPropagator == null) {
+			batchPropagator = new BatchPropagator();
+		}
+		return batchPropagator;
+	}
+	
+	/*
+	 * The cache of initialized element sets, for a look at its hit, miss and eviction counts
+	 */
+	SatelliteElementsCache getElementsCache() {
+		return elementsCache;
+	}
 
 	@Override
 	public Map<String, List<Map<String, String>>> getData(Set<String> feedIDs,
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.component;
+
+import gov.nasa.arc.mct.satellite.utilities.SatelliteElements;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * This class shares initialized element sets (see SatelliteElements) between all the threads
+ * which ask SatelliteDataProvider for data, so that SGP4 is initialized once per TLE rather than
+ * once per TLE and thread.  Element sets are keyed by TLE; the least recently used are discarded
+ * once the cache is full, so TLEs which are no longer followed do not stay in memory forever.
+ * 
+ * Element sets are never changed, so they are shared freely: each call to getData propagates
+ * through its own scratch copy (see SatTrak).
+ */
+class SatelliteElementsCache {
+	
+	private final int capacity;
+	private final Map<String, SatelliteElements> elements;
+	
+	private final AtomicLong hits      = new AtomicLong();
+	private final AtomicLong misses    = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	
+	/**
+	 * Creates a cache which holds at most the given number of element sets.
+	 * @param capacity the maximum number of element sets to remember
+	 */
+	SatelliteElementsCache(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.elements = new LinkedHashMap<String, SatelliteElements>(16, 0.75f, true) {
+			private static final long serialVersionUID = 2937815523061329118L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SatelliteElements> eldest) {
+				if (size() > SatelliteElementsCache.this.capacity) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Gets the element set of a satellite, reading its TLE and initializing SGP4 if it is not in the cache.
+	 * @param key the key of the satellite's TLE
+	 * @param satName the name of the satellite
+	 * @param tleLine1 the first line of the TLE
+	 * @param tleLine2 the second line of the TLE
+	 * @return the element set of the satellite
+	 * @throws IllegalArgumentException if the TLE could not be read
+	 */
+	SatelliteElements get(String key, String satName, String tleLine1, String tleLine2) {
+		synchronized (elements) {
+			SatelliteElements cached = elements.get(key);
+			if (cached != null) {
+				hits.incrementAndGet();
+				return cached;
+			}
+		}
+		misses.incrementAndGet();
+		
+		//initialize outside of the lock, so other satellites are not held up; should two threads
+		//initialize the same satellite, the first one to finish is kept
+		SatelliteElements created = new SatelliteElements(satName, tleLine1, tleLine2);
+		synchronized (elements) {
+			SatelliteElements cached = elements.get(key);
+			if (cached != null) {
+				return cached;
+			}
+			elements.put(key, created);
+			return created;
+		}
+	}
+	
+	/**
+	 * @return the number of requests answered from the cache
+	 */
+	long getHitCount() {
+		return hits.get();
+	}
+	
+	/**
+	 * @return the number of requests which had to initialize an element set
+	 */
+	long getMissCount() {
+		return misses.get();
+	}
+	
+	/**
+	 * @return the number of element sets discarded to keep the cache within its capacity
+	 */
+	long getEvictionCount() {
+		return evictions.get();
+	}
+	
+	/**
+	 * @return the number of element sets in the cache
+	 */
+	int size() {
+		synchronized (elements) {
+			return elements.size();
+		}
+	}
+}
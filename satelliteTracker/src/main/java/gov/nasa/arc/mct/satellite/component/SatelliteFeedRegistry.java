@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * This class remembers the feed IDs made by CoordinateComponent, already taken apart, so that
+ * SatelliteDataProvider does not split the same feed IDs (and re-read the same TLE lines) on
+ * every request.  A feed ID looks like:
+ * 
+ *     "SatOrbit:" + name + "=" + TLE line 1 + "=" + TLE line 2 + "=" + parameter key
+ * 
+ * Each feed ID is parsed once into a Feed, which names its parameter and its Satellite.  Satellites
+ * are interned by their TLE, so all the feeds of a satellite share one Satellite, however many
+ * components or views ask for them.
+ */
+class SatelliteFeedRegistry {
+	
+	private final ConcurrentMap<String, Feed> feeds = new ConcurrentHashMap<String, Feed>();
+	private final ConcurrentMap<String, Satellite> satellites = new ConcurrentHashMap<String, Satellite>();
+	
+	/**
+	 * Gets the parsed form of a feed ID.
+	 * @param feedID the feed ID, as made by CoordinateComponent
+	 * @return the feed, or null if the feed ID does not describe a satellite coordinate
+	 */
+	Feed get(String feedID) {
+		Feed feed = feeds.get(feedID);
+		if (feed == null) {
+			feed = parse(feedID);
+			if (feed == null) {
+				return null;
+			}
+			Feed existing = feeds.putIfAbsent(feedID, feed);
+			if (existing != null) {
+				feed = existing;
+			}
+		}
+		return feed;
+	}
+	
+	/**
+	 * @return the number of feed IDs parsed so far
+	 */
+	int size() {
+		return feeds.size();
+	}
+	
+	private Feed parse(String feedID) {
+		if (!feedID.startsWith(CoordinateComponent.FEED_KEY_ID) || !feedID.contains(CoordinateComponent.FEED_SEPERATOR)) {
+			return null;
+		}
+		String tleFeed = feedID.substring(feedID.indexOf(":")+1);//+1 so we do not include ':'
+		String[] pieces = tleFeed.split(CoordinateComponent.FEED_SEPERATOR);
+		if (pieces.length < 4) {
+			return null;
+		}
+		SatelliteParameter parameter = SatelliteParameter.forKey(pieces[3]);
+		if (parameter == null) {
+			return null;
+		}
+		
+		//the two lines of the TLE are used as the key to the satellite, so that an updated TLE
+		//for the same satellite number is never served a stale state
+		String key = pieces[1] + CoordinateComponent.FEED_SEPERATOR + pieces[2];
+		Satellite satellite = satellites.get(key);
+		if (satellite == null) {
+			satellite = new Satellite(key, pieces[0], pieces[1], pieces[2]);
+			Satellite existing = satellites.putIfAbsent(key, satellite);
+			if (existing != null) {
+				satellite = existing;
+			}
+		}
+		return new Feed(satellite, parameter);
+	}
+	
+	/*
+	 * One feed ID, taken apart: the satellite it follows, and the parameter it reports.
+	 */
+	static final class Feed {
+		private final Satellite satellite;
+		private final SatelliteParameter parameter;
+		
+		Feed(Satellite satellite, SatelliteParameter parameter) {
+			this.satellite = satellite;
+			this.parameter = parameter;
+		}
+		
+		Satellite getSatellite() {
+			return satellite;
+		}
+		
+		SatelliteParameter getParameter() {
+			return parameter;
+		}
+	}
+	
+	/*
+	 * A satellite, as described by its TLE.
+	 */
+	static final class Satellite {
+		private final String key;
+		private final String name;
+		private final String line1;
+		private final String line2;
+		private final String catalogNumber;
+		
+		Satellite(String key, String name, String line1, String line2) {
+			this.key   = key;
+			this.name  = name;
+			this.line1 = line1;
+			this.line2 = line2;
+			this.catalogNumber = line2.trim().split("\\s+")[1]; //the satellite number is the second token on the 2nd line of the TLE
+		}
+		
+		/**
+		 * @return the key of this satellite's TLE (its two lines)
+		 */
+		String getKey() {
+			return key;
+		}
+		
+		String getName() {
+			return name;
+		}
+		
+		String getLine1() {
+			return line1;
+		}
+		
+		String getLine2() {
+			return line2;
+		}
+		
+		String getCatalogNumber() {
+			return catalogNumber;
+		}
+	}
+}
@@ -40,5 +40,9 @@ public class SatelliteModel {
 	public void set( TLE tle ) {
 		SatTLE = tle;
 	}
+	
+	public TLE getTLE() {
+		return SatTLE;
+	}
 
 }
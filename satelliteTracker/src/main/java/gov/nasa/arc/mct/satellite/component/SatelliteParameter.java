@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.component;
+
+import gov.nasa.arc.mct.satellite.utilities.PropagationBatch;
+import gov.nasa.arc.mct.satellite.utilities.SatelliteState;
+
+/*
+ * The parameters a coordinate feed can report (see CoordinateModel.getParameterKey): the
+ * ECEF position (in km), or the TEME velocity (in m/s), in the x, y or z direction.
+ */
+enum SatelliteParameter {
+	PX("px", PropagationBatch.ECEF_X) { double get(SatelliteState state) { return state.getECEFx(); } },
+	PY("py", PropagationBatch.ECEF_Y) { double get(SatelliteState state) { return state.getECEFy(); } },
+	PZ("pz", PropagationBatch.ECEF_Z) { double get(SatelliteState state) { return state.getECEFz(); } },
+	VX("vx", PropagationBatch.TEME_VX) { double get(SatelliteState state) { return state.getTEMEvx(); } },
+	VY("vy", PropagationBatch.TEME_VY) { double get(SatelliteState state) { return state.getTEMEvy(); } },
+	VZ("vz", PropagationBatch.TEME_VZ) { double get(SatelliteState state) { return state.getTEMEvz(); } };
+	
+	private final String key;
+	private final int element;
+	
+	private SatelliteParameter(String key, int element) {
+		this.key = key;
+		this.element = element;
+	}
+	
+	/**
+	 * @return the key of this parameter, as it appears at the end of a feed ID
+	 */
+	String getKey() {
+		return key;
+	}
+	
+	/**
+	 * @return the element of the state this parameter reads, as in PropagationBatch
+	 */
+	int getElement() {
+		return element;
+	}
+	
+	/**
+	 * Reads this parameter from the state of a satellite.
+	 * @param state the state of the satellite
+	 * @return the value of this parameter
+	 */
+	abstract double get(SatelliteState state);
+	
+	/**
+	 * Finds the parameter for a key, as made by CoordinateModel.getParameterKey.
+	 * @param key the key of the parameter
+	 * @return the parameter, or null if the key is unknown
+	 */
+	static SatelliteParameter forKey(String key) {
+		for (SatelliteParameter parameter : values()) {
+			if (parameter.key.equals(key)) {
+				return parameter;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.component;
+
+import gov.nasa.arc.mct.satellite.utilities.SatelliteState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * This class remembers the recently propagated states of satellites, so that every feed of a
+ * satellite (position and velocity, in x, y and z) can be served from a single SGP4 propagation
+ * per time stamp, even when those feeds are requested separately (for instance, by a Mercator
+ * view and a table showing the same satellite).
+ * 
+ * States are keyed by the TLE of the satellite (so that an updated TLE is never served a stale
+ * state) and by time.  The least recently used states are discarded once the cache is full.
+ */
+class SatelliteStateCache {
+	
+	private final int capacity;
+	private final Map<Key, SatelliteState> states;
+	
+	/**
+	 * Creates a cache which holds at most the given number of states.
+	 * @param capacity the maximum number of states to remember
+	 */
+	SatelliteStateCache(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.states = new LinkedHashMap<Key, SatelliteState>(16, 0.75f, true) {
+			private static final long serialVersionUID = -3168270211736541874L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, SatelliteState> eldest) {
+				return size() > SatelliteStateCache.this.capacity;
+			}
+		};
+	}
+	
+	/**
+	 * Gets a previously propagated state.
+	 * @param tle the key of the satellite's TLE
+	 * @param time the time of the state, in milliseconds
+	 * @return the state, or null if it is not in the cache
+	 */
+	synchronized SatelliteState get(String tle, long time) {
+		return states.get(new Key(tle, time));
+	}
+	
+	/**
+	 * Remembers a propagated state.
+	 * @param tle the key of the satellite's TLE
+	 * @param time the time of the state, in milliseconds
+	 * @param state the state
+	 */
+	synchronized void put(String tle, long time, SatelliteState state) {
+		states.put(new Key(tle, time), state);
+	}
+	
+	synchronized int size() {
+		return states.size();
+	}
+	
+	private static final class Key {
+		private final String tle;
+		private final long time;
+		
+		Key(String tle, long time) {
+			this.tle = tle;
+			this.time = time;
+		}
+
+		@Override
+		public int hashCode() {
+			return tle.hashCode() * 31 + (int) (time ^ (time >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return time == other.time && tle.equals(other.tle);
+		}
+	}
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * This class propagates many satellites over a range of times at once (a constellation, for
+ * instance), spreading the work over a pool of threads by satellite and by chunk of time.  The
+ * states are written straight into the primitive arrays of a PropagationBatch.
+ * 
+ * The pool is a fixed pool of daemon threads, rather than a fork-join pool, as this plug-in still
+ * targets Java 6; each task (one satellite over one chunk of time) is independent and of about the
+ * same size, so nothing is lost by not stealing work.
+ */
+public class BatchPropagator {
+	
+	/* The number of times propagated by each task; large enough that making a scratch copy of
+	 * the element set for each task costs nothing, small enough to keep all threads busy.
+	 */
+	private static final int CHUNK_SIZE = 3600;
+	
+	private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+	
+	private final int threads;
+	private final ExecutorService executor;
+	
+	/**
+	 * Creates a batch propagator with one thread per processor.
+	 */
+	public BatchPropagator() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates a batch propagator.
+	 * @param threads the number of threads propagating satellites; 1 to propagate on the calling thread
+	 */
+	public BatchPropagator(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.threads = threads;
+		if (threads > 1) {
+			final String prefix = "Satellite propagation " + POOL_COUNT.incrementAndGet() + "-";
+			executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, prefix + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		} else {
+			executor = null;
+		}
+	}
+	
+	/**
+	 * @return the number of threads propagating satellites
+	 */
+	public int getThreadCount() {
+		return threads;
+	}
+	
+	/**
+	 * Propagates every satellite to every time in [startTime, endTime), at the given step.
+	 * 
+	 * @param satellites the element sets of the satellites
+	 * @param startTime the first time (in milliseconds)
+	 * @param endTime the end of the range of times (in milliseconds, exclusive)
+	 * @param step the time between states (in milliseconds)
+	 * @param elements which elements of the state to keep (see PropagationBatch); 
+	 *        null to keep all of them
+	 * @return the states of the satellites
+	 * @throws InterruptedException if interrupted while waiting for the propagation
+	 */
+	public PropagationBatch propagate(final SatelliteElements[] satellites, long startTime, long endTime, 
+			long step, boolean[] elements) throws InterruptedException {
+		if (step <= 0 || (elements != null && elements.length != PropagationBatch.ELEMENT_COUNT)) {
+			throw new IllegalArgumentException();
+		}
+		if (elements == null) {
+			elements = new boolean[PropagationBatch.ELEMENT_COUNT];
+			Arrays.fill(elements, true);
+		}
+		final PropagationBatch batch = new PropagationBatch(satellites.length, startTime, endTime, step, elements);
+		final int timeCount = batch.getTimeCount();
+		
+		if (executor == null) {
+			for (int satellite = 0; satellite < satellites.length; satellite++) {
+				propagate(satellites[satellite], batch, satellite, 0, timeCount);
+			}
+			return batch;
+		}
+		
+		List<Future<?>> tasks = new ArrayList<Future<?>>();
+		for (int satellite = 0; satellite < satellites.length; satellite++) {
+			for (int from = 0; from < timeCount; from += CHUNK_SIZE) {
+				final int s = satellite;
+				final int start = from;
+				final int end = Math.min(timeCount, from + CHUNK_SIZE);
+				tasks.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						propagate(satellites[s], batch, s, start, end);
+						return null;
+					}
+				}));
+			}
+		}
+		try {
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			for (Future<?> task : tasks) {
+				task.cancel(true);
+			}
+		}
+		return batch;
+	}
+	
+	/*
+	 * Propagates one satellite over the times [from, to) of the batch, with its own scratch copy
+	 * of the element set
+	 */
+	private static void propagate(SatelliteElements elements, PropagationBatch batch, int satellite, int from, int to) {
+		SatTrak sat = new SatTrak(elements);
+		double[][] series = batch.getSeries(satellite);
+		for (int index = from; index < to; index++) {
+			sat.propagateInto(batch.getTime(index), series, index);
+		}
+		SatTrak.countPropagations(to - from);
+	}
+	
+	/**
+	 * Stops the threads of this batch propagator.
+	 */
+	public void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+}
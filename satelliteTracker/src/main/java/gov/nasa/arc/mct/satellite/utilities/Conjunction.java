@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+/*
+ * This class describes a close approach between two satellites, as found by ConjunctionScreener:
+ * the two satellites, the time of closest approach, and the distance between them at that time.
+ */
+public final class Conjunction {
+	private final int first, second;
+	private final SatelliteElements firstElements, secondElements;
+	private final long time;
+	private final double missDistance;
+	
+	Conjunction(int first, SatelliteElements firstElements, int second, SatelliteElements secondElements, 
+			long time, double missDistance) {
+		this.first = first;
+		this.firstElements = firstElements;
+		this.second = second;
+		this.secondElements = secondElements;
+		this.time = time;
+		this.missDistance = missDistance;
+	}
+	
+	/**
+	 * @return the index of the first satellite, in the order the satellites were screened
+	 */
+	public int getFirst() {
+		return first;
+	}
+	
+	/**
+	 * @return the index of the second satellite, which is greater than that of the first
+	 */
+	public int getSecond() {
+		return second;
+	}
+	
+	/**
+	 * @return the element set of the first satellite
+	 */
+	public SatelliteElements getFirstElements() {
+		return firstElements;
+	}
+	
+	/**
+	 * @return the element set of the second satellite
+	 */
+	public SatelliteElements getSecondElements() {
+		return secondElements;
+	}
+	
+	/**
+	 * @return the time of closest approach (in milliseconds)
+	 */
+	public long getTime() {
+		return time;
+	}
+	
+	/**
+	 * @return the distance between the satellites at the time of closest approach (in km)
+	 */
+	public double getMissDistance() {
+		return missDistance;
+	}
+	
+	@Override
+	public String toString() {
+		return firstElements.getSatName() + " / " + secondElements.getSatName() + ": " + missDistance + " km at " + time;
+	}
+}
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/*
+ * This class screens a catalog of satellites for close approaches: pairs which come within a
+ * threshold distance of each other over a range of times.
+ * 
+ * Checking every pair at every time costs O(n^2) per time.  Instead, the positions of all satellites
+ * are propagated in batches (see BatchPropagator) and, at each time, binned into a uniform 3D grid
+ * of cubes whose side is the screening distance; each satellite is then only checked against those
+ * in its own cube and the 26 around it, which is O(n) per time for a catalog spread over space.
+ * 
+ * The screening distance is the threshold plus the farthest any satellite moves between two
+ * samples: two satellites which come within the threshold somewhere between samples are within the
+ * screening distance at the nearest sample.  A pair within the screening distance whose distance is
+ * smallest at that sample (compared with the samples on either side) has its closest approach
+ * between those samples; most such pairs do not come nearly as close as the threshold, so their
+ * relative position is first interpolated through the three samples (a quadratic in time), and only
+ * those whose interpolated closest approach is within the threshold (give or take the error of the
+ * interpolation) are refined.  Their time of closest approach is found by golden-section search,
+ * propagating both satellites with SGP4 to the millisecond, and they are conjunctions if the
+ * distance then is within the threshold.
+ */
+public class ConjunctionScreener {
+	
+	/** The default time between samples (in milliseconds) */
+	public static final long DEFAULT_STEP = 60000;
+	
+	/* The number of samples propagated at once; at the default step, an hour of positions for
+	 * 10000 satellites is about 15 MB
+	 */
+	private static final int SAMPLES_PER_BATCH = 60;
+	
+	/* The search for the time of closest approach stops when it is bracketed this closely (in milliseconds) */
+	private static final long TOLERANCE = 1;
+	
+	/* The distance moved between samples is measured along the chord, which is slightly shorter
+	 * than the arc actually travelled (by less than 0.01% for a low orbit at the default step)
+	 */
+	private static final double DISPLACEMENT_MARGIN = 1.01;
+	
+	/* The interpolated relative position is off by the next term of its expansion, which grows with
+	 * the square of the angle swept between samples: less than a thousandth of the distance moved
+	 * between samples, for low orbits at the default step.  Pairs whose interpolated closest approach
+	 * is within the threshold plus this fraction of the distance moved are refined.
+	 */
+	private static final double INTERPOLATION_MARGIN = 0.01;
+	
+	/* The number of golden-section iterations over the interpolated relative position; enough to
+	 * bracket the minimum to a millionth of the time between samples
+	 */
+	private static final int INTERPOLATION_ITERATIONS = 30;
+	
+	private static final double GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+	
+	private static final boolean[] POSITION = new boolean[PropagationBatch.ELEMENT_COUNT];
+	static {
+		POSITION[PropagationBatch.ECEF_X] = POSITION[PropagationBatch.ECEF_Y] = POSITION[PropagationBatch.ECEF_Z] = true;
+	}
+	
+	private final BatchPropagator propagator;
+	private final double threshold;
+	private final long step;
+	
+	/**
+	 * Creates a conjunction screener.
+	 * @param propagator the batch propagator to propagate the satellites with
+	 * @param threshold the distance within which two satellites are in conjunction (in km)
+	 * @param step the time between samples (in milliseconds); the longer, the more satellites move
+	 *        between samples, and the larger the cubes of the grid
+	 */
+	public ConjunctionScreener(BatchPropagator propagator, double threshold, long step) {
+		if (propagator == null || !(threshold > 0) || step <= 2 * TOLERANCE) {
+			throw new IllegalArgumentException();
+		}
+		this.propagator = propagator;
+		this.threshold = threshold;
+		this.step = step;
+	}
+	
+	/**
+	 * Finds the close approaches of every pair of satellites over a range of times.
+	 * 
+	 * @param satellites the element sets of the satellites
+	 * @param startTime the first time (in milliseconds)
+	 * @param endTime the end of the range of times (in milliseconds, exclusive)
+	 * @return the conjunctions whose time of closest approach is in the range, in order of time
+	 * @throws InterruptedException if interrupted while waiting for the propagation
+	 */
+	public List<Conjunction> screen(SatelliteElements[] satellites, long startTime, long endTime) throws InterruptedException {
+		List<Conjunction> conjunctions = new ArrayList<Conjunction>();
+		int timeCount = PropagationBatch.getTimeCount(startTime, endTime, step);
+		Grid grid = new Grid(satellites.length);
+		//the samples just before and after the range are screened too, as they are the nearest to 
+		//approaches less than half a step inside it
+		for (int from = -1; from < timeCount + 1; from += SAMPLES_PER_BATCH) {
+			int to = Math.min(timeCount + 1, from + SAMPLES_PER_BATCH);
+			//with a sample on either side, to compare the first and last samples with
+			PropagationBatch batch = propagator.propagate(satellites, 
+					startTime + (from - 1) * step, startTime + (to + 1) * step, step, POSITION);
+			screen(satellites, batch, grid, startTime, endTime, conjunctions);
+		}
+		Collections.sort(conjunctions, new Comparator<Conjunction>() {
+			@Override
+			public int compare(Conjunction a, Conjunction b) {
+				return a.getTime() < b.getTime() ? -1 : (a.getTime() == b.getTime() ? 0 : 1);
+			}
+		});
+		return conjunctions;
+	}
+	
+	/*
+	 * Screens the samples of a batch, but its first and last
+	 */
+	private void screen(SatelliteElements[] satellites, PropagationBatch batch, Grid grid, 
+			long startTime, long endTime, List<Conjunction> conjunctions) {
+		int n = satellites.length;
+		double[][] x = new double[n][], y = new double[n][], z = new double[n][];
+		for (int s = 0; s < n; s++) {
+			x[s] = batch.getSeries(s, PropagationBatch.ECEF_X);
+			y[s] = batch.getSeries(s, PropagationBatch.ECEF_Y);
+			z[s] = batch.getSeries(s, PropagationBatch.ECEF_Z);
+		}
+		double displacement = getMaxDisplacement(x, y, z);
+		double screening = threshold + DISPLACEMENT_MARGIN * displacement;
+		double screening2 = screening * screening;
+		double candidate = threshold + INTERPOLATION_MARGIN * displacement;
+		double candidate2 = candidate * candidate;
+		
+		for (int k = 1; k < batch.getTimeCount() - 1; k++) {
+			grid.fill(x, y, z, k, 1 / screening);
+			for (int i = 0; i < n; i++) {
+				if (!grid.contains(i)) {
+					continue;
+				}
+				int cx = grid.cellX[i], cy = grid.cellY[i], cz = grid.cellZ[i];
+				double xi = x[i][k], yi = y[i][k], zi = z[i][k];
+				for (int dx = -1; dx <= 1; dx++) {
+					for (int dy = -1; dy <= 1; dy++) {
+						for (int dz = -1; dz <= 1; dz++) {
+							for (int j = grid.first(cx + dx, cy + dy, cz + dz); j >= 0; j = grid.next[j]) {
+								//each pair once; other cubes hashed to the same bucket are skipped
+								if (j <= i || grid.cellX[j] != cx + dx || grid.cellY[j] != cy + dy || grid.cellZ[j] != cz + dz) {
+									continue;
+								}
+								double ex = x[j][k] - xi, ey = y[j][k] - yi, ez = z[j][k] - zi;
+								double d2 = ex * ex + ey * ey + ez * ez;
+								if (d2 <= screening2 && 
+										d2 <= distance2(x, y, z, i, j, k - 1) && d2 < distance2(x, y, z, i, j, k + 1) &&
+										interpolateMinimum2(x, y, z, i, j, k) <= candidate2) {
+									Conjunction conjunction = refine(satellites, i, j, batch.getTime(k - 1), batch.getTime(k + 1));
+									if (conjunction.getMissDistance() <= threshold && 
+											conjunction.getTime() >= startTime && conjunction.getTime() < endTime) {
+										conjunctions.add(conjunction);
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	private static double distance2(double[][] x, double[][] y, double[][] z, int i, int j, int k) {
+		double ex = x[j][k] - x[i][k], ey = y[j][k] - y[i][k], ez = z[j][k] - z[i][k];
+		return ex * ex + ey * ey + ez * ez;
+	}
+	
+	/*
+	 * The smallest squared distance between two satellites between samples k - 1 and k + 1, with
+	 * their relative position interpolated by the quadratic through the three samples
+	 */
+	private static double interpolateMinimum2(double[][] x, double[][] y, double[][] z, int i, int j, int k) {
+		//r(t) = r0 + b t + c t^2, for t in [-1, 1]
+		double x0 = x[j][k] - x[i][k], xm = x[j][k - 1] - x[i][k - 1], xp = x[j][k + 1] - x[i][k + 1];
+		double y0 = y[j][k] - y[i][k], ym = y[j][k - 1] - y[i][k - 1], yp = y[j][k + 1] - y[i][k + 1];
+		double z0 = z[j][k] - z[i][k], zm = z[j][k - 1] - z[i][k - 1], zp = z[j][k + 1] - z[i][k + 1];
+		double bx = (xp - xm) / 2, by = (yp - ym) / 2, bz = (zp - zm) / 2;
+		double cx = (xp + xm) / 2 - x0, cy = (yp + ym) / 2 - y0, cz = (zp + zm) / 2 - z0;
+		
+		double lo = -1, hi = 1;
+		double c = hi - (hi - lo) * GOLDEN_RATIO, d = lo + (hi - lo) * GOLDEN_RATIO;
+		double fc = norm2(x0 + c * (bx + c * cx), y0 + c * (by + c * cy), z0 + c * (bz + c * cz));
+		double fd = norm2(x0 + d * (bx + d * cx), y0 + d * (by + d * cy), z0 + d * (bz + d * cz));
+		for (int iteration = 0; iteration < INTERPOLATION_ITERATIONS; iteration++) {
+			if (fc <= fd) {
+				hi = d;
+				d = c;
+				fd = fc;
+				c = hi - (hi - lo) * GOLDEN_RATIO;
+				fc = norm2(x0 + c * (bx + c * cx), y0 + c * (by + c * cy), z0 + c * (bz + c * cz));
+			} else {
+				lo = c;
+				c = d;
+				fc = fd;
+				d = lo + (hi - lo) * GOLDEN_RATIO;
+				fd = norm2(x0 + d * (bx + d * cx), y0 + d * (by + d * cy), z0 + d * (bz + d * cz));
+			}
+		}
+		return Math.min(fc, fd);
+	}
+	
+	private static double norm2(double x, double y, double z) {
+		return x * x + y * y + z * z;
+	}
+	
+	/*
+	 * The farthest any satellite moves between two consecutive samples of the batch (in km)
+	 */
+	private static double getMaxDisplacement(double[][] x, double[][] y, double[][] z) {
+		double max2 = 0;
+		for (int s = 0; s < x.length; s++) {
+			for (int k = 1; k < x[s].length; k++) {
+				double dx = x[s][k] - x[s][k - 1], dy = y[s][k] - y[s][k - 1], dz = z[s][k] - z[s][k - 1];
+				double d2 = dx * dx + dy * dy + dz * dz;
+				if (d2 > max2) {
+					max2 = d2;
+				}
+			}
+		}
+		return Math.sqrt(max2);
+	}
+	
+	/*
+	 * Finds the time of closest approach of two satellites between two times, by golden-section 
+	 * search on their distance; the distance is assumed to have a single minimum between them
+	 */
+	private static Conjunction refine(SatelliteElements[] satellites, int first, int second, long start, long end) {
+		SatTrak a = new SatTrak(satellites[first]);
+		SatTrak b = new SatTrak(satellites[second]);
+		long lo = start, hi = end;
+		long c = hi - Math.round((hi - lo) * GOLDEN_RATIO);
+		long d = lo + Math.round((hi - lo) * GOLDEN_RATIO);
+		double dc = distance2(a, b, c), dd = distance2(a, b, d);
+		while (hi - lo > 2 * TOLERANCE) {
+			if (dc <= dd) {
+				hi = d;
+				d = c;
+				dd = dc;
+				c = hi - Math.round((hi - lo) * GOLDEN_RATIO);
+				dc = distance2(a, b, c);
+			} else {
+				lo = c;
+				c = d;
+				dc = dd;
+				d = lo + Math.round((hi - lo) * GOLDEN_RATIO);
+				dd = distance2(a, b, d);
+			}
+		}
+		long time = dc <= dd ? c : d;
+		return new Conjunction(first, satellites[first], second, satellites[second], time, Math.sqrt(Math.min(dc, dd)));
+	}
+	
+	private static double distance2(SatTrak a, SatTrak b, long time) {
+		SatelliteState sa = a.propagate(time);
+		SatelliteState sb = b.propagate(time);
+		double ex = sb.getECEFx() - sa.getECEFx(), ey = sb.getECEFy() - sa.getECEFy(), ez = sb.getECEFz() - sa.getECEFz();
+		return ex * ex + ey * ey + ez * ez;
+	}
+	
+	/*
+	 * A uniform grid of cubes, hashed into a table of buckets; each bucket is a linked list of the
+	 * satellites in the cubes hashed to it, threaded through 'next'.  The arrays are reused from
+	 * one sample to the next.
+	 */
+	private static final class Grid {
+		private final int[] buckets;
+		private final int mask;
+		final int[] next;
+		final int[] cellX, cellY, cellZ;
+		
+		Grid(int satelliteCount) {
+			int size = 16;
+			while (size < 2 * satelliteCount) {
+				size <<= 1;
+			}
+			buckets = new int[size];
+			mask = size - 1;
+			next = new int[satelliteCount];
+			cellX = new int[satelliteCount];
+			cellY = new int[satelliteCount];
+			cellZ = new int[satelliteCount];
+		}
+		
+		/*
+		 * Bins the satellites' positions at sample k into cubes of side 1 / inverseSide; satellites
+		 * which could not be propagated are left out
+		 */
+		void fill(double[][] x, double[][] y, double[][] z, int k, double inverseSide) {
+			Arrays.fill(buckets, -1);
+			for (int s = 0; s < next.length; s++) {
+				double px = x[s][k], py = y[s][k], pz = z[s][k];
+				if (Double.isNaN(px + py + pz)) {
+					next[s] = -2;
+					continue;
+				}
+				int cx = (int) Math.floor(px * inverseSide);
+				int cy = (int) Math.floor(py * inverseSide);
+				int cz = (int) Math.floor(pz * inverseSide);
+				cellX[s] = cx;
+				cellY[s] = cy;
+				cellZ[s] = cz;
+				int bucket = hash(cx, cy, cz);
+				next[s] = buckets[bucket];
+				buckets[bucket] = s;
+			}
+		}
+		
+		boolean contains(int s) {
+			return next[s] != -2;
+		}
+		
+		/*
+		 * The first satellite of the bucket of a cube, or -1 if the bucket is empty
+		 */
+		int first(int cx, int cy, int cz) {
+			return buckets[hash(cx, cy, cz)];
+		}
+		
+		private int hash(int cx, int cy, int cz) {
+			return ((cx * 73856093) ^ (cy * 19349663) ^ (cz * 83492791)) & mask;
+		}
+	}
+}
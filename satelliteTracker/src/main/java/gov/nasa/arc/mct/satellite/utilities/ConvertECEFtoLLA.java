@@ -280,7 +280,71 @@ public class ConvertECEFtoLLA {
 
 	     }
 	
+	/** The number of iterations of Bowring's method made by {@link #ecefToLLA(double[], int, int)} */
+	public static final int BOWRING_ITERATIONS = 2;
 	
+	/**
+	 * Converts many positions at once, in place, without allocating.  Uses Bowring's method with a 
+	 * fixed number of iterations ({@link #BOWRING_ITERATIONS}) instead of iterating to convergence; 
+	 * two iterations are within a micrometre of the exact latitude and altitude from the surface out 
+	 * past geosynchronous orbit.
+	 * 
+	 * @param coordinates positions as consecutive x, y, z triples, ECEF in km; each triple is replaced by
+	 *     <UL>
+	 *        <LI> geodetic latitude in deg
+	 *        <LI> longitude in deg in the range of [-180,180]
+	 *        <LI> altitude in km
+	 *     </UL>
+	 * @param offset the index of the x of the first position to convert
+	 * @param count the number of positions to convert
+	 */
+	public void ecefToLLA(double[] coordinates, int offset, int count) {
+		if (offset < 0 || count < 0 || offset + 3 * count > coordinates.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		double rtd  = 180.0 / Math.PI;
+		double a    = EARTH_A;
+		double b    = EARTH_B;
+		double esq  = EARTH_Esq;
+		double epsq = (a*a - b*b) / (b*b);	//second eccentricity squared
+		double ba   = b / a;
+		
+		for (int i = offset, end = offset + 3 * count; i < end; i += 3) {
+			double x = coordinates[i];
+			double y = coordinates[i + 1];
+			double z = coordinates[i + 2];
+			double p = Math.sqrt(x*x + y*y);
+			
+			//first guess of the reduced latitude, as though the position were on the surface
+			double cbeta = b * p;
+			double sbeta = a * z;
+			double norm  = Math.sqrt(cbeta*cbeta + sbeta*sbeta);
+			cbeta /= norm;
+			sbeta /= norm;
+			
+			double clat = 0, slat = 0;
+			for (int kount = 0; kount < BOWRING_ITERATIONS; kount++) {
+				clat = p - esq * a * cbeta * cbeta * cbeta;
+				slat = z + epsq * b * sbeta * sbeta * sbeta;
+				norm = Math.sqrt(clat*clat + slat*slat);
+				clat /= norm;
+				slat /= norm;
+				
+				//reduced latitude from the geodetic latitude, for the next iteration
+				cbeta = clat;
+				sbeta = ba * slat;
+				norm  = Math.sqrt(cbeta*cbeta + sbeta*sbeta);
+				cbeta /= norm;
+				sbeta /= norm;
+			}
+			
+			coordinates[i]     = Math.atan2(slat, clat) * rtd;
+			coordinates[i + 1] = (p < 1.0e-10) ? 0.0 : Math.atan2(y, x) * rtd;
+			//distance along the normal, which is well conditioned at the poles as well as the equator
+			coordinates[i + 2] = p*clat + z*slat - a * Math.sqrt(1.0 - esq * slat * slat);
+		}
+	}
 	
 	/*Here is some correct test-data
 		Name: ISS (ZARYA)             
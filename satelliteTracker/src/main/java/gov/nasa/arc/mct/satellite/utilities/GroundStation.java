@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * This class describes a place on the ground from which satellites are watched: its geodetic latitude,
+ * longitude and altitude (WGS 84), and the ECEF position and local vertical derived from them, so that
+ * the elevation of a satellite above the station's horizon costs a handful of multiplications.
+ * 
+ * Stations can be configured with the system property STATIONS_PROPERTY, as a list of
+ * "name,latitude,longitude,altitude" entries (degrees, degrees, km) separated by semicolons; see
+ * getConfigured.
+ */
+public final class GroundStation {
+	
+	/** The system property listing the ground stations (see getConfigured). */
+	public static final String STATIONS_PROPERTY = "gov.nasa.arc.mct.satellite.stations";
+	
+	/** NASA Ames Research Center, the station used when none are configured. */
+	public static final GroundStation AMES = new GroundStation("NASA Ames", 37.4150, -122.0640, 0.012);
+	
+	/*    WGS 84 Earth radius (in km)
+	 *    WGS 84 first eccentricity squared (no units)
+	 *    (the same ellipsoid as SatTrak)
+	 */
+	private static final double SEMI_MAJOR_AXIS = 6378.137;
+	private static final double FIRST_ECCENTRICITY_SQUARED = 6.69437999014E-3;
+	
+	private final String name;
+	private final double latitude, longitude, altitude;
+	
+	/* ECEF position (in km) and local vertical (unit vector) of the station */
+	private final double x, y, z;
+	private final double upX, upY, upZ;
+	
+	/**
+	 * Creates a ground station.
+	 * @param name the name of the station
+	 * @param latitude the geodetic latitude of the station (in degrees, [-90,90])
+	 * @param longitude the longitude of the station (in degrees, [-180,180])
+	 * @param altitude the altitude of the station above the ellipsoid (in km)
+	 */
+	public GroundStation(String name, double latitude, double longitude, double altitude) {
+		if (name == null || !(Math.abs(latitude) <= 90) || !(Math.abs(longitude) <= 180) || Double.isNaN(altitude)) {
+			throw new IllegalArgumentException();
+		}
+		this.name = name;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.altitude = altitude;
+		
+		double lat = Math.toRadians(latitude);
+		double lon = Math.toRadians(longitude);
+		double sinLat = Math.sin(lat), cosLat = Math.cos(lat);
+		double n = SEMI_MAJOR_AXIS / Math.sqrt(1 - FIRST_ECCENTRICITY_SQUARED * sinLat * sinLat);
+		upX = cosLat * Math.cos(lon);
+		upY = cosLat * Math.sin(lon);
+		upZ = sinLat;
+		x = (n + altitude) * upX;
+		y = (n + altitude) * upY;
+		z = (n * (1 - FIRST_ECCENTRICITY_SQUARED) + altitude) * upZ;
+	}
+	
+	/**
+	 * Reads a ground station from text of the form "name,latitude,longitude,altitude".
+	 * @param text the description of the station
+	 * @return the station
+	 * @throws IllegalArgumentException if the text does not describe a station
+	 */
+	public static GroundStation parse(String text) {
+		String[] fields = text.split(",");
+		if (fields.length != 4 || fields[0].trim().length() == 0) {
+			throw new IllegalArgumentException("Not a ground station: " + text);
+		}
+		try {
+			return new GroundStation(fields[0].trim(), 
+					Double.parseDouble(fields[1].trim()), 
+					Double.parseDouble(fields[2].trim()), 
+					Double.parseDouble(fields[3].trim()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Not a ground station: " + text, e);
+		}
+	}
+	
+	/**
+	 * Gets the ground stations listed by the system property {@link #STATIONS_PROPERTY} or, if it is
+	 * not set, {@link #AMES}. Entries which do not describe a station are skipped.
+	 * @return the configured stations
+	 */
+	public static List<GroundStation> getConfigured() {
+		String property = System.getProperty(STATIONS_PROPERTY);
+		if (property == null) {
+			return Collections.singletonList(AMES);
+		}
+		List<GroundStation> stations = new ArrayList<GroundStation>();
+		for (String entry : property.split(";")) {
+			if (entry.trim().length() > 0) {
+				try {
+					stations.add(parse(entry));
+				} catch (IllegalArgumentException e) {
+					System.err.format("Exception occurred trying to read ground station '%s'.%n", entry);
+					e.printStackTrace();
+				}
+			}
+		}
+		return Collections.unmodifiableList(stations);
+	}
+	
+	/**
+	 * Computes the elevation of a point above the station's horizon; the horizon is the plane
+	 * perpendicular to the ellipsoid's normal at the station.
+	 * @param ecefX the ECEF x-coordinate of the point (in km)
+	 * @param ecefY the ECEF y-coordinate of the point (in km)
+	 * @param ecefZ the ECEF z-coordinate of the point (in km)
+	 * @return the elevation of the point (in degrees, [-90,90])
+	 */
+	public double getElevation(double ecefX, double ecefY, double ecefZ) {
+		double dx = ecefX - x, dy = ecefY - y, dz = ecefZ - z;
+		double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+		return Math.toDegrees(Math.asin((dx * upX + dy * upY + dz * upZ) / range));
+	}
+	
+	/**
+	 * @return the name of the station
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return the geodetic latitude of the station (in degrees)
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+	
+	/**
+	 * @return the longitude of the station (in degrees)
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+	
+	/**
+	 * @return the altitude of the station (in km)
+	 */
+	public double getAltitude() {
+		return altitude;
+	}
+
+	@Override
+	public int hashCode() {
+		long bits = Double.doubleToLongBits(latitude) * 31 + Double.doubleToLongBits(longitude) * 17 
+				+ Double.doubleToLongBits(altitude);
+		return name.hashCode() * 31 + (int) (bits ^ (bits >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof GroundStation)) {
+			return false;
+		}
+		GroundStation other = (GroundStation) obj;
+		return name.equals(other.name) && 
+				Double.compare(latitude, other.latitude) == 0 && 
+				Double.compare(longitude, other.longitude) == 0 && 
+				Double.compare(altitude, other.altitude) == 0;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * This class predicts the passes of satellites over ground stations, one UTC day at a time.
+ * 
+ * Rather than sampling the elevation of a satellite every second, the day is scanned coarsely (every
+ * 'step' milliseconds, a minute by default) and only the samples where something happens are refined:
+ *    -a sample below the mask followed by one above it brackets a rise, and a sample above followed
+ *     by one below brackets a set; both are found by bisection, to the millisecond
+ *    -the culmination is found by golden-section search, within a step of the highest sample
+ *    -a local maximum of three samples which are all below the mask may hide a short pass between
+ *     them (a low pass shorter than a step); the maximum is refined, and if it clears the mask the
+ *     rise and set on either side of it are found as above
+ * This takes roughly 2000 propagations per satellite, station and day, against 86400 for sampling
+ * every second.
+ * 
+ * A day's passes are those which rise within it; a pass which is under way at the start of the day
+ * belongs to the day before, and one which rises late in the day is followed past the end of the
+ * day until it sets.  The passes of recently asked satellites, stations and days are kept, and the
+ * least recently used are discarded once the predictor is full.
+ */
+public class PassPredictor {
+	
+	/** The default time between the samples of the coarse scan (in milliseconds) */
+	public static final long DEFAULT_STEP = 60000;
+	
+	/* Bisection stops when the crossing is bracketed this closely (in milliseconds) */
+	private static final long TOLERANCE = 1;
+	
+	/* A pass is followed for at most this long past the end of its day; a satellite which has not
+	 * set by then (a very high orbit) is given a loss of signal there
+	 */
+	private static final long MAX_OVERRUN = EphemerisTable.DAY;
+	
+	private static final double GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+	
+	private final int capacity;
+	private final long step;
+	private final double mask;
+	private final Map<Key, List<SatellitePass>> passes;
+	
+	/**
+	 * Creates a pass predictor.
+	 * @param capacity the maximum number of days of passes to keep
+	 * @param step the time between the samples of the coarse scan (in milliseconds); passes which 
+	 *        stay above the mask for much less than this can be missed if they barely clear it
+	 * @param mask the elevation above which a satellite is in view of a station (in degrees)
+	 */
+	public PassPredictor(final int capacity, long step, double mask) {
+		if (capacity <= 0 || step <= TOLERANCE || !(Math.abs(mask) < 90)) {
+			throw new IllegalArgumentException();
+		}
+		this.capacity = capacity;
+		this.step = step;
+		this.mask = mask;
+		this.passes = new LinkedHashMap<Key, List<SatellitePass>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 3120842736195046213L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, List<SatellitePass>> eldest) {
+				return size() > PassPredictor.this.capacity;
+			}
+		};
+	}
+	
+	/**
+	 * Gets the passes of a satellite over a station which rise during the UTC day containing a time,
+	 * predicting them unless they have been already.
+	 * @param key the key of the satellite's TLE
+	 * @param elements the element set of the satellite
+	 * @param station the ground station
+	 * @param time a time (in milliseconds)
+	 * @return the passes, in order
+	 */
+	public List<SatellitePass> getPasses(String key, SatelliteElements elements, GroundStation station, long time) {
+		long day = EphemerisTable.getDayStart(time);
+		Key passKey = new Key(key, station, day);
+		synchronized (passes) {
+			List<SatellitePass> dayPasses = passes.get(passKey);
+			if (dayPasses != null) {
+				return dayPasses;
+			}
+		}
+		//predicted outside the lock, so that a long prediction does not hold up other callers; two 
+		//callers asking for the same day at once may both predict it, with the same result
+		List<SatellitePass> dayPasses = Collections.unmodifiableList(predict(elements, station, day));
+		synchronized (passes) {
+			passes.put(passKey, dayPasses);
+		}
+		return dayPasses;
+	}
+	
+	/**
+	 * Gets the passes of a satellite over a station which are under way at some time during a span of
+	 * time: those which rise during it, and one which rose before it and has not yet set; from the days
+	 * the span covers, and the day before (see getPasses).
+	 * @param key the key of the satellite's TLE
+	 * @param elements the element set of the satellite
+	 * @param station the ground station
+	 * @param start the start of the span (in milliseconds)
+	 * @param end the end of the span (in milliseconds)
+	 * @return the passes, in order
+	 */
+	public List<SatellitePass> getPasses(String key, SatelliteElements elements, GroundStation station, long start, long end) {
+		List<SatellitePass> result = new ArrayList<SatellitePass>();
+		for (long day = EphemerisTable.getDayStart(start) - EphemerisTable.DAY; day < end; day += EphemerisTable.DAY) {
+			for (SatellitePass pass : getPasses(key, elements, station, day)) {
+				if (pass.getSet() > start && pass.getRise() < end) {
+					result.add(pass);
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @return the number of days of passes kept
+	 */
+	public int size() {
+		synchronized (passes) {
+			return passes.size();
+		}
+	}
+	
+	/*
+	 * Predicts the passes which rise after the start of a day, up to and including its end
+	 */
+	List<SatellitePass> predict(SatelliteElements elements, GroundStation station, long dayStart) {
+		Elevation elevation = new Elevation(new SatTrak(elements), station);
+		long dayEnd = dayStart + EphemerisTable.DAY;
+		List<SatellitePass> result = new ArrayList<SatellitePass>();
+		
+		//the last three samples; the first two are before the day, so that a rise or short pass 
+		//right at its start is caught
+		long ta = dayStart - 2 * step, tb = dayStart - step, tc = dayStart;
+		double ea = elevation.at(ta), eb = elevation.at(tb);
+		while (tb < dayEnd) {
+			double ec = elevation.at(tc);
+			if (eb < 0 && ec >= 0) {
+				long rise = crossing(elevation, tb, tc);
+				
+				//follow the pass, sample by sample, until it sets
+				long best = tc;
+				double bestElevation = ec;
+				long limit = dayEnd + MAX_OVERRUN;
+				long tn = tc;
+				double en = ec;
+				do {
+					tb = tn;
+					eb = en;
+					tn = tb + step;
+					en = elevation.at(tn);
+					if (en > bestElevation) {
+						best = tn;
+						bestElevation = en;
+					}
+				} while (en >= 0 && tn < limit);
+				long set = en < 0 ? crossing(elevation, tn, tb) : tn;
+				
+				if (rise > dayStart && rise <= dayEnd) {
+					long culmination = maximum(elevation, Math.max(rise, best - step), Math.min(set, best + step));
+					result.add(newPass(elevation, station, rise, culmination, set));
+				}
+				ta = tb;
+				ea = eb;
+				tb = tn;
+				eb = en;
+			} else {
+				if (ea < eb && eb > ec && eb < 0) {
+					//a local maximum below the mask: look for a short pass between the samples
+					long culmination = maximum(elevation, ta, tc);
+					if (elevation.at(culmination) >= 0) {
+						long rise = crossing(elevation, ta, culmination);
+						if (rise > dayStart && rise <= dayEnd) {
+							result.add(newPass(elevation, station, rise, culmination, crossing(elevation, tc, culmination)));
+						}
+					}
+				}
+				ta = tb;
+				ea = eb;
+				tb = tc;
+				eb = ec;
+			}
+			tc = tb + step;
+		}
+		return result;
+	}
+	
+	private SatellitePass newPass(Elevation elevation, GroundStation station, long rise, long culmination, long set) {
+		return new SatellitePass(station, rise, culmination, set, elevation.at(culmination) + mask);
+	}
+	
+	/*
+	 * Finds the time the elevation crosses the mask, by bisection between a time it is below the mask
+	 * and a time it is above; returns the time closest to the crossing at which it is above
+	 */
+	private static long crossing(Elevation elevation, long below, long above) {
+		while (Math.abs(above - below) > TOLERANCE) {
+			long middle = below + (above - below) / 2;
+			if (elevation.at(middle) >= 0) {
+				above = middle;
+			} else {
+				below = middle;
+			}
+		}
+		return above;
+	}
+	
+	/*
+	 * Finds the time of the highest elevation between two times, by golden-section search; the 
+	 * elevation is assumed to have a single maximum between them
+	 */
+	private static long maximum(Elevation elevation, long start, long end) {
+		long a = start, b = end;
+		long c = b - Math.round((b - a) * GOLDEN_RATIO);
+		long d = a + Math.round((b - a) * GOLDEN_RATIO);
+		double ec = elevation.at(c), ed = elevation.at(d);
+		while (b - a > 2 * TOLERANCE) {
+			if (ec >= ed) {
+				b = d;
+				d = c;
+				ed = ec;
+				c = b - Math.round((b - a) * GOLDEN_RATIO);
+				ec = elevation.at(c);
+			} else {
+				a = c;
+				c = d;
+				ec = ed;
+				d = a + Math.round((b - a) * GOLDEN_RATIO);
+				ed = elevation.at(d);
+			}
+		}
+		return ec >= ed ? c : d;
+	}
+	
+	/*
+	 * The elevation of a satellite above a station's mask (negative below it); SatTrak remembers 
+	 * its last state, so asking twice for the same time does not propagate twice
+	 */
+	private final class Elevation {
+		private final SatTrak satellite;
+		private final GroundStation station;
+		
+		Elevation(SatTrak satellite, GroundStation station) {
+			this.satellite = satellite;
+			this.station = station;
+		}
+		
+		double at(long time) {
+			SatelliteState state = satellite.propagate(time);
+			return station.getElevation(state.getECEFx(), state.getECEFy(), state.getECEFz()) - mask;
+		}
+	}
+	
+	private static final class Key {
+		private final String satellite;
+		private final GroundStation station;
+		private final long day;
+		
+		Key(String satellite, GroundStation station, long day) {
+			this.satellite = satellite;
+			this.station = station;
+			this.day = day;
+		}
+
+		@Override
+		public int hashCode() {
+			return (satellite.hashCode() * 31 + station.hashCode()) * 31 + (int) (day ^ (day >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return day == other.day && satellite.equals(other.satellite) && station.equals(other.station);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+/*
+ * This class holds the states of a number of satellites at evenly spaced times, as computed by
+ * BatchPropagator.  Each element of the state (see the constants below) of each satellite is kept
+ * as an array of primitives, one value per time, so that no object is made per state.
+ * 
+ * Units are those of SatelliteState:
+ *    ECEF (Earth Centered Earth Fixed) positions are in km
+ *    TEME (true equator, mean equinox) velocities are in meters per second
+ *    latitude and longitude are in radians; altitude is in meters
+ */
+public final class PropagationBatch {
+	/** Elements of the state: ECEF position, TEME velocity, latitude, longitude and altitude */
+	public static final int ECEF_X = 0, ECEF_Y = 1, ECEF_Z = 2, 
+	                        TEME_VX = 3, TEME_VY = 4, TEME_VZ = 5, 
+	                        LATITUDE = 6, LONGITUDE = 7, ALTITUDE = 8;
+	
+	/** The number of elements of the state */
+	public static final int ELEMENT_COUNT = 9;
+	
+	private final long startTime;
+	private final long step;
+	private final int timeCount;
+	private final double[][][] series; // [satellite][element][time]
+	
+	PropagationBatch(int satelliteCount, long startTime, long endTime, long step, boolean[] elements) {
+		this.startTime = startTime;
+		this.step = step;
+		this.timeCount = getTimeCount(startTime, endTime, step);
+		this.series = new double[satelliteCount][ELEMENT_COUNT][];
+		for (double[][] satellite : series) {
+			for (int element = 0; element < ELEMENT_COUNT; element++) {
+				if (elements[element]) {
+					satellite[element] = new double[timeCount];
+				}
+			}
+		}
+	}
+	
+	/*
+	 * The number of times in [startTime, endTime) at the given step
+	 */
+	static int getTimeCount(long startTime, long endTime, long step) {
+		return endTime > startTime ? (int) ((endTime - startTime + step - 1) / step) : 0;
+	}
+	
+	/**
+	 * @return the number of satellites in this batch
+	 */
+	public int getSatelliteCount() {
+		return series.length;
+	}
+	
+	/**
+	 * @return the number of times at which each satellite was propagated
+	 */
+	public int getTimeCount() {
+		return timeCount;
+	}
+	
+	/**
+	 * @param index the index of a time, in [0, getTimeCount())
+	 * @return the time (in milliseconds)
+	 */
+	public long getTime(int index) {
+		return startTime + index * step;
+	}
+	
+	/**
+	 * Gets one element of the state of one satellite, at every time of the batch.  The array is
+	 * that of the batch, not a copy, and must not be changed.
+	 * 
+	 * @param satellite the index of the satellite, in the order the satellites were given
+	 * @param element the element of the state, for instance ECEF_X
+	 * @return the values of the element, one per time; or null if the element was not requested
+	 */
+	public double[] getSeries(int satellite, int element) {
+		return series[satellite][element];
+	}
+	
+	double[][] getSeries(int satellite) {
+		return series[satellite];
+	}
+}
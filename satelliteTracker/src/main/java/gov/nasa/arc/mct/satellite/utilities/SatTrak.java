@@ -21,7 +21,12 @@
  *******************************************************************************/
 package gov.nasa.arc.mct.satellite.utilities;
 
-import jsattrak.objects.SatelliteTleSGP4;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import name.gano.astro.GeoFunctions;
+import name.gano.astro.propogators.sgp4_cssi.SGP4SatData;
+import name.gano.astro.propogators.sgp4_cssi.SGP4unit;
 import name.gano.astro.time.Time;
 
 
@@ -43,24 +48,39 @@ public class SatTrak {
 	 *    getLongitude is in radians and is in the range [-180,180]
 	 *    getAltitude is in meters
 	 */
-	private SatelliteTleSGP4 prop;
+	private final SatelliteElements elements;
+	
+	/* This satellite object's own copy of the SGP4 element set, which SGP4 changes as it
+	 * propagates; and the TEME position and velocity, latitude, longitude and altitude, and
+	 * ECEF position it propagates into.
+	 */
+	private final SGP4SatData scratch;
+	private final double[] posTEME = new double[3];
+	private final double[] velTEME = new double[3];
+	private double[] lla;
+	private final double[] ecef = new double[3];
 	
 	/* This object is used to propagate the satellite to a specific time so all of its
 	 * data reflects the data for that specific time. 
 	 */
 	private Time julianTime;
 	
-	/*This is the satellite number found in the TLE; this number is Unique0
-	 */
-	private String SatNum;
-
 	/* These constants are for converting latitude and longitude to Earth Centered
 	 * Earth Fixed coordinates.
 	 *    WGS 84 Earth radius (in meters)
 	 *    WGS 84 first eccentricity squared (no units)
 	 */
-	private final double SEMI_MAJOR_AXIS = 6378137.0;
-	private final double FIRST_ECCENTRICITY_SQUARED = 6.69437999014E-3;
+	private static final double SEMI_MAJOR_AXIS = 6378137.0;
+	private static final double FIRST_ECCENTRICITY_SQUARED = 6.69437999014E-3;
+	
+	/* The number of SGP4 propagations performed by all satellite objects; SGP4 dominates
+	 * the cost of tracking, so this is the number to watch when looking at performance.
+	 */
+	private static final AtomicLong propagationCount = new AtomicLong();
+	
+	/* The state computed by the last propagation; the getters below are all answered from it.
+	 */
+	private SatelliteState state;
 	
 	/**
 	 * Creates a satellite object with respect to a given TLE. While the name can be
@@ -78,16 +98,21 @@ public class SatTrak {
 	 */
 	public
 	SatTrak	(String satName, String tleLine1, String tleLine2) {
-		julianTime = new Time();
-		try {
-			prop = new SatelliteTleSGP4(satName, tleLine1, tleLine2);
-		} catch (Exception e) {
-			System.out.println("Error Creating SGP4 Satellite");
-			e.printStackTrace();
-		}
-		prop.setShowGroundTrack(false); // if we arn't using the JSatTrak plots midas well turn this off to save CPU time
-		
-		SatNum = tleLine2.split("\\s+")[1]; //the satellite number is the second token on the  2nd line of the TLE
+		this(new SatelliteElements(satName, tleLine1, tleLine2));
+	}
+	
+	/**
+	 * Creates a satellite object from an element set which has already been read and initialized.
+	 * Any number of satellite objects may share an element set; this is much cheaper than reading
+	 * the TLE again.
+	 * 
+	 * @param elements the element set of your satellite
+	 */
+	public
+	SatTrak	(SatelliteElements elements) {
+		this.julianTime = new Time();
+		this.elements = elements;
+		this.scratch = elements.newScratch();
 	}
 	
 	/**
@@ -95,19 +120,137 @@ public class SatTrak {
 	 */
 	public void
 	updateSat2CurTime() {
-		julianTime.update2CurrentTime();
-		prop.propogate2JulDate(julianTime.getJulianDate());
+		propagate(System.currentTimeMillis());
+	}
+	
+	/**
+	 * Propagates the satellite object to a specified time, and computes its full state at that time
+	 * (latitude, longitude and altitude, ECEF position, TEME position and velocity) in one pass.  The
+	 * state is remembered, so asking again for the same time does not propagate the satellite again.
+	 * If SGP4 cannot propagate the satellite to that time (for example, once it has decayed), every
+	 * coordinate of the state is NaN.
+	 * 
+	 * @param timeInMilli the time (in milliseconds) when you want the satellites state
+	 * @return the state of the satellite object at the specified time
+	 */
+	public SatelliteState propagate(long timeInMilli) {
+		SatelliteState last = state;
+		if (last != null && last.getTime() == timeInMilli) {
+			return last;
+		}
+		propagateScratch(timeInMilli);
+		propagationCount.incrementAndGet();
+		state = new SatelliteState(timeInMilli, lla[0], lla[1], lla[2], 
+				ecef[0], ecef[1], ecef[2], posTEME, velTEME);
+		return state;
+	}
+	
+	/*
+	 * Propagates the satellite object to a specified time, and writes its state into element 'index'
+	 * of each series: { x, y, z, vx, vy, vz, latitude, longitude, altitude } (see PropagationBatch for
+	 * units), NaN if SGP4 fails; series which are null are skipped.  Unlike propagate, this neither allocates a state
+	 * nor counts the propagation, which is left to the caller (see BatchPropagator).
+	 */
+	void propagateInto(long timeInMilli, double[][] series, int index) {
+		propagateScratch(timeInMilli);
+		writeSeries(series, PropagationBatch.ECEF_X, index, ecef[0]);
+		writeSeries(series, PropagationBatch.ECEF_Y, index, ecef[1]);
+		writeSeries(series, PropagationBatch.ECEF_Z, index, ecef[2]);
+		writeSeries(series, PropagationBatch.TEME_VX, index, velTEME[0]);
+		writeSeries(series, PropagationBatch.TEME_VY, index, velTEME[1]);
+		writeSeries(series, PropagationBatch.TEME_VZ, index, velTEME[2]);
+		writeSeries(series, PropagationBatch.LATITUDE, index, lla[0]);
+		writeSeries(series, PropagationBatch.LONGITUDE, index, lla[1]);
+		writeSeries(series, PropagationBatch.ALTITUDE, index, lla[2]);
 	}
 	
-	private void setSatTime (long timeInMilli) {
+	private static void writeSeries(double[][] series, int element, int index, double value) {
+		if (series[element] != null) {
+			series[element][index] = value;
+		}
+	}
+	
+	/*
+	 * Propagates the scratch element set to a specified time, leaving the TEME position and velocity,
+	 * latitude, longitude and altitude, and ECEF position in the scratch arrays; all of which are
+	 * NaN if SGP4 fails
+	 */
+	private void propagateScratch(long timeInMilli) {
 		julianTime.set(timeInMilli);
-		prop.propogate2JulDate(julianTime.getJulianDate());
+		double julianDate = julianTime.getJulianDate();
+		
+		//the same steps as JSatTrak's SatelliteTleSGP4.propogate2JulDate, less the J2000 coordinates 
+		//and ground tracks, which are not used here
+		if (!SGP4unit.sgp4Prop2JD(scratch, julianDate, posTEME, velTEME)) {
+			Arrays.fill(posTEME, Double.NaN);
+			Arrays.fill(velTEME, Double.NaN);
+			lla = new double[] { Double.NaN, Double.NaN, Double.NaN };
+			Arrays.fill(ecef, Double.NaN);
+			return;
+		}
+		for (int i = 0; i < 3; i++) {
+			posTEME[i] *= 1000; //km to m
+			velTEME[i] *= 1000; //km/s to m/s
+		}
+		lla = GeoFunctions.GeodeticLLA(posTEME, julianDate - 2400000.5); //modified Julian date
+		toECEF(lla, ecef);
+	}
+	
+	/*
+	 * Converts latitude, longitude (both in radians) and altitude (in meters) to ECEF coordinates (in km)
+	 */
+	private static void toECEF(double[] lla, double[] ecef) {
+		double lat = lla[0];
+		double lon = lla[1];
+		double alt = lla[2];
+		double n   = N(lat);
+		double cosLat = Math.cos(lat);
+		ecef[0] = (n+alt)*cosLat*Math.cos(lon)/1000;
+		ecef[1] = (n+alt)*cosLat*Math.sin(lon)/1000;
+		ecef[2] = (n*(1-FIRST_ECCENTRICITY_SQUARED)+alt)*Math.sin(lat)/1000;
+	}
+	
+	/*
+	 * Makes the state of a satellite from its TEME position (in m) and velocity (in m/s), the same
+	 * way propagate does; for states which were not propagated by SGP4 (see EphemerisTable)
+	 */
+	static SatelliteState newState(long timeInMilli, double julianDate, double[] posTEME, double[] velTEME) {
+		double[] lla = GeoFunctions.GeodeticLLA(posTEME, julianDate - 2400000.5); //modified Julian date
+		double[] ecef = new double[3];
+		toECEF(lla, ecef);
+		return new SatelliteState(timeInMilli, lla[0], lla[1], lla[2], 
+				ecef[0], ecef[1], ecef[2], posTEME, velTEME);
+	}
+	
+	/**
+	 * @return the state computed by the last propagation of the satellite object, or null if the
+	 *         satellite object has not been propagated yet
+	 */
+	public SatelliteState getState() {
+		return state;
+	}
+	
+	/**
+	 * Get the total number of SGP4 propagations performed by all satellite objects so far.
+	 * 
+	 * @return the number of propagations performed
+	 */
+	public static long getPropagationCount() {
+		return propagationCount.get();
+	}
+	
+	/*
+	 * Counts propagations made through propagateInto
+	 */
+	static void countPropagations(long count) {
+		propagationCount.addAndGet(count);
 	}
 	
-	/*precondition:  lat is in radians*/
-	private double
+	/*precondition:  lat is in radians
+	 *the prime vertical radius of curvature (in meters) at the given latitude*/
+	private static double
 	N(double lat){
-		return SEMI_MAJOR_AXIS/(1-FIRST_ECCENTRICITY_SQUARED*Math.pow(Math.sin(lat), 2));
+		return SEMI_MAJOR_AXIS/Math.sqrt(1-FIRST_ECCENTRICITY_SQUARED*Math.pow(Math.sin(lat), 2));
 	}
 	
 	/**
@@ -120,8 +263,7 @@ public class SatTrak {
 	 * @return: Earth Centered Earth Fixed x-coordinate (in km) at the current system time
 	 */
 	public double getECEFx() {
-		updateSat2CurTime();
-		return ((N(prop.getLatitude())+prop.getAltitude())*Math.cos(prop.getLatitude())*Math.cos(prop.getLongitude())/1000);
+		return propagate(System.currentTimeMillis()).getECEFx();
 	}
 	
 	/**
@@ -134,8 +276,7 @@ public class SatTrak {
 	 * @return: Earth Centered Earth Fixed y-coordinate (in km) at the current system time
 	 */
 	public double getECEFy() {
-		updateSat2CurTime();
-		return ((N(prop.getLatitude())+prop.getAltitude())*Math.cos(prop.getLatitude())*Math.sin(prop.getLongitude())/1000);
+		return propagate(System.currentTimeMillis()).getECEFy();
 	}
 	
 	/**
@@ -148,8 +289,7 @@ public class SatTrak {
 	 * @return: Earth Centered Earth Fixed z-coordinate (in km) at the current system time
 	 */
 	public double getECEFz() {
-		updateSat2CurTime();
-		return ((N(prop.getLatitude())*(1-FIRST_ECCENTRICITY_SQUARED)+prop.getAltitude())*Math.sin(prop.getLatitude())/1000);
+		return propagate(System.currentTimeMillis()).getECEFz();
 	}
 	
 	/**
@@ -158,8 +298,7 @@ public class SatTrak {
 	 * @return latitude of satellite (in radians) at the current system time in the range [-90,90]
 	 */
 	public double getLatitude() {
-		updateSat2CurTime();
-		return prop.getLatitude();
+		return propagate(System.currentTimeMillis()).getLatitude();
 	}
 	
 	/**
@@ -168,8 +307,7 @@ public class SatTrak {
 	 * @return longitude of satellite (in radians and in the range [-180,180]) at the current system time 
 	 */
 	public double getLongitude() {
-		updateSat2CurTime();
-		return prop.getLongitude();
+		return propagate(System.currentTimeMillis()).getLongitude();
 	}
 	
 	/**
@@ -178,8 +316,7 @@ public class SatTrak {
 	 * @return altitude of satellite (in km) at the current system time
 	 */
 	public double getAltitude() {
-		updateSat2CurTime();
-		return prop.getAltitude();
+		return propagate(System.currentTimeMillis()).getAltitude();
 	}
 	
 	/**
@@ -190,8 +327,7 @@ public class SatTrak {
 	 * @return the ECEF x coordinate location (in km) of the satellite object at the specified time
 	 */
 	public double getECEFx(long timeInMilli) {
-		setSatTime(timeInMilli);
-		return ((N(prop.getLatitude())+prop.getAltitude())*Math.cos(prop.getLatitude())*Math.cos(prop.getLongitude())/1000);
+		return propagate(timeInMilli).getECEFx();
 	}
 	
 	/**
@@ -202,8 +338,7 @@ public class SatTrak {
 	 * @return the ECEF y coordinate location (in km) of the satellite object at the specified time
 	 */
 	public double getECEFy(long timeInMilli) {
-		setSatTime(timeInMilli);
-		return ((N(prop.getLatitude())+prop.getAltitude())*Math.cos(prop.getLatitude())*Math.sin(prop.getLongitude())/1000);
+		return propagate(timeInMilli).getECEFy();
 	}
 	
 	/**
@@ -214,8 +349,7 @@ public class SatTrak {
 	 * @return the ECEF z coordinate location (in km) of the satellite object at the specified time
 	 */
 	public double getECEFz(long timeInMilli) {
-		setSatTime(timeInMilli);
-		return ((N(prop.getLatitude())*(1-FIRST_ECCENTRICITY_SQUARED)+prop.getAltitude())*Math.sin(prop.getLatitude())/1000);
+		return propagate(timeInMilli).getECEFz();
 	}
 	
 	/**
@@ -225,8 +359,7 @@ public class SatTrak {
 	 * @return the latitude (in radians) of the satellite object at the specified time
 	 */
 	public double getLatitude(long timeInMilli) {
-		setSatTime(timeInMilli);
-		return prop.getLatitude();
+		return propagate(timeInMilli).getLatitude();
 	}
 	
 	/**
@@ -236,8 +369,7 @@ public class SatTrak {
 	 * @return the longitude (in radians) of the satellite object at the specified time
 	 */
 	public double getLongitude(long timeInMilli) {
-		setSatTime(timeInMilli);
-		return prop.getLongitude();
+		return propagate(timeInMilli).getLongitude();
 	}
 	
 	/**
@@ -247,8 +379,7 @@ public class SatTrak {
 	 * @return altitude (in meters) of the satellite object at the specified time
 	 */
 	public double getAltitude(long timeInMilli) {
-		setSatTime(timeInMilli);
-		return prop.getAltitude();
+		return propagate(timeInMilli).getAltitude();
 	}
 	
 	
@@ -259,7 +390,7 @@ public class SatTrak {
 	 * @return the name of the satellite object 
 	 */
 	public String getSatName() {
-		return prop.getName();
+		return elements.getSatName();
 	}
 	
 	/**
@@ -268,8 +399,7 @@ public class SatTrak {
 	 * @return An array { x, y, z } each in units of meters per second (m/s)
 	 */
 	public double[] getTEMEvelocity() {
-		updateSat2CurTime();
-		return prop.getTEMEVelocity();
+		return propagate(System.currentTimeMillis()).getTEMEvelocity();
 	}
 	
 	/**
@@ -279,12 +409,11 @@ public class SatTrak {
 	 * @return An array { x, y, z } each in units of meters per second (m/s)
 	 */
 	public double[] getTEMEvelocity(long timeInMilli) {
-		setSatTime(timeInMilli);
-		return prop.getTEMEVelocity();
+		return propagate(timeInMilli).getTEMEvelocity();
 	}
 	
 	public String getSatNumber() {
-		return this.SatNum;
+		return elements.getSatNumber();
 	}
 	
 	
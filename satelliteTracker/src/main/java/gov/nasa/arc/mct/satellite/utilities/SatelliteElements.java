@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import name.gano.astro.propogators.sgp4_cssi.SGP4SatData;
+import name.gano.astro.propogators.sgp4_cssi.SGP4unit;
+import name.gano.astro.propogators.sgp4_cssi.SGP4utils;
+
+/*
+ * This class holds the element set of a satellite, read from its TLE and initialized for SGP4.
+ * Initializing SGP4 is the expensive part of creating a satellite object, so it is done once, here,
+ * and the element set can then be shared by any number of satellite objects and threads.
+ * 
+ * The element set is never changed after it is created: SGP4 keeps working state in its element
+ * set as it propagates, so each satellite object (see SatTrak) propagates its own scratch copy.
+ */
+public final class SatelliteElements {
+	
+	/* The fields of the SGP4 element set, copied to make scratch copies. All of them hold
+	 * primitives, strings or enums, so a field by field copy is a complete one.
+	 */
+	private static final Field[] FIELDS;
+	static {
+		List<Field> fields = new ArrayList<Field>();
+		for (Field field : SGP4SatData.class.getFields()) {
+			if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+				fields.add(field);
+			}
+		}
+		FIELDS = fields.toArray(new Field[fields.size()]);
+	}
+	
+	private final String name;
+	private final String line1;
+	private final String line2;
+	private final String satNum;
+	private final SGP4SatData elements;
+	
+	/**
+	 * Reads a TLE and initializes SGP4 for it; see SatTrak for the format of the TLE.
+	 * 
+	 * @param satName  The name for your satellite.
+	 * @param tleLine1 The complete first line of the TLE file associated with your satellite.
+	 * @param tleLine2 The complete second line of the TLE file associated with your satellite.
+	 * @throws IllegalArgumentException if the TLE could not be read
+	 */
+	public SatelliteElements(String satName, String tleLine1, String tleLine2) {
+		this.name  = satName;
+		this.line1 = tleLine1;
+		this.line2 = tleLine2;
+		this.satNum = tleLine2.split("\\s+")[1]; //the satellite number is the second token on the  2nd line of the TLE
+		this.elements = new SGP4SatData();
+		
+		//these are the settings used by JSatTrak's SatelliteTleSGP4
+		if (!SGP4utils.readTLEandIniSGP4(satName, tleLine1, tleLine2, SGP4utils.OPSMODE_IMPROVED, 
+				SGP4unit.Gravconsttype.wgs72, elements)) {
+			throw new IllegalArgumentException("Error reading TLE, error code: " + elements.error + 
+					"\n Satellite: " + satName);
+		}
+	}
+	
+	/**
+	 * @return the name of the satellite
+	 */
+	public String getSatName() {
+		return name;
+	}
+	
+	/**
+	 * @return the first line of the TLE
+	 */
+	public String getLine1() {
+		return line1;
+	}
+	
+	/**
+	 * @return the second line of the TLE
+	 */
+	public String getLine2() {
+		return line2;
+	}
+	
+	/**
+	 * @return the satellite number found in the TLE
+	 */
+	public String getSatNumber() {
+		return satNum;
+	}
+	
+	/**
+	 * @return the epoch of the TLE, as a Julian date
+	 */
+	public double getEpochJulianDate() {
+		return elements.jdsatepoch;
+	}
+	
+	/**
+	 * Makes a copy of the initialized element set, for one satellite object to propagate.
+	 * @return a copy of the element set
+	 */
+	SGP4SatData newScratch() {
+		SGP4SatData scratch = new SGP4SatData();
+		try {
+			for (Field field : FIELDS) {
+				field.set(scratch, field.get(elements));
+			}
+		} catch (IllegalAccessException e) {
+			//all of the fields are public
+			throw new IllegalStateException(e);
+		}
+		return scratch;
+	}
+}
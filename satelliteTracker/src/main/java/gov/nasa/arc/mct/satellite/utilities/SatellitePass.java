@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+/*
+ * This class describes one pass of a satellite over a ground station: the times at which it rises
+ * above the station's elevation mask (acquisition of signal) and sets below it again (loss of signal),
+ * and the time and elevation of its highest point (culmination).  See PassPredictor.
+ */
+public final class SatellitePass {
+	private final GroundStation station;
+	private final long rise, culmination, set;
+	private final double maxElevation;
+	
+	SatellitePass(GroundStation station, long rise, long culmination, long set, double maxElevation) {
+		this.station = station;
+		this.rise = rise;
+		this.culmination = culmination;
+		this.set = set;
+		this.maxElevation = maxElevation;
+	}
+	
+	/**
+	 * @return the station the satellite passes over
+	 */
+	public GroundStation getStation() {
+		return station;
+	}
+	
+	/**
+	 * @return the time the satellite rises above the elevation mask (in milliseconds)
+	 */
+	public long getRise() {
+		return rise;
+	}
+	
+	/**
+	 * @return the time of the satellite's highest elevation (in milliseconds)
+	 */
+	public long getCulmination() {
+		return culmination;
+	}
+	
+	/**
+	 * @return the time the satellite sets below the elevation mask (in milliseconds)
+	 */
+	public long getSet() {
+		return set;
+	}
+	
+	/**
+	 * @return the highest elevation of the satellite during the pass (in degrees)
+	 */
+	public double getMaxElevation() {
+		return maxElevation;
+	}
+	
+	/**
+	 * @return the time the satellite stays above the elevation mask (in milliseconds)
+	 */
+	public long getDuration() {
+		return set - rise;
+	}
+	
+	@Override
+	public String toString() {
+		return station + " " + rise + "-" + set + ", " + maxElevation + " deg at " + culmination;
+	}
+}
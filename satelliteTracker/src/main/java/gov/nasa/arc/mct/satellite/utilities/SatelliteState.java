@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+/*
+ * This class holds the state of a satellite at one instant, as computed by a single propagation
+ * of SatTrak (see SatTrak.propagate).  The state cannot be changed once created, so it can be
+ * shared freely: between the feeds of a satellite, between views, and between threads.
+ * 
+ * Units:
+ *    time is in milliseconds
+ *    latitude and longitude are in radians; altitude is in meters
+ *    ECEF (Earth Centered Earth Fixed) coordinates are in km
+ *    TEME (true equator, mean equinox) positions are in meters, and velocities in meters per second
+ */
+public final class SatelliteState {
+	private final long   time;
+	private final double latitude, longitude, altitude;
+	private final double ecefX, ecefY, ecefZ;
+	private final double temeX, temeY, temeZ;
+	private final double temeVx, temeVy, temeVz;
+	
+	SatelliteState(long time, double latitude, double longitude, double altitude,
+			double ecefX, double ecefY, double ecefZ, double[] temePosition, double[] temeVelocity) {
+		this.time      = time;
+		this.latitude  = latitude;
+		this.longitude = longitude;
+		this.altitude  = altitude;
+		this.ecefX = ecefX;
+		this.ecefY = ecefY;
+		this.ecefZ = ecefZ;
+		this.temeX = temePosition[0];
+		this.temeY = temePosition[1];
+		this.temeZ = temePosition[2];
+		this.temeVx = temeVelocity[0];
+		this.temeVy = temeVelocity[1];
+		this.temeVz = temeVelocity[2];
+	}
+	
+	/**
+	 * @return the time of this state (in milliseconds)
+	 */
+	public long getTime() {
+		return time;
+	}
+	
+	/**
+	 * @return latitude of the satellite (in radians)
+	 */
+	public double getLatitude() {
+		return latitude;
+	}
+	
+	/**
+	 * @return longitude of the satellite (in radians, in the range [-180,180])
+	 */
+	public double getLongitude() {
+		return longitude;
+	}
+	
+	/**
+	 * @return altitude of the satellite (in meters)
+	 */
+	public double getAltitude() {
+		return altitude;
+	}
+	
+	/**
+	 * @return Earth Centered Earth Fixed x-coordinate (in km)
+	 */
+	public double getECEFx() {
+		return ecefX;
+	}
+	
+	/**
+	 * @return Earth Centered Earth Fixed y-coordinate (in km)
+	 */
+	public double getECEFy() {
+		return ecefY;
+	}
+	
+	/**
+	 * @return Earth Centered Earth Fixed z-coordinate (in km)
+	 */
+	public double getECEFz() {
+		return ecefZ;
+	}
+	
+	/**
+	 * @return An array { x, y, z } of the TEME position, each in meters; a new array on every call
+	 */
+	public double[] getTEMEposition() {
+		return new double[] { temeX, temeY, temeZ };
+	}
+	
+	/**
+	 * @return An array { x, y, z } of the TEME velocity, each in meters per second (m/s); a new
+	 *         array on every call
+	 */
+	public double[] getTEMEvelocity() {
+		return new double[] { temeVx, temeVy, temeVz };
+	}
+	
+	/**
+	 * @return the x component of the TEME velocity (in m/s)
+	 */
+	public double getTEMEvx() {
+		return temeVx;
+	}
+	
+	/**
+	 * @return the y component of the TEME velocity (in m/s)
+	 */
+	public double getTEMEvy() {
+		return temeVy;
+	}
+	
+	/**
+	 * @return the z component of the TEME velocity (in m/s)
+	 */
+	public double getTEMEvz() {
+		return temeVz;
+	}
+}
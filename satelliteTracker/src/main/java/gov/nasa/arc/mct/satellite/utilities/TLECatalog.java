@@ -0,0 +1,495 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import jsattrak.utilities.TLE;
+
+/*
+ * A catalog of TLEs, read in a single pass from TLE data in Celestrak's three-line format: the name
+ * of the satellite, then the two lines of its TLE.  Large catalogs (the full public catalog has more
+ * than 25 thousand objects) are read without a String per line: the records are copied into one
+ * byte array as they are read, one byte per character, and TLE objects are only created for the
+ * records which are asked for (for example, the rows of a list which are actually displayed).
+ * 
+ * Each record is checked as it is read: both lines must be complete, carry their line number and
+ * the same catalog number, and end in a valid checksum.  Records which fail are skipped and counted
+ * (see getRejectedCount); reading then carries on from the next line which can start a record.
+ * 
+ * The records are indexed by catalog number and by name on the first lookup, so that catalogs which
+ * are only listed do not pay for the index.  A catalog is never changed after it has been read.
+ */
+public final class TLECatalog {
+	
+	/** The length of each line of a TLE, including the checksum. */
+	public static final int LINE_LENGTH = 69;
+	
+	/* The longest satellite name kept; Celestrak's names are at most 24 characters */
+	private static final int MAX_NAME_LENGTH = 64;
+	
+	/* The longest line examined; anything longer is not part of a valid record */
+	private static final int MAX_LINE_LENGTH = 128;
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/* The records: the name of record i runs from offsets[i] to LINE_LENGTH*2 before offsets[i+1],
+	 * followed by lines 1 and 2 */
+	private final byte[] data;
+	private final int[] offsets;
+	private final int[] catalogNumbers;
+	private final int size;
+	private final int rejected;
+	
+	/* Sorted (catalog number << 32 | record) and (name hash << 32 | record); built on first use */
+	private long[] catalogIndex = null;
+	private long[] nameIndex = null;
+	
+	private TLECatalog(byte[] data, int[] offsets, int[] catalogNumbers, int size, int rejected) {
+		this.data = data;
+		this.offsets = offsets;
+		this.catalogNumbers = catalogNumbers;
+		this.size = size;
+		this.rejected = rejected;
+	}
+	
+	private synchronized void buildIndex() {
+		if (catalogIndex == null) {
+			long[] catalog = new long[size];
+			long[] names = new long[size];
+			for (int i = 0; i < size; i++) {
+				catalog[i] = ((long) catalogNumbers[i] << 32) | i;
+				names[i] = ((long) hashName(data, offsets[i], getNameEnd(i)) << 32) | i;
+			}
+			Arrays.sort(catalog);
+			Arrays.sort(names);
+			nameIndex = names;
+			catalogIndex = catalog;
+		}
+	}
+	
+	/**
+	 * Reads a catalog.  The reader is read to its end, but not closed.
+	 * @param reader TLE data in Celestrak's three-line format
+	 * @return the catalog of the valid records
+	 * @throws IOException if the reader fails
+	 */
+	public static TLECatalog read(Reader reader) throws IOException {
+		return new Parser().parse(reader);
+	}
+	
+	/**
+	 * Makes a catalog of TLE objects.  Invalid TLEs are skipped, as when reading.
+	 * @param tles the TLEs
+	 * @return the catalog of the valid TLEs
+	 */
+	public static TLECatalog of(List<TLE> tles) {
+		Parser parser = new Parser();
+		for (TLE tle : tles) {
+			parser.line(tle.getSatName());
+			parser.line(tle.getLine1());
+			parser.line(tle.getLine2());
+		}
+		return parser.finish();
+	}
+	
+	/**
+	 * @return the number of records in the catalog
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * @return the number of records which were skipped when reading, because they were invalid
+	 */
+	public int getRejectedCount() {
+		return rejected;
+	}
+	
+	/**
+	 * @param index the position of a record in the catalog (in the order it was read)
+	 * @return the name of the satellite
+	 */
+	public String getName(int index) {
+		return decode(offsets[index], getNameEnd(index));
+	}
+	
+	/**
+	 * @param index the position of a record in the catalog (in the order it was read)
+	 * @return the NORAD catalog number of the satellite
+	 */
+	public int getCatalogNumber(int index) {
+		return catalogNumbers[index];
+	}
+	
+	/**
+	 * @param index the position of a record in the catalog (in the order it was read)
+	 * @return a new TLE object for the record
+	 */
+	public TLE getTLE(int index) {
+		int line1 = getNameEnd(index);
+		int line2 = line1 + LINE_LENGTH;
+		return new TLE(decode(offsets[index], line1), decode(line1, line2), decode(line2, line2 + LINE_LENGTH));
+	}
+	
+	/**
+	 * @return a read-only list of the catalog's TLEs, which creates each TLE object as it is asked for
+	 */
+	public List<TLE> asList() {
+		return new TLEList();
+	}
+	
+	/**
+	 * Looks up a satellite by catalog number.
+	 * @param catalogNumber the NORAD catalog number
+	 * @return the position of the first record of the satellite, or -1 if it is not in the catalog
+	 */
+	public int indexOfCatalogNumber(int catalogNumber) {
+		long[] catalogIndex = getCatalogIndex();
+		int i = lowerBound(catalogIndex, catalogNumber);
+		return (i < size && (int) (catalogIndex[i] >>> 32) == catalogNumber) ? (int) catalogIndex[i] : -1;
+	}
+	
+	/**
+	 * Looks up satellites by name, ignoring case and surrounding whitespace.
+	 * @param name the name of the satellite, e.g. "ISS (ZARYA)"
+	 * @return the positions of the records of that name, in order; empty if there are none
+	 */
+	public int[] indicesOfName(String name) {
+		String trimmed = name.trim();
+		int hash = 0;
+		for (int c = 0; c < trimmed.length(); c++) {
+			hash = 31 * hash + upperCase(encode(trimmed.charAt(c)));
+		}
+		
+		long[] nameIndex = getNameIndex();
+		int[] found = new int[0];
+		for (int i = lowerBound(nameIndex, hash); i < size && (int) (nameIndex[i] >> 32) == hash; i++) {
+			int index = (int) nameIndex[i];
+			if (nameEquals(index, trimmed)) {
+				found = Arrays.copyOf(found, found.length + 1);
+				found[found.length - 1] = index;
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * Writes the catalog in Celestrak's three-line format.
+	 * @param writer where to write the catalog; it is not closed
+	 * @throws IOException if the writer fails
+	 */
+	public void write(Writer writer) throws IOException {
+		char[] buffer = new char[BUFFER_SIZE];
+		int position = 0;
+		for (int i = 0; i < size; i++) {
+			int line1 = getNameEnd(i);
+			if (buffer.length - position < offsets[i + 1] - offsets[i] + 3) {
+				writer.write(buffer, 0, position);
+				position = 0;
+			}
+			for (int b = offsets[i]; b < offsets[i + 1]; b++) {
+				if (b == line1 || b == line1 + LINE_LENGTH) {
+					buffer[position++] = '\n';
+				}
+				buffer[position++] = (char) (data[b] & 0xFF);
+			}
+			buffer[position++] = '\n';
+		}
+		writer.write(buffer, 0, position);
+	}
+	
+	private synchronized long[] getCatalogIndex() {
+		buildIndex();
+		return catalogIndex;
+	}
+	
+	private synchronized long[] getNameIndex() {
+		buildIndex();
+		return nameIndex;
+	}
+	
+	private int getNameEnd(int index) {
+		return offsets[index + 1] - 2 * LINE_LENGTH;
+	}
+	
+	private String decode(int start, int end) {
+		char[] chars = new char[end - start];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) (data[start + i] & 0xFF);
+		}
+		return new String(chars);
+	}
+	
+	private boolean nameEquals(int index, String name) {
+		int start = offsets[index];
+		if (getNameEnd(index) - start != name.length()) {
+			return false;
+		}
+		for (int c = 0; c < name.length(); c++) {
+			if (upperCase(data[start + c]) != upperCase(encode(name.charAt(c)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static int hashName(byte[] data, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + upperCase(data[i]);
+		}
+		return hash;
+	}
+	
+	private static int upperCase(byte b) {
+		return (b >= 'a' && b <= 'z') ? b - ('a' - 'A') : b;
+	}
+	
+	private static byte encode(char c) {
+		return (byte) (c < 256 ? c : '?');
+	}
+	
+	/* The first position in a sorted index whose key is at least the given one */
+	private static int lowerBound(long[] index, int key) {
+		long target = (long) key << 32;
+		int low = 0;
+		int high = index.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (index[middle] < target) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	private class TLEList extends AbstractList<TLE> implements RandomAccess {
+		@Override
+		public TLE get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException(Integer.toString(index));
+			}
+			return getTLE(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+	
+	/*
+	 * Reads records line by line: a name, then line 1, then line 2.  Lines are examined in a
+	 * reusable character buffer, and only the lines of valid records are copied into the catalog.
+	 */
+	private static class Parser {
+		private byte[] data = new byte[BUFFER_SIZE];
+		private int length = 0;
+		private int[] offsets = new int[1024];
+		private int[] catalogNumbers = new int[1024];
+		private int size = 0;
+		private int rejected = 0;
+		
+		private final char[] line = new char[MAX_LINE_LENGTH];
+		private int lineLength = 0;
+		
+		/* The line expected next: 0 for a name, 1 or 2 for the lines of the TLE */
+		private int expected = 0;
+		private final char[] name = new char[MAX_NAME_LENGTH];
+		private int nameLength;
+		private final char[] line1 = new char[LINE_LENGTH];
+		private int catalogNumber;
+		
+		TLECatalog parse(Reader reader) throws IOException {
+			char[] buffer = new char[BUFFER_SIZE];
+			int read;
+			while ((read = reader.read(buffer)) >= 0) {
+				int start = 0;
+				for (int i = 0; i < read; i++) {
+					if (buffer[i] == '\n') {
+						append(buffer, start, i);
+						endLine();
+						start = i + 1;
+					}
+				}
+				append(buffer, start, read); // the start of a line continued in the next block
+			}
+			endLine();
+			return finish();
+		}
+		
+		private void append(char[] buffer, int start, int end) {
+			int count = Math.min(end - start, MAX_LINE_LENGTH - lineLength);
+			if (count > 0) {
+				System.arraycopy(buffer, start, line, lineLength, count);
+				lineLength += count;
+			}
+		}
+		
+		void line(String text) {
+			if (text == null) {
+				text = "";
+			}
+			lineLength = Math.min(text.length(), MAX_LINE_LENGTH);
+			text.getChars(0, lineLength, line, 0);
+			endLine();
+		}
+		
+		TLECatalog finish() {
+			if (expected != 0) {
+				rejected++; // the last record is incomplete
+				expected = 0;
+			}
+			offsets[size] = length;
+			return new TLECatalog(data, offsets, catalogNumbers, size, rejected);
+		}
+		
+		private void endLine() {
+			// Ignore trailing whitespace, including the carriage return of "\r\n"
+			while (lineLength > 0 && line[lineLength - 1] <= ' ') {
+				lineLength--;
+			}
+			if (lineLength == 0) {
+				return;
+			}
+			
+			switch (expected) {
+			case 0:
+				// Lines of a damaged record are skipped, so they are not taken for names
+				if (!looksLikeLine()) {
+					setName();
+				}
+				break;
+			case 1:
+				if (isLine('1') && parseCatalogNumber(line) >= 0) {
+					System.arraycopy(line, 0, line1, 0, LINE_LENGTH);
+					catalogNumber = parseCatalogNumber(line);
+					expected = 2;
+				} else {
+					reject();
+				}
+				break;
+			case 2:
+				if (isLine('2') && parseCatalogNumber(line) == catalogNumber) {
+					add();
+					expected = 0;
+				} else {
+					reject();
+				}
+				break;
+			}
+			lineLength = 0;
+		}
+		
+		/* Drops the current record; the line which was expected to continue it may start the next one */
+		private void reject() {
+			rejected++;
+			expected = 0;
+			if (!looksLikeLine()) {
+				setName();
+			}
+		}
+		
+		private void setName() {
+			int start = 0;
+			while (start < lineLength && line[start] <= ' ') {
+				start++;
+			}
+			nameLength = Math.min(lineLength - start, MAX_NAME_LENGTH);
+			System.arraycopy(line, start, name, 0, nameLength);
+			expected = 1;
+			lineLength = 0;
+		}
+		
+		/* Whether the current line starts like a line of a TLE, complete or not */
+		private boolean looksLikeLine() {
+			return lineLength > 2 && (line[0] == '1' || line[0] == '2') && line[1] == ' ' && 
+				(line[2] == ' ' || (line[2] >= '0' && line[2] <= '9'));
+		}
+		
+		/* Whether the current line is a complete line of a TLE, with the given line number */
+		private boolean isLine(char number) {
+			if (lineLength != LINE_LENGTH || line[0] != number || line[1] != ' ') {
+				return false;
+			}
+			int sum = 0;
+			for (int i = 0; i < LINE_LENGTH - 1; i++) {
+				char c = line[i];
+				if (c >= '0' && c <= '9') {
+					sum += c - '0';
+				} else if (c == '-') {
+					sum += 1;
+				}
+			}
+			return line[LINE_LENGTH - 1] == (char) ('0' + sum % 10);
+		}
+		
+		/* The catalog number in columns 3-7 of a line, or -1 if it is not a number */
+		private static int parseCatalogNumber(char[] line) {
+			int number = 0;
+			boolean digits = false;
+			for (int i = 2; i < 7; i++) {
+				char c = line[i];
+				if (c >= '0' && c <= '9') {
+					number = number * 10 + (c - '0');
+					digits = true;
+				} else if (c != ' ' || digits) {
+					return -1;
+				}
+			}
+			return digits ? number : -1;
+		}
+		
+		private void add() {
+			int recordLength = nameLength + 2 * LINE_LENGTH;
+			if (length + recordLength > data.length) {
+				data = Arrays.copyOf(data, Math.max(data.length * 2, length + recordLength));
+			}
+			if (size + 2 > offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				catalogNumbers = Arrays.copyOf(catalogNumbers, offsets.length);
+			}
+			offsets[size] = length;
+			catalogNumbers[size] = catalogNumber;
+			size++;
+			for (int i = 0; i < nameLength; i++) {
+				data[length++] = encode(name[i]);
+			}
+			for (int i = 0; i < LINE_LENGTH; i++) {
+				data[length++] = encode(line1[i]);
+			}
+			for (int i = 0; i < LINE_LENGTH; i++) {
+				data[length++] = encode(line[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import jsattrak.utilities.TLE;
+
+/*
+ * A local repository of TLE files: a directory holding one file per satellite group, named as on
+ * Celestrak (e.g. "stations.txt"), in Celestrak's three-line format.  TLEUtility stores every group
+ * it downloads here, and reads it back while it is fresh, so the satellite wizard does not go to the
+ * network each time a group is opened.  On a network without access to Celestrak, the files can
+ * be copied into the directory by hand; they are then used as they are.
+ * 
+ * When each file was last updated, and where from, is kept in an index file in the same directory.
+ * Files copied in by hand have no entry in the index; their modification time is used instead.
+ * 
+ * Files are parsed once, into a TLECatalog, and kept in memory until they change on disk.  The
+ * satellites of all the files in the directory can also be looked up by catalog number or by name.
+ */
+public class TLERepository {
+	
+	/** The system property naming the directory of the default repository. */
+	public static final String DIRECTORY_PROPERTY = "gov.nasa.arc.mct.satellite.tle.directory";
+	
+	/* The file holding the freshness metadata of the repository's TLE files */
+	static final String INDEX_FILE = "tle-index.properties";
+	
+	private static final String TLE_SUFFIX = ".txt";
+	private static final String UPDATED = ".updated";
+	private static final String SOURCE  = ".source";
+	
+	private static TLERepository defaultRepository;
+	
+	private final File directory;
+	private Properties metadata = null;
+	private final Map<String, LoadedFile> files = new HashMap<String, LoadedFile>();
+	
+	/* The catalogs of all the files, the most recently updated first; null when a file has changed */
+	private List<TLECatalog> newestFirst = null;
+	
+	/**
+	 * Creates a repository; the directory is created when the first file is stored in it.
+	 * @param directory the directory holding the TLE files
+	 */
+	public TLERepository(File directory) {
+		if (directory == null) {
+			throw new IllegalArgumentException();
+		}
+		this.directory = directory;
+	}
+	
+	/**
+	 * Gets the repository in the directory named by the system property {@link #DIRECTORY_PROPERTY}
+	 * or, if it is not set, in ".mct/tle" under the user's home directory.
+	 * @return the default repository
+	 */
+	public static synchronized TLERepository getDefault() {
+		if (defaultRepository == null) {
+			String path = System.getProperty(DIRECTORY_PROPERTY);
+			File directory = path != null ? new File(path) :
+				new File(new File(System.getProperty("user.home"), ".mct"), "tle");
+			defaultRepository = new TLERepository(directory);
+		}
+		return defaultRepository;
+	}
+	
+	/**
+	 * @return the directory holding the TLE files
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+	
+	/**
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @return true if the repository holds the file
+	 */
+	public boolean contains(String fileName) {
+		return new File(directory, fileName).isFile();
+	}
+	
+	/**
+	 * Reads the satellites of a TLE file.  The file is only parsed again if it has changed on disk.
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @return the catalog of the file's valid satellites, or null if the repository does not hold it
+	 * @throws IOException if the file could not be read
+	 */
+	public synchronized TLECatalog getCatalog(String fileName) throws IOException {
+		File file = new File(directory, fileName);
+		if (!file.isFile()) {
+			if (files.remove(fileName) != null) {
+				newestFirst = null;
+			}
+			return null;
+		}
+		LoadedFile loaded = files.get(fileName);
+		if (loaded == null || loaded.lastModified != file.lastModified() || loaded.length != file.length()) {
+			loaded = new LoadedFile(file);
+			files.put(fileName, loaded);
+			newestFirst = null;
+		}
+		return loaded.catalog;
+	}
+	
+	/**
+	 * Reads the satellites of a TLE file; see getCatalog.
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @return the satellites in the order of the file, or null if the repository does not hold it
+	 * @throws IOException if the file could not be read
+	 */
+	public List<TLE> getTLEs(String fileName) throws IOException {
+		TLECatalog catalog = getCatalog(fileName);
+		return catalog != null ? catalog.asList() : null;
+	}
+	
+	/**
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @return when the file was last updated (in milliseconds), or 0 if the repository does not hold it
+	 */
+	public synchronized long getLastUpdated(String fileName) {
+		File file = new File(directory, fileName);
+		if (!file.isFile()) {
+			return 0;
+		}
+		String updated = getMetadata().getProperty(fileName + UPDATED);
+		if (updated != null) {
+			try {
+				return Long.parseLong(updated);
+			} catch (NumberFormatException e) {
+				// Fall back to the file itself
+			}
+		}
+		return file.lastModified();
+	}
+	
+	/**
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @return the URL the file was downloaded from, or null if it was not stored by TLEUtility
+	 */
+	public synchronized String getSource(String fileName) {
+		return contains(fileName) ? getMetadata().getProperty(fileName + SOURCE) : null;
+	}
+	
+	/**
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @param maxAge the maximum age of a fresh file (in milliseconds)
+	 * @return true if the repository holds the file and it was updated less than maxAge ago
+	 */
+	public boolean isFresh(String fileName, long maxAge) {
+		long updated = getLastUpdated(fileName);
+		return updated > 0 && System.currentTimeMillis() - updated < maxAge;
+	}
+	
+	/**
+	 * Stores the satellites of a TLE file, replacing any previous version of the file.
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @param tles the satellites of the file
+	 * @param source where the satellites came from (e.g. the URL of the file on Celestrak)
+	 * @throws IOException if the file could not be written
+	 */
+	public void store(String fileName, List<TLE> tles, String source) throws IOException {
+		store(fileName, TLECatalog.of(tles), source);
+	}
+	
+	/**
+	 * Stores the satellites of a TLE file, replacing any previous version of the file.
+	 * @param fileName the name of a TLE file, e.g. "stations.txt"
+	 * @param catalog the satellites of the file
+	 * @param source where the satellites came from (e.g. the URL of the file on Celestrak)
+	 * @throws IOException if the file could not be written
+	 */
+	public synchronized void store(String fileName, TLECatalog catalog, String source) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create TLE directory " + directory);
+		}
+		
+		File temporary = new File(directory, fileName + ".tmp");
+		Writer writer = new FileWriter(temporary);
+		try {
+			catalog.write(writer);
+		} finally {
+			writer.close();
+		}
+		replace(temporary, new File(directory, fileName));
+		
+		Properties properties = getMetadata();
+		properties.setProperty(fileName + UPDATED, Long.toString(System.currentTimeMillis()));
+		if (source != null) {
+			properties.setProperty(fileName + SOURCE, source);
+		} else {
+			properties.remove(fileName + SOURCE);
+		}
+		temporary = new File(directory, INDEX_FILE + ".tmp");
+		OutputStream out = new FileOutputStream(temporary);
+		try {
+			properties.store(out, "Freshness of the TLE files in this directory");
+		} finally {
+			out.close();
+		}
+		replace(temporary, new File(directory, INDEX_FILE));
+		
+		files.put(fileName, new LoadedFile(new File(directory, fileName), catalog));
+		newestFirst = null;
+	}
+	
+	/**
+	 * Looks up a satellite by catalog number, in all the TLE files of the repository.  If several
+	 * files hold the satellite, the most recently updated one is used.
+	 * @param catalogNumber the NORAD catalog number, e.g. "25544"
+	 * @return the satellite, or null if no file holds it
+	 * @throws IOException if a file could not be read
+	 */
+	public synchronized TLE getByCatalogNumber(String catalogNumber) throws IOException {
+		int number;
+		try {
+			number = Integer.parseInt(catalogNumber.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		for (TLECatalog catalog : getCatalogsNewestFirst()) {
+			int index = catalog.indexOfCatalogNumber(number);
+			if (index >= 0) {
+				return catalog.getTLE(index);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Looks up satellites by name, ignoring case and surrounding whitespace, in all the TLE files
+	 * of the repository.
+	 * @param name the name of the satellite, e.g. "ISS (ZARYA)"
+	 * @return the satellites of that name (each catalog number at most once), or an empty list
+	 * @throws IOException if a file could not be read
+	 */
+	public synchronized List<TLE> getByName(String name) throws IOException {
+		List<TLE> tles = new ArrayList<TLE>(1);
+		Set<Integer> found = new HashSet<Integer>();
+		for (TLECatalog catalog : getCatalogsNewestFirst()) {
+			for (int index : catalog.indicesOfName(name)) {
+				if (found.add(catalog.getCatalogNumber(index))) {
+					tles.add(catalog.getTLE(index));
+				}
+			}
+		}
+		return tles;
+	}
+	
+	/**
+	 * @param tle a satellite
+	 * @return the NORAD catalog number of the satellite, without leading zeros
+	 */
+	public static String getCatalogNumber(TLE tle) {
+		return Integer.toString(Integer.parseInt(tle.getLine2().substring(2, 7).trim()));
+	}
+	
+	private List<TLECatalog> getCatalogsNewestFirst() throws IOException {
+		String[] names = directory.list(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(TLE_SUFFIX);
+			}
+		});
+		Set<String> current = new HashSet<String>(Arrays.asList(names != null ? names : new String[0]));
+		if (!files.keySet().equals(current)) {
+			files.keySet().retainAll(current);
+			newestFirst = null;
+		}
+		for (String name : current) {
+			getCatalog(name); // forgets the order if the file has changed
+		}
+		if (newestFirst != null) {
+			return newestFirst;
+		}
+		
+		// Search the most recent files first, so that the most recent version of a satellite wins
+		final Map<String, Long> updated = new HashMap<String, Long>();
+		for (String name : files.keySet()) {
+			updated.put(name, getLastUpdated(name));
+		}
+		List<String> sorted = new ArrayList<String>(updated.keySet());
+		Collections.sort(sorted, new Comparator<String>() {
+			@Override
+			public int compare(String a, String b) {
+				return updated.get(b).compareTo(updated.get(a));
+			}
+		});
+		newestFirst = new ArrayList<TLECatalog>(sorted.size());
+		for (String name : sorted) {
+			newestFirst.add(files.get(name).catalog);
+		}
+		return newestFirst;
+	}
+	
+	private Properties getMetadata() {
+		if (metadata == null) {
+			metadata = new Properties();
+			File index = new File(directory, INDEX_FILE);
+			if (index.isFile()) {
+				try {
+					InputStream in = new FileInputStream(index);
+					try {
+						metadata.load(in);
+					} finally {
+						in.close();
+					}
+				} catch (IOException e) {
+					System.err.format("Exception occurred trying to read '%s'.", index);
+					e.printStackTrace();
+				}
+			}
+		}
+		return metadata;
+	}
+	
+	/*
+	 * Moves a newly written file over the previous version, so that a failed write never leaves a
+	 * partial file behind.
+	 */
+	private static void replace(File temporary, File target) throws IOException {
+		if (!temporary.renameTo(target)) {
+			// Some platforms will not rename over an existing file
+			if (!target.delete() || !temporary.renameTo(target)) {
+				temporary.delete();
+				throw new IOException("Could not replace " + target);
+			}
+		}
+	}
+	
+	/* A parsed TLE file, and the state of the file on disk when it was parsed */
+	private static class LoadedFile {
+		private final long lastModified;
+		private final long length;
+		private final TLECatalog catalog;
+		
+		LoadedFile(File file) throws IOException {
+			this(file, read(file));
+		}
+		
+		LoadedFile(File file, TLECatalog catalog) {
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+			this.catalog = catalog;
+		}
+		
+		private static TLECatalog read(File file) throws IOException {
+			Reader reader = new FileReader(file);
+			try {
+				return TLECatalog.read(reader);
+			} finally {
+				reader.close();
+			}
+		}
+	}
+}
@@ -21,11 +21,10 @@
  *******************************************************************************/
 package gov.nasa.arc.mct.satellite.utilities;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
-import java.net.MalformedURLException;
+import java.io.Reader;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,18 +32,31 @@ import java.util.Map;
 import jsattrak.utilities.TLE;
 
 /*
- * A small class to handle the accessing-of TLE files.  This class does not store
- * the TLE files in memory, rather: you give this class a Celestrak name and
- * it downloads a fresh copy right off of Celestrak's website.
+ * A small class to handle the accessing-of TLE files.  You give this class a Celestrak name and
+ * it returns the TLEs of that group: from the local TLE repository (see TLERepository) if it holds
+ * a fresh copy, otherwise by downloading a fresh copy right off of Celestrak's website and storing
+ * it in the repository.  If Celestrak cannot be reached, whatever copy the repository holds is
+ * used, however old.  In offline mode (for networks without access to Celestrak) only the
+ * repository is used.
  * 
- * This class is used in the satellite wizard; its purpose: to download the TLEs
- * that the user has reqested.  See the only public method, 'getTLEs'
+ * This class is used in the satellite wizard; its purpose: to get the TLEs
+ * that the user has reqested.  See 'getTLEs'
  */
 public class TLEUtility {	
 	
+	/** The system property which, when "true", keeps TLEUtility from going to the network. */
+	public static final String OFFLINE_PROPERTY = "gov.nasa.arc.mct.satellite.tle.offline";
+	
+	/** How long a TLE file in the repository is used before a fresh copy is downloaded (12 hours). */
+	public static final long DEFAULT_MAX_AGE = 12 * 60 * 60 * 1000L;
+	
 	//Used to access TLEs on Celestrak's website
 	private static final String urlTLELocation = "http://celestrak.com/NORAD/elements/";
 	
+	private final TLERepository repository;
+	private final long maxAge;
+	private final boolean offline;
+	
 	/*
 	 * Given a Celestrak TLE group-name (like 'Space Stations' for example) return the
 	 * file where said TLEs are located
@@ -106,67 +118,60 @@ public class TLEUtility {
 		}
 	};
 	
-	/*
-	 * Given the full path to a file containing TLE data, e.g.: "stations.txt", this method returns
-	 * a list of strings, each string is a line of the TLE file
+	/**
+	 * Creates a TLEUtility using the default repository (see TLERepository.getDefault) and
+	 * going to the network unless the system property {@link #OFFLINE_PROPERTY} is "true".
+	 */
+	public TLEUtility() {
+		this(TLERepository.getDefault(), DEFAULT_MAX_AGE, Boolean.getBoolean(OFFLINE_PROPERTY));
+	}
+	
+	/**
+	 * Creates a TLEUtility.
+	 * @param repository where TLE files are kept between downloads; null to always download
+	 * @param maxAge how long (in milliseconds) a file in the repository is used before it is downloaded again
+	 * @param offline true to only use the repository, and never go to the network
+	 */
+	public TLEUtility(TLERepository repository, long maxAge, boolean offline) {
+		if (repository == null && offline) {
+			throw new IllegalArgumentException();
+		}
+		this.repository = repository;
+		this.maxAge = maxAge;
+		this.offline = offline;
+	}
+	
+	/**
+	 * @return the repository where TLE files are kept between downloads, or null
 	 */
-	private  List<String>
-	readFile(URL tleLoc)
-	{
-	    List<String> records = new ArrayList<String>();
-	  try
-	  {
-		  BufferedReader reader = new BufferedReader(new InputStreamReader(tleLoc.openStream()));
-	      String line;
-	    while ((line = reader.readLine()) != null)
-	    {
-	      records.add(line);
-	    }
-	    reader.close();
-	    return records;
-	  }
-	  catch (Exception e)
-	  {
-	    System.err.format("Exception occurred trying to read '%s'.", tleLoc.toString());
-	    e.printStackTrace();
-	    return null;
-	  }
-	}//--end readFile
+	public TLERepository getRepository() {
+		return repository;
+	}
 	
 	/**
-	 * Grab all the TLEs from a given TLE-file (from Celestrak) and return them as a List of TLEs
+	 * Grab all the TLEs from a given TLE-file (from Celestrak) and return them as a catalog of TLEs
 	 * 
-	 * @param filename file containing TLE data
-	 * @return list of TLE objects in the order given in the given TLE file
+	 * @param tleLoc location of the file containing TLE data
+	 * @return catalog of the TLEs in the order given in the given TLE file
+	 * @throws IOException if the file could not be read
 	 */
-	private List<TLE>
-	grab_tles(URL tleLoc){
-		
-		List<String> raw_tle_data = readFile(tleLoc);
-		/*
-		 * all tle data are in three-line increments, so the size of raw_tle_data is 3 times the number
-		 * of tle's in the file
-		 * 
-		 * Hence the number of tle's in the file is the number of elements in raw_tle_data divided by three
-		 */
-		int num_lines = raw_tle_data.size();
-		List<TLE> tle_recs = new ArrayList<TLE>();
-		//grab each tle:  lines 0 1 2 is the first tle, then lines 3 4 5 is the second tle, ... etc 
-		for(int i = 0; i<num_lines; i =i+3) {
-			TLE data = new TLE(raw_tle_data.get(i).trim(), raw_tle_data.get(i+1), raw_tle_data.get(i+2)); //why trim()? Well, we need to trim the trailing whitespace from the satellite name
-			tle_recs.add(data);
-		}//end for loop
-		
-		return tle_recs; 	//list of tles
+	TLECatalog
+	grab_tles(URL tleLoc) throws IOException {
+		Reader reader = new InputStreamReader(tleLoc.openStream(), "US-ASCII");
+		try {
+			return TLECatalog.read(reader);
+		} finally {
+			reader.close();
+		}
 	}
 	
 	/*
-	 * Given a Celestrak satellite category, return the URL where the said TLE data is located; for example,
-	 * if we want the "FENGYUN 1C Debris" TLE data, then we return "http://celestrak.com/NORAD/elements/1999-025.txt"
+	 * Given a Celestrak satellite category, return the name of the file holding said TLE data; for example,
+	 * if we want the "FENGYUN 1C Debris" TLE data, then we return "1999-025.txt"
 	 */
 	private
 	String
-	getTLEurl(String RequestedTLEData){
+	getTLEfile(String RequestedTLEData){
 		String fileName = FileLookup.get(RequestedTLEData);
 		if(fileName==null)
 			try {
@@ -175,9 +180,7 @@ public class TLEUtility {
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
-		else
-			return urlTLELocation + fileName;
-		return "";
+		return fileName;
 	}
 	
 	
@@ -186,22 +189,81 @@ public class TLEUtility {
 	 * 
 	 * @param CelestrakCategory The Satellite Category as defined from 'http://celestrak.com/NORAD/elements/'
 	 * @return A list of TLE objects associated with the Celestrak satellite category (in order as they appear
-	 *         on Celestrak
+	 *         on Celestrak), or null if they could neither be downloaded nor found in the repository
 	 */
 	public
 	List<TLE>
 	getTLEs(String CelestrakCategory) {
+		TLECatalog catalog = getCatalog(CelestrakCategory);
+		return catalog != null ? catalog.asList() : null;
+	}
+	
+	/**
+	 * 
+	 * @param CelestrakCategory The Satellite Category as defined from 'http://celestrak.com/NORAD/elements/'
+	 * @return A catalog of the TLEs associated with the Celestrak satellite category (in order as they appear
+	 *         on Celestrak), or null if they could neither be downloaded nor found in the repository
+	 */
+	public
+	TLECatalog
+	getCatalog(String CelestrakCategory) {
 		
-		String tleLoc = getTLEurl(CelestrakCategory);
+		String fileName = getTLEfile(CelestrakCategory);
+		if (fileName == null) {
+			return null;
+		}
 		
-		try {
-			URL urlTLE = new URL(tleLoc);
-			List<TLE> tles =  grab_tles(urlTLE);
+		TLECatalog stored = null;
+		if (repository != null) {
+			try {
+				stored = repository.getCatalog(fileName);
+			} catch (IOException e) {
+				System.err.format("Exception occurred trying to read '%s' from %s.", fileName, repository.getDirectory());
+				e.printStackTrace();
+			}
+			if (stored != null && (offline || repository.isFresh(fileName, maxAge))) {
+				return stored;
+			}
+		}
+		
+		if (!offline) {
+			String tleLoc = urlTLELocation + fileName;
+			TLECatalog tles;
+			try {
+				tles = grab_tles(new URL(tleLoc));
+			} catch (IOException e) {
+				System.err.format("Exception occurred trying to read '%s'.", tleLoc);
+				e.printStackTrace();
+				return stored; // use the old copy, if any, rather than nothing
+			}
+			if (tles.size() == 0) {
+				// an empty page, or one whose TLEs all failed their checksums, must not replace a good copy
+				System.err.format("No TLEs could be read from '%s'.%n", tleLoc);
+				return stored;
+			}
+			if (repository != null) {
+				try {
+					repository.store(fileName, tles, tleLoc);
+				} catch (IOException e) {
+					System.err.format("Exception occurred trying to store '%s' in %s.", fileName, repository.getDirectory());
+					e.printStackTrace();
+				}
+			}
 			return tles;
-		} catch (MalformedURLException e) {
-			return null;
 		}
 		
+		return stored;
+	}
+	
+	/**
+	 * @param CelestrakCategory The Satellite Category as defined from 'http://celestrak.com/NORAD/elements/'
+	 * @return when the repository's copy of the category was last updated (in milliseconds), or 0 if it has none
+	 */
+	public
+	long
+	getLastUpdated(String CelestrakCategory) {
+		String fileName = FileLookup.get(CelestrakCategory);
+		return (repository != null && fileName != null) ? repository.getLastUpdated(fileName) : 0;
 	}
 	
 	
@@ -24,14 +24,13 @@ package gov.nasa.arc.mct.satellite.view;
 import gov.nasa.arc.mct.components.AbstractComponent;
 import gov.nasa.arc.mct.components.ExtendedProperties;
 import gov.nasa.arc.mct.components.FeedProvider;
-import gov.nasa.arc.mct.components.FeedProvider.RenderingInfo;
 import gov.nasa.arc.mct.gui.FeedView;
 import gov.nasa.arc.mct.gui.FeedView.RenderingCallback;
 import gov.nasa.arc.mct.roles.events.PropertyChangeEvent;
+import gov.nasa.arc.mct.satellite.FeedTrajectories;
 import gov.nasa.arc.mct.satellite.MercatorPanel;
 import gov.nasa.arc.mct.satellite.MercatorPanel.ViewChangeListener;
 import gov.nasa.arc.mct.satellite.Trajectory;
-import gov.nasa.arc.mct.satellite.Vector;
 import gov.nasa.arc.mct.services.component.ViewInfo;
 
 import java.util.ArrayList;
@@ -54,10 +53,9 @@ import javax.swing.JComponent;
 @SuppressWarnings("serial")
 public class MercatorProjectionView extends FeedView implements RenderingCallback, ViewChangeListener {
 
-	private static final int MAX_FEEDS = 3;
-	
-	private Map<String, DoubleField> fieldProviders = new HashMap<String, DoubleField>();
-	private List<FeedProvider> feedProviders = new ArrayList<FeedProvider>();
+	//the feeds of each object drawn, grouped by satellite
+	private final FeedTrajectories feedTrajectories = new FeedTrajectories();
+	private List<FeedProvider> feedProviders;
 	
 	private MercatorPanel mercatorPanel;
 	
@@ -79,23 +77,24 @@ public class MercatorProjectionView extends FeedView implements RenderingCallbac
 		potentiallyViewable.addAll(component.getComponents());
 		
 		for (AbstractComponent candidate : potentiallyViewable) {
-			int i = 0;
-			TrajectoryProvider tp = new TrajectoryProvider();			
+			List<FeedProvider> feeds = new ArrayList<FeedProvider>();
 			for (AbstractComponent vector : candidate.getComponents()) {
 				for (AbstractComponent element : vector.getComponents()) {
 					FeedProvider fp = element.getCapability(FeedProvider.class);
-					if (fp != null && i < MAX_FEEDS) {
-						feedProviders.add(fp);
-						fieldProviders.put(fp.getSubscriptionId(), tp.fields[i++]);
+					if (fp != null) {
+						feeds.add(fp);
 					}
 				}
 			}
 			
-			//there must be at least three feeds associated with the candidate for it to be drawn on the mercator projection 
-			if ( i >= 3) { // Did we find enough feeds to plot the course of this object?
-				trajectories.put(TinyView.VIEW_INFO.createView(candidate), tp);
+			//there must be three position feeds associated with the candidate for it to be drawn on the mercator
+			//projection; a satellite found under more than one candidate is drawn once
+			Trajectory trajectory = feedTrajectories.add(feeds);
+			if (trajectory != null) {
+				trajectories.put(TinyView.VIEW_INFO.createView(candidate), trajectory);
 			}
 		}
+		feedProviders = new ArrayList<FeedProvider>(feedTrajectories.getFeedProviders());
 
 		requestData(feedProviders, System.currentTimeMillis(), System.currentTimeMillis(), 
 				new DataTransformation() {
@@ -119,20 +118,9 @@ public class MercatorProjectionView extends FeedView implements RenderingCallbac
 	 */
 	@Override
 	public void updateFromFeed(Map<String, List<Map<String, String>>> data) {
-		for (FeedProvider fp : feedProviders) {
-			DoubleField field = fieldProviders.get(fp.getSubscriptionId());
-			List<Map<String, String>> subdata = data.get(fp.getSubscriptionId());
-			if (field != null && subdata != null && subdata.size() > 0) {
-				Map<String, String> packet = subdata.get(subdata.size() - 1);
-				RenderingInfo ri = fp.getRenderingInfo(packet);
-				try {
-					field.set(Double.parseDouble(ri.getValueText()));
-				} catch (NumberFormatException nfe) {
-					nfe.printStackTrace();  //TODO: Just ignore or show some kind of status?
-				}
-			}
+		if (feedTrajectories.update(data)) {
+			repaint();
 		}
-		repaint();
 	}
 
 	/*
@@ -186,34 +174,4 @@ public class MercatorProjectionView extends FeedView implements RenderingCallbac
 		vp.setProperty(ZOOM_KEY,       Double.toString(zoom));
 		getManifestedComponent().save();
 	}
-	
-	/*
-	 * This private class holds the ECEF coordinate positions coming in from the feeds, and
-	 * is used in the TrajectoryProvider class
-	 */
-	private class DoubleField {
-		private double value;
-		public void set(double v) { value = v; }
-		public double get () { return value; }
-	}
-
-	/*This class stores the three-ECEF-coordinates of the object being displayed on the Mercator Projection 
-	 *Note: Velocity is not used for the MercatorView (as the view is just being updated every second)
-	 */
-	private class TrajectoryProvider implements Trajectory{
-		public DoubleField fields[] = new DoubleField[MAX_FEEDS];
-		
-		public TrajectoryProvider() {
-			for (int i = 0; i < fields.length; i++) fields[i] = new DoubleField();
-		}
-		
-		@Override
-		public Vector getPosition() {
-			return new Vector(fields[0].get(), fields[1].get(), fields[2].get());
-		}
-		@Override
-		public Vector getVelocity() {
-			return new Vector(0, 0, 0);		
-		}	
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.view;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.gui.View;
+import gov.nasa.arc.mct.satellite.component.SatelliteComponent;
+import gov.nasa.arc.mct.satellite.component.SatelliteModel;
+import gov.nasa.arc.mct.satellite.utilities.EphemerisTable;
+import gov.nasa.arc.mct.satellite.utilities.GroundStation;
+import gov.nasa.arc.mct.satellite.utilities.PassPredictor;
+import gov.nasa.arc.mct.satellite.utilities.SatelliteElements;
+import gov.nasa.arc.mct.satellite.utilities.SatellitePass;
+import gov.nasa.arc.mct.services.component.ViewInfo;
+
+import java.awt.BorderLayout;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JLabel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+import jsattrak.utilities.TLE;
+
+/*
+ * PassPredictionView lists the passes of a satellite over the configured ground stations (see
+ * GroundStation.getConfigured) during the next day, including those under way: when it rises,
+ * culminates and sets, and how high it gets.  Passes are predicted in the background by a PassPredictor shared by all of these views,
+ * so that opening the view again, or for another satellite on the same stations, is cheap.
+ * 
+ * SatelliteComponentProvider only offers this view for SatelliteComponents, which hold the TLE.
+ */
+@SuppressWarnings("serial")
+public class PassPredictionView extends View {
+	
+	/* Passes are those above the horizon; one day of passes of a satellite over a station is a few
+	 * hundred bytes, so many can be kept
+	 */
+	private static final double ELEVATION_MASK = 0;
+	private static final int PREDICTOR_CAPACITY = 256;
+	private static final PassPredictor PREDICTOR = 
+			new PassPredictor(PREDICTOR_CAPACITY, PassPredictor.DEFAULT_STEP, ELEVATION_MASK);
+	
+	private static final String[] COLUMNS = { "Station", "Rise (UTC)", "Culmination (UTC)", "Set (UTC)", "Max Elevation (deg)", "Duration (s)" };
+	
+	private final PassTableModel passes = new PassTableModel();
+	private final JLabel status = new JLabel();
+	private SwingWorker<List<SatellitePass>, Object> worker = null;
+	
+	public PassPredictionView(AbstractComponent ac, ViewInfo vi) {
+		super(ac, vi);
+		setLayout(new BorderLayout());
+		JTable table = new JTable(passes);
+		table.setAutoCreateRowSorter(true);
+		add(new JScrollPane(table), BorderLayout.CENTER);
+		add(status, BorderLayout.SOUTH);
+		predict();
+	}
+	
+	@Override
+	public void updateMonitoredGUI() {
+		predict();
+	}
+	
+	/*
+	 * Predicts the passes of the next day in the background, replacing the rows when done
+	 */
+	private void predict() {
+		if (worker != null) {
+			worker.cancel(false);
+		}
+		AbstractComponent component = getManifestedComponent();
+		SatelliteModel model = component instanceof SatelliteComponent ? ((SatelliteComponent) component).getModel() : null;
+		final TLE tle = model != null ? model.getTLE() : null;
+		if (tle == null) {
+			passes.setPasses(Collections.<SatellitePass>emptyList());
+			status.setText("No orbital elements for " + component.getDisplayName());
+			return;
+		}
+		
+		status.setText("Predicting passes...");
+		worker = new SwingWorker<List<SatellitePass>, Object>() {
+			@Override
+			protected List<SatellitePass> doInBackground() {
+				SatelliteElements elements = new SatelliteElements(tle.getSatName(), tle.getLine1(), tle.getLine2());
+				String key = tle.getLine1() + tle.getLine2();
+				long start = System.currentTimeMillis();
+				List<SatellitePass> result = new ArrayList<SatellitePass>();
+				for (GroundStation station : GroundStation.getConfigured()) {
+					if (isCancelled()) {
+						break;
+					}
+					result.addAll(PREDICTOR.getPasses(key, elements, station, start, start + EphemerisTable.DAY));
+				}
+				Collections.sort(result, new Comparator<SatellitePass>() {
+					@Override
+					public int compare(SatellitePass a, SatellitePass b) {
+						return a.getRise() < b.getRise() ? -1 : (a.getRise() == b.getRise() ? 0 : 1);
+					}
+				});
+				return result;
+			}
+			
+			@Override
+			protected void done() {
+				if (isCancelled()) {
+					return;
+				}
+				try {
+					List<SatellitePass> result = get();
+					passes.setPasses(result);
+					status.setText(result.size() + " passes in the next 24 hours");
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e) {
+					passes.setPasses(Collections.<SatellitePass>emptyList());
+					status.setText("Could not predict passes: " + e.getCause());
+				}
+			}
+		};
+		worker.execute();
+	}
+	
+	private static class PassTableModel extends AbstractTableModel {
+		private final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		private List<SatellitePass> rows = Collections.emptyList();
+		
+		PassTableModel() {
+			format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		}
+		
+		void setPasses(List<SatellitePass> passes) {
+			rows = passes;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public int getRowCount() {
+			return rows.size();
+		}
+
+		@Override
+		public int getColumnCount() {
+			return COLUMNS.length;
+		}
+		
+		@Override
+		public String getColumnName(int column) {
+			return COLUMNS[column];
+		}
+		
+		@Override
+		public Class<?> getColumnClass(int column) {
+			switch (column) {
+			case 4: return Double.class;
+			case 5: return Long.class;
+			default: return String.class;
+			}
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			SatellitePass pass = rows.get(row);
+			switch (column) {
+			case 0: return pass.getStation().getName();
+			case 1: return format.format(new Date(pass.getRise()));
+			case 2: return format.format(new Date(pass.getCulmination()));
+			case 3: return format.format(new Date(pass.getSet()));
+			case 4: return Math.round(pass.getMaxElevation() * 10) / 10.0;
+			case 5: return (pass.getDuration() + 500) / 1000;
+			default: return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.wizard;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.platform.spi.PlatformAccess;
+import gov.nasa.arc.mct.satellite.component.CoordinateComponent;
+import gov.nasa.arc.mct.satellite.component.CoordinateModel;
+import gov.nasa.arc.mct.satellite.component.SatelliteComponent;
+import gov.nasa.arc.mct.satellite.component.VectorComponent;
+import gov.nasa.arc.mct.services.component.ComponentRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.SwingWorker;
+
+import jsattrak.utilities.TLE;
+
+/**
+ * Creates the components of the satellites chosen in the SatelliteWizard on a background 
+ * thread. Every component is built before any is saved; the satellites are then added to 
+ * their parent at once, and the new components are persisted, with the parent, in a single 
+ * persistence operation. The satellites may be put in a new collection, which is added to the 
+ * parent and persisted in the same operation. A cancelled worker persists nothing.
+ * 
+ * The worker changes its own copy of the parent, fetched from the registry, and not the 
+ * component given to it, which may be in use on the EDT; persisting the copy updates the 
+ * components in use.
+ * 
+ * For each satellite, the following is made (with their associated classes in parenthesis)
+ * 
+ * <pre>
+ *   ISS                 (SatelliteComponent)
+ *     Position            (VectorComponent)
+ *       x                   (CoordinateComponent)
+ *       y                   (CoordinateComponent)
+ *       z                   (CoordinateComponent)
+ *     Velocity            (VectorComponent)
+ *       x                   (CoordinateComponent)
+ *       y                   (CoordinateComponent)
+ *       z                   (CoordinateComponent)
+ * </pre>
+ */
+public class SatelliteCreationWorker extends SwingWorker<List<AbstractComponent>, Object> {
+	/** the number of components made for each satellite */
+	public static final int COMPONENTS_PER_SATELLITE = 9;
+	
+	/** the share of the progress given to building the components; the rest is persisting them */
+	private static final int BUILD_PROGRESS = 90;
+	
+	private static final String[] AXIS_NAMES = { "X", "Y", "Z" };
+	
+	private final ComponentRegistry registry;
+	private final AbstractComponent parent;
+	private final AbstractComponent collection;
+	private final List<TLE> tles;
+	
+	/**
+	 * Create a worker for the given satellites.
+	 * @param registry creates the components
+	 * @param parent the component to which the satellites are added
+	 * @param tles the TLEs of the satellites, in the order they are added
+	 */
+	public SatelliteCreationWorker(ComponentRegistry registry, AbstractComponent parent, List<TLE> tles) {
+		this(registry, parent, null, tles);
+	}
+	
+	/**
+	 * Create a worker for the given satellites, which are put in a new collection.
+	 * @param registry creates the components
+	 * @param parent the component to which the collection is added
+	 * @param collection a new collection (not yet persisted, nor added to any parent) to which 
+	 *        the satellites are added; null to add them to the parent
+	 * @param tles the TLEs of the satellites, in the order they are added
+	 */
+	public SatelliteCreationWorker(ComponentRegistry registry, AbstractComponent parent, AbstractComponent collection, List<TLE> tles) {
+		if (registry == null || parent == null || tles == null) {
+			throw new IllegalArgumentException();
+		}
+		this.registry = registry;
+		this.parent = registry.getComponent(parent.getComponentId());
+		this.collection = collection;
+		this.tles = new ArrayList<TLE>(tles);
+		
+		if (this.parent == null) {
+			throw new IllegalArgumentException("Component " + parent.getComponentId() + " is not in the registry");
+		}
+	}
+
+	/**
+	 * @return the satellite components added to the parent (or collection); none if cancelled
+	 */
+	@Override
+	protected List<AbstractComponent> doInBackground() {
+		setProgress(0);
+		List<AbstractComponent> satellites = new ArrayList<AbstractComponent>(tles.size());
+		List<AbstractComponent> toPersist = new ArrayList<AbstractComponent>(tles.size() * COMPONENTS_PER_SATELLITE + 1);
+		for (int i = 0; i < tles.size(); i++) {
+			if (isCancelled()) {
+				return Collections.emptyList();
+			}
+			satellites.add(createSatellite(tles.get(i), toPersist));
+			setProgress(BUILD_PROGRESS * (i + 1) / tles.size());
+		}
+		if (isCancelled() || satellites.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		if (collection != null) {
+			collection.addDelegateComponents(satellites);
+			toPersist.add(collection);
+			parent.addDelegateComponent(collection);
+		} else {
+			parent.addDelegateComponents(satellites);
+		}
+		toPersist.add(parent);
+		
+		// save to database
+		PlatformAccess.getPlatform().getPersistenceProvider().persist(toPersist);
+		setProgress(100);
+		
+		return satellites;
+	}
+	
+	/*
+	 * Builds a satellite with its position and velocity components, adding them all to the components 
+	 * to persist; nothing is saved
+	 */
+	private SatelliteComponent createSatellite(TLE tle, List<AbstractComponent> toPersist) {
+		SatelliteComponent satComponent = newInstance(SatelliteComponent.class);
+		satComponent.setDisplayName(tle.getSatName());
+		satComponent.setOrbitalParameters(tle);
+		toPersist.add(satComponent);
+
+		List<AbstractComponent> vectors = new ArrayList<AbstractComponent>(2);
+		for (boolean velocity : new boolean[] { false, true }) {
+			String name = velocity ? "Velocity (in m/s)" : "Position (in ECEF)";
+			
+			VectorComponent vectorComponent = newInstance(VectorComponent.class);
+			vectorComponent.setDisplayName(name);
+			toPersist.add(vectorComponent);
+			
+			//make x, y, z components, where position/velocity is their parent
+			List<AbstractComponent> coordinates = new ArrayList<AbstractComponent>(AXIS_NAMES.length);
+			for (int axis = 0; axis < AXIS_NAMES.length; axis++) {
+				CoordinateComponent coordinateComponent = newInstance(CoordinateComponent.class);
+				coordinateComponent.setDisplayName(name + " " + AXIS_NAMES[axis]);
+				coordinateComponent.setModel(new CoordinateModel(axis, velocity, satComponent.getComponentId(), tle));
+				coordinates.add(coordinateComponent);
+			}
+			vectorComponent.addDelegateComponents(coordinates);
+			toPersist.addAll(coordinates);
+			vectors.add(vectorComponent);
+		}
+		satComponent.addDelegateComponents(vectors);
+		
+		return satComponent;
+	}
+	
+	/*
+	 * A new component, which is not yet persisted, nor added to any parent
+	 */
+	private <T extends AbstractComponent> T newInstance(Class<T> componentClass) {
+		return componentClass.cast(registry.newInstance(componentClass.getName()));
+	}
+}
@@ -23,13 +23,10 @@ package gov.nasa.arc.mct.satellite.wizard;
 
 
 import gov.nasa.arc.mct.components.AbstractComponent;
-import gov.nasa.arc.mct.satellite.component.CoordinateComponent;
-import gov.nasa.arc.mct.satellite.component.CoordinateModel;
-import gov.nasa.arc.mct.satellite.component.SatelliteComponent;
-import gov.nasa.arc.mct.satellite.component.VectorComponent;
 import gov.nasa.arc.mct.satellite.utilities.ComboItem;
 import gov.nasa.arc.mct.satellite.utilities.ComboListener;
 import gov.nasa.arc.mct.satellite.utilities.ComboRenderer;
+import gov.nasa.arc.mct.satellite.utilities.TLECatalog;
 import gov.nasa.arc.mct.satellite.utilities.TLEListRenderer;
 import gov.nasa.arc.mct.satellite.utilities.TLEUtility;
 import gov.nasa.arc.mct.services.component.ComponentRegistry;
@@ -47,8 +44,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.text.DateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -65,10 +65,12 @@ import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JList;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.ProgressMonitor;
 import javax.swing.SwingWorker;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
@@ -78,13 +80,13 @@ import jsattrak.utilities.TLE;
 /*
  * This wizard populates MCT with the satellite-objects chosen by the user
  *   Note: to see the how the classes of this plug-in are associated with one-another,
- *         see the createComp method (which uses the classes made in this plug-in to create
+ *         see SatelliteCreationWorker (which uses the classes made in this plug-in to create
  *         satellite objects)
  * 
  * Note: SatelliteComponentProvider tells MCT to call this wizard when the user right-clicks
  * and selects 'Create->Satellite'
  * 
- * Note: 'createComp' creates the satellite objects and populates the satellite objects into MCT
+ * Note: 'createComp' starts the creation of the satellite objects, which populates them into MCT
  * 
  */
 public class SatelliteWizard extends CreateWizardUI {
@@ -119,18 +121,24 @@ public class SatelliteWizard extends CreateWizardUI {
 	 *   String: this is the Celestrak satellite-category name (as defined in our 2D array above).
 	 *           Note that the Celestrak satellite category name IS UNIQUE
 	 */
-	private static final Map<String, List<TLE>> storedSatCats= new HashMap<String, List<TLE>>();
+	private static final Map<String, TLECatalog> storedSatCats= new HashMap<String, TLECatalog>();
+	
+	/*
+	 * Sizes the rows of the satellite choices, in place of measuring every satellite in the list
+	 * (Celestrak's names are at most 24 characters)
+	 */
+	private static final TLE PROTOTYPE_TLE = new TLE("XXXXXXXXXXXXXXXXXXXXXXXX", "", "");
 	
 	private final String DEFAULT_COLLECTION_NAME = "My Satellite Collection";
 	private final int TEXT_FIELD_COL_SIZE = 12;	//size of the text box which names a satellite collection
 	
-	private TLEUtility tleUtil;		//provides access to TLE data on the web
+	private TLEUtility tleUtil;		//provides access to TLE data in the local TLE repository and on the web
 	private Set<String> chosenSats;	//this provides the functionality: don't allow duplicates in the satellite-chosen list
 	
 	private JComboBox jcbSatCategories;	//drop down box to contain all of the Satellite Categories
 
 	
-	private DefaultListModel lmSatChoices;	//model stores what the user can choose
+	private TLEChoiceListModel lmSatChoices;	//model stores what the user can choose (read lazily from the TLE catalog)
 	private DefaultListModel lmSatChosen;	//model stores what the user has chosen
 	private JList jlSatChoices;
 	private JList jlSatChosen;
@@ -165,7 +173,7 @@ public class SatelliteWizard extends CreateWizardUI {
 		tleUtil = new TLEUtility();
 		
 		chosenSats = new HashSet<String>();
-		lmSatChoices = new DefaultListModel();
+		lmSatChoices = new TLEChoiceListModel();
 		lmSatChosen  = new DefaultListModel();
 		
 		jbAddSat = new JButton("Add -->");
@@ -289,23 +297,26 @@ public class SatelliteWizard extends CreateWizardUI {
 						populate(storedSatCats.get(choice));
 					}
 					else {
-						// Run the http request on a background thread
-						new SwingWorker<List<TLE>, Object>() {
+						// Read the repository, or run the http request, on a background thread
+						new SwingWorker<TLECatalog, Object>() {
 							@Override
-							protected List<TLE> doInBackground()
+							protected TLECatalog doInBackground()
 									throws Exception {
-								return tleUtil.getTLEs(choice);
+								return tleUtil.getCatalog(choice);
 							}
 
 							@Override
 							protected void done() {
 								try {
-									storedSatCats.put(choice, get());
-									populate(storedSatCats.get(choice));
+									TLECatalog tles = get();
+									if (tles != null) {
+										storedSatCats.put(choice, tles);
+									} //else: neither downloaded nor in the repository; try again next time
+									populate(tles);
 								} catch (InterruptedException e) {
-									populate(Collections.<TLE>emptyList());
+									populate(null);
 								} catch (ExecutionException e) {
-									populate(Collections.<TLE>emptyList());
+									populate(null);
 								}
 							}							
 						}.execute();
@@ -313,10 +324,14 @@ public class SatelliteWizard extends CreateWizardUI {
 				}				
 			}//--end actionPerformed
 			
-			private void populate(List<TLE> userSatChoices) {
+			private void populate(TLECatalog userSatChoices) {
 				//TODO: mark the TLEs already in the Chosen list as '**already added**'?
-				for(int i=0; i < userSatChoices.size(); i++)
-					lmSatChoices.addElement(userSatChoices.get(i));
+				lmSatChoices.setCatalog(userSatChoices);
+				
+				//tell the user how old the TLEs are, as they may come from the local TLE repository
+				long updated = tleUtil.getLastUpdated(jcbSatCategories.getSelectedItem().toString());
+				lblChoiceSat.setToolTipText(updated > 0 ? 
+						"TLEs updated " + DateFormat.getDateTimeInstance().format(new Date(updated)) : null);
 				
 				jbAddSat.setEnabled(true);
 				jbAddAllSat.setEnabled(true);
@@ -352,16 +367,15 @@ public class SatelliteWizard extends CreateWizardUI {
 				
 				//add the Satellites in the order as they appear in the SatChoice list, 
 				for(int i=0; i< len; i++) {
-					Object chosen = lmSatChoices.get(selected[i]);
-					if( !satAlreadyAdded((TLE)chosen)) {
-						addToChosen((TLE)chosen);				
+					TLE chosen = lmSatChoices.getTLE(selected[i]);
+					if( !satAlreadyAdded(chosen)) {
+						addToChosen(chosen);				
 						lmSatChosen.addElement(chosen);
 					}
 				}
 				
-				//remove added Satellites from SatChoice (in reverse order to not to cause index shifting)
-				for(int i=0; i< len; i++)
-					lmSatChoices.remove(selected[len-1-i]);
+				//remove added Satellites from SatChoice
+				lmSatChoices.removeAll(selected);
 				
 				if(lmSatChoices.isEmpty()) {
 					jbAddSat.setEnabled(false);
@@ -383,12 +397,13 @@ public class SatelliteWizard extends CreateWizardUI {
 			public void actionPerformed(ActionEvent e) {
 				int size = lmSatChoices.getSize();
 				for(int i=0; i< size; i++) {
-					if( !satAlreadyAdded((TLE)lmSatChoices.get(0))) {
-						addToChosen((TLE)lmSatChoices.get(0));
-						lmSatChosen.addElement(lmSatChoices.get(0));
+					TLE chosen = lmSatChoices.getTLE(i);
+					if( !satAlreadyAdded(chosen)) {
+						addToChosen(chosen);
+						lmSatChosen.addElement(chosen);
 					}
-					lmSatChoices.remove(0);
 				}
+				lmSatChoices.clear();
 				
 				jbAddSat.setEnabled(false);
 				jbAddAllSat.setEnabled(false);
@@ -502,6 +517,7 @@ public class SatelliteWizard extends CreateWizardUI {
 		jlSatChoices = new JList(lmSatChoices);
 		jlSatChoices.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 		jlSatChoices.setCellRenderer(new TLEListRenderer());
+		jlSatChoices.setPrototypeCellValue(PROTOTYPE_TLE); //so the list only reads the rows it displays
 		jscrlpSatChoices = new JScrollPane(jlSatChoices);
 	    
 		jlSatChosen = new JList(lmSatChosen);
@@ -632,71 +648,84 @@ public class SatelliteWizard extends CreateWizardUI {
 	 * 
 	 * Precondition: the list model containing the chosen satellites to create (lmSatChosen) is not empty
 	 * 
-	 * An example: if the user decided to create only one satellite (the International Space Station), at the
-	 * completion of this method, the following is stored in MCT (with their associated classes in parenthesis)
-	 *        
-	 *          ISS                 (This is a SatelliteComponet)
-	 *            Position             (This is a VectorComponent)
-	 *                x                     (This is a CoordinateComponent)
-	 *                y                     (This is a CoordinateComponent)
-	 *                z                     (This is a CoordinateComponent)
-	 *            Velocity          (This is a VectorComponent)
-	 *                x                  (This is a CoordinateComponent)
-	 *                y                  (This is a CoordinateComponent)
-	 *                z                  (This is a CoordinateComponent)
+	 * The satellites (and the collection, if one is to be made) are created by a SatelliteCreationWorker,
+	 * off the EDT, and saved together with a single update to their parent, while a progress monitor is
+	 * shown; so nothing is saved if the user cancels.  Nothing exists yet when this method returns, so it
+	 * returns null; the collection, if any, is opened once it has been saved.  See SatelliteCreationWorker
+	 * for what is created for each satellite.
 	 */
 	@Override
 	public AbstractComponent createComp(ComponentRegistry registry,
 			AbstractComponent parentComp) {
 
-		//all satellites will have this as their parent; root may either be a collection (if selected) or will be
-		//whatever component the user is creating from; e.g., they right-clicked 'MySandbox' and chose to create
-		//a satellite.
-		AbstractComponent rootComponent;
-		
-		//determine whether or not we need to make a collection.
+		//determine whether or not we need to make a collection; it is saved by the worker, with the satellites.
+		//otherwise, the satellites are added to whatever component the user is creating from; e.g., they 
+		//right-clicked 'MySandbox' and chose to create a satellite.
+		final AbstractComponent collection;
 		if(jchkbMakeCollection.isSelected()) {
-			rootComponent = registry.newInstance(registry.newInstance("gov.nasa.arc.mct.components.collection.CollectionComponent").getClass(), parentComp);
-			rootComponent.setDisplayName(jtfCollectionName.getText());
-			rootComponent.save();
+			collection = registry.newInstance("gov.nasa.arc.mct.components.collection.CollectionComponent");
+			collection.setDisplayName(jtfCollectionName.getText());
 		}
 		else
-			rootComponent = parentComp;
+			collection = null;
 
 		
 		int createSize = lmSatChosen.getSize();
+		List<TLE> tles = new ArrayList<TLE>(createSize);
+		for(int i=0; i<createSize; i++) {
+			tles.add((TLE)lmSatChosen.get(i));
+		}
 
 		//here we are creating new instances of mct objects and adding them the the parent component (which may be a collection or the
 		//given parentComp--an example of this is if the user right-clicked 'MySandbox')
-		for(int i=0; i<createSize; i++) {
-			SatelliteComponent satComponent = registry.newInstance(SatelliteComponent.class, rootComponent);
-			TLE currentTLE = (TLE)lmSatChosen.get(i);
-			satComponent.setDisplayName(currentTLE.getSatName());
-			satComponent.setOrbitalParameters(currentTLE);
-			satComponent.save();
+		final SatelliteCreationWorker worker = new SatelliteCreationWorker(registry, parentComp, collection, tles);
+		//the wizard is closed once this method returns, so the monitor has no parent
+		final ProgressMonitor monitor = new ProgressMonitor(null, 
+				"Creating " + createSize + (createSize == 1 ? " satellite" : " satellites"), "", 0, 100);
+		
+		monitor.setMillisToDecideToPopup(200);
+		monitor.setMillisToPopup(750);
+		
+		worker.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				if (worker.isDone() && evt.getPropertyName().equals("state")) {
+					monitor.close();
+					notifyComplete(worker, collection);
+				} else if (monitor.isCanceled()) {
+					worker.cancel(true);
+				} else {
+					monitor.setProgress(worker.getProgress());
+				} 
+			}			
+		});
+		
+		worker.execute();
 
-			//the following makes the position and velocity components where the SatelliteComponent is their parent
-			boolean[] truths   = { false,   true };
-			String[]  axisName = { "X", "Y", "Z" };
-			for (boolean velocity : truths) {
-				String name = velocity ? "Velocity (in m/s)" : "Position (in ECEF)";
-				
-				VectorComponent vectorComponent = registry.newInstance(VectorComponent.class, satComponent);
-				vectorComponent.setDisplayName( name );
-				vectorComponent.save();
-				
-				//make x, y, z components, where position/velocity is their parent
-				for (int axis = 0; axis < 3; axis++) {
-					CoordinateComponent coordinateComponent = registry.newInstance(CoordinateComponent.class, vectorComponent);
-					coordinateComponent.setDisplayName(name + " " + axisName[axis]);
-					coordinateComponent.setModel(new CoordinateModel(axis, velocity, satComponent.getComponentId(), currentTLE));
-					coordinateComponent.save();
-				}
+		return null;
+        
+	}
+	
+	/*
+	 * Opens the saved collection, if one was made; or tells the user if the satellites could not be
+	 * created, in which case nothing is saved
+	 */
+	private void notifyComplete(SatelliteCreationWorker worker, AbstractComponent collection) {
+		if (worker.isCancelled()) {
+			return;
+		}
+		try {
+			if (!worker.get().isEmpty() && collection != null) {
+				collection.open();
 			}
+		} catch (InterruptedException e) {
+			// Should not occur - already checked isDone
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			JOptionPane.showMessageDialog(null, 
+					"The satellites could not be created." + (cause.getMessage() != null ? "\n" + cause.getMessage() : ""), 
+					"Satellite Creation Error", JOptionPane.ERROR_MESSAGE);
 		}
-
-		return rootComponent;
-        
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.satellite.wizard;
+
+import gov.nasa.arc.mct.satellite.utilities.TLECatalog;
+
+import javax.swing.AbstractListModel;
+
+import jsattrak.utilities.TLE;
+
+/*
+ * The list model of the satellites the user can choose from, in the satellite wizard.  The model
+ * reads its satellites lazily from a TLECatalog: a TLE object is only created for a row when the
+ * list asks for it (for the rows it displays) or when the user adds it, so opening a group of tens
+ * of thousands of satellites costs no more than opening a small one.  Rows removed from the model
+ * are tracked as positions in the catalog.
+ * 
+ * The list should have a prototype cell value, so that it does not visit every row to size itself.
+ */
+@SuppressWarnings("serial")
+class TLEChoiceListModel extends AbstractListModel {
+	
+	private TLECatalog catalog = null;
+	private int[] rows = null; // positions in the catalog, once rows have been removed
+	private int size = 0;
+	
+	/**
+	 * Shows all the satellites of a catalog, in order.
+	 * @param catalog the catalog; null to show nothing
+	 */
+	public void setCatalog(TLECatalog catalog) {
+		clear();
+		this.catalog = catalog;
+		this.rows = null;
+		this.size = catalog != null ? catalog.size() : 0;
+		if (size > 0) {
+			fireIntervalAdded(this, 0, size - 1);
+		}
+	}
+	
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public Object getElementAt(int index) {
+		return getTLE(index);
+	}
+	
+	/**
+	 * @param index a row of the list
+	 * @return a new TLE object for the row
+	 */
+	public TLE getTLE(int index) {
+		if (index < 0 || index >= size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return catalog.getTLE(rows != null ? rows[index] : index);
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Removes rows from the list.
+	 * @param indices the rows to remove, in increasing order (as given by JList.getSelectedIndices)
+	 */
+	public void removeAll(int[] indices) {
+		if (indices.length == 0) {
+			return;
+		}
+		if (rows == null) {
+			rows = new int[size];
+			for (int i = 0; i < size; i++) {
+				rows[i] = i;
+			}
+		}
+		int kept = indices[0];
+		for (int i = 0; i < indices.length; i++) {
+			int end = i + 1 < indices.length ? indices[i + 1] : size;
+			int count = end - indices[i] - 1;
+			System.arraycopy(rows, indices[i] + 1, rows, kept, count);
+			kept += count;
+		}
+		size = kept;
+		
+		// Report the removals from the last to the first, so that each one is against the rows left by the previous ones
+		for (int i = indices.length - 1; i >= 0; ) {
+			int last = indices[i];
+			while (i > 0 && indices[i - 1] == indices[i] - 1) {
+				i--;
+			}
+			fireIntervalRemoved(this, indices[i], last);
+			i--;
+		}
+	}
+	
+	/**
+	 * Removes all the rows from the list.
+	 */
+	public void clear() {
+		int removed = size;
+		size = 0;
+		rows = null;
+		if (removed > 0) {
+			fireIntervalRemoved(this, 0, removed - 1);
+		}
+	}
+}
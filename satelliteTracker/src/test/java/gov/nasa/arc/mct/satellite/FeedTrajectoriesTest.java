@@ -0,0 +1,146 @@
+package gov.nasa.arc.mct.satellite;
+
+import gov.nasa.arc.mct.components.FeedProvider;
+import gov.nasa.arc.mct.satellite.component.CoordinateComponent;
+import gov.nasa.arc.mct.satellite.component.SatelliteDataProvider;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FeedTrajectoriesTest {
+	private static final String NAME = "ISS (ZARYA)";
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 %8.4f 0004476  12.3451 %8.4f 15.50589082846053";
+	private static final String[] KEYS = { "vz", "pz", "vx", "px", "py", "vy" }; // as any order of the components
+	private static final long START = 1377700000000L;
+	
+	private static final int SATELLITES = 500;
+	private static final int FRAMES = 60;
+	
+	private static String feedID(int satellite, String key) {
+		String line2 = String.format(Locale.US, LINE2, 360.0 * satellite / SATELLITES, (7.0 * satellite) % 360);
+		return CoordinateComponent.FEED_KEY_ID + ":" + NAME + " " + satellite + CoordinateComponent.FEED_SEPERATOR
+				+ LINE1 + CoordinateComponent.FEED_SEPERATOR
+				+ line2 + CoordinateComponent.FEED_SEPERATOR + key;
+	}
+	
+	private static List<String> satellite(int satellite) {
+		List<String> feeds = new ArrayList<String>();
+		for (String key : KEYS) {
+			feeds.add(feedID(satellite, key));
+		}
+		return feeds;
+	}
+	
+	private static Map<String, List<Map<String, String>>> point(String id, String value) {
+		Map<String, String> point = new HashMap<String, String>();
+		point.put(FeedProvider.NORMALIZED_VALUE_KEY, value);
+		return Collections.singletonMap(id, Collections.singletonList(point));
+	}
+	
+	@Test
+	public void testGroupsBySatellite() {
+		FeedTrajectories feeds = new FeedTrajectories();
+		Trajectory trajectory = feeds.addSubscriptions(satellite(0));
+		Assert.assertNotNull(trajectory);
+		Assert.assertEquals(feeds.getSubscriptionIds().size(), 3); // the position feeds only
+		
+		// The same satellite, found under another object, is drawn once
+		List<String> both = new ArrayList<String>(satellite(0));
+		both.addAll(satellite(1));
+		Assert.assertNull(feeds.addSubscriptions(both));
+		Assert.assertNotNull(feeds.addSubscriptions(satellite(1)));
+		Assert.assertEquals(feeds.size(), 2);
+		
+		feeds.update(point(feedID(0, "pz"), "3"));
+		feeds.update(point(feedID(0, "px"), "1"));
+		feeds.update(point(feedID(0, "py"), "2"));
+		feeds.update(point(feedID(0, "vx"), "4"));
+		Assert.assertEquals(trajectory.getPosition(), new Vector(1, 2, 3));
+	}
+	
+	@Test
+	public void testOtherFeeds() {
+		FeedTrajectories feeds = new FeedTrajectories();
+		Assert.assertNull(feeds.addSubscriptions(Arrays.asList("a", "b")));
+		Trajectory trajectory = feeds.addSubscriptions(Arrays.asList("c", "d", "e", "f"));
+		Assert.assertNotNull(trajectory);
+		Assert.assertEquals(new HashSet<String>(feeds.getSubscriptionIds()), new HashSet<String>(Arrays.asList("c", "d", "e")));
+		
+		Assert.assertTrue(feeds.update(point("e", "3")));
+		Assert.assertFalse(feeds.update(point("e", "3")));      // not moved
+		Assert.assertFalse(feeds.update(point("d", "invalid")));
+		Assert.assertFalse(feeds.update(point("f", "4")));
+		Assert.assertEquals(trajectory.getPosition(), new Vector(0, 0, 3));
+	}
+	
+	/*
+	 * A constellation of 500 satellites, on the local satellite data provider, updated and drawn once a 
+	 * second for a minute
+	 */
+	@Test
+	public void testConstellation() {
+		FeedTrajectories feeds = new FeedTrajectories();
+		Map<JComponent, Trajectory> trajectories = new LinkedHashMap<JComponent, Trajectory>();
+		for (int s = 0; s < SATELLITES; s++) {
+			trajectories.put(new JLabel(NAME + " " + s), feeds.addSubscriptions(satellite(s)));
+		}
+		Assert.assertEquals(feeds.size(), SATELLITES);
+		Assert.assertFalse(trajectories.containsValue(null));
+		Set<String> ids = new HashSet<String>(feeds.getSubscriptionIds());
+		Assert.assertEquals(ids.size(), 3 * SATELLITES);
+		
+		MercatorPanel panel = new MercatorPanel(trajectories);
+		panel.setSize(1920, 1080);
+		BufferedImage screen = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = screen.createGraphics();
+		SatelliteDataProvider provider = new SatelliteDataProvider(null); // every state propagated
+		
+		for (int frame = 0; frame < FRAMES; frame++) {
+			long time = START + frame * 1000L;
+			Map<String, SortedMap<Long, Map<String, String>>> data = 
+					provider.getData(ids, time, time + 1000L, TimeUnit.MILLISECONDS);
+			Map<String, List<Map<String, String>>> points = new HashMap<String, List<Map<String, String>>>();
+			for (Entry<String, SortedMap<Long, Map<String, String>>> entry : data.entrySet()) {
+				points.put(entry.getKey(), new ArrayList<Map<String, String>>(entry.getValue().values()));
+			}
+			Assert.assertTrue(feeds.update(points));
+			panel.paint(g);
+			
+			int s = frame * SATELLITES / FRAMES;
+			Vector position = trajectories.get(trajectories.keySet().toArray()[s]).getPosition();
+			Assert.assertEquals(position.getX(), value(points, feedID(s, "px")));
+			Assert.assertEquals(position.getY(), value(points, feedID(s, "py")));
+			Assert.assertEquals(position.getZ(), value(points, feedID(s, "pz")));
+		}
+		g.dispose();
+		
+		for (JComponent label : trajectories.keySet()) {
+			Assert.assertTrue(label.getX() >= -10 && label.getX() <= 1920, label.getName() + " " + label.getX());
+			Assert.assertTrue(label.getY() >= -10 && label.getY() <= 1080, label.getName() + " " + label.getY());
+		}
+	}
+	
+	private static double value(Map<String, List<Map<String, String>>> points, String id) {
+		return Double.parseDouble(points.get(id).get(0).get(FeedProvider.NORMALIZED_VALUE_KEY));
+	}
+}
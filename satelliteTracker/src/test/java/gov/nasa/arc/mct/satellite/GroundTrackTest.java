@@ -0,0 +1,75 @@
+package gov.nasa.arc.mct.satellite;
+
+import gov.nasa.arc.mct.satellite.utilities.ConvertECEFtoLLA;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GroundTrackTest {
+	private static final double RADIUS = 6778.0;
+	
+	/* A position on the equator at the given longitude */
+	private static Vector equator(double longitude) {
+		double l = Math.toRadians(longitude);
+		return new Vector(RADIUS * Math.cos(l), RADIUS * Math.sin(l), 0);
+	}
+	
+	@Test
+	public void testAppend() {
+		GroundTrack track = new GroundTrack(4, new ConvertECEFtoLLA());
+		track.append(new Vector(0, 0, 0)); // no data yet
+		Assert.assertEquals(track.size(), 0);
+		
+		track.append(equator(0));
+		track.append(equator(0)); // repeated
+		Assert.assertEquals(track.size(), 1);
+		
+		for (int i = 1; i <= 5; i++) {
+			track.append(equator(i * 10));
+		}
+		Assert.assertEquals(track.size(), 4);
+		track.project(360, 180);
+		Assert.assertTrue(Math.abs(track.getLastX() - (180 + 50)) <= 1);
+		Assert.assertEquals(track.getLastY(), 90);
+	}
+	
+	@Test
+	public void testProjection() {
+		GroundTrack track = new GroundTrack(3, new ConvertECEFtoLLA());
+		track.append(equator(-90));
+		track.project(360, 180);
+		Assert.assertEquals(track.getLastX(), 90);
+		
+		// Only new positions are projected at the same size; a new size projects them all
+		track.append(equator(90));
+		track.project(360, 180);
+		Assert.assertEquals(track.getLastX(), 270);
+		track.project(720, 360);
+		Assert.assertEquals(track.getLastX(), 540);
+		Assert.assertEquals(track.getLastY(), 180);
+	}
+	
+	@Test
+	public void testWrap() {
+		GroundTrack track = new GroundTrack(10, new ConvertECEFtoLLA());
+		for (double longitude : new double[] { 179, 179.9, -179.9, -179 }) {
+			track.append(equator(longitude));
+		}
+		track.project(360, 180);
+		
+		BufferedImage image = new BufferedImage(360, 180, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(Color.WHITE);
+		track.draw(g, 6);
+		g.dispose();
+		
+		// Both ends are drawn, but not the line across the map
+		Assert.assertEquals(image.getRGB(359, 90), Color.WHITE.getRGB());
+		Assert.assertEquals(image.getRGB(0, 90), Color.WHITE.getRGB());
+		Assert.assertEquals(image.getRGB(180, 90), Color.BLACK.getRGB());
+	}
+}
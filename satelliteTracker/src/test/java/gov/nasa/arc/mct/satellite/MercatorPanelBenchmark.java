@@ -0,0 +1,110 @@
+package gov.nasa.arc.mct.satellite;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+
+/**
+ * Measures the time MercatorPanel takes to paint a frame, with 3 and 100 
+ * ground tracks whose histories are full, at 1080p and 4K: when each 
+ * frame brings a new position for every track (as a feed-driven view 
+ * does), and when it brings none (as when the panel is repainted for 
+ * any other reason). Satellites fly circular orbits of different 
+ * inclinations. Not run as part of the test suite; run the main method 
+ * with the test classpath (-Djava.awt.headless=true works):
+ * 
+ * <pre>
+ * MercatorPanelBenchmark [width height [tracks...]]
+ * </pre>
+ */
+public class MercatorPanelBenchmark {
+	private static final double RADIUS = 6778.0; // km
+	private static final int WARM_UP = 1200;     // frames; more than a full history
+	private static final int FRAMES = 300;
+	
+	public static void main(String[] args) {
+		int[][] sizes = { { 1920, 1080 }, { 3840, 2160 } };
+		if (args.length > 1) {
+			sizes = new int[][] { { Integer.parseInt(args[0]), Integer.parseInt(args[1]) } };
+		}
+		int[] counts = { 3, 100 };
+		if (args.length > 2) {
+			counts = new int[args.length - 2];
+			for (int i = 2; i < args.length; i++) {
+				counts[i - 2] = Integer.parseInt(args[i]);
+			}
+		}
+		for (int[] size : sizes) {
+			measure(size[0], size[1], counts);
+		}
+	}
+	
+	private static void measure(int width, int height, int[] counts) {
+		BufferedImage screen = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		System.out.println(String.format("%d x %d panel", width, height));
+		for (int count : counts) {
+			Orbit[] orbits = new Orbit[count];
+			Map<JComponent, Trajectory> trajectories = new HashMap<JComponent, Trajectory>();
+			for (int i = 0; i < count; i++) {
+				orbits[i] = new Orbit(Math.toRadians(10 + 80.0 * i / count), 2 * Math.PI * i / count);
+				trajectories.put(new JLabel("SAT " + i), orbits[i]);
+			}
+			MercatorPanel panel = new MercatorPanel(trajectories);
+			panel.setSize(width, height);
+			
+			Graphics2D g = screen.createGraphics();
+			for (int frame = 0; frame < WARM_UP; frame++) {
+				paint(panel, orbits, frame, g);
+			}
+			long start = System.nanoTime();
+			for (int frame = WARM_UP; frame < WARM_UP + FRAMES; frame++) {
+				paint(panel, orbits, frame, g);
+			}
+			long moving = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int frame = 0; frame < FRAMES; frame++) {
+				paint(panel, orbits, WARM_UP + FRAMES, g);
+			}
+			long still = System.nanoTime() - start;
+			g.dispose();
+			System.out.println(String.format(Locale.US, "%4d tracks %8.2f ms/frame with new data %8.2f ms/frame without", 
+					count, moving / 1e6 / FRAMES, still / 1e6 / FRAMES));
+		}
+	}
+	
+	private static void paint(MercatorPanel panel, Orbit[] orbits, int frame, Graphics2D g) {
+		for (Orbit orbit : orbits) {
+			orbit.frame = frame;
+		}
+		panel.paintComponent(g);
+	}
+	
+	/* A circular orbit, a hundredth of a radian further along at each frame */
+	private static class Orbit implements Trajectory {
+		private final double inclination;
+		private final double phase;
+		private int frame = 0;
+		
+		Orbit(double inclination, double phase) {
+			this.inclination = inclination;
+			this.phase = phase;
+		}
+		
+		@Override
+		public Vector getPosition() {
+			double angle = phase + frame * 0.01;
+			double inPlane = RADIUS * Math.sin(angle);
+			return new Vector(RADIUS * Math.cos(angle), inPlane * Math.cos(inclination), inPlane * Math.sin(inclination));
+		}
+
+		@Override
+		public Vector getVelocity() {
+			return new Vector(0, 0, 0);
+		}
+	}
+}
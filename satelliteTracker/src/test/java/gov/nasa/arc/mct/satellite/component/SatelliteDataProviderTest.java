@@ -0,0 +1,196 @@
+package gov.nasa.arc.mct.satellite.component;
+
+import gov.nasa.arc.mct.components.FeedProvider;
+import gov.nasa.arc.mct.satellite.utilities.EphemerisStore;
+import gov.nasa.arc.mct.satellite.utilities.EphemerisTable;
+import gov.nasa.arc.mct.satellite.utilities.SatTrak;
+import gov.nasa.arc.mct.satellite.utilities.SatelliteElements;
+import gov.nasa.arc.mct.satellite.utilities.SatelliteState;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SatelliteDataProviderTest {
+	private static final String ISS_NAME = "ISS (ZARYA)";
+	private static final String ISS_LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String ISS_LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	
+	private static final String HST_NAME = "HST";
+	private static final String HST_LINE1 = "1 20580U 90037B   13240.85216421  .00001025  00000-0  64767-4 0  2427";
+	private static final String HST_LINE2 = "2 20580  28.4687 321.0457 0003272 232.9213 263.4568 15.03139802 69428";
+	
+	private static final String[] KEYS = { "px", "py", "pz", "vx", "vy", "vz" };
+	
+	private static final long START = 1377700000000L;
+	private static final long END   = START + 10000L; // ten time stamps, one per second
+	
+	private SatelliteDataProvider provider;
+	
+	@BeforeMethod
+	public void setup() {
+		// Without ephemeris tables, every state is propagated, so propagations can be counted
+		provider = new SatelliteDataProvider(null);
+	}
+	
+	private static String feedID(String name, String line1, String line2, String key) {
+		return CoordinateComponent.FEED_KEY_ID + ":" + name + CoordinateComponent.FEED_SEPERATOR
+				+ line1 + CoordinateComponent.FEED_SEPERATOR
+				+ line2 + CoordinateComponent.FEED_SEPERATOR + key;
+	}
+	
+	private static Set<String> feeds(String name, String line1, String line2) {
+		Set<String> feeds = new HashSet<String>();
+		for (String key : KEYS) {
+			feeds.add(feedID(name, line1, line2, key));
+		}
+		return feeds;
+	}
+	
+	@Test
+	public void testOnePropagationPerTime() {
+		long before = SatTrak.getPropagationCount();
+		Map<String, SortedMap<Long, Map<String, String>>> data = 
+				provider.getData(feeds(ISS_NAME, ISS_LINE1, ISS_LINE2), START, END, TimeUnit.MILLISECONDS);
+		Assert.assertEquals(data.size(), KEYS.length);
+		for (SortedMap<Long, Map<String, String>> feed : data.values()) {
+			Assert.assertEquals(feed.size(), 10);
+		}
+		Assert.assertEquals(SatTrak.getPropagationCount() - before, 10);
+	}
+	
+	@Test
+	public void testPropagationsSharedAcrossCalls() {
+		provider.getData(feeds(ISS_NAME, ISS_LINE1, ISS_LINE2), START, END, TimeUnit.MILLISECONDS);
+		
+		// Feeds requested separately (as by different views) reuse the same states
+		long before = SatTrak.getPropagationCount();
+		for (String key : KEYS) {
+			Set<String> feed = new HashSet<String>();
+			feed.add(feedID(ISS_NAME, ISS_LINE1, ISS_LINE2, key));
+			Assert.assertEquals(provider.getData(feed, START, END, TimeUnit.MILLISECONDS).size(), 1);
+		}
+		Assert.assertEquals(SatTrak.getPropagationCount() - before, 0);
+	}
+	
+	@Test
+	public void testOnePropagationPerSatellite() {
+		Set<String> feeds = feeds(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		feeds.addAll(feeds(HST_NAME, HST_LINE1, HST_LINE2));
+		long before = SatTrak.getPropagationCount();
+		Assert.assertEquals(provider.getData(feeds, START, END, TimeUnit.MILLISECONDS).size(), 2 * KEYS.length);
+		Assert.assertEquals(SatTrak.getPropagationCount() - before, 20);
+	}
+	
+	@Test
+	public void testElementsSharedAcrossThreads() throws Exception {
+		final Set<String> feeds = feeds(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		provider.getData(feeds, START, END, TimeUnit.MILLISECONDS);
+		
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			final long start = START + (i + 1) * 60000L;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					provider.getData(feeds, start, start + 10000L, TimeUnit.MILLISECONDS);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		// SGP4 is initialized once, however many threads ask for the satellite
+		Assert.assertEquals(provider.getElementsCache().getMissCount(), 1);
+		Assert.assertEquals(provider.getElementsCache().getHitCount(), threads.length);
+		Assert.assertEquals(provider.getElementsCache().size(), 1);
+	}
+	
+	@Test
+	public void testInvalidTLE() {
+		Set<String> feeds = feeds(ISS_NAME, ISS_LINE1, "2 25544  not a TLE");
+		feeds.addAll(feeds(HST_NAME, HST_LINE1, HST_LINE2));
+		Assert.assertEquals(provider.getData(feeds, START, END, TimeUnit.MILLISECONDS).size(), KEYS.length);
+	}
+	
+	@Test
+	public void testBatch() {
+		Set<String> feeds = feeds(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		feeds.addAll(feeds(HST_NAME, HST_LINE1, HST_LINE2));
+		long end = START + SatelliteDataProvider.BATCH_THRESHOLD * 1000L / 2;
+		Map<String, SortedMap<Long, Map<String, String>>> data = 
+				provider.getData(feeds, START, end, TimeUnit.MILLISECONDS);
+		Assert.assertEquals(data.size(), 2 * KEYS.length);
+		
+		SatTrak sat = new SatTrak(HST_NAME, HST_LINE1, HST_LINE2);
+		for (long time = START; time < end; time += 997000) {
+			double[] velocity = sat.getTEMEvelocity(time);
+			Assert.assertEquals(Double.parseDouble(data.get(feedID(HST_NAME, HST_LINE1, HST_LINE2, "pz")).get(time)
+					.get(FeedProvider.NORMALIZED_VALUE_KEY)), sat.getECEFz(time), 1e-9);
+			Assert.assertEquals(Double.parseDouble(data.get(feedID(HST_NAME, HST_LINE1, HST_LINE2, "vx")).get(time)
+					.get(FeedProvider.NORMALIZED_VALUE_KEY)), velocity[0], 1e-9);
+		}
+		for (SortedMap<Long, Map<String, String>> feed : data.values()) {
+			Assert.assertEquals(feed.size(), SatelliteDataProvider.BATCH_THRESHOLD / 2);
+			Assert.assertEquals(feed.lastKey().longValue(), end - 1000);
+		}
+	}
+	
+	@Test
+	public void testEphemeris() throws Exception {
+		EphemerisStore ephemerides = new EphemerisStore(4, EphemerisTable.DEFAULT_STEP);
+		provider = new SatelliteDataProvider(ephemerides);
+		try {
+			Set<String> feeds = feeds(ISS_NAME, ISS_LINE1, ISS_LINE2);
+			provider.getData(feeds, START, END, TimeUnit.MILLISECONDS);
+			
+			// The first request schedules the table of the day
+			SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+			ephemerides.precompute(ISS_LINE1 + CoordinateComponent.FEED_SEPERATOR + ISS_LINE2, elements, START).get();
+			Assert.assertEquals(ephemerides.size(), 1);
+			
+			// Later requests in the same day are interpolated from the table, without SGP4
+			long start = START + 3600 * 1000L;
+			long before = SatTrak.getPropagationCount();
+			Map<String, SortedMap<Long, Map<String, String>>> data = 
+					provider.getData(feeds, start, start + 600 * 1000L, TimeUnit.MILLISECONDS);
+			Assert.assertEquals(SatTrak.getPropagationCount() - before, 0);
+			
+			SatTrak sat = new SatTrak(elements);
+			for (long time = start; time < start + 600 * 1000L; time += 7000) {
+				SatelliteState state = sat.propagate(time);
+				Assert.assertEquals(Double.parseDouble(data.get(feedID(ISS_NAME, ISS_LINE1, ISS_LINE2, "px")).get(time)
+						.get(FeedProvider.NORMALIZED_VALUE_KEY)), state.getECEFx(), 1e-3); // one meter
+				Assert.assertEquals(Double.parseDouble(data.get(feedID(ISS_NAME, ISS_LINE1, ISS_LINE2, "vy")).get(time)
+						.get(FeedProvider.NORMALIZED_VALUE_KEY)), state.getTEMEvy(), 0.005);
+			}
+		} finally {
+			ephemerides.shutdown();
+		}
+	}
+	
+	@Test
+	public void testValues() {
+		Map<String, SortedMap<Long, Map<String, String>>> data = 
+				provider.getData(feeds(ISS_NAME, ISS_LINE1, ISS_LINE2), START, END, TimeUnit.MILLISECONDS);
+		SatTrak sat = new SatTrak(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		for (long time = START; time < END; time += 1000) {
+			double[] velocity = sat.getTEMEvelocity(time);
+			double[] expected = { sat.getECEFx(time), sat.getECEFy(time), sat.getECEFz(time),
+					velocity[0], velocity[1], velocity[2] };
+			for (int i = 0; i < KEYS.length; i++) {
+				Map<String, String> item = data.get(feedID(ISS_NAME, ISS_LINE1, ISS_LINE2, KEYS[i])).get(time);
+				Assert.assertEquals(Double.parseDouble(item.get(FeedProvider.NORMALIZED_VALUE_KEY)), expected[i], 1e-9);
+				Assert.assertEquals(item.get(FeedProvider.NORMALIZED_TIME_KEY), Long.toString(time));
+			}
+		}
+	}
+}
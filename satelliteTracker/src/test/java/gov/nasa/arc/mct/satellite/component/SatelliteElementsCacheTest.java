@@ -0,0 +1,45 @@
+package gov.nasa.arc.mct.satellite.component;
+
+import gov.nasa.arc.mct.satellite.utilities.SatelliteElements;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SatelliteElementsCacheTest {
+	private static final String NAME = "ISS (ZARYA)";
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	
+	private static String line2(int revolution) {
+		// A different TLE for the same satellite
+		return LINE2.substring(0, LINE2.length() - 6) + (84605 + revolution) + "3";
+	}
+	
+	@Test
+	public void testCounters() {
+		SatelliteElementsCache cache = new SatelliteElementsCache(2);
+		SatelliteElements first = cache.get("a", NAME, LINE1, line2(0));
+		Assert.assertSame(cache.get("a", NAME, LINE1, line2(0)), first);
+		Assert.assertEquals(cache.getHitCount(), 1);
+		Assert.assertEquals(cache.getMissCount(), 1);
+		Assert.assertEquals(cache.getEvictionCount(), 0);
+		
+		cache.get("b", NAME, LINE1, line2(1));
+		cache.get("a", NAME, LINE1, line2(0)); // a is now the most recently used
+		cache.get("c", NAME, LINE1, line2(2)); // evicts b
+		Assert.assertEquals(cache.size(), 2);
+		Assert.assertEquals(cache.getHitCount(), 2);
+		Assert.assertEquals(cache.getMissCount(), 3);
+		Assert.assertEquals(cache.getEvictionCount(), 1);
+		
+		Assert.assertSame(cache.get("a", NAME, LINE1, line2(0)), first);
+		cache.get("b", NAME, LINE1, line2(1));
+		Assert.assertEquals(cache.getMissCount(), 4);
+		Assert.assertEquals(cache.getEvictionCount(), 2);
+	}
+	
+	@Test (expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidTLE() {
+		new SatelliteElementsCache(2).get("x", NAME, LINE1, "2 25544  not a TLE");
+	}
+}
@@ -0,0 +1,51 @@
+package gov.nasa.arc.mct.satellite.component;
+
+import gov.nasa.arc.mct.satellite.component.SatelliteFeedRegistry.Feed;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SatelliteFeedRegistryTest {
+	private static final String NAME = "ISS (ZARYA)";
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+
+	private static String feedID(String line2, String key) {
+		return CoordinateComponent.FEED_KEY_ID + ":" + NAME + CoordinateComponent.FEED_SEPERATOR
+				+ LINE1 + CoordinateComponent.FEED_SEPERATOR
+				+ line2 + CoordinateComponent.FEED_SEPERATOR + key;
+	}
+
+	@Test
+	public void testParse() {
+		SatelliteFeedRegistry registry = new SatelliteFeedRegistry();
+		Feed feed = registry.get(feedID(LINE2, "vy"));
+		Assert.assertEquals(feed.getParameter(), SatelliteParameter.VY);
+		Assert.assertEquals(feed.getSatellite().getName(), NAME);
+		Assert.assertEquals(feed.getSatellite().getLine1(), LINE1);
+		Assert.assertEquals(feed.getSatellite().getLine2(), LINE2);
+		Assert.assertEquals(feed.getSatellite().getCatalogNumber(), "25544");
+	}
+
+	@Test
+	public void testInterned() {
+		SatelliteFeedRegistry registry = new SatelliteFeedRegistry();
+		Feed px = registry.get(feedID(LINE2, "px"));
+		Assert.assertSame(registry.get(new String(feedID(LINE2, "px"))), px);
+		Assert.assertSame(registry.get(feedID(LINE2, "vz")).getSatellite(), px.getSatellite());
+		Assert.assertEquals(registry.size(), 2);
+
+		// An updated TLE is a different satellite
+		String updated = LINE2.replace("15.50589082846053", "15.50589082846064");
+		Assert.assertNotSame(registry.get(feedID(updated, "px")).getSatellite(), px.getSatellite());
+	}
+
+	@Test
+	public void testNotSatelliteFeeds() {
+		SatelliteFeedRegistry registry = new SatelliteFeedRegistry();
+		Assert.assertNull(registry.get("PUI1234"));
+		Assert.assertNull(registry.get(CoordinateComponent.FEED_KEY_ID + ":" + NAME + CoordinateComponent.FEED_SEPERATOR + LINE1));
+		Assert.assertNull(registry.get(feedID(LINE2, "qx")));
+		Assert.assertEquals(registry.size(), 0);
+	}
+}
@@ -0,0 +1,79 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.Locale;
+
+/**
+ * Measures how batch propagation scales with the number of satellites, 
+ * over one day at 1 s resolution, on one thread and on one thread per 
+ * processor. Satellites are made by spreading copies of the ISS TLE over 
+ * the orbital plane. To bound memory, only the ECEF position is kept, and 
+ * constellations larger than 100 satellites are propagated as batches of 
+ * 100 satellites. Not run as part of the test suite; run the main method 
+ * with the test classpath:
+ * 
+ * <pre>
+ * BatchPropagatorBenchmark [seconds] [satellites...]
+ * </pre>
+ */
+public class BatchPropagatorBenchmark {
+	private static final String NAME = "ISS (ZARYA)";
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 %8.4f 15.50589082846053";
+	private static final long START = 1377700000000L;
+	private static final int GROUP = 100;
+	
+	public static void main(String[] args) throws Exception {
+		long seconds = args.length > 0 ? Long.parseLong(args[0]) : 86400;
+		int[] counts = { 1, 10, 100, 1000 };
+		if (args.length > 1) {
+			counts = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++) {
+				counts[i - 1] = Integer.parseInt(args[i]);
+			}
+		}
+		boolean[] elements = new boolean[PropagationBatch.ELEMENT_COUNT];
+		elements[PropagationBatch.ECEF_X] = elements[PropagationBatch.ECEF_Y] = elements[PropagationBatch.ECEF_Z] = true;
+		
+		BatchPropagator serial = new BatchPropagator(1);
+		BatchPropagator parallel = new BatchPropagator();
+		
+		// Warm up before measuring
+		measure(serial, satellites(10), 3600, elements);
+		measure(parallel, satellites(10), 3600, elements);
+		
+		System.out.println(String.format("%d processors, %d s per satellite", parallel.getThreadCount(), seconds));
+		for (int count : counts) {
+			SatelliteElements[] satellites = satellites(count);
+			long serialNanos = measure(serial, satellites, seconds, elements);
+			long parallelNanos = measure(parallel, satellites, seconds, elements);
+			double states = (double) count * seconds;
+			System.out.println(String.format(Locale.US, 
+					"%5d satellites %12.0f states  1 thread %9.1f ms %6.2f us/state  %2d threads %9.1f ms %6.2f us/state  speed-up %.2f",
+					count, states, serialNanos / 1e6, serialNanos / 1e3 / states,
+					parallel.getThreadCount(), parallelNanos / 1e6, parallelNanos / 1e3 / states, 
+					(double) serialNanos / parallelNanos));
+		}
+		serial.shutdown();
+		parallel.shutdown();
+	}
+	
+	private static SatelliteElements[] satellites(int count) {
+		SatelliteElements[] satellites = new SatelliteElements[count];
+		for (int i = 0; i < count; i++) {
+			satellites[i] = new SatelliteElements(NAME + " " + i, LINE1, 
+					String.format(Locale.US, LINE2, 360.0 * i / count));
+		}
+		return satellites;
+	}
+	
+	private static long measure(BatchPropagator propagator, SatelliteElements[] satellites, long seconds, 
+			boolean[] elements) throws InterruptedException {
+		long start = System.nanoTime();
+		for (int from = 0; from < satellites.length; from += GROUP) {
+			SatelliteElements[] group = new SatelliteElements[Math.min(GROUP, satellites.length - from)];
+			System.arraycopy(satellites, from, group, 0, group.length);
+			propagator.propagate(group, START, START + seconds * 1000, 1000, elements);
+		}
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,73 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BatchPropagatorTest {
+	private static final String ISS_NAME = "ISS (ZARYA)";
+	private static final String ISS_LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String ISS_LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	
+	private static final String HST_NAME = "HST";
+	private static final String HST_LINE1 = "1 20580U 90037B   13240.85216421  .00001025  00000-0  64767-4 0  2427";
+	private static final String HST_LINE2 = "2 20580  28.4687 321.0457 0003272 232.9213 263.4568 15.03139802 69428";
+	
+	private static final long START = 1377700000000L;
+	
+	private static void assertMatches(PropagationBatch batch, SatelliteElements[] satellites) {
+		for (int s = 0; s < satellites.length; s++) {
+			SatTrak sat = new SatTrak(satellites[s]);
+			for (int t = 0; t < batch.getTimeCount(); t += 97) {
+				SatelliteState state = sat.propagate(batch.getTime(t));
+				Assert.assertEquals(batch.getSeries(s, PropagationBatch.ECEF_X)[t], state.getECEFx(), 1e-9);
+				Assert.assertEquals(batch.getSeries(s, PropagationBatch.ECEF_Y)[t], state.getECEFy(), 1e-9);
+				Assert.assertEquals(batch.getSeries(s, PropagationBatch.ECEF_Z)[t], state.getECEFz(), 1e-9);
+				Assert.assertEquals(batch.getSeries(s, PropagationBatch.TEME_VZ)[t], state.getTEMEvz(), 1e-9);
+				Assert.assertEquals(batch.getSeries(s, PropagationBatch.ALTITUDE)[t], state.getAltitude(), 1e-6);
+			}
+		}
+	}
+	
+	@Test
+	public void testParallelMatchesSerial() throws Exception {
+		SatelliteElements[] satellites = { 
+				new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2), 
+				new SatelliteElements(HST_NAME, HST_LINE1, HST_LINE2) };
+		long end = START + 2 * 3600 * 1000L + 500; // more than one chunk per satellite
+		
+		for (int threads : new int[] { 1, 3 }) {
+			BatchPropagator propagator = new BatchPropagator(threads);
+			try {
+				long before = SatTrak.getPropagationCount();
+				PropagationBatch batch = propagator.propagate(satellites, START, end, 1000, null);
+				Assert.assertEquals(batch.getSatelliteCount(), 2);
+				Assert.assertEquals(batch.getTimeCount(), 7201);
+				Assert.assertEquals(batch.getTime(7200), START + 7200 * 1000L);
+				Assert.assertEquals(SatTrak.getPropagationCount() - before, 2 * 7201);
+				assertMatches(batch, satellites);
+			} finally {
+				propagator.shutdown();
+			}
+		}
+	}
+	
+	@Test
+	public void testSelectedElements() throws Exception {
+		boolean[] elements = new boolean[PropagationBatch.ELEMENT_COUNT];
+		elements[PropagationBatch.LATITUDE] = true;
+		PropagationBatch batch = new BatchPropagator(1).propagate(
+				new SatelliteElements[] { new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2) }, 
+				START, START + 10000, 1000, elements);
+		Assert.assertEquals(batch.getTimeCount(), 10);
+		Assert.assertNull(batch.getSeries(0, PropagationBatch.ECEF_X));
+		Assert.assertEquals(batch.getSeries(0, PropagationBatch.LATITUDE).length, 10);
+	}
+	
+	@Test
+	public void testEmptyRange() throws Exception {
+		PropagationBatch batch = new BatchPropagator(1).propagate(
+				new SatelliteElements[] { new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2) }, 
+				START, START, 1000, null);
+		Assert.assertEquals(batch.getTimeCount(), 0);
+	}
+}
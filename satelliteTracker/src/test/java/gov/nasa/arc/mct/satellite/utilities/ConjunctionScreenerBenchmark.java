@@ -0,0 +1,121 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures conjunction screening of catalogs of 1000 and 10000 satellites 
+ * over one day, at the default step: the whole screening, the part of it 
+ * spent propagating, and, for comparison, checking every pair at every 
+ * sample (measured over one batch of samples, and scaled to the whole 
+ * day). Satellites are spread over low Earth orbits of random 
+ * planes and altitudes. Not run as part of the test suite; run the main 
+ * method with the test classpath:
+ * 
+ * <pre>
+ * ConjunctionScreenerBenchmark [hours] [threshold (km)] [step (s)] [satellites...]
+ * </pre>
+ */
+public class ConjunctionScreenerBenchmark {
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544 %8.4f %8.4f 0004476 %8.4f %8.4f %11.8f%5d0";
+	private static final long START = 1377700000000L;
+	private static final long HOUR = 3600 * 1000L;
+	private static final int SAMPLES_PER_BATCH = 60;
+	private static final double[] INCLINATIONS = { 28.5, 51.6, 53.0, 65.0, 74.0, 82.5, 86.4, 97.6, 98.7 };
+	
+	public static void main(String[] args) throws Exception {
+		long hours = args.length > 0 ? Long.parseLong(args[0]) : 24;
+		double threshold = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+		long step = args.length > 2 ? Long.parseLong(args[2]) * 1000 : ConjunctionScreener.DEFAULT_STEP;
+		int[] counts = { 1000, 10000 };
+		if (args.length > 3) {
+			counts = new int[args.length - 3];
+			for (int i = 3; i < args.length; i++) {
+				counts[i - 3] = Integer.parseInt(args[i]);
+			}
+		}
+		BatchPropagator propagator = new BatchPropagator();
+		ConjunctionScreener screener = new ConjunctionScreener(propagator, threshold, step);
+		
+		// Warm up before measuring
+		screener.screen(catalog(500), START, START + HOUR);
+		
+		System.out.println(String.format(Locale.US, "%d threads, %d h, %.1f km, %d s step", 
+				propagator.getThreadCount(), hours, threshold, step / 1000));
+		for (int count : counts) {
+			SatelliteElements[] satellites = catalog(count);
+			long end = START + hours * HOUR;
+			
+			long start = System.nanoTime();
+			List<Conjunction> conjunctions = screener.screen(satellites, START, end);
+			long screenNanos = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			PropagationBatch batch = null;
+			long span = step * SAMPLES_PER_BATCH;
+			for (long from = START; from < end; from += span) {
+				// The same batches as the screener, with a sample either side
+				batch = propagate(propagator, satellites, from, Math.min(end, from + span), step);
+			}
+			long propagateNanos = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			int pairs = checkAllPairs(batch, threshold);
+			long allPairsNanos = (System.nanoTime() - start) * (end - START) / ((batch.getTimeCount() - 2) * step);
+			
+			System.out.println(String.format(Locale.US, 
+					"%6d satellites %4d conjunctions  screening %9.1f ms (propagation %9.1f ms, grid and refinement %8.1f ms)  all pairs %10.1f ms (%d within the threshold in the last batch)", 
+					count, conjunctions.size(), screenNanos / 1e6, propagateNanos / 1e6, (screenNanos - propagateNanos) / 1e6, 
+					allPairsNanos / 1e6, pairs));
+		}
+		propagator.shutdown();
+	}
+	
+	private static SatelliteElements[] catalog(int count) {
+		Random random = new Random(count);
+		SatelliteElements[] satellites = new SatelliteElements[count];
+		for (int i = 0; i < count; i++) {
+			double inclination = INCLINATIONS[random.nextInt(INCLINATIONS.length)] + random.nextGaussian() * 0.1;
+			satellites[i] = new SatelliteElements("SAT " + i, LINE1, String.format(Locale.US, LINE2, 
+					inclination, 360 * random.nextDouble(), 360 * random.nextDouble(), 
+					360 * random.nextDouble(), 14.2 + 1.4 * random.nextDouble(), i % 100000));
+		}
+		return satellites;
+	}
+	
+	private static PropagationBatch propagate(BatchPropagator propagator, SatelliteElements[] satellites, 
+			long from, long to, long step) throws InterruptedException {
+		boolean[] elements = new boolean[PropagationBatch.ELEMENT_COUNT];
+		elements[PropagationBatch.ECEF_X] = elements[PropagationBatch.ECEF_Y] = elements[PropagationBatch.ECEF_Z] = true;
+		return propagator.propagate(satellites, from - step, to + step, step, elements);
+	}
+	
+	/*
+	 * Checks the distance of every pair at every sample of a batch but its first and last
+	 */
+	private static int checkAllPairs(PropagationBatch batch, double threshold) {
+		int n = batch.getSatelliteCount();
+		double[][] x = new double[n][], y = new double[n][], z = new double[n][];
+		for (int s = 0; s < n; s++) {
+			x[s] = batch.getSeries(s, PropagationBatch.ECEF_X);
+			y[s] = batch.getSeries(s, PropagationBatch.ECEF_Y);
+			z[s] = batch.getSeries(s, PropagationBatch.ECEF_Z);
+		}
+		double threshold2 = threshold * threshold;
+		int within = 0;
+		for (int k = 1; k < batch.getTimeCount() - 1; k++) {
+			for (int i = 0; i < n; i++) {
+				double xi = x[i][k], yi = y[i][k], zi = z[i][k];
+				for (int j = i + 1; j < n; j++) {
+					double dx = x[j][k] - xi, dy = y[j][k] - yi, dz = z[j][k] - zi;
+					if (dx * dx + dy * dy + dz * dz <= threshold2) {
+						within++;
+					}
+				}
+			}
+		}
+		return within;
+	}
+}
@@ -0,0 +1,135 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConjunctionScreenerTest {
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544 %8.4f %8.4f 0004476 %8.4f %8.4f %11.8f%5d0";
+	private static final long START = 1377700000000L;
+	private static final long SECOND = 1000;
+	
+	/*
+	 * Satellites in a thin shell near the ISS's altitude, in planes of all inclinations, so that 
+	 * they cross each other often
+	 */
+	private static SatelliteElements[] shell(int count, long seed) {
+		Random random = new Random(seed);
+		SatelliteElements[] satellites = new SatelliteElements[count];
+		for (int i = 0; i < count; i++) {
+			satellites[i] = new SatelliteElements("SAT " + i, LINE1, String.format(Locale.US, LINE2, 
+					40 + 60 * random.nextDouble(), 360 * random.nextDouble(), 360 * random.nextDouble(), 
+					360 * random.nextDouble(), 15.5 + 0.02 * random.nextDouble(), i));
+		}
+		return satellites;
+	}
+	
+	/*
+	 * Finds the close approaches by checking every pair every second; each is { first, second, 
+	 * time of the closest sample }, with the distance at that sample in 'distances'
+	 */
+	private static List<long[]> samplePairs(SatelliteElements[] satellites, long start, long end, double threshold, 
+			List<Double> distances) throws InterruptedException {
+		boolean[] elements = new boolean[PropagationBatch.ELEMENT_COUNT];
+		elements[PropagationBatch.ECEF_X] = elements[PropagationBatch.ECEF_Y] = elements[PropagationBatch.ECEF_Z] = true;
+		BatchPropagator propagator = new BatchPropagator(1);
+		PropagationBatch batch = propagator.propagate(satellites, start - SECOND, end + SECOND, SECOND, elements);
+		List<long[]> approaches = new ArrayList<long[]>();
+		for (int i = 0; i < satellites.length; i++) {
+			for (int j = i + 1; j < satellites.length; j++) {
+				double previous = Double.MAX_VALUE, current = Double.MAX_VALUE;
+				for (int k = 0; k < batch.getTimeCount(); k++) {
+					double dx = batch.getSeries(i, PropagationBatch.ECEF_X)[k] - batch.getSeries(j, PropagationBatch.ECEF_X)[k];
+					double dy = batch.getSeries(i, PropagationBatch.ECEF_Y)[k] - batch.getSeries(j, PropagationBatch.ECEF_Y)[k];
+					double dz = batch.getSeries(i, PropagationBatch.ECEF_Z)[k] - batch.getSeries(j, PropagationBatch.ECEF_Z)[k];
+					double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+					if (current <= previous && current < distance && current <= threshold) {
+						approaches.add(new long[] { i, j, batch.getTime(k - 1) });
+						distances.add(current);
+					}
+					previous = current;
+					current = distance;
+				}
+			}
+		}
+		propagator.shutdown();
+		return approaches;
+	}
+	
+	@Test
+	public void testMatchesSampling() throws Exception {
+		SatelliteElements[] satellites = shell(150, 1);
+		double threshold = 20;
+		long end = START + 2 * 3600 * SECOND;
+		BatchPropagator propagator = new BatchPropagator(2);
+		List<Conjunction> conjunctions = new ConjunctionScreener(propagator, threshold, ConjunctionScreener.DEFAULT_STEP)
+				.screen(satellites, START, end);
+		propagator.shutdown();
+		List<Double> distances = new ArrayList<Double>();
+		List<long[]> sampled = samplePairs(satellites, START, end, threshold, distances);
+		Assert.assertTrue(sampled.size() > 10, "approaches " + sampled.size());
+		
+		// Every approach found by sampling is found by screening, at least as close
+		for (int a = 0; a < sampled.size(); a++) {
+			long[] approach = sampled.get(a);
+			if (approach[2] < START + SECOND || approach[2] >= end - SECOND) {
+				continue;
+			}
+			Conjunction match = null;
+			for (Conjunction conjunction : conjunctions) {
+				if (conjunction.getFirst() == approach[0] && conjunction.getSecond() == approach[1] && 
+						Math.abs(conjunction.getTime() - approach[2]) <= SECOND) {
+					match = conjunction;
+				}
+			}
+			Assert.assertNotNull(match, "approach of " + approach[0] + " and " + approach[1] + " at " + approach[2]);
+			Assert.assertTrue(match.getMissDistance() <= distances.get(a) + 1e-9, match + " sampled " + distances.get(a));
+		}
+		
+		// Every conjunction found by screening is near an approach found by sampling
+		double last = Long.MIN_VALUE;
+		for (Conjunction conjunction : conjunctions) {
+			Assert.assertTrue(conjunction.getTime() >= last);
+			last = conjunction.getTime();
+			Assert.assertTrue(conjunction.getFirst() < conjunction.getSecond());
+			Assert.assertSame(conjunction.getFirstElements(), satellites[conjunction.getFirst()]);
+			Assert.assertSame(conjunction.getSecondElements(), satellites[conjunction.getSecond()]);
+			Assert.assertTrue(conjunction.getMissDistance() <= threshold);
+			Assert.assertTrue(conjunction.getTime() >= START && conjunction.getTime() < end);
+			
+			SatTrak a = new SatTrak(conjunction.getFirstElements());
+			SatTrak b = new SatTrak(conjunction.getSecondElements());
+			double closest = Double.MAX_VALUE;
+			for (long time = conjunction.getTime() - 2 * SECOND; time <= conjunction.getTime() + 2 * SECOND; time += 100) {
+				SatelliteState sa = a.propagate(time), sb = b.propagate(time);
+				double dx = sa.getECEFx() - sb.getECEFx(), dy = sa.getECEFy() - sb.getECEFy(), dz = sa.getECEFz() - sb.getECEFz();
+				closest = Math.min(closest, Math.sqrt(dx * dx + dy * dy + dz * dz));
+			}
+			Assert.assertTrue(conjunction.getMissDistance() <= closest + 1e-9, conjunction + " sampled " + closest);
+		}
+	}
+	
+	@Test
+	public void testSeparatedSatellites() throws Exception {
+		// The same orbit, a quarter of a revolution apart, never come close
+		SatelliteElements[] satellites = {
+				new SatelliteElements("A", LINE1, String.format(Locale.US, LINE2, 51.6499, 105.5504, 12.3451, 332.2743, 15.50589082, 84605)),
+				new SatelliteElements("B", LINE1, String.format(Locale.US, LINE2, 51.6499, 105.5504, 12.3451, 62.2743, 15.50589082, 84605))
+		};
+		BatchPropagator propagator = new BatchPropagator(1);
+		List<Conjunction> conjunctions = new ConjunctionScreener(propagator, 100, ConjunctionScreener.DEFAULT_STEP)
+				.screen(satellites, START, START + 3 * 3600 * SECOND);
+		propagator.shutdown();
+		Assert.assertEquals(conjunctions.size(), 0);
+	}
+	
+	@Test (expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidThreshold() {
+		new ConjunctionScreener(new BatchPropagator(1), 0, ConjunctionScreener.DEFAULT_STEP);
+	}
+}
@@ -0,0 +1,84 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the throughput of converting ECEF positions to latitude, 
+ * longitude and altitude one at a time, with the iterative 
+ * {@link ConvertECEFtoLLA#ecefToLLA(double[])}, against converting them 
+ * in place in a batch with {@link ConvertECEFtoLLA#ecefToLLA(double[], int, int)}. 
+ * Positions are random, from the surface out to geosynchronous orbit. 
+ * Not run as part of the test suite; run the main method with the test 
+ * classpath:
+ * 
+ * <pre>
+ * ConvertECEFtoLLABenchmark [positions]
+ * </pre>
+ */
+public class ConvertECEFtoLLABenchmark {
+	private static final int ROUNDS = 5;
+	
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		
+		Random random = new Random(42);
+		double[] positions = new double[3 * count];
+		for (int i = 0; i < positions.length; i += 3) {
+			double r = 6378.137 + random.nextDouble() * 35786;
+			double lat = Math.asin(2 * random.nextDouble() - 1);
+			double lon = Math.PI * (2 * random.nextDouble() - 1);
+			positions[i]     = r * Math.cos(lat) * Math.cos(lon);
+			positions[i + 1] = r * Math.cos(lat) * Math.sin(lon);
+			positions[i + 2] = r * Math.sin(lat);
+		}
+		ConvertECEFtoLLA convert = new ConvertECEFtoLLA();
+		double[] coordinates = new double[positions.length];
+		
+		// Warm up before measuring
+		for (int i = 0; i < 3; i++) {
+			iterative(convert, positions);
+			batch(convert, positions, coordinates);
+		}
+		
+		long iterative = Long.MAX_VALUE, batch = Long.MAX_VALUE;
+		double sum = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			sum += iterative(convert, positions);
+			iterative = Math.min(iterative, System.nanoTime() - start);
+			
+			start = System.nanoTime();
+			sum += batch(convert, positions, coordinates);
+			batch = Math.min(batch, System.nanoTime() - start);
+		}
+		report("iterative", count, iterative);
+		report("batch", count, batch);
+		System.out.println(String.format(Locale.US, "speed-up %.2f (checksum %.3f)", (double) iterative / batch, sum));
+	}
+	
+	private static double iterative(ConvertECEFtoLLA convert, double[] positions) {
+		double sum = 0;
+		for (int i = 0; i < positions.length; i += 3) {
+			double[] lla = convert.ecefToLLA(new double[] { positions[i], positions[i + 1], positions[i + 2] });
+			sum += lla[0] + lla[1] + lla[2];
+		}
+		return sum;
+	}
+	
+	/* Includes copying the positions, since the batch conversion is done in place */
+	private static double batch(ConvertECEFtoLLA convert, double[] positions, double[] coordinates) {
+		System.arraycopy(positions, 0, coordinates, 0, positions.length);
+		convert.ecefToLLA(coordinates, 0, coordinates.length / 3);
+		double sum = 0;
+		for (int i = 0; i < coordinates.length; i += 3) {
+			sum += coordinates[i] + coordinates[i + 1] + coordinates[i + 2];
+		}
+		return sum;
+	}
+	
+	private static void report(String label, int count, long nanos) {
+		System.out.println(String.format(Locale.US, "%-10s %9d positions %8.1f ms %7.1f ns/position %6.2f M positions/s", 
+				label, count, nanos / 1e6, (double) nanos / count, count * 1e3 / nanos));
+	}
+}
@@ -0,0 +1,103 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConvertECEFtoLLATest {
+	private static final double DEG_TOLERANCE = 1.0e-9;  // about 0.1 mm on the surface
+	private static final double KM_TOLERANCE  = 1.0e-6;  // 1 mm
+
+	private static final double[] ALTITUDES = { -10, 0, 0.5, 420, 2000, 20200, 35786, 100000 }; // km
+
+	@Test
+	public void testAgainstIterative() {
+		ConvertECEFtoLLA convert = new ConvertECEFtoLLA();
+		double[] positions = positions();
+		double[] batch = positions.clone();
+		convert.ecefToLLA(batch, 0, positions.length / 3);
+
+		for (int i = 0; i < positions.length; i += 3) {
+			double[] expected = convert.ecefToLLA(new double[] { positions[i], positions[i + 1], positions[i + 2] });
+			String at = positions[i] + ", " + positions[i + 1] + ", " + positions[i + 2];
+			Assert.assertEquals(batch[i],     expected[0], DEG_TOLERANCE, at);
+			Assert.assertEquals(batch[i + 1], expected[1], DEG_TOLERANCE, at);
+			Assert.assertEquals(batch[i + 2], expected[2], KM_TOLERANCE, at);
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		ConvertECEFtoLLA convert = new ConvertECEFtoLLA();
+		double[] positions = positions();
+		double[] lla = positions.clone();
+		convert.ecefToLLA(lla, 0, positions.length / 3);
+
+		// back to ECEF, with the same ellipsoid
+		double a = 6378.137;
+		double esq = (2 - 1 / 298.257223563) / 298.257223563;
+		for (int i = 0; i < lla.length; i += 3) {
+			double lat = Math.toRadians(lla[i]), lon = Math.toRadians(lla[i + 1]), alt = lla[i + 2];
+			double n = a / Math.sqrt(1 - esq * Math.sin(lat) * Math.sin(lat));
+			Assert.assertEquals((n + alt) * Math.cos(lat) * Math.cos(lon), positions[i], KM_TOLERANCE);
+			Assert.assertEquals((n + alt) * Math.cos(lat) * Math.sin(lon), positions[i + 1], KM_TOLERANCE);
+			Assert.assertEquals((n * (1 - esq) + alt) * Math.sin(lat), positions[i + 2], KM_TOLERANCE);
+		}
+	}
+
+	@Test
+	public void testPoles() {
+		double b = 6378.137 * (1 - 1 / 298.257223563);
+		double[] poles = { 0, 0, b + 400, 0, 0, -b - 400 };
+		new ConvertECEFtoLLA().ecefToLLA(poles, 0, 2);
+		Assert.assertEquals(poles[0], 90.0, DEG_TOLERANCE);
+		Assert.assertEquals(poles[1], 0.0);
+		Assert.assertEquals(poles[2], 400.0, KM_TOLERANCE);
+		Assert.assertEquals(poles[3], -90.0, DEG_TOLERANCE);
+		Assert.assertEquals(poles[4], 0.0);
+		Assert.assertEquals(poles[5], 400.0, KM_TOLERANCE);
+	}
+
+	@Test
+	public void testOffset() {
+		ConvertECEFtoLLA convert = new ConvertECEFtoLLA();
+		double[] iss = { -3913.8231010403706, 3246.771107703494, -3850.581024475044 };
+		double[] coordinates = { 1, 2, 3, iss[0], iss[1], iss[2], 4, 5, 6 };
+		convert.ecefToLLA(coordinates, 3, 1);
+		double[] expected = convert.ecefToLLA(iss);
+		Assert.assertEquals(coordinates[0], 1.0);
+		Assert.assertEquals(coordinates[3], expected[0], DEG_TOLERANCE);
+		Assert.assertEquals(coordinates[4], expected[1], DEG_TOLERANCE);
+		Assert.assertEquals(coordinates[5], expected[2], KM_TOLERANCE);
+		Assert.assertEquals(coordinates[6], 4.0);
+	}
+
+	@Test(expectedExceptions = IndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		new ConvertECEFtoLLA().ecefToLLA(new double[6], 3, 2);
+	}
+
+	/* Positions on a grid of latitudes and longitudes, at each of the ALTITUDES; the iterative routine 
+	 * may put 180 degrees of longitude at either end of its range, so that is left out */
+	private static double[] positions() {
+		double a = 6378.137;
+		double esq = (2 - 1 / 298.257223563) / 298.257223563;
+		int lats = 0;
+		for (double lat = -89.5; lat <= 89.5; lat += 0.5) lats++;
+		int lons = 0;
+		for (double lon = -175; lon < 180; lon += 5) lons++;
+		double[] positions = new double[3 * lats * lons * ALTITUDES.length];
+		int i = 0;
+		for (double alt : ALTITUDES) {
+			for (double lat = -89.5; lat <= 89.5; lat += 0.5) {
+				for (double lon = -175; lon < 180; lon += 5) {
+					double phi = Math.toRadians(lat), lambda = Math.toRadians(lon);
+					double n = a / Math.sqrt(1 - esq * Math.sin(phi) * Math.sin(phi));
+					positions[i++] = (n + alt) * Math.cos(phi) * Math.cos(lambda);
+					positions[i++] = (n + alt) * Math.cos(phi) * Math.sin(lambda);
+					positions[i++] = (n * (1 - esq) + alt) * Math.sin(phi);
+				}
+			}
+		}
+		return positions;
+	}
+}
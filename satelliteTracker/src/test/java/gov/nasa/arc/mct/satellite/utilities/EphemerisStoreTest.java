@@ -0,0 +1,74 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class EphemerisStoreTest {
+	private static final String ISS_NAME = "ISS (ZARYA)";
+	private static final String ISS_LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String ISS_LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	
+	private static final long TIME = 1377700000000L;
+	private static final long TIMEOUT = 30000;
+	
+	@Test
+	public void testMoreSatellitesThanCapacity() throws Exception {
+		int capacity = 4, satellites = 10;
+		EphemerisStore store = new EphemerisStore(capacity, EphemerisTable.DEFAULT_STEP);
+		SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		try {
+			// Follow every satellite round-robin, as a view of all of them would
+			Set<String> served = new HashSet<String>();
+			long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (served.size() < capacity && System.currentTimeMillis() < deadline) {
+				served.clear();
+				for (int s = 0; s < satellites; s++) {
+					if (store.getTable("satellite" + s, elements, TIME) != null) {
+						served.add("satellite" + s);
+					}
+				}
+				Assert.assertTrue(store.size() <= capacity);
+				Thread.sleep(10);
+			}
+			
+			// The tables which fit are kept and served, rather than each replacing another
+			Assert.assertEquals(served.size(), capacity);
+			for (int s = 0; s < capacity; s++) {
+				Assert.assertTrue(served.contains("satellite" + s));
+				Assert.assertNotNull(store.getTable("satellite" + s, elements, TIME));
+			}
+			Assert.assertNull(store.precompute("satellite" + capacity, elements, TIME));
+		} finally {
+			store.shutdown();
+		}
+	}
+	
+	@Test
+	public void testUnusedTableReplaced() throws Exception {
+		EphemerisStore store = new EphemerisStore(1, EphemerisTable.DEFAULT_STEP, 200);
+		SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		try {
+			store.precompute("first", elements, TIME).get();
+			
+			// The only table is in use, so there is no room for another
+			Assert.assertNull(store.precompute("second", elements, TIME));
+			Assert.assertNotNull(store.getTable("first", elements, TIME));
+			
+			// Once unused for the retention time, it is replaced
+			Thread.sleep(300);
+			Assert.assertNotNull(store.precompute("second", elements, TIME).get());
+			Assert.assertEquals(store.size(), 1);
+			Assert.assertNull(store.precompute("first", elements, TIME));
+		} finally {
+			store.shutdown();
+		}
+	}
+	
+	@Test (expectedExceptions = {IllegalArgumentException.class})
+	public void testNegativeRetention() {
+		new EphemerisStore(1, EphemerisTable.DEFAULT_STEP, -1);
+	}
+}
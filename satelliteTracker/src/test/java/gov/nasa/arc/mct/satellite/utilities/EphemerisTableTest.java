@@ -0,0 +1,77 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class EphemerisTableTest {
+	private static final String ISS_NAME = "ISS (ZARYA)";
+	private static final String ISS_LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String ISS_LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	
+	private static final String HST_NAME = "HST";
+	private static final String HST_LINE1 = "1 20580U 90037B   13240.85216421  .00001025  00000-0  64767-4 0  2427";
+	private static final String HST_LINE2 = "2 20580  28.4687 321.0457 0003272 232.9213 263.4568 15.03139802 69428";
+	
+	private static final long TIME = 1377700000000L;
+	
+	private static double distance(double[] a, double[] b) {
+		double dx = a[0] - b[0], dy = a[1] - b[1], dz = a[2] - b[2];
+		return Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+	
+	/*
+	 * Compares interpolated states with states propagated by SatTrak over a whole day, 
+	 * against the error bound documented by EphemerisTable (1 m, 0.005 m/s)
+	 */
+	private static void assertAccurate(SatelliteElements elements) {
+		EphemerisTable table = new EphemerisTable(elements, TIME, EphemerisTable.DEFAULT_STEP);
+		Assert.assertEquals(table.getStart(), EphemerisTable.getDayStart(TIME));
+		SatTrak sat = new SatTrak(elements);
+		double maxPosition = 0, maxVelocity = 0, maxECEF = 0, maxLatitude = 0;
+		for (long time = table.getStart(); time <= table.getStart() + EphemerisTable.DAY; time += 7000) {
+			SatelliteState expected = sat.propagate(time);
+			SatelliteState actual = table.getState(time);
+			maxPosition = Math.max(maxPosition, distance(actual.getTEMEposition(), expected.getTEMEposition()));
+			maxVelocity = Math.max(maxVelocity, distance(actual.getTEMEvelocity(), expected.getTEMEvelocity()));
+			maxECEF = Math.max(maxECEF, distance(
+					new double[] { actual.getECEFx(), actual.getECEFy(), actual.getECEFz() }, 
+					new double[] { expected.getECEFx(), expected.getECEFy(), expected.getECEFz() }));
+			maxLatitude = Math.max(maxLatitude, Math.abs(actual.getLatitude() - expected.getLatitude()));
+		}
+		Assert.assertTrue(maxPosition < 1, "position error (m) " + maxPosition);
+		Assert.assertTrue(maxVelocity < 0.005, "velocity error (m/s) " + maxVelocity);
+		Assert.assertTrue(maxECEF < 1e-3, "ECEF error (km) " + maxECEF);
+		Assert.assertTrue(maxLatitude < 1e-7, "latitude error (rad) " + maxLatitude);
+	}
+	
+	@Test
+	public void testAccuracy() {
+		assertAccurate(new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2));
+		assertAccurate(new SatelliteElements(HST_NAME, HST_LINE1, HST_LINE2));
+	}
+	
+	@Test
+	public void testSamplesAreExact() {
+		SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		EphemerisTable table = new EphemerisTable(elements, TIME, EphemerisTable.DEFAULT_STEP);
+		SatTrak sat = new SatTrak(elements);
+		for (long time = table.getStart(); time <= table.getStart() + EphemerisTable.DAY; time += 97 * EphemerisTable.DEFAULT_STEP) {
+			Assert.assertEquals(distance(table.getState(time).getTEMEposition(), sat.propagate(time).getTEMEposition()), 0, 1e-9);
+		}
+	}
+	
+	@Test
+	public void testCoverage() {
+		EphemerisTable table = new EphemerisTable(new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2), TIME, 600000);
+		Assert.assertTrue(table.covers(table.getStart()));
+		Assert.assertTrue(table.covers(table.getStart() + EphemerisTable.DAY));
+		Assert.assertTrue(!table.covers(table.getStart() - 1));
+		Assert.assertEquals(EphemerisTable.getDayStart(-1), -EphemerisTable.DAY);
+	}
+	
+	@Test (expectedExceptions = IllegalArgumentException.class)
+	public void testOutsideTable() {
+		EphemerisTable table = new EphemerisTable(new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2), TIME, 600000);
+		table.getState(table.getStart() + EphemerisTable.DAY + 1);
+	}
+}
@@ -0,0 +1,71 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GroundStationTest {
+	
+	@Test
+	public void testElevation() {
+		GroundStation station = new GroundStation("Equator", 0, 90, 0);
+		Assert.assertEquals(station.getElevation(0, 7000, 0), 90, 1e-9);
+		Assert.assertEquals(station.getElevation(1000, 6378.137, 0), 0, 1e-9);
+		Assert.assertEquals(station.getElevation(0, 6000, 0), -90, 1e-9);
+		
+		// Straight up along the ellipsoid's normal, away from the equator
+		GroundStation north = new GroundStation("North", 45, 0, 1);
+		SatTrak sat = new SatTrak("ISS (ZARYA)", 
+				"1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862", 
+				"2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053");
+		SatelliteState state = sat.propagate(1377700000000L);
+		GroundStation below = new GroundStation("Below", Math.toDegrees(state.getLatitude()), Math.toDegrees(state.getLongitude()), 0);
+		Assert.assertEquals(below.getElevation(state.getECEFx(), state.getECEFy(), state.getECEFz()), 90, 1e-2);
+		Assert.assertTrue(north.getElevation(state.getECEFx(), state.getECEFy(), state.getECEFz()) < 90);
+	}
+	
+	@Test
+	public void testParse() {
+		GroundStation station = GroundStation.parse(" Wallops , 37.94, -75.46, 0.01");
+		Assert.assertEquals(station.getName(), "Wallops");
+		Assert.assertEquals(station.getLatitude(), 37.94);
+		Assert.assertEquals(station.getLongitude(), -75.46);
+		Assert.assertEquals(station.getAltitude(), 0.01);
+		Assert.assertEquals(station, new GroundStation("Wallops", 37.94, -75.46, 0.01));
+		Assert.assertEquals(station.hashCode(), new GroundStation("Wallops", 37.94, -75.46, 0.01).hashCode());
+		Assert.assertFalse(station.equals(new GroundStation("Wallops", 37.94, -75.46, 0.02)));
+	}
+	
+	@Test (expectedExceptions = IllegalArgumentException.class)
+	public void testParseInvalid() {
+		GroundStation.parse("Wallops,north,-75.46,0.01");
+	}
+	
+	@Test (expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidLatitude() {
+		new GroundStation("Nowhere", 91, 0, 0);
+	}
+	
+	@Test
+	public void testConfigured() {
+		String previous = System.getProperty(GroundStation.STATIONS_PROPERTY);
+		try {
+			System.clearProperty(GroundStation.STATIONS_PROPERTY);
+			Assert.assertEquals(GroundStation.getConfigured().size(), 1);
+			Assert.assertSame(GroundStation.getConfigured().get(0), GroundStation.AMES);
+			
+			System.setProperty(GroundStation.STATIONS_PROPERTY, "Wallops,37.94,-75.46,0.01; broken ;Kiruna,67.857,20.964,0.4;");
+			List<GroundStation> stations = GroundStation.getConfigured();
+			Assert.assertEquals(stations.size(), 2);
+			Assert.assertEquals(stations.get(0).getName(), "Wallops");
+			Assert.assertEquals(stations.get(1).getName(), "Kiruna");
+		} finally {
+			if (previous == null) {
+				System.clearProperty(GroundStation.STATIONS_PROPERTY);
+			} else {
+				System.setProperty(GroundStation.STATIONS_PROPERTY, previous);
+			}
+		}
+	}
+}
@@ -0,0 +1,199 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PassPredictorTest {
+	private static final String ISS_NAME = "ISS (ZARYA)";
+	private static final String ISS_LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String ISS_LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	
+	private static final long TIME = 1377700000000L;
+	private static final long SECOND = 1000;
+	
+	private static final GroundStation WEILHEIM = new GroundStation("Weilheim", 47.8801, 11.0794, 0.6);
+	
+	/*
+	 * Finds the passes rising during the day by sampling the elevation every second; each pass is 
+	 * { first sample above the mask, sample of highest elevation, last sample above the mask }
+	 */
+	private static List<long[]> samplePasses(SatelliteElements elements, GroundStation station, double mask, long dayStart) {
+		SatTrak sat = new SatTrak(elements);
+		List<long[]> passes = new ArrayList<long[]>();
+		long[] pass = null;
+		double best = 0;
+		boolean wasAbove = true;
+		for (long time = dayStart - 3 * 3600 * SECOND; time <= dayStart + EphemerisTable.DAY + 3 * 3600 * SECOND; time += SECOND) {
+			SatelliteState state = sat.propagate(time);
+			double elevation = station.getElevation(state.getECEFx(), state.getECEFy(), state.getECEFz());
+			boolean above = elevation >= mask;
+			if (above && !wasAbove) {
+				pass = new long[] { time, time, time };
+				best = elevation;
+			} else if (above && pass != null) {
+				pass[2] = time;
+				if (elevation > best) {
+					best = elevation;
+					pass[1] = time;
+				}
+			} else if (!above && pass != null) {
+				if (pass[0] > dayStart - SECOND && pass[0] <= dayStart + EphemerisTable.DAY) {
+					passes.add(pass);
+				}
+				pass = null;
+			}
+			wasAbove = above;
+		}
+		return passes;
+	}
+	
+	private static void assertMatchesSampling(GroundStation station, long step, double mask) {
+		SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		long dayStart = EphemerisTable.getDayStart(TIME);
+		PassPredictor predictor = new PassPredictor(4, step, mask);
+		
+		long count = SatTrak.getPropagationCount();
+		List<SatellitePass> predicted = predictor.predict(elements, station, dayStart);
+		long propagations = SatTrak.getPropagationCount() - count;
+		List<long[]> sampled = samplePasses(elements, station, mask, dayStart);
+		
+		Assert.assertTrue(sampled.size() > 0);
+		Assert.assertEquals(predicted.size(), sampled.size(), "passes over " + station);
+		Assert.assertTrue(propagations < 86400 / 20, "propagations " + propagations);
+		SatTrak sat = new SatTrak(elements);
+		for (int i = 0; i < predicted.size(); i++) {
+			SatellitePass pass = predicted.get(i);
+			long[] expected = sampled.get(i);
+			Assert.assertSame(pass.getStation(), station);
+			Assert.assertTrue(pass.getRise() > expected[0] - SECOND && pass.getRise() <= expected[0], pass + " rise " + expected[0]);
+			Assert.assertTrue(pass.getSet() >= expected[2] && pass.getSet() < expected[2] + SECOND, pass + " set " + expected[2]);
+			Assert.assertEquals(pass.getCulmination(), expected[1], SECOND, pass + " culmination " + expected[1]);
+			
+			SatelliteState state = sat.propagate(expected[1]);
+			double sampledMax = station.getElevation(state.getECEFx(), state.getECEFy(), state.getECEFz());
+			Assert.assertTrue(pass.getMaxElevation() >= sampledMax - 1e-9, pass + " max elevation " + sampledMax);
+			Assert.assertTrue(pass.getMaxElevation() < sampledMax + 0.5, pass + " max elevation " + sampledMax);
+		}
+	}
+	
+	@Test
+	public void testMatchesSampling() {
+		assertMatchesSampling(GroundStation.AMES, PassPredictor.DEFAULT_STEP, 0);
+		assertMatchesSampling(WEILHEIM, PassPredictor.DEFAULT_STEP, 10);
+	}
+	
+	@Test
+	public void testShortPassesBetweenSamples() {
+		// Passes above 30 degrees last a few minutes; with five minute steps most fall between samples
+		assertMatchesSampling(GroundStation.AMES, 5 * PassPredictor.DEFAULT_STEP, 30);
+	}
+	
+	@Test
+	public void testCache() {
+		SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		PassPredictor predictor = new PassPredictor(2, PassPredictor.DEFAULT_STEP, 0);
+		List<SatellitePass> passes = predictor.getPasses("ISS", elements, GroundStation.AMES, TIME);
+		Assert.assertEquals(predictor.size(), 1);
+		
+		// The same day, at another time, is not predicted again
+		long count = SatTrak.getPropagationCount();
+		Assert.assertSame(predictor.getPasses("ISS", elements, GroundStation.AMES, EphemerisTable.getDayStart(TIME)), passes);
+		Assert.assertEquals(SatTrak.getPropagationCount(), count);
+		
+		// Another station is another entry; the least recently used is discarded
+		predictor.getPasses("ISS", elements, WEILHEIM, TIME);
+		predictor.getPasses("ISS", elements, GroundStation.AMES, TIME + EphemerisTable.DAY);
+		Assert.assertEquals(predictor.size(), 2);
+		Assert.assertNotSame(predictor.getPasses("ISS", elements, GroundStation.AMES, TIME), passes);
+	}
+	
+	@Test
+	public void testSpan() {
+		SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		PassPredictor predictor = new PassPredictor(4, PassPredictor.DEFAULT_STEP, 0);
+		long dayStart = EphemerisTable.getDayStart(TIME);
+		List<SatellitePass> today = predictor.getPasses("ISS", elements, WEILHEIM, dayStart);
+		List<SatellitePass> tomorrow = predictor.getPasses("ISS", elements, WEILHEIM, dayStart + EphemerisTable.DAY);
+		
+		long start = dayStart + EphemerisTable.DAY / 2;
+		List<SatellitePass> span = predictor.getPasses("ISS", elements, WEILHEIM, start, start + EphemerisTable.DAY);
+		int expected = 0;
+		long last = Long.MIN_VALUE;
+		for (SatellitePass pass : span) {
+			Assert.assertTrue(pass.getSet() > start && pass.getRise() < start + EphemerisTable.DAY);
+			Assert.assertTrue(pass.getRise() > last);
+			last = pass.getRise();
+		}
+		for (SatellitePass pass : today) {
+			if (pass.getSet() > start) expected++;
+		}
+		for (SatellitePass pass : tomorrow) {
+			if (pass.getRise() < start + EphemerisTable.DAY) expected++;
+		}
+		Assert.assertEquals(span.size(), expected);
+		Assert.assertEquals(predictor.size(), 3); // With the day before, for a pass under way at the start
+		
+		// A pass under way at the start of the span is included
+		SatellitePass first = today.get(0);
+		long during = (first.getRise() + first.getSet()) / 2;
+		span = predictor.getPasses("ISS", elements, WEILHEIM, during, during + EphemerisTable.DAY);
+		Assert.assertSame(span.get(0), first);
+	}
+	
+	/*
+	 * The elevation of the satellite above a station, computed independently of SatTrak's geodetic
+	 * coordinates: the TEME position is turned into ECEF by the Greenwich mean sidereal time (IAU 1982),
+	 * and the elevation is taken in the station's east-north-up frame
+	 */
+	private static double topocentricElevation(SatelliteState state, GroundStation station) {
+		double julianDate = state.getTime() / 86400000.0 + 2440587.5;
+		double t = (julianDate - 2451545.0) / 36525;
+		double gmstSeconds = 67310.54841 + (876600.0 * 3600 + 8640184.812866) * t + 0.093104 * t * t - 6.2e-6 * t * t * t;
+		double theta = Math.toRadians(gmstSeconds / 240.0);
+		double[] teme = state.getTEMEposition();
+		double x = (Math.cos(theta) * teme[0] + Math.sin(theta) * teme[1]) / 1000;
+		double y = (-Math.sin(theta) * teme[0] + Math.cos(theta) * teme[1]) / 1000;
+		double z = teme[2] / 1000;
+		
+		double lat = Math.toRadians(station.getLatitude()), lon = Math.toRadians(station.getLongitude());
+		double a = 6378.137, f = 1 / 298.257223563;
+		double e2 = f * (2 - f);
+		double n = a / Math.sqrt(1 - e2 * Math.sin(lat) * Math.sin(lat));
+		double dx = x - (n + station.getAltitude()) * Math.cos(lat) * Math.cos(lon);
+		double dy = y - (n + station.getAltitude()) * Math.cos(lat) * Math.sin(lon);
+		double dz = z - (n * (1 - e2) + station.getAltitude()) * Math.sin(lat);
+		
+		double east  = -Math.sin(lon) * dx + Math.cos(lon) * dy;
+		double north = -Math.sin(lat) * Math.cos(lon) * dx - Math.sin(lat) * Math.sin(lon) * dy + Math.cos(lat) * dz;
+		double up    = Math.cos(lat) * Math.cos(lon) * dx + Math.cos(lat) * Math.sin(lon) * dy + Math.sin(lat) * dz;
+		return Math.toDegrees(Math.atan2(up, Math.sqrt(east * east + north * north)));
+	}
+	
+	@Test
+	public void testMatchesTopocentricElevation() {
+		SatelliteElements elements = new SatelliteElements(ISS_NAME, ISS_LINE1, ISS_LINE2);
+		SatTrak sat = new SatTrak(elements);
+		long dayStart = EphemerisTable.getDayStart(TIME);
+		for (GroundStation station : new GroundStation[] { GroundStation.AMES, WEILHEIM }) {
+			for (long time = dayStart; time < dayStart + EphemerisTable.DAY; time += 60 * SECOND) {
+				SatelliteState state = sat.propagate(time);
+				double expected = topocentricElevation(state, station);
+				Assert.assertEquals(station.getElevation(state.getECEFx(), state.getECEFy(), state.getECEFz()), expected, 1e-3,
+						station + " at " + time);
+			}
+			for (SatellitePass pass : new PassPredictor(1, PassPredictor.DEFAULT_STEP, 0).predict(elements, station, dayStart)) {
+				double expected = topocentricElevation(sat.propagate(pass.getCulmination()), station);
+				Assert.assertEquals(pass.getMaxElevation(), expected, 1e-3, pass.toString());
+				Assert.assertEquals(topocentricElevation(sat.propagate(pass.getRise()), station), 0, 1e-3, pass.toString());
+			}
+		}
+	}
+	
+	@Test (expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidStep() {
+		new PassPredictor(4, 0, 0);
+	}
+}
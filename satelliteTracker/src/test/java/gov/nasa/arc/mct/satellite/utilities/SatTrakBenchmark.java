@@ -0,0 +1,93 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import jsattrak.objects.SatelliteTleSGP4;
+import name.gano.astro.time.Time;
+
+/**
+ * Compares the cost of reading the full state of a satellite (ECEF 
+ * position, latitude, longitude, altitude and TEME velocity) with 
+ * {@link SatTrak#propagate(long)}, which propagates once per time, 
+ * against the former per-getter approach, where each getter propagated 
+ * the satellite again. Not run as part of the test suite; run the main 
+ * method with the test classpath:
+ * 
+ * <pre>
+ * SatTrakBenchmark [times]
+ * </pre>
+ */
+public class SatTrakBenchmark {
+	private static final String NAME = "ISS (ZARYA)";
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	private static final long START = 1377700000000L;
+	
+	public static void main(String[] args) throws Exception {
+		int times = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		
+		SatelliteTleSGP4 prop = new SatelliteTleSGP4(NAME, LINE1, LINE2);
+		prop.setShowGroundTrack(false);
+		SatTrak sat = new SatTrak(NAME, LINE1, LINE2);
+		
+		// Warm up before measuring
+		for (int i = 0; i < 3; i++) {
+			perGetter(prop, times);
+			propagate(sat, times);
+		}
+		
+		long count = SatTrak.getPropagationCount();
+		long start = System.nanoTime();
+		double sum = perGetter(prop, times);
+		report("per getter", times, start, 9L * times, sum);
+		
+		start = System.nanoTime();
+		sum = propagate(sat, times);
+		report("propagate", times, start, SatTrak.getPropagationCount() - count, sum);
+	}
+	
+	/*
+	 * The former approach: every getter set the time and propagated the satellite,
+	 * so reading the full state propagated it nine times
+	 */
+	private static double perGetter(SatelliteTleSGP4 prop, int times) {
+		Time julianTime = new Time();
+		double sum = 0;
+		for (int i = 0; i < times; i++) {
+			long time = START + i * 1000L;
+			for (int getter = 0; getter < 9; getter++) {
+				julianTime.set(time);
+				prop.propogate2JulDate(julianTime.getJulianDate());
+				double lat = prop.getLatitude();
+				double lon = prop.getLongitude();
+				double alt = prop.getAltitude();
+				switch (getter) {
+				case 0:  sum += Math.cos(lat) * Math.cos(lon) * alt; break;
+				case 1:  sum += Math.cos(lat) * Math.sin(lon) * alt; break;
+				case 2:  sum += Math.sin(lat) * alt; break;
+				case 3:  sum += lat; break;
+				case 4:  sum += lon; break;
+				case 5:  sum += alt; break;
+				default: sum += prop.getTEMEVelocity()[getter - 6];
+				}
+			}
+		}
+		return sum;
+	}
+	
+	private static double propagate(SatTrak sat, int times) {
+		double sum = 0;
+		for (int i = 0; i < times; i++) {
+			SatelliteState state = sat.propagate(START + i * 1000L);
+			sum += state.getECEFx() + state.getECEFy() + state.getECEFz()
+					+ state.getLatitude() + state.getLongitude() + state.getAltitude()
+					+ state.getTEMEvx() + state.getTEMEvy() + state.getTEMEvz();
+		}
+		return sum;
+	}
+	
+	private static void report(String name, int times, long start, long propagations, double sum) {
+		long nanos = System.nanoTime() - start;
+		// The sum is printed so that the work cannot be optimized away
+		System.out.println(String.format("%-12s %8d states %10d propagations %8.1f ms %8.2f us/state (%g)", 
+				name, times, propagations, nanos / 1e6, nanos / 1e3 / times, sum));
+	}
+}
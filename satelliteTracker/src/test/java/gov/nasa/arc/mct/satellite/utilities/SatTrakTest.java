@@ -0,0 +1,73 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SatTrakTest {
+	private static final String NAME = "ISS (ZARYA)";
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	private static final long TIME = 1377700000000L;
+	
+	@Test
+	public void testGettersShareOnePropagation() {
+		SatTrak sat = new SatTrak(NAME, LINE1, LINE2);
+		Assert.assertNull(sat.getState());
+		
+		long before = SatTrak.getPropagationCount();
+		SatelliteState state = sat.propagate(TIME);
+		Assert.assertEquals(state.getTime(), TIME);
+		Assert.assertSame(sat.getState(), state);
+		
+		Assert.assertEquals(sat.getECEFx(TIME), state.getECEFx());
+		Assert.assertEquals(sat.getECEFy(TIME), state.getECEFy());
+		Assert.assertEquals(sat.getECEFz(TIME), state.getECEFz());
+		Assert.assertEquals(sat.getLatitude(TIME), state.getLatitude());
+		Assert.assertEquals(sat.getLongitude(TIME), state.getLongitude());
+		Assert.assertEquals(sat.getAltitude(TIME), state.getAltitude());
+		Assert.assertEquals(sat.getTEMEvelocity(TIME), state.getTEMEvelocity());
+		Assert.assertEquals(SatTrak.getPropagationCount() - before, 1);
+		
+		sat.propagate(TIME + 1000);
+		Assert.assertEquals(SatTrak.getPropagationCount() - before, 2);
+		Assert.assertEquals(state.getTime(), TIME); // Earlier states do not change
+	}
+	
+	@Test
+	public void testStateIsConsistent() {
+		SatelliteState state = new SatTrak(NAME, LINE1, LINE2).propagate(TIME);
+		double radius = Math.sqrt(state.getECEFx() * state.getECEFx() 
+				+ state.getECEFy() * state.getECEFy() + state.getECEFz() * state.getECEFz());
+		Assert.assertTrue(radius > 6500 && radius < 7000, "ISS orbit radius (km) " + radius);
+		Assert.assertEquals(Math.atan2(state.getECEFy(), state.getECEFx()), state.getLongitude(), 1e-9);
+		
+		double[] velocity = state.getTEMEvelocity();
+		double speed = Math.sqrt(velocity[0] * velocity[0] + velocity[1] * velocity[1] + velocity[2] * velocity[2]);
+		Assert.assertEquals(speed, 7660, 50);
+		Assert.assertEquals(state.getTEMEvx(), velocity[0]);
+		
+		double[] position = state.getTEMEposition();
+		double temeRadius = Math.sqrt(position[0] * position[0] + position[1] * position[1] + position[2] * position[2]);
+		Assert.assertTrue(temeRadius > 6500e3 && temeRadius < 7000e3, "ISS orbit radius (m) " + temeRadius);
+	}
+	
+	@Test
+	public void testFailedPropagationIsNaN() {
+		SatTrak sat = new SatTrak(NAME, LINE1, LINE2);
+		long decayed = TIME + 20L * 365 * 24 * 3600 * 1000; // Long after the ISS elements decay
+		SatelliteState state = sat.propagate(decayed);
+		Assert.assertTrue(Double.isNaN(state.getLatitude()));
+		Assert.assertTrue(Double.isNaN(state.getAltitude()));
+		Assert.assertTrue(Double.isNaN(state.getECEFx()));
+		Assert.assertTrue(Double.isNaN(state.getTEMEvx()));
+		
+		double[][] series = new double[PropagationBatch.ELEMENT_COUNT][1];
+		sat.propagateInto(decayed, series, 0);
+		for (double[] s : series) {
+			Assert.assertTrue(Double.isNaN(s[0]));
+		}
+		
+		// The element set is not spoiled for times SGP4 can still reach
+		Assert.assertEquals(sat.propagate(TIME).getAltitude(), new SatTrak(NAME, LINE1, LINE2).getAltitude(TIME));
+	}
+}
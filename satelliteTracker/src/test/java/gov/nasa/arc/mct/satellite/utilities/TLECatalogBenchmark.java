@@ -0,0 +1,135 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import jsattrak.utilities.TLE;
+
+/**
+ * Compares reading a synthetic catalog of 100,000 objects (four times 
+ * the public catalog) into a TLECatalog with reading it the way 
+ * TLEUtility used to: every line into a list of Strings, then a TLE 
+ * object per record. Reports the time to read, the heap retained by the 
+ * result, the time to build the index (on the first lookup) and the 
+ * time of index lookups. Not run as part of the test 
+ * suite; run the main method with the test classpath:
+ * 
+ * <pre>
+ * TLECatalogBenchmark [objects]
+ * </pre>
+ */
+public class TLECatalogBenchmark {
+	private static final String LINE1 = "1 %05dU 98067A   13241.39990741  .00008176  00000-0  14800-3 0  486";
+	private static final String LINE2 = "2 %05d  51.6499 %8.4f 0004476  12.3451 332.2743 15.5058908284605";
+	private static final int RUNS = 10;
+	
+	public static void main(String[] args) throws Exception {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		String text = catalog(count);
+		System.out.println(String.format(Locale.US, "%d objects, %.1f MB of TLE text", count, text.length() / 1e6));
+		
+		// Warm up before measuring
+		for (int i = 0; i < RUNS; i++) {
+			readLines(text);
+			TLECatalog.read(new StringReader(text));
+		}
+		
+		long linesNanos = Long.MAX_VALUE;
+		long catalogNanos = Long.MAX_VALUE;
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			readLines(text);
+			linesNanos = Math.min(linesNanos, System.nanoTime() - start);
+			start = System.nanoTime();
+			TLECatalog.read(new StringReader(text));
+			catalogNanos = Math.min(catalogNanos, System.nanoTime() - start);
+		}
+		
+		long base = usedHeap();
+		List<TLE> tles = readLines(text);
+		long linesBytes = usedHeap() - base;
+		tles = null;
+		base = usedHeap();
+		TLECatalog catalog = TLECatalog.read(new StringReader(text));
+		long catalogBytes = usedHeap() - base;
+		
+		System.out.println(String.format(Locale.US, "list of lines  %8.1f ms %8.1f MB retained", linesNanos / 1e6, linesBytes / 1e6));
+		System.out.println(String.format(Locale.US, "TLE catalog    %8.1f ms %8.1f MB retained", catalogNanos / 1e6, catalogBytes / 1e6));
+		
+		long start = System.nanoTime();
+		catalog.indexOfCatalogNumber(0);
+		long indexNanos = System.nanoTime() - start;
+		start = System.nanoTime();
+		int found = 0;
+		for (int i = 0; i < count; i++) {
+			found += catalog.indexOfCatalogNumber((int) ((i * 7919L) % count) % 100000) >= 0 ? 1 : 0;
+		}
+		long catalogLookup = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			found += catalog.indicesOfName("object " + (int) ((i * 7919L) % count)).length;
+		}
+		long nameLookup = System.nanoTime() - start;
+		System.out.println(String.format(Locale.US, "index %.1f ms; lookups: catalog number %.2f us, name %.2f us (%d found)", 
+				indexNanos / 1e6, catalogLookup / 1e3 / count, nameLookup / 1e3 / count, found));
+		if (tles != null || catalog.size() != count) {
+			throw new AssertionError();
+		}
+	}
+	
+	/* The way TLEUtility used to read TLE files */
+	private static List<TLE> readLines(String text) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new StringReader(text));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lines.add(line);
+		}
+		List<TLE> tles = new ArrayList<TLE>();
+		for (int i = 0; i < lines.size(); i += 3) {
+			tles.add(new TLE(lines.get(i).trim(), lines.get(i + 1), lines.get(i + 2)));
+		}
+		return tles;
+	}
+	
+	private static String catalog(int count) {
+		StringBuilder text = new StringBuilder(count * 170);
+		for (int i = 0; i < count; i++) {
+			String name = "OBJECT " + i;
+			text.append(name);
+			for (int pad = name.length(); pad < 24; pad++) {
+				text.append(' ');
+			}
+			text.append("\r\n");
+			text.append(checksum(String.format(Locale.US, LINE1, i % 100000))).append("\r\n");
+			text.append(checksum(String.format(Locale.US, LINE2, i % 100000, 360.0 * i / count))).append("\r\n");
+		}
+		return text.toString();
+	}
+	
+	private static String checksum(String line) {
+		int sum = 0;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c >= '0' && c <= '9') {
+				sum += c - '0';
+			} else if (c == '-') {
+				sum += 1;
+			}
+		}
+		return line + (sum % 10);
+	}
+	
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,98 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import jsattrak.utilities.TLE;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TLECatalogTest {
+	private static final String NAME = "ISS (ZARYA)";
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	private static final String HST = "HST\n" +
+			"1 20580U 90037B   13240.85216421  .00001025  00000-0  64767-4 0  2426\n" +
+			"2 20580  28.4687 321.0457 0003272 232.9213 263.4568 15.03139802694285\n";
+	
+	private static TLECatalog read(String text) throws IOException {
+		return TLECatalog.read(new StringReader(text));
+	}
+	
+	@Test
+	public void testBundledFile() throws IOException {
+		// Celestrak's format: names padded to 24 characters, and "\r\n" line ends
+		Reader reader = new InputStreamReader(getClass().getResourceAsStream("stations.txt"), "US-ASCII");
+		TLECatalog catalog = TLECatalog.read(reader);
+		reader.close();
+		
+		Assert.assertEquals(catalog.size(), 3);
+		Assert.assertEquals(catalog.getRejectedCount(), 0);
+		Assert.assertEquals(catalog.getName(0), NAME);
+		Assert.assertEquals(catalog.getCatalogNumber(1), 37820);
+		TLE tle = catalog.getTLE(0);
+		Assert.assertEquals(tle.getSatName(), NAME);
+		Assert.assertEquals(tle.getLine1(), LINE1);
+		Assert.assertEquals(tle.getLine2(), LINE2);
+		
+		List<TLE> list = catalog.asList();
+		Assert.assertEquals(list.size(), 3);
+		Assert.assertEquals(list.get(2).getSatName(), "ZARYA DEBRIS");
+	}
+	
+	@Test
+	public void testChecksums() throws IOException {
+		String badChecksum = LINE2.substring(0, 68) + "4";
+		TLECatalog catalog = read(NAME + "\n" + LINE1 + "\n" + badChecksum + "\n" + HST);
+		Assert.assertEquals(catalog.size(), 1);
+		Assert.assertEquals(catalog.getRejectedCount(), 1);
+		Assert.assertEquals(catalog.getName(0), "HST");
+	}
+	
+	@Test
+	public void testDamagedRecords() throws IOException {
+		String mismatched = LINE2.replace("25544", "25545");
+		mismatched = mismatched.substring(0, 68) + "4";
+		TLECatalog catalog = read(
+				NAME + "\n" + LINE1.substring(0, 40) + "\n" + LINE2 + "\n" + // truncated line 1
+				NAME + "\n" + LINE1 + "\n" + mismatched + "\n" +              // catalog numbers differ
+				"NO TLE\n" +                                                  // name without lines
+				"\n\n" + HST +                                                // blank lines are skipped
+				NAME + "\n" + LINE1 + "\n");                                  // incomplete at the end
+		Assert.assertEquals(catalog.size(), 1);
+		Assert.assertEquals(catalog.getName(0), "HST");
+		Assert.assertEquals(catalog.getRejectedCount(), 4);
+	}
+	
+	@Test
+	public void testIndex() throws IOException {
+		TLECatalog catalog = read(HST + " " + NAME + " \n" + LINE1 + "\n" + LINE2 + "\n" + HST);
+		Assert.assertEquals(catalog.size(), 3);
+		Assert.assertEquals(catalog.getName(1), NAME);
+		Assert.assertEquals(catalog.indexOfCatalogNumber(25544), 1);
+		Assert.assertEquals(catalog.indexOfCatalogNumber(20580), 0);
+		Assert.assertEquals(catalog.indexOfCatalogNumber(20581), -1);
+		
+		Assert.assertTrue(Arrays.equals(catalog.indicesOfName("iss (Zarya) "), new int[] { 1 }));
+		Assert.assertTrue(Arrays.equals(catalog.indicesOfName("HST"), new int[] { 0, 2 }));
+		Assert.assertEquals(catalog.indicesOfName("HS").length, 0);
+	}
+	
+	@Test
+	public void testWrite() throws IOException {
+		TLECatalog catalog = read(HST + NAME + "\n" + LINE1 + "\n" + LINE2 + "\n");
+		StringWriter writer = new StringWriter();
+		catalog.write(writer);
+		Assert.assertEquals(writer.toString(), HST + NAME + "\n" + LINE1 + "\n" + LINE2 + "\n");
+		
+		TLECatalog copy = TLECatalog.of(catalog.asList());
+		Assert.assertEquals(copy.size(), 2);
+		Assert.assertEquals(copy.getTLE(1).getLine2(), LINE2);
+	}
+}
@@ -0,0 +1,173 @@
+package gov.nasa.arc.mct.satellite.utilities;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import jsattrak.utilities.TLE;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TLERepositoryTest {
+	private static final long HOUR = 60 * 60 * 1000L;
+	
+	private File dir;
+	
+	@BeforeMethod
+	public void setup() throws IOException {
+		dir = File.createTempFile("tle", "");
+		dir.delete();
+		dir.mkdir();
+		// The bundled sample files, in Celestrak's format
+		copy("stations.txt");
+		copy("science.txt");
+	}
+	
+	private void copy(String name) throws IOException {
+		InputStream in = getClass().getResourceAsStream(name);
+		File file = new File(dir, name);
+		OutputStream out = new FileOutputStream(file);
+		byte[] buffer = new byte[4096];
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			out.write(buffer, 0, read);
+		}
+		out.close();
+		in.close();
+	}
+	
+	@AfterMethod
+	public void teardown() {
+		delete(dir);
+	}
+	
+	private void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+	
+	@Test
+	public void testRead() throws IOException {
+		TLERepository repository = new TLERepository(dir);
+		List<TLE> tles = repository.getTLEs("stations.txt");
+		Assert.assertEquals(tles.size(), 3);
+		Assert.assertEquals(tles.get(0).getSatName(), "ISS (ZARYA)");
+		Assert.assertEquals(tles.get(0).getLine1(), "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862");
+		Assert.assertEquals(tles.get(2).getLine2().length(), 69);
+		Assert.assertSame(repository.getCatalog("stations.txt"), repository.getCatalog("stations.txt"));
+		Assert.assertNull(repository.getTLEs("geodetic.txt"));
+	}
+	
+	@Test
+	public void testChangedFile() throws IOException {
+		TLERepository repository = new TLERepository(dir);
+		List<TLE> tles = repository.getTLEs("science.txt");
+		
+		Writer writer = new FileWriter(new File(dir, "science.txt"));
+		writer.write(tles.get(0).getSatName() + "\n" + tles.get(0).getLine1() + "\n" + tles.get(0).getLine2() + "\n");
+		writer.close();
+		Assert.assertEquals(repository.getTLEs("science.txt").size(), 1);
+	}
+	
+	@Test
+	public void testIndex() throws IOException {
+		new File(dir, "stations.txt").setLastModified(System.currentTimeMillis() - 2 * HOUR);
+		new File(dir, "science.txt").setLastModified(System.currentTimeMillis() - HOUR);
+		TLERepository repository = new TLERepository(dir);
+		Assert.assertEquals(repository.getByCatalogNumber("20580").getSatName(), "HST");
+		Assert.assertEquals(repository.getByCatalogNumber("037820").getSatName(), "TIANGONG 1");
+		Assert.assertNull(repository.getByCatalogNumber("99999"));
+		
+		// The ISS is in both files, but is only indexed once
+		List<TLE> iss = repository.getByName(" iss (zarya)");
+		Assert.assertEquals(iss.size(), 1);
+		Assert.assertEquals(TLERepository.getCatalogNumber(iss.get(0)), "25544");
+		Assert.assertTrue(repository.getByName("MIR").isEmpty());
+		
+		List<TLE> tles = new ArrayList<TLE>();
+		tles.add(new TLE("MIR", repository.getByCatalogNumber("20580").getLine1(), repository.getByCatalogNumber("20580").getLine2()));
+		repository.store("renamed.txt", tles, null);
+		Assert.assertEquals(repository.getByCatalogNumber("20580").getSatName(), "MIR");
+		Assert.assertEquals(repository.getByName("Mir").size(), 1);
+		
+		new File(dir, "renamed.txt").delete();
+		Assert.assertEquals(repository.getByCatalogNumber("20580").getSatName(), "HST");
+	}
+	
+	@Test
+	public void testFreshness() throws IOException {
+		TLERepository repository = new TLERepository(dir);
+		File file = new File(dir, "stations.txt");
+		file.setLastModified(System.currentTimeMillis() - 2 * HOUR);
+		
+		// Files copied in by hand are as old as the file itself
+		Assert.assertEquals(repository.getLastUpdated("stations.txt"), file.lastModified());
+		Assert.assertNull(repository.getSource("stations.txt"));
+		Assert.assertTrue(repository.isFresh("stations.txt", 3 * HOUR));
+		Assert.assertFalse(repository.isFresh("stations.txt", HOUR));
+		Assert.assertEquals(repository.getLastUpdated("geodetic.txt"), 0);
+		Assert.assertFalse(repository.isFresh("geodetic.txt", HOUR));
+		
+		repository.store("stations.txt", repository.getTLEs("stations.txt"), "http://example.com/stations.txt");
+		Assert.assertTrue(repository.isFresh("stations.txt", HOUR));
+		
+		// The metadata is kept on disk, with the file
+		TLERepository reopened = new TLERepository(dir);
+		Assert.assertEquals(reopened.getSource("stations.txt"), "http://example.com/stations.txt");
+		Assert.assertEquals(reopened.getLastUpdated("stations.txt"), repository.getLastUpdated("stations.txt"));
+		Assert.assertEquals(reopened.getTLEs("stations.txt").size(), 3);
+		Assert.assertEquals(reopened.getTLEs("stations.txt").get(1).getLine2(), repository.getTLEs("stations.txt").get(1).getLine2());
+	}
+	
+	@Test
+	public void testOfflineUtility() throws IOException {
+		new File(dir, "stations.txt").setLastModified(System.currentTimeMillis() - 100 * HOUR);
+		
+		TLEUtility utility = new TLEUtility(new TLERepository(dir), HOUR, true);
+		List<TLE> tles = utility.getTLEs("Space Stations");
+		Assert.assertEquals(tles.size(), 3);
+		Assert.assertEquals(tles.get(1).getSatName(), "TIANGONG 1");
+		Assert.assertTrue(utility.getLastUpdated("Space Stations") > 0);
+		
+		Assert.assertNull(utility.getTLEs("Geodetic"));
+		Assert.assertEquals(utility.getLastUpdated("Geodetic"), 0);
+	}
+	
+	@Test
+	public void testEmptyDownloadKeepsStoredCopy() throws IOException {
+		new File(dir, "stations.txt").setLastModified(System.currentTimeMillis() - 100 * HOUR);
+		TLERepository repository = new TLERepository(dir);
+		
+		TLEUtility utility = new TLEUtility(repository, HOUR, false) {
+			@Override
+			TLECatalog grab_tles(URL tleLoc) throws IOException {
+				return TLECatalog.read(new StringReader("Not a TLE file\n"));
+			}
+		};
+		Assert.assertEquals(utility.getTLEs("Space Stations").size(), 3);
+		Assert.assertEquals(repository.getTLEs("stations.txt").size(), 3);
+		Assert.assertFalse(repository.isFresh("stations.txt", HOUR));
+		Assert.assertNull(utility.getTLEs("Geodetic"));
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testOfflineWithoutRepository() {
+		new TLEUtility(null, HOUR, true);
+	}
+}
@@ -0,0 +1,135 @@
+package gov.nasa.arc.mct.satellite.wizard;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.platform.spi.PersistenceProvider;
+import gov.nasa.arc.mct.platform.spi.Platform;
+import gov.nasa.arc.mct.platform.spi.PlatformAccess;
+import gov.nasa.arc.mct.services.component.ComponentRegistry;
+import gov.nasa.arc.mct.services.internal.component.ComponentInitializer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An in-memory stand-in for the MCT platform, which records each persistence operation. 
+ * Creating a component with a parent adds it to the parent and persists both, as the 
+ * platform's component registry does. Each persistence operation may be given a latency, 
+ * standing in for the database.
+ */
+class PlatformStandIn {
+	private final List<List<AbstractComponent>> persisted = new ArrayList<List<AbstractComponent>>();
+	private final Map<String, AbstractComponent> stored = new HashMap<String, AbstractComponent>();
+	private final long latency;
+	private final ComponentRegistry registry = proxy(ComponentRegistry.class, new RegistryHandler());
+	
+	/**
+	 * @param latency the time taken by each persistence operation, in milliseconds
+	 */
+	PlatformStandIn(long latency) {
+		this.latency = latency;
+		final PersistenceProvider persistence = proxy(PersistenceProvider.class, new PersistenceHandler());
+		new PlatformAccess().setPlatform(proxy(Platform.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if (method.getName().equals("getPersistenceProvider")) return persistence;
+				if (method.getName().equals("getComponentRegistry")) return registry;
+				return defaultValue(method.getReturnType());
+			}
+		}));
+	}
+	
+	ComponentRegistry getRegistry() {
+		return registry;
+	}
+	
+	/**
+	 * Makes the registry's getComponent return the given component for its id, as the registry 
+	 * returns the copy of a component loaded from the database.
+	 * @param component the stored component
+	 * @param id the id given to the component
+	 * @return the component
+	 */
+	synchronized <T extends AbstractComponent> T store(T component, String id) {
+		component.getCapability(ComponentInitializer.class).setId(id);
+		stored.put(id, component);
+		return component;
+	}
+	
+	synchronized AbstractComponent getStored(String id) {
+		return stored.get(id);
+	}
+	
+	/**
+	 * @return the components of each persistence operation, in order
+	 */
+	synchronized List<List<AbstractComponent>> getPersisted() {
+		return new ArrayList<List<AbstractComponent>>(persisted);
+	}
+	
+	synchronized void persist(Collection<AbstractComponent> components) {
+		persisted.add(new ArrayList<AbstractComponent>(components));
+		if (latency > 0) {
+			try {
+				Thread.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+	
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) return Boolean.FALSE;
+		if (type == int.class) return 0;
+		if (type == long.class) return 0L;
+		return null;
+	}
+	
+	private static AbstractComponent create(Class<?> componentClass) throws Exception {
+		AbstractComponent component = (AbstractComponent) componentClass.newInstance();
+		component.getCapability(ComponentInitializer.class).setId(UUID.randomUUID().toString());
+		return component;
+	}
+	
+	private class PersistenceHandler implements InvocationHandler {
+		@SuppressWarnings("unchecked")
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getName().equals("persist")) {
+				persist((Collection<AbstractComponent>) args[0]);
+			}
+			return defaultValue(method.getReturnType());
+		}
+	}
+	
+	private class RegistryHandler implements InvocationHandler {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getName().equals("getComponent")) {
+				return getStored((String) args[0]);
+			}
+			if (method.getName().equals("newInstance") && args.length == 1 && args[0] instanceof String) {
+				return create(Class.forName((String) args[0]));
+			}
+			if (method.getName().equals("newInstance") && args.length == 2 && args[0] instanceof Class) {
+				AbstractComponent child = create((Class<?>) args[0]);
+				AbstractComponent parent = (AbstractComponent) args[1];
+				parent.addDelegateComponent(child);
+				persist(Arrays.asList(parent, child));
+				return child;
+			}
+			return defaultValue(method.getReturnType());
+		}
+	}
+}
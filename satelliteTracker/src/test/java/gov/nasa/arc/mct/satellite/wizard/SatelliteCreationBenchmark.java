@@ -0,0 +1,109 @@
+package gov.nasa.arc.mct.satellite.wizard;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.satellite.component.CoordinateComponent;
+import gov.nasa.arc.mct.satellite.component.CoordinateModel;
+import gov.nasa.arc.mct.satellite.component.SatelliteComponent;
+import gov.nasa.arc.mct.satellite.component.VectorComponent;
+import gov.nasa.arc.mct.services.component.ComponentRegistry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import jsattrak.utilities.TLE;
+
+/**
+ * Compares the time taken to create the components of 10, 100 and 1000 
+ * satellites with {@link SatelliteCreationWorker}, which persists them 
+ * all at once, against the former approach, where each component was 
+ * created under its parent and then saved. Persistence is an in-memory 
+ * stand-in whose operations each take a fixed latency, standing in for 
+ * the database (and, in MCT, for the refresh of the views of the 
+ * components persisted). Not run as part of the test suite; run the 
+ * main method with the test classpath:
+ * 
+ * <pre>
+ * SatelliteCreationBenchmark [latency (ms)] [satellites...]
+ * </pre>
+ */
+public class SatelliteCreationBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		long latency = args.length > 0 ? Long.parseLong(args[0]) : 1;
+		int[] counts = { 10, 100, 1000 };
+		if (args.length > 1) {
+			counts = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++) {
+				counts[i - 1] = Integer.parseInt(args[i]);
+			}
+		}
+		
+		// Warm up before measuring
+		perComponent(new PlatformStandIn(0), tles(100));
+		batched(new PlatformStandIn(0), tles(100));
+		
+		System.out.println(String.format("%d ms per persistence operation", latency));
+		for (int count : counts) {
+			List<TLE> tles = tles(count);
+			PlatformStandIn before = new PlatformStandIn(latency);
+			long beforeNanos = perComponent(before, tles);
+			PlatformStandIn after = new PlatformStandIn(latency);
+			long afterNanos = batched(after, tles);
+			System.out.println(String.format(Locale.US, 
+					"%5d satellites  per component %9.1f ms %6d persists   batched %7.1f ms %d persist   speed-up %.0f",
+					count, beforeNanos / 1e6, before.getPersisted().size(), 
+					afterNanos / 1e6, after.getPersisted().size(), (double) beforeNanos / afterNanos));
+		}
+	}
+	
+	private static List<TLE> tles(int count) {
+		return SatelliteCreationWorkerTest.tles(count);
+	}
+	
+	private static long batched(PlatformStandIn platform, List<TLE> tles) {
+		SatelliteComponent parent = platform.store(new SatelliteComponent(), "parent");
+		long start = System.nanoTime();
+		new SatelliteCreationWorker(platform.getRegistry(), parent, tles).doInBackground();
+		return System.nanoTime() - start;
+	}
+	
+	/*
+	 * The former approach: each component was created under its parent, which persisted both, and was 
+	 * then saved again once its name and model were set
+	 */
+	private static long perComponent(PlatformStandIn platform, List<TLE> tles) {
+		ComponentRegistry registry = platform.getRegistry();
+		AbstractComponent rootComponent = new SatelliteComponent();
+		String[] axisName = { "X", "Y", "Z" };
+		
+		long start = System.nanoTime();
+		for (TLE currentTLE : tles) {
+			SatelliteComponent satComponent = registry.newInstance(SatelliteComponent.class, rootComponent);
+			satComponent.setDisplayName(currentTLE.getSatName());
+			satComponent.setOrbitalParameters(currentTLE);
+			save(platform, satComponent);
+			
+			for (boolean velocity : new boolean[] { false, true }) {
+				String name = velocity ? "Velocity (in m/s)" : "Position (in ECEF)";
+				
+				VectorComponent vectorComponent = registry.newInstance(VectorComponent.class, satComponent);
+				vectorComponent.setDisplayName( name );
+				save(platform, vectorComponent);
+				
+				for (int axis = 0; axis < 3; axis++) {
+					CoordinateComponent coordinateComponent = registry.newInstance(CoordinateComponent.class, vectorComponent);
+					coordinateComponent.setDisplayName(name + " " + axisName[axis]);
+					coordinateComponent.setModel(new CoordinateModel(axis, velocity, satComponent.getComponentId(), currentTLE));
+					save(platform, coordinateComponent);
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	/* What AbstractComponent.save does in MCT */
+	private static void save(PlatformStandIn platform, AbstractComponent component) {
+		platform.persist(Collections.singleton(component));
+	}
+}
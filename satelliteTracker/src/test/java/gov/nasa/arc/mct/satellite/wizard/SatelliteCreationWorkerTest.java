@@ -0,0 +1,133 @@
+package gov.nasa.arc.mct.satellite.wizard;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.satellite.component.CoordinateComponent;
+import gov.nasa.arc.mct.satellite.component.SatelliteComponent;
+import gov.nasa.arc.mct.satellite.component.VectorComponent;
+import gov.nasa.arc.mct.services.internal.component.ComponentInitializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import jsattrak.utilities.TLE;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SatelliteCreationWorkerTest {
+	private static final String LINE1 = "1 25544U 98067A   13241.39990741  .00008176  00000-0  14800-3 0  4862";
+	private static final String LINE2 = "2 25544  51.6499 105.5504 0004476  12.3451 332.2743 15.50589082846053";
+	
+	static List<TLE> tles(int count) {
+		List<TLE> tles = new ArrayList<TLE>(count);
+		for (int i = 0; i < count; i++) {
+			tles.add(new TLE("SAT " + i, LINE1, LINE2));
+		}
+		return tles;
+	}
+	
+	/* A parent which counts the updates to its children */
+	private static class Parent extends AbstractComponent {
+		private int updates = 0;
+		
+		@Override
+		protected void addDelegateComponentsCallback(Collection<AbstractComponent> childComponents) {
+			updates++;
+		}
+	}
+	
+	@Test
+	public void testOnePersist() throws Exception {
+		PlatformStandIn platform = new PlatformStandIn(0);
+		Parent live = new Parent();
+		Parent parent = platform.store(new Parent(), "parent");
+		live.getCapability(ComponentInitializer.class).setId("parent");
+		List<AbstractComponent> satellites = new SatelliteCreationWorker(platform.getRegistry(), live, tles(3)).doInBackground();
+		
+		Assert.assertEquals(satellites.size(), 3);
+		Assert.assertEquals(parent.getComponents(), satellites);
+		Assert.assertEquals(parent.updates, 1);
+		Assert.assertTrue(live.getComponents().isEmpty()); // Only the registry's copy is changed
+		Assert.assertEquals(live.updates, 0);
+		
+		List<List<AbstractComponent>> persisted = platform.getPersisted();
+		Assert.assertEquals(persisted.size(), 1);
+		Assert.assertEquals(persisted.get(0).size(), 3 * SatelliteCreationWorker.COMPONENTS_PER_SATELLITE + 1);
+		Assert.assertEquals(new HashSet<AbstractComponent>(persisted.get(0)).size(), persisted.get(0).size());
+		Assert.assertTrue(persisted.get(0).contains(parent));
+	}
+	
+	@Test
+	public void testComponents() throws Exception {
+		PlatformStandIn platform = new PlatformStandIn(0);
+		Parent live = new Parent();
+		Parent parent = platform.store(new Parent(), "parent");
+		live.getCapability(ComponentInitializer.class).setId("parent");
+		new SatelliteCreationWorker(platform.getRegistry(), live, tles(1)).doInBackground();
+		
+		SatelliteComponent satellite = (SatelliteComponent) parent.getComponents().get(0);
+		Assert.assertEquals(satellite.getDisplayName(), "SAT 0");
+		Assert.assertEquals(satellite.getComponents().size(), 2);
+		for (AbstractComponent vector : satellite.getComponents()) {
+			Assert.assertTrue(vector instanceof VectorComponent);
+			Assert.assertEquals(vector.getComponents().size(), 3);
+			for (AbstractComponent coordinate : vector.getComponents()) {
+				Assert.assertTrue(coordinate instanceof CoordinateComponent);
+				Assert.assertTrue(((CoordinateComponent) coordinate).getSubscriptionId().startsWith(CoordinateComponent.FEED_KEY_ID + ":SAT 0"));
+			}
+		}
+		Assert.assertEquals(satellite.getComponents().get(0).getDisplayName(), "Position (in ECEF)");
+		Assert.assertTrue(((CoordinateComponent) satellite.getComponents().get(1).getComponents().get(2)).getSubscriptionId().endsWith("vz"));
+	}
+	
+	@Test
+	public void testCancelled() throws Exception {
+		PlatformStandIn platform = new PlatformStandIn(0);
+		Parent live = new Parent();
+		Parent parent = platform.store(new Parent(), "parent");
+		live.getCapability(ComponentInitializer.class).setId("parent");
+		SatelliteCreationWorker worker = new SatelliteCreationWorker(platform.getRegistry(), live, tles(3));
+		worker.cancel(false);
+		Assert.assertTrue(worker.doInBackground().isEmpty());
+		Assert.assertTrue(parent.getComponents().isEmpty());
+		Assert.assertTrue(platform.getPersisted().isEmpty());
+		
+		// Nor is the collection saved
+		Parent collection = new Parent();
+		worker = new SatelliteCreationWorker(platform.getRegistry(), live, collection, tles(3));
+		worker.cancel(false);
+		Assert.assertTrue(worker.doInBackground().isEmpty());
+		Assert.assertTrue(parent.getComponents().isEmpty());
+		Assert.assertTrue(collection.getComponents().isEmpty());
+		Assert.assertTrue(platform.getPersisted().isEmpty());
+	}
+	
+	@Test
+	public void testCollection() throws Exception {
+		PlatformStandIn platform = new PlatformStandIn(0);
+		Parent live = new Parent();
+		Parent parent = platform.store(new Parent(), "parent");
+		live.getCapability(ComponentInitializer.class).setId("parent");
+		Parent collection = new Parent();
+		List<AbstractComponent> satellites = new SatelliteCreationWorker(platform.getRegistry(), live, collection, tles(2)).doInBackground();
+		
+		Assert.assertEquals(collection.getComponents(), satellites);
+		Assert.assertEquals(parent.getComponents(), Collections.singletonList(collection));
+		Assert.assertTrue(live.getComponents().isEmpty());
+		
+		// The collection is saved with the satellites, in one persistence operation
+		List<List<AbstractComponent>> persisted = platform.getPersisted();
+		Assert.assertEquals(persisted.size(), 1);
+		Assert.assertEquals(persisted.get(0).size(), 2 * SatelliteCreationWorker.COMPONENTS_PER_SATELLITE + 2);
+		Assert.assertTrue(persisted.get(0).contains(collection));
+		Assert.assertTrue(persisted.get(0).contains(parent));
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testParentNotInRegistry() {
+		new SatelliteCreationWorker(new PlatformStandIn(0).getRegistry(), new Parent(), tles(1));
+	}
+}
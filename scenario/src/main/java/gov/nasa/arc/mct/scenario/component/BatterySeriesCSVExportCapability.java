@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.scenario.component;
+
+import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
+import gov.nasa.arc.mct.scenario.util.Battery;
+import gov.nasa.arc.mct.scenario.util.CostType;
+
+import java.util.ResourceBundle;
+import java.util.TreeSet;
+
+/**
+ * Expresses the simulated battery state of charge of a timeline as 
+ * CSV, sampled at a fixed resolution from the start to the end of 
+ * the timeline.
+ * 
+ * The battery is simulated as in the Timeline's graph, but the power 
+ * cost is integrated exactly between samples: each interval is split 
+ * at the power cost's change times, where it steps. 
+ * 
+ * Rows are computed as they are requested, so memory use does not 
+ * depend on the number of rows. Requesting rows in order (as CSV 
+ * export does) costs one step of simulation per row; requesting 
+ * an earlier row restarts the simulation.
+ */
+public class BatterySeriesCSVExportCapability implements CSVExportCapability {
+	private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("Bundle");
+	private static final double MILLIS_PER_MINUTE = 60000.0;
+	
+	private final TimelineComponent timeline;
+	private final long resolution;
+	
+	private CostFunctionCapability power;
+	private long[] changeTimes; // sorted, distinct change times of power
+	private long end;
+	private int rowCount = -1;
+	
+	// Simulation state
+	private Battery battery;
+	private int row;
+	private long time;
+	private int nextChange;
+	private double currentPower;
+	
+	/**
+	 * Express the battery state of charge of the specified timeline in CSV format.
+	 * @param timeline the timeline whose battery should be simulated
+	 * @param resolution the time between samples, in milliseconds
+	 */
+	public BatterySeriesCSVExportCapability(TimelineComponent timeline, long resolution) {
+		if (timeline == null || resolution <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.timeline = timeline;
+		this.resolution = resolution;
+	}
+	
+	private synchronized void initialize() {
+		if (rowCount >= 0) {
+			return;
+		}
+		for (CostFunctionCapability cost : timeline.getCapabilities(CostFunctionCapability.class)) {
+			if (cost.getCostType() == CostType.POWER) {
+				power = cost;
+			}
+		}
+		TreeSet<Long> times = new TreeSet<Long>();
+		if (power != null) {
+			times.addAll(power.getChangeTimes());
+		}
+		changeTimes = new long[times.size()];
+		int i = 0;
+		for (Long t : times) {
+			changeTimes[i++] = t;
+		}
+		
+		end = Math.max(timeline.getStart(), timeline.getEnd());
+		long samples = (end - timeline.getStart() + resolution - 1) / resolution + 1;
+		if (samples > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Resolution too fine for duration of timeline");
+		}
+		rowCount = (int) samples;
+	}
+	
+	private void reset() {
+		battery = new Battery(timeline.getModel());
+		row = 0;
+		time = timeline.getStart();
+		nextChange = 0;
+		currentPower = 0.0;
+		passChangeTimes();
+	}
+	
+	/**
+	 * Update power to reflect any steps at or before the current time.
+	 */
+	private void passChangeTimes() {
+		if (nextChange < changeTimes.length && changeTimes[nextChange] <= time) {
+			while (nextChange < changeTimes.length && changeTimes[nextChange] <= time) {
+				nextChange++;
+			}
+			currentPower = power.getValue(time);
+		}
+	}
+	
+	/**
+	 * Advance the simulation to the next row's time, integrating 
+	 * power over each interval in which it is constant.
+	 */
+	private void advance() {
+		long target = Math.min(end, timeline.getStart() + (long) (row + 1) * resolution);
+		while (time < target) {
+			long next = nextChange < changeTimes.length ? 
+					Math.min(target, changeTimes[nextChange]) : target;
+			battery.setStateOfCharge(currentPower, (next - time) / MILLIS_PER_MINUTE);
+			time = next;
+			passChangeTimes();
+		}
+		row++;
+	}
+
+	@Override
+	public synchronized String[] getValue(int row) {
+		initialize();
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (battery == null || row < this.row) {
+			reset();
+		}
+		while (this.row < row) {
+			advance();
+		}
+		return new String[] {
+				Long.toString(time),
+				Double.toString(currentPower),
+				Double.toString(battery.getStateOfCharge())
+		};
+	}
+
+	@Override
+	public String[] getHeaders() {
+		return new String[] {
+				BUNDLE.getString("battery_csv_time"),
+				BUNDLE.getString("battery_csv_power"),
+				BUNDLE.getString("battery_csv_state")
+		};
+	}
+
+	@Override
+	public int getColumnCount() {
+		return 3;
+	}
+
+	@Override
+	public int getRowCount() {
+		initialize();
+		return rowCount;
+	}
+}
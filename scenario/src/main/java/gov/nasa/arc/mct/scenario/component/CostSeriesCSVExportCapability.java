@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.scenario.component;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.TreeSet;
+
+/**
+ * Expresses the cost functions of a component (and its children) as 
+ * CSV, one row per step of each cost. 
+ * 
+ * Costs are step functions, so each cost is evaluated only at its 
+ * change times; each row gives a cost's exact value from the start 
+ * of a step until (but not including) the start of the next. The 
+ * last step of each cost has no end, as its value holds thereafter.
+ * 
+ * Cost functions are gathered when rows are first requested, 
+ * rather than at construction, so that this work happens on the 
+ * thread performing the export.
+ */
+public class CostSeriesCSVExportCapability implements CSVExportCapability {
+	private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("Bundle");
+	
+	private static final String[] HEADERS = {
+		BUNDLE.getString("cost_csv_cost"),
+		BUNDLE.getString("cost_csv_units"),
+		BUNDLE.getString("cost_csv_start"),
+		BUNDLE.getString("cost_csv_end"),
+		BUNDLE.getString("cost_csv_value")
+	};
+	
+	private final AbstractComponent component;
+	
+	private List<CostFunctionCapability> costs;
+	private long[][] changeTimes; // sorted, distinct change times of each cost
+	private int[] firstRow; // first row of each cost, plus total row count
+	
+	/**
+	 * Express the costs of the specified component in CSV format.
+	 * @param component the component whose costs should be exported
+	 */
+	public CostSeriesCSVExportCapability(AbstractComponent component) {
+		this.component = component;
+	}
+	
+	private synchronized void initialize() {
+		if (costs != null) {
+			return;
+		}
+		List<CostFunctionCapability> found = new ArrayList<CostFunctionCapability>(
+				component.getCapabilities(CostFunctionCapability.class));
+		Collections.sort(found, new Comparator<CostFunctionCapability>() {
+			@Override
+			public int compare(CostFunctionCapability a, CostFunctionCapability b) {
+				return a.getName().compareTo(b.getName());
+			}			
+		});
+		
+		changeTimes = new long[found.size()][];
+		firstRow = new int[found.size() + 1];
+		for (int i = 0; i < found.size(); i++) {
+			TreeSet<Long> times = new TreeSet<Long>(found.get(i).getChangeTimes());
+			changeTimes[i] = new long[times.size()];
+			int j = 0;
+			for (Long t : times) {
+				changeTimes[i][j++] = t;
+			}
+			firstRow[i + 1] = firstRow[i] + times.size();
+		}
+		costs = found;
+	}
+	
+	@Override
+	public String[] getValue(int row) {
+		initialize();
+		
+		// Find the cost to which this row belongs
+		int index = Arrays.binarySearch(firstRow, row);
+		int cost = index >= 0 ? index : -index - 2;
+		while (firstRow[cost + 1] == row) {
+			cost++; // Skip costs with no change times
+		}
+		
+		CostFunctionCapability function = costs.get(cost);
+		long[] times = changeTimes[cost];
+		int step = row - firstRow[cost];
+		long start = times[step];
+		return new String[] {
+				function.getName(),
+				function.getInstantaniousUnits(),
+				Long.toString(start),
+				step + 1 < times.length ? Long.toString(times[step + 1]) : null,
+				Double.toString(function.getValue(start))
+		};
+	}
+
+	@Override
+	public String[] getHeaders() {
+		return HEADERS.clone();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return HEADERS.length;
+	}
+
+	@Override
+	public int getRowCount() {
+		initialize();
+		return firstRow[firstRow.length - 1];
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Mission Control Technologies, Copyright (c) 2009-2012, United States Government
+ * as represented by the Administrator of the National Aeronautics and Space 
+ * Administration. All rights reserved.
+ *
+ * The MCT platform is licensed under the Apache License, Version 2.0 (the 
+ * "License"); you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ * http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT 
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the 
+ * License for the specific language governing permissions and limitations under 
+ * the License.
+ *
+ * MCT includes source code licensed under additional open source licenses. See 
+ * the MCT Open Source Licenses file included with this distribution or the About 
+ * MCT Licenses dialog available at runtime from the MCT Help menu for additional 
+ * information. 
+ *******************************************************************************/
+package gov.nasa.arc.mct.scenario.component;
+
+import gov.nasa.arc.mct.components.AbstractComponent;
+import gov.nasa.arc.mct.csvexport.actions.CSVExportWorker;
+import gov.nasa.arc.mct.csvexport.actions.CSVExporter;
+import gov.nasa.arc.mct.csvexport.actions.CSVFileChooser;
+import gov.nasa.arc.mct.csvexport.actions.ExportCSVAction;
+import gov.nasa.arc.mct.csvexport.component.CSVExportCapability;
+import gov.nasa.arc.mct.gui.ActionContext;
+
+import java.awt.Component;
+import java.awt.GridLayout;
+import java.util.Collection;
+import java.util.ResourceBundle;
+
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+/**
+ * Represents the "Export > Cost Time Series CSV" action, used to output 
+ * the cost functions of a scenario, timeline or activity (or the 
+ * simulated battery state of charge of a timeline) as CSV files.
+ * 
+ * As with other export actions, implementations for the This and 
+ * Objects menus are provided as static inner classes.
+ */
+public abstract class ExportCostsCSVAction extends ExportCSVAction {
+	private static final long serialVersionUID = -3424905187310342296L;
+	private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("Bundle");
+	
+	/** default time between battery samples, matching the Timeline's graph */
+	private static final long DEFAULT_RESOLUTION_MINUTES = 5;
+	private static final long MILLIS_PER_MINUTE = 60000;
+
+	public ExportCostsCSVAction() {
+		super(BUNDLE.getString("cost_csv_action"));
+	}
+	
+	@Override
+	protected void export(Component c, Collection<AbstractComponent> targets) {
+		AbstractComponent target = targets.iterator().next();
+		CSVExportCapability capability = new CostSeriesCSVExportCapability(target);
+		
+		// Timelines with a battery model may also export the battery
+		if (target instanceof TimelineComponent && 
+				!((TimelineComponent) target).getModel().isUninitialized()) {
+			JComboBox seriesBox = new JComboBox(new String[] {
+					BUNDLE.getString("cost_csv_series_costs"),
+					BUNDLE.getString("cost_csv_series_battery")
+			});
+			JTextField resolutionField = new JTextField(String.valueOf(DEFAULT_RESOLUTION_MINUTES));
+			JPanel panel = new JPanel(new GridLayout(2, 2, 4, 4));
+			panel.add(new JLabel(BUNDLE.getString("cost_csv_series")));
+			panel.add(seriesBox);
+			panel.add(new JLabel(BUNDLE.getString("cost_csv_resolution")));
+			panel.add(resolutionField);
+			
+			while (true) {
+				int option = JOptionPane.showConfirmDialog(c, panel, 
+						BUNDLE.getString("cost_csv_title"), 
+						JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+				if (option != JOptionPane.OK_OPTION) {
+					return;
+				}
+				if (seriesBox.getSelectedIndex() == 0) {
+					break;
+				}
+				double minutes = parseMinutes(resolutionField.getText());
+				if (minutes > 0) {
+					capability = new BatterySeriesCSVExportCapability((TimelineComponent) target, 
+							Math.max(1, Math.round(minutes * MILLIS_PER_MINUTE)));
+					break;
+				}
+				JOptionPane.showMessageDialog(c, 
+						BUNDLE.getString("cost_csv_invalid_resolution"), 
+						BUNDLE.getString("cost_csv_title"), 
+						JOptionPane.WARNING_MESSAGE);
+			}
+		}
+		
+		CSVFileChooser fileChooser = selectFile(c);
+		if (fileChooser != null) {
+			new CSVExporter(c, new CSVExportWorker(capability, 
+					fileChooser.getSelectedFile(), fileChooser.getOutputOptions())).export();
+		}
+	}
+	
+	private double parseMinutes(String text) {
+		try {
+			return Double.parseDouble(text.trim());
+		} catch (NumberFormatException nfe) {
+			return 0;
+		}
+	}
+	
+	/**
+	 * Restrict targets to a single component which may have costs.
+	 */
+	private static Collection<AbstractComponent> filter(Collection<AbstractComponent> targets) {
+		return targets != null && targets.size() == 1 && 
+				targets.iterator().next() instanceof CostFunctionComponent ?
+				targets : null;
+	}
+
+	/**
+	 * Export costs as CSV, from the This menu.
+	 */
+	public static class ThisExportCostsCSVAction extends ExportCostsCSVAction {
+		private static final long serialVersionUID = 4779221420916367016L;
+
+		@Override
+		protected Collection<AbstractComponent> 
+				getTargets(ActionContext context) {
+			return filter(getWindowTarget(context));
+		}
+		
+	}
+
+	/**
+	 * Export costs as CSV, from the Objects menu.
+	 */
+	public static class ObjectsExportCostsCSVAction extends ExportCostsCSVAction {
+		private static final long serialVersionUID = -8113839411560725012L;
+
+		@Override
+		protected Collection<AbstractComponent> 
+				getTargets(ActionContext context) {
+			return filter(getSelectedTargets(context));
+		}
+		
+	}
+
+}
@@ -23,8 +23,12 @@ package gov.nasa.arc.mct.scenario.component;
 
 import gov.nasa.arc.mct.components.AbstractComponent;
 import gov.nasa.arc.mct.gui.CustomVisualControl;
+import gov.nasa.arc.mct.gui.MenuItemInfo;
+import gov.nasa.arc.mct.gui.MenuItemInfo.MenuItemType;
 import gov.nasa.arc.mct.platform.spi.PlatformAccess;
 import gov.nasa.arc.mct.policy.PolicyInfo;
+import gov.nasa.arc.mct.scenario.component.ExportCostsCSVAction.ObjectsExportCostsCSVAction;
+import gov.nasa.arc.mct.scenario.component.ExportCostsCSVAction.ThisExportCostsCSVAction;
 import gov.nasa.arc.mct.scenario.policy.RepositoryLinkPolicy;
 import gov.nasa.arc.mct.scenario.policy.RepositoryRemovalPolicy;
 import gov.nasa.arc.mct.scenario.policy.ScenarioContainmentPolicy;
@@ -204,6 +208,17 @@ public class ScenarioPluginProvider extends AbstractComponentProvider {
 				repositoryPolicy
 				);
 	}
+	
+	@Override
+	public Collection<MenuItemInfo> getMenuItemInfos() {
+		return Arrays.asList(
+				new MenuItemInfo("/objects/export.ext",
+						"EXPORT_OBJECTS_COSTS_CSV_ACTION", 
+						MenuItemType.NORMAL, ObjectsExportCostsCSVAction.class),
+				new MenuItemInfo("/this/export.ext",
+						"EXPORT_THIS_COSTS_CSV_ACTION", 
+						MenuItemType.NORMAL, ThisExportCostsCSVAction.class));
+	}
 
 	@Override
 	public Collection<AbstractComponent> getBootstrapComponents() {
@@ -0,0 +1,67 @@
+package gov.nasa.arc.mct.scenario.component;
+
+import gov.nasa.arc.mct.scenario.util.CostType;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BatterySeriesCSVExportCapabilityTest {
+	private static final long MINUTE = 60000;
+	
+	// Expected time, power and state of charge of each row, sampled every 
+	// 10 minutes until the end at 35 minutes, for a 100 Wh battery drawing 
+	// 60 W from 0, 120 W from 15 and nothing from 30 minutes:
+	// 60 W for 10 min uses 10 Wh, i.e. 10% of capacity.
+	private static final long[] TIMES = { 0, 10 * MINUTE, 20 * MINUTE, 30 * MINUTE, 35 * MINUTE };
+	private static final double[] POWER = { 60, 60, 120, 0, 0 };
+	private static final double[] STATE = { 100, 90, 75, 55, 55 };
+	
+	@Test
+	public void testStateAtSampleTimes() {
+		BatterySeriesCSVExportCapability csv = 
+				new BatterySeriesCSVExportCapability(timeline(), 10 * MINUTE);
+		Assert.assertEquals(csv.getColumnCount(), 3);
+		Assert.assertEquals(csv.getHeaders().length, 3);
+		Assert.assertEquals(csv.getRowCount(), TIMES.length);
+		for (int row = 0; row < TIMES.length; row++) {
+			assertRow(csv.getValue(row), row);
+		}
+		
+		// Requesting an earlier row restarts the simulation
+		assertRow(csv.getValue(1), 1);
+		assertRow(csv.getValue(4), 4);
+	}
+	
+	@Test (expectedExceptions = IndexOutOfBoundsException.class)
+	public void testRowOutOfRange() {
+		new BatterySeriesCSVExportCapability(timeline(), 10 * MINUTE).getValue(TIMES.length);
+	}
+	
+	private void assertRow(String[] values, int row) {
+		Assert.assertEquals(Long.parseLong(values[0]), TIMES[row]);
+		Assert.assertEquals(Double.parseDouble(values[1]), POWER[row], 1e-9);
+		Assert.assertEquals(Double.parseDouble(values[2]), STATE[row], 1e-9);
+	}
+	
+	private TimelineComponent timeline() {
+		final List<CostFunctionCapability> costs = Collections.<CostFunctionCapability>singletonList(
+				new StepCostFunction("Power", CostType.POWER, 
+						new long[] { 0, 15 * MINUTE, 30 * MINUTE }, new double[] { 60, 120, 0 }));
+		TimelineComponent timeline = new TimelineComponent() {
+			@Override
+			public List<CostFunctionCapability> getInternalCostFunctions() {
+				return costs;
+			}
+			
+			@Override
+			public long getEnd() {
+				return 35 * MINUTE;
+			}
+		};
+		timeline.setBatteryModel(100, 100);
+		return timeline;
+	}
+}
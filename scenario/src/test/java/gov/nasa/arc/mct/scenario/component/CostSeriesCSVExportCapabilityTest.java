@@ -0,0 +1,53 @@
+package gov.nasa.arc.mct.scenario.component;
+
+import gov.nasa.arc.mct.scenario.util.CostType;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CostSeriesCSVExportCapabilityTest {
+	
+	@Test
+	public void testStepsAtChangeTimes() {
+		final List<CostFunctionCapability> costs = Arrays.<CostFunctionCapability>asList(
+				new StepCostFunction("Power", CostType.POWER, 
+						new long[] { 0, 2000 }, new double[] { 10, 25 }),
+				new StepCostFunction("Idle", CostType.POWER, 
+						new long[0], new double[0]),
+				new StepCostFunction("Comm", CostType.COMM, 
+						new long[] { 0, 1000, 5000 }, new double[] { 1, 3, 0 }));
+		CostFunctionComponent component = new CostFunctionComponent() {
+			@Override
+			public List<CostFunctionCapability> getInternalCostFunctions() {
+				return costs;
+			}			
+		};
+		
+		CostSeriesCSVExportCapability csv = new CostSeriesCSVExportCapability(component);
+		Assert.assertEquals(csv.getColumnCount(), 5);
+		Assert.assertEquals(csv.getHeaders().length, 5);
+		
+		// Costs are in name order; "Idle" has no steps, so no rows
+		Assert.assertEquals(csv.getRowCount(), 5);
+		assertRow(csv.getValue(0), "Comm", "Kbps", "0", "1000", "1.0");
+		assertRow(csv.getValue(1), "Comm", "Kbps", "1000", "5000", "3.0");
+		assertRow(csv.getValue(2), "Comm", "Kbps", "5000", null, "0.0");
+		assertRow(csv.getValue(3), "Power", "Watts", "0", "2000", "10.0");
+		assertRow(csv.getValue(4), "Power", "Watts", "2000", null, "25.0");
+	}
+	
+	@Test
+	public void testNoCosts() {
+		CostSeriesCSVExportCapability csv = new CostSeriesCSVExportCapability(
+				new CostFunctionComponent() {});
+		Assert.assertEquals(csv.getRowCount(), 0);
+	}
+	
+	private void assertRow(String[] actual, String... expected) {
+		Assert.assertTrue(Arrays.equals(actual, expected), 
+				Arrays.toString(actual) + " != " + Arrays.toString(expected));
+	}
+}
@@ -0,0 +1,69 @@
+package gov.nasa.arc.mct.scenario.component;
+
+import gov.nasa.arc.mct.scenario.util.CostType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A cost function which steps to a new value at each of its change 
+ * times, for tests. Before the first change time, the cost is zero.
+ */
+public class StepCostFunction implements CostFunctionCapability {
+	private final String name;
+	private final CostType type;
+	private final long[] times;
+	private final double[] values;
+	
+	/**
+	 * @param name the name of the cost
+	 * @param type the type of the cost
+	 * @param times the change times, in ascending order
+	 * @param values the value from each change time onwards
+	 */
+	public StepCostFunction(String name, CostType type, long[] times, double[] values) {
+		this.name = name;
+		this.type = type;
+		this.times = times;
+		this.values = values;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String getInstantaniousUnits() {
+		return type.getInstantaniousUnits();
+	}
+
+	@Override
+	public String getAccumulativeUnits() {
+		return type.getAccumulativeUnits();
+	}
+
+	@Override
+	public double getValue(long time) {
+		double value = 0;
+		for (int i = 0; i < times.length && times[i] <= time; i++) {
+			value = values[i];
+		}
+		return value;
+	}
+
+	@Override
+	public Collection<Long> getChangeTimes() {
+		List<Long> changeTimes = new ArrayList<Long>();
+		for (long t : times) {
+			changeTimes.add(t);
+		}
+		return changeTimes;
+	}
+
+	@Override
+	public CostType getCostType() {
+		return type;
+	}
+}